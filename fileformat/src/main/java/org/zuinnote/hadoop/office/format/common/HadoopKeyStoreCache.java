@@ -0,0 +1,127 @@
+/**
+* Copyright 2017 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common;
+
+import java.io.IOException;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.UnrecoverableEntryException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.security.spec.InvalidKeySpecException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Keeps keystores, passwords read from keystores and certificates of truststores, so that readers processing several documents (e.g. many small
+ * documents combined in one split) open each keystore only once. It can be used by several threads.
+ *
+ */
+public class HadoopKeyStoreCache {
+	private static final Log LOG = LogFactory.getLog(HadoopKeyStoreCache.class.getName());
+	private Map<String, HadoopKeyStoreManager> keyStores;
+	private Map<String, String> passwords;
+	private Map<String, Set<X509Certificate>> certificates;
+
+	public HadoopKeyStoreCache() {
+		this.keyStores = new HashMap<>();
+		this.passwords = new HashMap<>();
+		this.certificates = new HashMap<>();
+	}
+
+	/**
+	 * Opens a keystore or returns it, if it has been opened before
+	 * 
+	 * @param conf             Configuration (needed for HadoopFileReader)
+	 * @param path             path to key store
+	 * @param keyStoreType     type of the keystore
+	 * @param keyStorePassword password of the keystore
+	 * @return keystore
+	 * @throws IOException
+	 * @throws NoSuchAlgorithmException
+	 * @throws CertificateException
+	 * @throws KeyStoreException
+	 */
+	public synchronized HadoopKeyStoreManager getKeyStore(Configuration conf, Path path, String keyStoreType, String keyStorePassword)
+			throws IOException, NoSuchAlgorithmException, CertificateException, KeyStoreException {
+		String key = keyStoreType + ":" + path;
+		HadoopKeyStoreManager result = this.keyStores.get(key);
+		if (result == null) {
+			LOG.debug("Opening keystore \"" + path + "\"");
+			result = new HadoopKeyStoreManager(conf);
+			result.openKeyStore(path, keyStoreType, keyStorePassword);
+			this.keyStores.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads a password from a keystore or returns it, if it has been read before
+	 * 
+	 * @param conf             Configuration (needed for HadoopFileReader)
+	 * @param path             path to key store
+	 * @param keyStoreType     type of the keystore
+	 * @param keyStorePassword password of the keystore
+	 * @param alias            alias of the password
+	 * @return password
+	 * @throws IOException
+	 * @throws NoSuchAlgorithmException
+	 * @throws CertificateException
+	 * @throws KeyStoreException
+	 * @throws UnrecoverableEntryException
+	 * @throws InvalidKeySpecException
+	 */
+	public synchronized String getPassword(Configuration conf, Path path, String keyStoreType, String keyStorePassword, String alias)
+			throws IOException, NoSuchAlgorithmException, CertificateException, KeyStoreException, UnrecoverableEntryException,
+			InvalidKeySpecException {
+		String key = keyStoreType + ":" + path + ":" + alias;
+		if (!this.passwords.containsKey(key)) {
+			this.passwords.put(key, this.getKeyStore(conf, path, keyStoreType, keyStorePassword).getPassword(alias, keyStorePassword));
+		}
+		return this.passwords.get(key);
+	}
+
+	/**
+	 * Reads all certificates of a truststore or returns them, if they have been read before
+	 * 
+	 * @param conf               Configuration (needed for HadoopFileReader)
+	 * @param path               path to truststore
+	 * @param trustStoreType     type of the truststore
+	 * @param trustStorePassword password of the truststore
+	 * @return certificates
+	 * @throws IOException
+	 * @throws NoSuchAlgorithmException
+	 * @throws CertificateException
+	 * @throws KeyStoreException
+	 */
+	public synchronized Set<X509Certificate> getAllX509Certificates(Configuration conf, Path path, String trustStoreType, String trustStorePassword)
+			throws IOException, NoSuchAlgorithmException, CertificateException, KeyStoreException {
+		String key = trustStoreType + ":" + path;
+		Set<X509Certificate> result = this.certificates.get(key);
+		if (result == null) {
+			result = this.getKeyStore(conf, path, trustStoreType, trustStorePassword).getAllX509Certificates();
+			this.certificates.put(key, result);
+		}
+		return result;
+	}
+
+}
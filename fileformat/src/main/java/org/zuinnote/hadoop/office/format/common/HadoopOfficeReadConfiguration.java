@@ -30,6 +30,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.hadoop.conf.Configuration;
+import org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelRowIndex;
 
 /**
  * read the configuration for reading office files from a Hadoop configuration
@@ -60,7 +61,27 @@ public class HadoopOfficeReadConfiguration implements Serializable {
 	public static final String CONF_LOWFOOTPRINT = "hadoopoffice.read.lowFootprint";
 	public static final String CONF_LOWFOOTPRINT_PARSER = "hadoopoffice.read.lowFootprint.parser";
 	public static final String CONF_LOWFOOTPRINT_STAX_CACHE = "hadoopoffice.read.lowFootprint.stax.sst.cache";
+	public static final String CONF_LOWFOOTPRINT_STAX_CACHE_BYTES = "hadoopoffice.read.lowFootprint.stax.sst.cache.bytes";
+	public static final String CONF_LOWFOOTPRINT_STAX_CACHE_HEAPFRACTION = "hadoopoffice.read.lowFootprint.stax.sst.cache.heapFraction";
 	public static final String CONF_LOWFOOTPRINT_STAX_COMPRESS = "hadoopoffice.read.lowFootprint.stax.sst.compress";
+	public static final String CONF_LOWFOOTPRINT_STAX_COMPRESS_CODEC = "hadoopoffice.read.lowFootprint.stax.sst.compress.codec";
+	public static final String CONF_LOWFOOTPRINT_STREAMING = "hadoopoffice.read.lowFootprint.streaming";
+	public static final String CONF_LOWFOOTPRINT_STREAMING_QUEUE = "hadoopoffice.read.lowFootprint.streaming.queue";
+	public static final String CONF_SHEETROWRANGE = "hadoopoffice.read.rowRange";
+	public static final String CONF_LIMIT = "hadoopoffice.read.limit";
+	public static final String CONF_FILTER = "hadoopoffice.read.filter";
+	public static final String CONF_COLUMNS = "hadoopoffice.read.columns";
+	public static final String CONF_PIPELINE = "hadoopoffice.read.pipeline";
+	public static final String CONF_PIPELINE_QUEUE = "hadoopoffice.read.pipeline.queue";
+	public static final String CONF_PIPELINE_READAHEAD = "hadoopoffice.read.pipeline.readahead";
+	public static final String CONF_LOWFOOTPRINT_STAX_PARALLEL_THREADS = "hadoopoffice.read.lowFootprint.stax.parallel.threads";
+	public static final String CONF_LOWFOOTPRINT_STAX_PARALLEL_ORDERED = "hadoopoffice.read.lowFootprint.stax.parallel.ordered";
+	public static final String CONF_PREFETCH_BYTES = "hadoopoffice.read.prefetch.bytes";
+	public static final String CONF_SPLIT_ROWINDEX = "hadoopoffice.read.split.rowindex";
+	public static final String CONF_SPLIT_ROWINDEX_ROWS = "hadoopoffice.read.split.rowindex.rows";
+	public static final String CONF_SPLIT_SHEETS = "hadoopoffice.read.split.sheets";
+	public static final String CONF_SPLIT_SHEETS_GROUP = "hadoopoffice.read.split.sheets.group";
+	public static final String CONF_RAWVALUES = "hadoopoffice.read.rawValues";
 	public static final String CONF_CRYKEYSTOREFILE = "hadoopoffice.read.security.crypt.credential.keystore.file";
 	public static final String CONF_CRYKEYSTORETYPE = "hadoopoffice.read.security.crypt.credential.keystore.type";
 	public static final String CONF_CRYKEYSTOREPW = "hadoopoffice.read.security.crypt.credential.keystore.password";
@@ -105,7 +126,27 @@ public class HadoopOfficeReadConfiguration implements Serializable {
 	public static final String DEFAULT_CRYKEYSTOREFILE = "";
 	public static final String DEFAULT_LOWFOOTPRINT_PARSER = HadoopOfficeReadConfiguration.OPTION_LOWFOOTPRINT_PARSER_STAX;
 	public static final int DEFAULT_LOWFOOTPRINT_STAX_CACHE = 10000;
+	public static final long DEFAULT_LOWFOOTPRINT_STAX_CACHE_BYTES = 0L;
+	public static final float DEFAULT_LOWFOOTPRINT_STAX_CACHE_HEAPFRACTION = 0.0f;
 	public static final boolean DEFAULT_LOWFOOTPRINT_STAX_COMPRESS = false;
+	public static final String DEFAULT_LOWFOOTPRINT_STAX_COMPRESS_CODEC = "deflate";
+	public static final boolean DEFAULT_LOWFOOTPRINT_STREAMING = false;
+	public static final int DEFAULT_LOWFOOTPRINT_STREAMING_QUEUE = 1000;
+	public static final String DEFAULT_SHEETROWRANGE = "";
+	public static final long DEFAULT_LIMIT = 0L;
+	public static final String DEFAULT_FILTER = "";
+	public static final String DEFAULT_COLUMNS = "";
+	public static final boolean DEFAULT_PIPELINE = false;
+	public static final int DEFAULT_PIPELINE_QUEUE = 1000;
+	public static final long DEFAULT_PIPELINE_READAHEAD = 1048576L;
+	public static final int DEFAULT_LOWFOOTPRINT_STAX_PARALLEL_THREADS = 1;
+	public static final boolean DEFAULT_LOWFOOTPRINT_STAX_PARALLEL_ORDERED = true;
+	public static final long DEFAULT_PREFETCH_BYTES = 0L;
+	public static final boolean DEFAULT_SPLIT_ROWINDEX = true;
+	public static final int DEFAULT_SPLIT_ROWINDEX_ROWS = 100000;
+	public static final boolean DEFAULT_SPLIT_SHEETS = false;
+	public static final int DEFAULT_SPLIT_SHEETS_GROUP = 1;
+	public static final boolean DEFAULT_RAWVALUES = false;
 	
 	public static final String DEFAULT_CRYKEYSTORETYPE = "JCEKS";
 	public static final String DEFAULT_CRYKEYSTOREPW = "";
@@ -173,7 +214,29 @@ public class HadoopOfficeReadConfiguration implements Serializable {
 	private SimpleDateFormat simpleDateTimeFormat;
 	private DecimalFormat simpleDecimalFormat;
 	private int sstCacheSize;
+	private long sstCacheBytes;
+	private float sstCacheHeapFraction;
 	private boolean compressSST;
+	private String compressSSTCodec;
+	private boolean lowFootprintStreaming;
+	private int lowFootprintStreamingQueueSize;
+	private String sheetRowRange;
+	private long limit;
+	private String filter;
+	private String columns;
+	private boolean pipeline;
+	private int pipelineQueueSize;
+	private long pipelineReadAhead;
+	private int lowFootprintStaxParallelThreads;
+	private boolean lowFootprintStaxParallelOrdered;
+	private long prefetchBytes;
+	private boolean splitRowIndex;
+	private int splitRowIndexRows;
+	private transient MSExcelRowIndex.RowRange rowRange;
+	private String[] workbookHeader;
+	private boolean splitSheets;
+	private int splitSheetsGroupSize;
+	private boolean rawValues;
 	private boolean emulateCSV;
 	/*
 	 * Create an empty configuration
@@ -242,7 +305,27 @@ public class HadoopOfficeReadConfiguration implements Serializable {
 		
 		this.setX509CertificateChain(new HashSet<>());
 		this.setSstCacheSize(HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STAX_CACHE);
+		this.setSstCacheBytes(HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STAX_CACHE_BYTES);
+		this.setSstCacheHeapFraction(HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STAX_CACHE_HEAPFRACTION);
 		this.setCompressSST(HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STAX_COMPRESS);
+		this.setCompressSSTCodec(HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STAX_COMPRESS_CODEC);
+		this.setLowFootprintStreaming(HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STREAMING);
+		this.setLowFootprintStreamingQueueSize(HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STREAMING_QUEUE);
+		this.setSheetRowRange(HadoopOfficeReadConfiguration.DEFAULT_SHEETROWRANGE);
+		this.setLimit(HadoopOfficeReadConfiguration.DEFAULT_LIMIT);
+		this.setFilter(HadoopOfficeReadConfiguration.DEFAULT_FILTER);
+		this.setColumns(HadoopOfficeReadConfiguration.DEFAULT_COLUMNS);
+		this.setPipeline(HadoopOfficeReadConfiguration.DEFAULT_PIPELINE);
+		this.setPipelineQueueSize(HadoopOfficeReadConfiguration.DEFAULT_PIPELINE_QUEUE);
+		this.setPipelineReadAhead(HadoopOfficeReadConfiguration.DEFAULT_PIPELINE_READAHEAD);
+		this.setLowFootprintStaxParallelThreads(HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STAX_PARALLEL_THREADS);
+		this.setLowFootprintStaxParallelOrdered(HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STAX_PARALLEL_ORDERED);
+		this.setPrefetchBytes(HadoopOfficeReadConfiguration.DEFAULT_PREFETCH_BYTES);
+		this.setSplitRowIndex(HadoopOfficeReadConfiguration.DEFAULT_SPLIT_ROWINDEX);
+		this.setSplitRowIndexRows(HadoopOfficeReadConfiguration.DEFAULT_SPLIT_ROWINDEX_ROWS);
+		this.setSplitSheets(HadoopOfficeReadConfiguration.DEFAULT_SPLIT_SHEETS);
+		this.setSplitSheetsGroupSize(HadoopOfficeReadConfiguration.DEFAULT_SPLIT_SHEETS_GROUP);
+		this.setRawValues(HadoopOfficeReadConfiguration.DEFAULT_RAWVALUES);
 	
 	}
 
@@ -293,7 +376,27 @@ public class HadoopOfficeReadConfiguration implements Serializable {
 	 *            the path)</li>
 	 *            <li> hadoopoffice.read.lowfootprint.parser: Only valid for new Excel files. Parser to be used for low footprint: stax or sax. SAX consumes more memory, but can be faster in case of encrypted files. Default: stax</li>
 	 *            <li> hadoopoffice.read.lowFootprint.stax.sst.cache: if stax parser is used a cache size can be defined for the so-called sharedstringtable (an Excel concept where it stores all unique strings, this can save space, but is not very memory efficient for large files). The cache can be -1 (everything in-memory), 0 (nothing in memory), n{@literal >}0 (n entries in cache). All that does not fit in the cache will be swapped to disk and read from disk when needed. This might be slow (especially if source file is encrypted, because the sst table is stored in this case on disk as well encrypted). Generally the strategy should be that if you have a lot of entries repeating at various positions in the document then you should have a rather large cache in-memory. If you have entries that appear in a sequential manner and ideally do not repeat then you can have a smaller cache. You may need to experiment in case of large Excel files if you want to save memory. Alternatively, provide enough memory and put everything in-memory (can be potentially large!)
-	 *            <li> hadoopoffice.read.lowFootprint.stax.sst.compress: compress (gzip) swapped Excel sst items to disk (if stax parser is used). true if should be compressed, false if not. Note: Compression can significantly reduce performance. Default:False
+	 *            <li> hadoopoffice.read.lowFootprint.stax.sst.cache.bytes: if {@literal >}0 the cache of the sharedstringtable is bounded by the estimated number of bytes of the cached strings instead of the number of entries (hadoopoffice.read.lowFootprint.stax.sst.cache must be {@literal >}0 to enable the cache). This is more predictable if the length of the strings varies a lot. Default: 0 (bound by number of entries)</li>
+	 *            <li> hadoopoffice.read.lowFootprint.stax.sst.cache.heapFraction: if {@literal >}0 and hadoopoffice.read.lowFootprint.stax.sst.cache.bytes is not set then the byte bound of the cache is this fraction (e.g. 0.2) of the free heap memory when the workbook is opened. Default: 0.0</li>
+	 *            <li> hadoopoffice.read.lowFootprint.stax.sst.compress: compress swapped Excel sst items to disk (if stax parser is used). true if should be compressed, false if not. The items are compressed in independent blocks, so that an item can be read without decompressing the items before it. Note: Compression can reduce performance. Default:False
+	 *            <li> hadoopoffice.read.lowFootprint.stax.sst.compress.codec: codec for compressing swapped Excel sst items: deflate, lz4 (pure Java, faster but compresses less) or the class name of an implementation of org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.codec.BlockCodec. Default: deflate</li>
+	 *            <li> hadoopoffice.read.lowFootprint.streaming: if sax parser is used for new Excel files (.xlsx) or for old Excel files (.xls) then the selected sheets are parsed in a background thread and handed over row by row to the reader instead of keeping the full workbook in-memory. Memory is then bounded by hadoopoffice.read.lowFootprint.streaming.queue. Default: false</li>
+	 *            <li> hadoopoffice.read.lowFootprint.streaming.queue: maximum number of parsed rows waiting to be read if hadoopoffice.read.lowFootprint.streaming is true. Default: 1000</li>
+	 *            <li> hadoopoffice.read.rowRange: only the given range of rows is read from each sheet in the format first,last with row numbers as in Excel (starting with 1, both included), e.g. 2,100. Either end can be left out (e.g. 2, or ,100). Leading rows (lines to skip and the header) are always read. Parsers stop reading a sheet once the range is exhausted. Default: "" (all rows). See SpreadSheetRowRange</li>
+	 *            <li> hadoopoffice.read.limit: maximum number of rows returned from a document (after lines to skip, the header and rows not matching hadoopoffice.read.filter). Parsers stop reading the document and close it once the limit is reached, so that previews or sampling (e.g. for schema inference) only parse the first rows. Default: 0 (no limit)</li>
+	 *            <li> hadoopoffice.read.filter: only rows matching the given predicate are returned, e.g. status='OPEN' AND (2 &gt;= 10 OR amount &lt; 1.5). A predicate compares a column (index starting with 0 or header name) with a string or number literal (=, !=, &lt;&gt;, &lt;, &lt;=, &gt;, &gt;=) and predicates can be combined with AND/OR. The low footprint parsers stop reading a row as soon as it cannot match anymore. Leading rows (lines to skip and the header) are not filtered. Default: "" (all rows). See SpreadSheetRowFilter</li>
+	 *            <li> hadoopoffice.read.columns: comma-separated list of the columns to read. Numbers are column indices (starting with 0), anything else is a column name of the header (hadoopoffice.read.header.read). The cells of other columns are skipped by the parser (no shared string lookup, style resolution or formatting) and returned as null, the positions of the selected cells in a row do not change. An empty list reads all columns. Default: ""</li>
+	 *            <li> hadoopoffice.read.pipeline: if true then a document is read by a pipeline of threads connected by bounded buffers: one thread decompresses the file (only for files compressed with a Hadoop codec, e.g. gz, bz2), one thread parses it (incl. formatting the cells) and the thread of the record reader converts the rows. The time spent by each stage is logged when the reader is closed and reported as task counters (group HadoopOffice Pipeline). Default: false</li>
+	 *            <li> hadoopoffice.read.pipeline.queue: maximum number of parsed rows waiting to be read if hadoopoffice.read.pipeline is true. Default: 1000</li>
+	 *            <li> hadoopoffice.read.pipeline.readahead: maximum number of decompressed bytes waiting to be parsed if hadoopoffice.read.pipeline is true. Default: 1048576</li>
+	 *            <li> hadoopoffice.read.lowFootprint.stax.parallel.threads: number of threads parsing the sheets of a new Excel file (.xlsx) concurrently in low footprint mode with the StAX parser. The threads share the shared string table and the styles. Rows are kept in a bounded queue per sheet (hadoopoffice.read.lowFootprint.streaming.queue). 1 parses the sheets one after the other in the thread reading the rows. Default: 1</li>
+	 *            <li> hadoopoffice.read.lowFootprint.stax.parallel.ordered: if true then the rows of sheets parsed concurrently (hadoopoffice.read.lowFootprint.stax.parallel.threads) are returned in the order of the sheets, if false then they are returned as soon as they are parsed, i.e. rows of different sheets are mixed (the order of the rows of a sheet is kept). The header and lines to skip of the first sheet are always read first. Default: true</li>
+	 *            <li> hadoopoffice.read.prefetch.bytes: readers of several files (e.g. ExcelCombineFileInputFormat) open the following files in a background thread (fetching, decrypting and preparing them for parsing) while the rows of the current file are read. Only as many files are opened in advance as their total size does not exceed the given number of bytes. 0 disables prefetching. Default: 0</li>
+	 *            <li> hadoopoffice.read.split.rowindex: if true and hadoopoffice.read.split.sheets is true then the sheets of a new Excel file (.xlsx) that has a row index (sidecar file with the suffix .hoidx created by org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelRowIndex) are split further into ranges of rows. Only supported by the low footprint parser in StAX mode (hadoopoffice.read.lowFootprint=true, hadoopoffice.read.lowFootprint.parser=stax) and for at most 16 lines to skip and header lines. Default: true</li>
+	 *            <li> hadoopoffice.read.split.rowindex.rows: approximate number of rows per split if sheets are split into ranges of rows (hadoopoffice.read.split.rowindex). The ranges start and end at the checkpoints of the row index, so at least the number of rows between two checkpoints is used. Default: 100000</li>
+	 *            <li> hadoopoffice.read.split.sheets: if true then an uncompressed workbook with several sheets is split into one input split per group of sheets, so that the sheets are parsed in parallel. The sheets are determined from the index of the workbook (list of sheets) and restricted to hadoopoffice.read.sheets, if defined. The splits return the same rows as reading the workbook in one split: the header (hadoopoffice.read.header.read) and the lines to skip (hadoopoffice.read.sheet.skiplines.num) only apply to the first sheet of the workbook. Splits of later sheets skip lines and the header as configured for all sheets (hadoopoffice.read.sheet.skiplines.allsheets, hadoopoffice.read.header.skipheaderinallsheets) and read the header from the first sheet separately, if needed. Not supported for encrypted new Excel files (.xlsx), they are read in one split. Note: the list of sheets is read when the splits are calculated, i.e. on the client submitting the job, which opens every workbook of the input once (old Excel files (.xls) are decrypted for this, if needed). This can take considerable time for many files. Default: false</li>
+	 *            <li> hadoopoffice.read.split.sheets.group: number of sheets per split if hadoopoffice.read.split.sheets is true. Default: 1</li>
+	 *            <li> hadoopoffice.read.rawValues: if true then the parsers set the raw value of each cell in addition to the formatted value (cf. SpreadSheetCellDAO.getRawType): the number, the serial date, the boolean or the index of the shared string. ExcelConverterSimpleSpreadSheetCellDAO converts raw values directly instead of parsing the formatted values. Default: false</li>
 	 *            <li> hadoopoffice.read.security.crypt.credential.keystore.alias: alias
 	 *            for the password if different from filename</li>
 	 *            <li> hadoopoffice.read.security.crypt.credential.keystore.type:
@@ -406,7 +509,27 @@ public class HadoopOfficeReadConfiguration implements Serializable {
 	    
 	    this.setX509CertificateChain(new HashSet<>());
 	    this.setSstCacheSize(conf.getInt(HadoopOfficeReadConfiguration.CONF_LOWFOOTPRINT_STAX_CACHE, HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STAX_CACHE));
+	    this.setSstCacheBytes(conf.getLong(HadoopOfficeReadConfiguration.CONF_LOWFOOTPRINT_STAX_CACHE_BYTES, HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STAX_CACHE_BYTES));
+	    this.setSstCacheHeapFraction(conf.getFloat(HadoopOfficeReadConfiguration.CONF_LOWFOOTPRINT_STAX_CACHE_HEAPFRACTION, HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STAX_CACHE_HEAPFRACTION));
 	    this.setCompressSST(conf.getBoolean(HadoopOfficeReadConfiguration.CONF_LOWFOOTPRINT_STAX_COMPRESS, HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STAX_COMPRESS));
+	    this.setCompressSSTCodec(conf.get(HadoopOfficeReadConfiguration.CONF_LOWFOOTPRINT_STAX_COMPRESS_CODEC, HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STAX_COMPRESS_CODEC));
+	    this.setLowFootprintStreaming(conf.getBoolean(HadoopOfficeReadConfiguration.CONF_LOWFOOTPRINT_STREAMING, HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STREAMING));
+	    this.setLowFootprintStreamingQueueSize(conf.getInt(HadoopOfficeReadConfiguration.CONF_LOWFOOTPRINT_STREAMING_QUEUE, HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STREAMING_QUEUE));
+	    this.setSheetRowRange(conf.get(HadoopOfficeReadConfiguration.CONF_SHEETROWRANGE, HadoopOfficeReadConfiguration.DEFAULT_SHEETROWRANGE));
+	    this.setLimit(conf.getLong(HadoopOfficeReadConfiguration.CONF_LIMIT, HadoopOfficeReadConfiguration.DEFAULT_LIMIT));
+	    this.setFilter(conf.get(HadoopOfficeReadConfiguration.CONF_FILTER, HadoopOfficeReadConfiguration.DEFAULT_FILTER));
+	    this.setColumns(conf.get(HadoopOfficeReadConfiguration.CONF_COLUMNS, HadoopOfficeReadConfiguration.DEFAULT_COLUMNS));
+	    this.setPipeline(conf.getBoolean(HadoopOfficeReadConfiguration.CONF_PIPELINE, HadoopOfficeReadConfiguration.DEFAULT_PIPELINE));
+	    this.setPipelineQueueSize(conf.getInt(HadoopOfficeReadConfiguration.CONF_PIPELINE_QUEUE, HadoopOfficeReadConfiguration.DEFAULT_PIPELINE_QUEUE));
+	    this.setPipelineReadAhead(conf.getLong(HadoopOfficeReadConfiguration.CONF_PIPELINE_READAHEAD, HadoopOfficeReadConfiguration.DEFAULT_PIPELINE_READAHEAD));
+	    this.setLowFootprintStaxParallelThreads(conf.getInt(HadoopOfficeReadConfiguration.CONF_LOWFOOTPRINT_STAX_PARALLEL_THREADS, HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STAX_PARALLEL_THREADS));
+	    this.setLowFootprintStaxParallelOrdered(conf.getBoolean(HadoopOfficeReadConfiguration.CONF_LOWFOOTPRINT_STAX_PARALLEL_ORDERED, HadoopOfficeReadConfiguration.DEFAULT_LOWFOOTPRINT_STAX_PARALLEL_ORDERED));
+	    this.setPrefetchBytes(conf.getLong(HadoopOfficeReadConfiguration.CONF_PREFETCH_BYTES, HadoopOfficeReadConfiguration.DEFAULT_PREFETCH_BYTES));
+	    this.setSplitRowIndex(conf.getBoolean(HadoopOfficeReadConfiguration.CONF_SPLIT_ROWINDEX, HadoopOfficeReadConfiguration.DEFAULT_SPLIT_ROWINDEX));
+	    this.setSplitRowIndexRows(conf.getInt(HadoopOfficeReadConfiguration.CONF_SPLIT_ROWINDEX_ROWS, HadoopOfficeReadConfiguration.DEFAULT_SPLIT_ROWINDEX_ROWS));
+	    this.setSplitSheets(conf.getBoolean(HadoopOfficeReadConfiguration.CONF_SPLIT_SHEETS, HadoopOfficeReadConfiguration.DEFAULT_SPLIT_SHEETS));
+	    this.setSplitSheetsGroupSize(conf.getInt(HadoopOfficeReadConfiguration.CONF_SPLIT_SHEETS_GROUP, HadoopOfficeReadConfiguration.DEFAULT_SPLIT_SHEETS_GROUP));
+	    this.setRawValues(conf.getBoolean(HadoopOfficeReadConfiguration.CONF_RAWVALUES, HadoopOfficeReadConfiguration.DEFAULT_RAWVALUES));
 	}
 
 	/*
@@ -774,6 +897,22 @@ public class HadoopOfficeReadConfiguration implements Serializable {
 		this.sstCacheSize = sstCacheSize;
 	}
 
+	public long getSstCacheBytes() {
+		return sstCacheBytes;
+	}
+
+	public void setSstCacheBytes(long sstCacheBytes) {
+		this.sstCacheBytes = sstCacheBytes;
+	}
+
+	public float getSstCacheHeapFraction() {
+		return sstCacheHeapFraction;
+	}
+
+	public void setSstCacheHeapFraction(float sstCacheHeapFraction) {
+		this.sstCacheHeapFraction = sstCacheHeapFraction;
+	}
+
 	public boolean getCompressSST() {
 		return compressSST;
 	}
@@ -782,6 +921,190 @@ public class HadoopOfficeReadConfiguration implements Serializable {
 		this.compressSST = compressSST;
 	}
 
+	public String getCompressSSTCodec() {
+		return compressSSTCodec;
+	}
+
+	public void setCompressSSTCodec(String compressSSTCodec) {
+		this.compressSSTCodec = compressSSTCodec;
+	}
+
+	public boolean getLowFootprintStreaming() {
+		return lowFootprintStreaming;
+	}
+
+	public void setLowFootprintStreaming(boolean lowFootprintStreaming) {
+		this.lowFootprintStreaming = lowFootprintStreaming;
+	}
+
+	public int getLowFootprintStreamingQueueSize() {
+		return lowFootprintStreamingQueueSize;
+	}
+
+	public void setLowFootprintStreamingQueueSize(int lowFootprintStreamingQueueSize) {
+		this.lowFootprintStreamingQueueSize = lowFootprintStreamingQueueSize;
+	}
+
+	public String getSheetRowRange() {
+		return sheetRowRange;
+	}
+
+	public void setSheetRowRange(String sheetRowRange) {
+		this.sheetRowRange = sheetRowRange;
+	}
+
+	public long getLimit() {
+		return limit;
+	}
+
+	public void setLimit(long limit) {
+		this.limit = limit;
+	}
+
+	public String getFilter() {
+		return filter;
+	}
+
+	public void setFilter(String filter) {
+		this.filter = filter;
+	}
+
+	public String getColumns() {
+		return columns;
+	}
+
+	public void setColumns(String columns) {
+		this.columns = columns;
+	}
+
+	public boolean getPipeline() {
+		return pipeline;
+	}
+
+	public void setPipeline(boolean pipeline) {
+		this.pipeline = pipeline;
+	}
+
+	public int getPipelineQueueSize() {
+		return pipelineQueueSize;
+	}
+
+	public void setPipelineQueueSize(int pipelineQueueSize) {
+		this.pipelineQueueSize = pipelineQueueSize;
+	}
+
+	public long getPipelineReadAhead() {
+		return pipelineReadAhead;
+	}
+
+	public void setPipelineReadAhead(long pipelineReadAhead) {
+		this.pipelineReadAhead = pipelineReadAhead;
+	}
+
+	public int getLowFootprintStaxParallelThreads() {
+		return lowFootprintStaxParallelThreads;
+	}
+
+	public void setLowFootprintStaxParallelThreads(int lowFootprintStaxParallelThreads) {
+		this.lowFootprintStaxParallelThreads = lowFootprintStaxParallelThreads;
+	}
+
+	public boolean getLowFootprintStaxParallelOrdered() {
+		return lowFootprintStaxParallelOrdered;
+	}
+
+	public void setLowFootprintStaxParallelOrdered(boolean lowFootprintStaxParallelOrdered) {
+		this.lowFootprintStaxParallelOrdered = lowFootprintStaxParallelOrdered;
+	}
+
+	public long getPrefetchBytes() {
+		return prefetchBytes;
+	}
+
+	public void setPrefetchBytes(long prefetchBytes) {
+		this.prefetchBytes = prefetchBytes;
+	}
+
+	public boolean getSplitRowIndex() {
+		return splitRowIndex;
+	}
+
+	public void setSplitRowIndex(boolean splitRowIndex) {
+		this.splitRowIndex = splitRowIndex;
+	}
+
+	public int getSplitRowIndexRows() {
+		return splitRowIndexRows;
+	}
+
+	public void setSplitRowIndexRows(int splitRowIndexRows) {
+		this.splitRowIndexRows = splitRowIndexRows;
+	}
+
+	/**
+	 *
+	 * @return range of rows of a sheet to read instead of the complete file, null if the complete file is read. It is not configured, but set by the
+	 *         record reader for splits containing a range of rows
+	 */
+	public MSExcelRowIndex.RowRange getRowRange() {
+		return rowRange;
+	}
+
+	public void setRowRange(MSExcelRowIndex.RowRange rowRange) {
+		this.rowRange = rowRange;
+	}
+
+	/**
+	 *
+	 * @return header read from the first sheet of the workbook by another reader, null if the header is read by the parser (hadoopoffice.read.header.read)
+	 *         or not read at all. It is not configured, but set by the record reader for splits that do not contain the first sheet of the workbook
+	 */
+	public String[] getWorkbookHeader() {
+		return workbookHeader;
+	}
+
+	public void setWorkbookHeader(String[] workbookHeader) {
+		this.workbookHeader = workbookHeader;
+	}
+
+	/**
+	 * Configures reading a split that does not start with the first sheet of the workbook (cf. hadoopoffice.read.split.sheets), so that it returns the same
+	 * rows as reading the complete workbook: the first sheet of the split is treated like all following sheets, i.e. lines are only skipped if
+	 * hadoopoffice.read.sheet.skiplines.allsheets is true, the header is only skipped if hadoopoffice.read.header.skipheaderinallsheets is true and no
+	 * header is read. The header of the first sheet of the workbook can be provided by setWorkbookHeader
+	 *
+	 */
+	public void skipLeadingRowsAsInFollowingSheets() {
+		this.skipLines = (this.skipLinesAllSheets ? this.skipLines : 0) + (this.ignoreHeaderInAllSheets ? 1 : 0);
+		this.skipLinesAllSheets = true;
+		this.ignoreHeaderInAllSheets = false;
+		this.readHeader = false;
+	}
+
+	public boolean getSplitSheets() {
+		return splitSheets;
+	}
+
+	public void setSplitSheets(boolean splitSheets) {
+		this.splitSheets = splitSheets;
+	}
+
+	public int getSplitSheetsGroupSize() {
+		return splitSheetsGroupSize;
+	}
+
+	public void setSplitSheetsGroupSize(int splitSheetsGroupSize) {
+		this.splitSheetsGroupSize = splitSheetsGroupSize;
+	}
+
+	public boolean getRawValues() {
+		return rawValues;
+	}
+
+	public void setRawValues(boolean rawValues) {
+		this.rawValues = rawValues;
+	}
+
 
 
 	/**
@@ -21,6 +21,8 @@ import java.io.IOException;
 import java.io.InputStream;
 
 import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
 
 
 import org.apache.commons.logging.LogFactory;
@@ -29,6 +31,8 @@ import org.apache.commons.logging.Log;
 import org.zuinnote.hadoop.office.format.common.parser.*;
 import org.zuinnote.hadoop.office.format.common.parser.msexcel.MSExcelLowFootprintParser;
 import org.zuinnote.hadoop.office.format.common.parser.msexcel.MSExcelParser;
+import org.zuinnote.hadoop.office.format.common.util.PipelineStageStatistics;
+import org.zuinnote.hadoop.office.format.common.util.RowPipeline;
 
 /*
 *
@@ -42,9 +46,13 @@ private static final Log LOG = LogFactory.getLog(OfficeReader.class.getName());
 private static final String FORMAT_EXCEL = "ms-excel";
 private HadoopOfficeReadConfiguration hocr;
 private InputStream in;
+private long length;
 private String[] sheetsArray=null;
 
 private OfficeReaderParserInterface currentParser=null;
+private RowPipeline rowPipeline=null;
+private PipelineStageStatistics parseStatistics=new PipelineStageStatistics("parse");
+private PipelineStageStatistics consumeStatistics=new PipelineStageStatistics("convert");
 
 	/*
 	* Creates a new OfficeReaderObject for a given content and Mime Type (cf. https://tika.apache.org/1.13/formats.html#Full_list_of_Supported_Formats)
@@ -55,8 +63,22 @@ private OfficeReaderParserInterface currentParser=null;
 	*/
 
 	public OfficeReader(InputStream in, HadoopOfficeReadConfiguration hocr) {
+		this(in, -1L, hocr);
+	}
+
+	/*
+	* Creates a new OfficeReaderObject for a given content of known length. If the stream is seekable (e.g. FSDataInputStream) then the low footprint parser can read new Excel files (.xlsx) by random access
+	*
+	* @param in InputStream holding the document
+	* @param length length of the document starting from the current position of the stream, -1 if unknown
+	* @param hocr HadoopOfficeConfiguration object for reading files
+	* 	
+	*/
+
+	public OfficeReader(InputStream in, long length, HadoopOfficeReadConfiguration hocr) {
 		LOG.debug("Initializing OfficeReader");
 		this.in=in;
+		this.length=length;
 		this.hocr=hocr;
 		if ((hocr.getSheets()!=null) && !("".equals(hocr.getSheets()))){
 			this.sheetsArray=hocr.getSheets().split(":");
@@ -82,7 +104,10 @@ private OfficeReaderParserInterface currentParser=null;
 				} else {
 					// use low footprint parser
 					LOG.info("Using low footprint API to parse Excel file");
-					this.currentParser=new MSExcelLowFootprintParser(this.hocr, this.sheetsArray);
+					MSExcelLowFootprintParser lowFootprintParser=new MSExcelLowFootprintParser(this.hocr, this.sheetsArray);
+					this.currentParser=lowFootprintParser;
+					lowFootprintParser.parse(this.in, this.length);
+					return;
 				}
 			} else {
 			// if it cannot be detected throw an exception
@@ -118,6 +143,7 @@ private OfficeReaderParserInterface currentParser=null;
 	* Get next row
 	*
 	* @return column values for given row as Objects (use instanceof or similar to determine the type), null if no further rows exist
+	* @throws IllegalStateException in case the document cannot be parsed further, e.g. a background thread of the parser failed
 	* 
 	*/
 
@@ -126,9 +152,30 @@ private OfficeReaderParserInterface currentParser=null;
 		if (currentParser==null) {
 				return null;
 		}
+		if (this.hocr.getPipeline()) {
+			if (this.rowPipeline==null) {
+				// started with the first row, because linked workbooks are added to the parser after parsing
+				LOG.info("Parsing rows in a background thread");
+				this.rowPipeline=new RowPipeline(this.currentParser, this.hocr.getPipelineQueueSize(), this.parseStatistics, this.consumeStatistics);
+			}
+			return this.rowPipeline.next();
+		}
 		return currentParser.getNext();
 	}
 
+	/**
+	* Get the time spent by the stages parsing and converting rows, if hadoopoffice.read.pipeline is true
+	*
+	* @return statistics of the parse and the convert stage
+	*
+	*/
+	public List<PipelineStageStatistics> getPipelineStatistics() {
+		List<PipelineStageStatistics> result=new ArrayList<>();
+		result.add(this.parseStatistics);
+		result.add(this.consumeStatistics);
+		return result;
+	}
+
 	/**
 	* Get the current row number
 	*
@@ -140,6 +187,9 @@ private OfficeReaderParserInterface currentParser=null;
 			if (currentParser==null) {
 				return 0;
 			}
+			if (this.rowPipeline!=null) {
+				return this.rowPipeline.getCurrentRow();
+			}
 			return currentParser.getCurrentRow();
 	}
 
@@ -152,6 +202,9 @@ private OfficeReaderParserInterface currentParser=null;
 			if (currentParser==null) {
 				return null;
 			}
+			if (this.rowPipeline!=null) {
+				return this.rowPipeline.getCurrentSheetName();
+			}
 			return currentParser.getCurrentSheetName();
 	}
 
@@ -162,9 +215,18 @@ private OfficeReaderParserInterface currentParser=null;
 	* @throws java.io.IOException in case of errors
 	*/
 	public void close() throws IOException {
-		
-		if (this.in!=null) {
-			in.close();
+		try {
+			if (this.rowPipeline!=null) {
+				this.rowPipeline.close();
+			}
+			// stops background threads of the parser and releases its resources (e.g. temporary files, random access to the document)
+			if (this.currentParser!=null) {
+				this.currentParser.close();
+			}
+		} finally {
+			if (this.in!=null) {
+				in.close();
+			}
 		}
 	}
 
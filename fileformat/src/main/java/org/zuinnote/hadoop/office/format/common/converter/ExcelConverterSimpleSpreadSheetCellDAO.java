@@ -20,6 +20,7 @@ import java.io.Serializable;
 import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
 import java.text.FieldPosition;
 import java.text.ParseException;
 import java.text.ParsePosition;
@@ -32,7 +33,7 @@ import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.poi.ss.util.CellAddress;
+import org.apache.poi.ss.usermodel.DateUtil;
 import org.zuinnote.hadoop.office.format.common.converter.datatypes.GenericBigDecimalDataType;
 import org.zuinnote.hadoop.office.format.common.converter.datatypes.GenericBooleanDataType;
 import org.zuinnote.hadoop.office.format.common.converter.datatypes.GenericByteDataType;
@@ -62,11 +63,31 @@ public class ExcelConverterSimpleSpreadSheetCellDAO implements Serializable {
 	private static final long serialVersionUID = 3281344931609307423L;
 
 	private static final Log LOG = LogFactory.getLog(ExcelConverterSimpleSpreadSheetCellDAO.class.getName());
+	// data types without properties are shared by all columns
+	private static final GenericStringDataType STRING_TYPE = new GenericStringDataType();
+	private static final GenericBooleanDataType BOOLEAN_TYPE = new GenericBooleanDataType();
+	private static final GenericTimestampDataType TIMESTAMP_TYPE = new GenericTimestampDataType();
+	private static final GenericDateDataType DATE_TYPE = new GenericDateDataType();
+	private static final GenericByteDataType BYTE_TYPE = new GenericByteDataType();
+	private static final GenericShortDataType SHORT_TYPE = new GenericShortDataType();
+	private static final GenericIntegerDataType INTEGER_TYPE = new GenericIntegerDataType();
+	private static final GenericLongDataType LONG_TYPE = new GenericLongDataType();
+	private static final BigDecimal BYTE_MIN = BigDecimal.valueOf(Byte.MIN_VALUE);
+	private static final BigDecimal BYTE_MAX = BigDecimal.valueOf(Byte.MAX_VALUE);
+	private static final BigDecimal SHORT_MIN = BigDecimal.valueOf(Short.MIN_VALUE);
+	private static final BigDecimal SHORT_MAX = BigDecimal.valueOf(Short.MAX_VALUE);
+	private static final BigDecimal INT_MIN = BigDecimal.valueOf(Integer.MIN_VALUE);
+	private static final BigDecimal INT_MAX = BigDecimal.valueOf(Integer.MAX_VALUE);
 
 	private List<GenericDataType> schemaRow;
 	private SimpleDateFormat dateFormat;
 	private SimpleDateFormat dateTimeFormat;
 	private DecimalFormat decimalFormat;
+	private DecimalFormatSymbols decimalSymbols;
+	// literal characters of the date (time) format, which a date (time) contains
+	private String dateLiterals;
+	private String dateTimeLiterals;
+	private transient ParsePosition parsePosition;
 
 
 	/***
@@ -92,8 +113,11 @@ public class ExcelConverterSimpleSpreadSheetCellDAO implements Serializable {
 		this.dateFormat = (SimpleDateFormat) dateFormat.clone();
 		this.decimalFormat = (DecimalFormat) decimalFormat.clone();
 		this.decimalFormat.setParseBigDecimal(true);
+		this.decimalSymbols = this.decimalFormat.getDecimalFormatSymbols();
+		this.dateLiterals = ExcelConverterSimpleSpreadSheetCellDAO.getLiterals(this.dateFormat.toPattern());
 		if (dateTimeFormat!=null) {
 			this.dateTimeFormat = (SimpleDateFormat) dateTimeFormat.clone();
+			this.dateTimeLiterals = ExcelConverterSimpleSpreadSheetCellDAO.getLiterals(this.dateTimeFormat.toPattern());
 		}
 	}
 
@@ -109,216 +133,284 @@ public class ExcelConverterSimpleSpreadSheetCellDAO implements Serializable {
 		// if necessary add more to schemaRow
 
 		for (SpreadSheetCellDAO currentSpreadSheetCellDAO : dataRow) {
-			boolean dataTypeFound = false;
 			if (currentSpreadSheetCellDAO != null) {
 				// add potential column to list
-				int j = new CellAddress(currentSpreadSheetCellDAO.getAddress()).getColumn();
+				int j = MSExcelUtil.getColumnNumberA1Format(currentSpreadSheetCellDAO.getAddress());
 				if (j >= this.schemaRow.size()) {
 					// fill up
 					for (int x = this.schemaRow.size(); x <= j; x++) {
 						this.schemaRow.add(null);
 					}
 				}
-				// check if boolean data type
-				if ((currentSpreadSheetCellDAO.getFormattedValue() != null)
-						&& (!"".equals(currentSpreadSheetCellDAO.getFormattedValue()))) { // skip null value
-					String currentCellValue = currentSpreadSheetCellDAO.getFormattedValue();
-					// check if boolean
-					if (("TRUE".equals(currentCellValue)) || ("FALSE".equals(currentCellValue))) {
-						dataTypeFound = true;
-						if (this.schemaRow.get(j) != null) { // check if previous assumption was boolean
-
-							if (!(this.schemaRow.get(j) instanceof GenericBooleanDataType)) {
-								// if not then the type needs to be set to string
-								this.schemaRow.set(j, new GenericStringDataType());
-							}
-							// if yes then nothing todo (already boolean)
-						} else { // we face this the first time
-							this.schemaRow.set(j, new GenericBooleanDataType());
-						}
-					}
-					// check if timestamp using provided format
-					if (!dataTypeFound) {
-						if (this.dateTimeFormat!=null) { // only if a format is specified
-							Date theDate = this.dateTimeFormat.parse(currentCellValue, new ParsePosition(0));
-							if (theDate !=null) { // we found indeed a date time
-								
-								dataTypeFound = true;
-								if (this.schemaRow.get(j) != null) { // check if previous assumption was date
-
-									if (!(this.schemaRow.get(j) instanceof GenericTimestampDataType)) {
-										// if not then the type needs to be set to string
-										this.schemaRow.set(j, new GenericStringDataType());
-									} 
-								} else { // we face this the first time
-									this.schemaRow.set(j, new GenericTimestampDataType());
-		
-								}
-								
-							}
-						}
-					}
-					 // check for timestamp using java.sql.Timestamp
-					if (!dataTypeFound) {
-						
-						try {
-							java.sql.Timestamp ts = java.sql.Timestamp.valueOf(currentCellValue);
-							dataTypeFound=true;
-							this.schemaRow.set(j, new GenericTimestampDataType());
-						} catch (IllegalArgumentException e) {
-							LOG.warn("Could not identify timestamp using TimeStamp.valueOf. Trying last resort Date parsing....");
-						}
-					}
-					// check if date data type
-					if (!dataTypeFound) {
-
-						Date theDate = this.dateFormat.parse(currentCellValue, new ParsePosition(0));
-						if (theDate != null) { // we have indeed a date
-
-							dataTypeFound = true;
-							if (this.schemaRow.get(j) != null) { // check if previous assumption was date
+				String currentCellValue = currentSpreadSheetCellDAO.getFormattedValue();
+				if ((currentCellValue != null) && (!"".equals(currentCellValue))) { // skip null value
+					this.inferDataType(j, currentCellValue);
+				}
+				// else ignore null values
+			}
+		}
+	}
 
-								if (!(this.schemaRow.get(j) instanceof GenericDateDataType)) {
-									// if not then the type needs to be set to string
-									this.schemaRow.set(j, new GenericStringDataType());
-								} 
-								
-							} else { // we face this the first time
-								this.schemaRow.set(j, new GenericDateDataType());
-								// check if it has a time component
-								
-							}
-						}
+	/**
+	 * Updates the data type of a column with a value. The parsers (e.g. SimpleDateFormat) are only applied if a cheap lexical check of the value
+	 * indicates that they can succeed
+	 * 
+	 * @param j                column
+	 * @param currentCellValue value of the column (not empty)
+	 */
+	private void inferDataType(int j, String currentCellValue) {
+		GenericDataType currentDataType = this.schemaRow.get(j);
+		// check if boolean
+		if (("TRUE".equals(currentCellValue)) || ("FALSE".equals(currentCellValue))) {
+			if (currentDataType == null) { // we face this the first time
+				this.schemaRow.set(j, ExcelConverterSimpleSpreadSheetCellDAO.BOOLEAN_TYPE);
+			} else if (!(currentDataType instanceof GenericBooleanDataType)) {
+				// if not then the type needs to be set to string
+				this.schemaRow.set(j, ExcelConverterSimpleSpreadSheetCellDAO.STRING_TYPE);
+			}
+			return;
+		}
+		// check if timestamp using provided format
+		if ((this.dateTimeFormat != null) && (ExcelConverterSimpleSpreadSheetCellDAO.containsLiterals(currentCellValue, this.dateTimeLiterals))
+				&& (this.dateTimeFormat.parse(currentCellValue, this.resetParsePosition()) != null)) {
+			if (currentDataType == null) { // we face this the first time
+				this.schemaRow.set(j, ExcelConverterSimpleSpreadSheetCellDAO.TIMESTAMP_TYPE);
+			} else if (!(currentDataType instanceof GenericTimestampDataType)) {
+				// if not then the type needs to be set to string
+				this.schemaRow.set(j, ExcelConverterSimpleSpreadSheetCellDAO.STRING_TYPE);
+			}
+			return;
+		}
+		// check for timestamp in the format of java.sql.Timestamp
+		if (ExcelConverterSimpleSpreadSheetCellDAO.isTimestampValueOfFormat(currentCellValue)) {
+			try {
+				java.sql.Timestamp.valueOf(currentCellValue);
+				this.schemaRow.set(j, ExcelConverterSimpleSpreadSheetCellDAO.TIMESTAMP_TYPE);
+				return;
+			} catch (IllegalArgumentException e) { // e.g. month 13
+				LOG.debug("Could not identify timestamp using Timestamp.valueOf: " + currentCellValue);
+			}
+		}
+		// check if date data type
+		if ((ExcelConverterSimpleSpreadSheetCellDAO.containsLiterals(currentCellValue, this.dateLiterals))
+				&& (this.dateFormat.parse(currentCellValue, this.resetParsePosition()) != null)) {
+			if (currentDataType == null) { // we face this the first time
+				this.schemaRow.set(j, ExcelConverterSimpleSpreadSheetCellDAO.DATE_TYPE);
+			} else if (!(currentDataType instanceof GenericDateDataType)) {
+				// if not then the type needs to be set to string
+				this.schemaRow.set(j, ExcelConverterSimpleSpreadSheetCellDAO.STRING_TYPE);
+			}
+			return;
+		}
+		// check if BigDecimal
+		BigDecimal bd = this.isNumberCandidate(currentCellValue)
+				? (BigDecimal) this.decimalFormat.parse(currentCellValue, this.resetParsePosition())
+				: null;
+		if (bd == null) {
+			// otherwise string
+			if (!(currentDataType instanceof GenericStringDataType)) {
+				this.schemaRow.set(j, ExcelConverterSimpleSpreadSheetCellDAO.STRING_TYPE);
+			}
+			return;
+		}
+		BigDecimal bdv = bd.stripTrailingZeros();
+		// a number with fraction digits is not a long (cf. BigDecimal.longValueExact), a long is always assumed
+		boolean integral = bdv.scale() <= 0;
+		boolean isInt = (integral) && (ExcelConverterSimpleSpreadSheetCellDAO.isInRange(bdv, ExcelConverterSimpleSpreadSheetCellDAO.INT_MIN,
+				ExcelConverterSimpleSpreadSheetCellDAO.INT_MAX));
+		boolean isShort = (isInt) && (ExcelConverterSimpleSpreadSheetCellDAO.isInRange(bdv, ExcelConverterSimpleSpreadSheetCellDAO.SHORT_MIN,
+				ExcelConverterSimpleSpreadSheetCellDAO.SHORT_MAX));
+		boolean isByte = (isShort) && (ExcelConverterSimpleSpreadSheetCellDAO.isInRange(bdv, ExcelConverterSimpleSpreadSheetCellDAO.BYTE_MIN,
+				ExcelConverterSimpleSpreadSheetCellDAO.BYTE_MAX));
+		if (currentDataType != null) { // check if previous assumption was a number
+
+			// check if we need to upgrade to decimal
+			if ((bdv.scale() > 0) && (currentDataType instanceof GenericNumericDataType)) {
+				// upgrade to decimal, if necessary
+				if (!(currentDataType instanceof GenericBigDecimalDataType)) {
+					this.schemaRow.set(j, new GenericBigDecimalDataType(bdv.precision(), bdv.scale()));
+				} else {
+					GenericBigDecimalDataType gbd = (GenericBigDecimalDataType) currentDataType;
+					if ((bdv.scale() > gbd.getScale()) && (bdv.precision() > gbd.getPrecision())) {
+						this.schemaRow.set(j, new GenericBigDecimalDataType(bdv.precision(), bdv.scale()));
+					} else if (bdv.scale() > gbd.getScale()) {
+						// upgrade scale
+						gbd.setScale(bdv.scale());
+					} else if (bdv.precision() > gbd.getPrecision()) {
+						// upgrade precision
+						// new precision is needed to extend to max scale
+						int newpre = bdv.precision() + (gbd.getScale() - bdv.scale());
+						gbd.setPrecision(newpre);
 					}
-					// check if BigDecimal
-
-					BigDecimal bd = (BigDecimal) this.decimalFormat.parse(currentCellValue, new ParsePosition(0));
-					if ((!dataTypeFound) && (bd != null)) {
-						BigDecimal bdv = bd.stripTrailingZeros();
-
-						dataTypeFound = true;
-
-						if (this.schemaRow.get(j) != null) { // check if previous assumption was a number
+				}
+			} else { // check if we need to upgrade one of the integer types
+				// if it was Numeric before we can ignore testing the byte case, here just for
+				// completeness
+				if ((isByte) && ((currentDataType instanceof GenericByteDataType)
+						|| (currentDataType instanceof GenericShortDataType)
+						|| (currentDataType instanceof GenericIntegerDataType)
+						|| (currentDataType instanceof GenericLongDataType))) {
+					// if it was Byte before we can ignore testing the byte case, here just for
+					// completeness
+				} else if ((isShort) && (currentDataType instanceof GenericByteDataType)) {
+					// upgrade to short
+					this.schemaRow.set(j, ExcelConverterSimpleSpreadSheetCellDAO.SHORT_TYPE);
+				} else if ((isInt) && ((currentDataType instanceof GenericShortDataType)
+						|| (currentDataType instanceof GenericByteDataType))) {
+					// upgrade to integer
+					this.schemaRow.set(j, ExcelConverterSimpleSpreadSheetCellDAO.INTEGER_TYPE);
+				} else if ((!isByte) && (!isShort) && (!isInt) && !(currentDataType instanceof GenericLongDataType)) {
+					// upgrade to long
+					this.schemaRow.set(j, ExcelConverterSimpleSpreadSheetCellDAO.LONG_TYPE);
+				}
+			}
+		} else {
+			// we face it for the first time
+			// determine value type
+			if (bdv.scale() > 0) {
+				this.schemaRow.set(j, new GenericBigDecimalDataType(bdv.precision(), bdv.scale()));
+			} else if (isByte) {
+				this.schemaRow.set(j, ExcelConverterSimpleSpreadSheetCellDAO.BYTE_TYPE);
+			} else if (isShort) {
+				this.schemaRow.set(j, ExcelConverterSimpleSpreadSheetCellDAO.SHORT_TYPE);
+			} else if (isInt) {
+				this.schemaRow.set(j, ExcelConverterSimpleSpreadSheetCellDAO.INTEGER_TYPE);
+			} else {
+				this.schemaRow.set(j, ExcelConverterSimpleSpreadSheetCellDAO.LONG_TYPE);
+			}
+		}
+	}
 
-							// check if we need to upgrade to decimal
-							if ((bdv.scale() > 0) && (this.schemaRow.get(j) instanceof GenericNumericDataType)) {
-								// upgrade to decimal, if necessary
-								if (!(this.schemaRow.get(j) instanceof GenericBigDecimalDataType)) {
-									this.schemaRow.set(j, new GenericBigDecimalDataType(bdv.precision(), bdv.scale()));
-								} else {
-									if ((bdv.scale() > ((GenericBigDecimalDataType) this.schemaRow.get(j)).getScale())
-											&& (bdv.precision() > ((GenericBigDecimalDataType) this.schemaRow.get(j))
-													.getPrecision())) {
-										this.schemaRow.set(j,
-												new GenericBigDecimalDataType(bdv.precision(), bdv.scale()));
-									} else if (bdv.scale() > ((GenericBigDecimalDataType) this.schemaRow.get(j))
-											.getScale()) {
-										// upgrade scale
-										GenericBigDecimalDataType gbd = ((GenericBigDecimalDataType) this.schemaRow
-												.get(j));
-										gbd.setScale(bdv.scale());
-										this.schemaRow.set(j, gbd);
-									} else if (bdv.precision() > ((GenericBigDecimalDataType) this.schemaRow.get(j))
-											.getPrecision()) {
-										// upgrade precision
-										// new precision is needed to extend to max scale
-										GenericBigDecimalDataType gbd = ((GenericBigDecimalDataType) this.schemaRow
-												.get(j));
-										int newpre = bdv.precision() + (gbd.getScale() - bdv.scale());
-										gbd.setPrecision(newpre);
-										this.schemaRow.set(j, gbd);
-									}
-								}
-							} else { // check if we need to upgrade one of the integer types
-								// if current is byte
-								boolean isByte = false;
-								boolean isShort = false;
-								boolean isInt = false;
-								boolean isLong = true;
-								try {
-									bdv.longValueExact();
-									isLong = true;
-									bdv.intValueExact();
-									isInt = true;
-									bdv.shortValueExact();
-									isShort = true;
-									bdv.byteValueExact();
-									isByte = true;
-								} catch (Exception e) {
-									LOG.debug("Possible data types: Long: " + isLong + " Int: " + isInt + " Short: "
-											+ isShort + " Byte: " + isByte);
-								}
-								// if it was Numeric before we can ignore testing the byte case, here just for
-								// completeness
-								if ((isByte) && ((this.schemaRow.get(j) instanceof GenericByteDataType)
-										|| (this.schemaRow.get(j) instanceof GenericShortDataType)
-										|| (this.schemaRow.get(j) instanceof GenericIntegerDataType)
-										|| (this.schemaRow.get(j) instanceof GenericLongDataType))) {
-									// if it was Byte before we can ignore testing the byte case, here just for
-									// completeness
-								} else if ((isShort) && ((this.schemaRow.get(j) instanceof GenericByteDataType))) {
-									// upgrade to short
-									this.schemaRow.set(j, new GenericShortDataType());
-								} else if ((isInt) && ((this.schemaRow.get(j) instanceof GenericShortDataType)
-										|| (this.schemaRow.get(j) instanceof GenericByteDataType))) {
-									// upgrade to integer
-									this.schemaRow.set(j, new GenericIntegerDataType());
-								} else if ((!isByte) && (!isShort) && (!isInt)
-										&& !((this.schemaRow.get(j) instanceof GenericLongDataType))) {
-									// upgrade to long
-									this.schemaRow.set(j, new GenericLongDataType());
-								}
+	/**
+	 * 
+	 * @return ParsePosition of this converter reset to the beginning of the text
+	 */
+	private ParsePosition resetParsePosition() {
+		if (this.parsePosition == null) {
+			this.parsePosition = new ParsePosition(0);
+		} else {
+			this.parsePosition.setIndex(0);
+			this.parsePosition.setErrorIndex(-1);
+		}
+		return this.parsePosition;
+	}
 
-							}
+	/**
+	 * Checks if a value can be the beginning of a number according to the DecimalFormat of the converter (DecimalFormat parses the beginning of a text)
+	 * 
+	 * @param value value (not empty)
+	 * @return false, if the DecimalFormat cannot parse a number from the value
+	 */
+	private boolean isNumberCandidate(String value) {
+		char first = value.charAt(0);
+		return (Character.isDigit(first)) || (first == this.decimalSymbols.getDecimalSeparator())
+				|| (first == this.decimalSymbols.getGroupingSeparator()) || (first == this.decimalSymbols.getMinusSign())
+				|| (value.startsWith(this.decimalSymbols.getInfinity())) || (value.startsWith(this.decimalSymbols.getNaN()))
+				|| ((!"".equals(this.decimalFormat.getPositivePrefix())) && (value.startsWith(this.decimalFormat.getPositivePrefix())))
+				|| ((!"".equals(this.decimalFormat.getNegativePrefix())) && (value.startsWith(this.decimalFormat.getNegativePrefix())));
+	}
 
-						} else {
-							// we face it for the first time
-							// determine value type
-							if (bdv.scale() > 0) {
-								this.schemaRow.set(j, new GenericBigDecimalDataType(bdv.precision(), bdv.scale()));
-							} else {
-								boolean isByte = false;
-								boolean isShort = false;
-								boolean isInt = false;
-								boolean isLong = true;
-								try {
-									bdv.longValueExact();
-									isLong = true;
-									bdv.intValueExact();
-									isInt = true;
-									bdv.shortValueExact();
-									isShort = true;
-									bdv.byteValueExact();
-									isByte = true;
-								} catch (Exception e) {
-									LOG.debug("Possible data types: Long: " + isLong + " Int: " + isInt + " Short: "
-											+ isShort + " Byte: " + isByte);
-								}
-								if (isByte) {
-									this.schemaRow.set(j, new GenericByteDataType());
-								} else if (isShort) {
-									this.schemaRow.set(j, new GenericShortDataType());
-								} else if (isInt) {
-									this.schemaRow.set(j, new GenericIntegerDataType());
-								} else if (isLong) {
-									this.schemaRow.set(j, new GenericLongDataType());
-								}
-							}
-						}
-					}
-					if (!dataTypeFound) {
-						// otherwise string
-						if (!(this.schemaRow.get(j) instanceof GenericStringDataType)) {
-							this.schemaRow.set(j, new GenericStringDataType());
-						}
+	/**
+	 * Determines the literal characters of a date pattern (e.g. / in M/d/yy) that every text matching the pattern needs to contain. Whitespace and quoted
+	 * text are ignored.
+	 * 
+	 * @param pattern pattern of a SimpleDateFormat
+	 * @return literal characters (each character once)
+	 */
+	private static String getLiterals(String pattern) {
+		StringBuilder result = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			if (c == '\'') {
+				quoted = !quoted;
+			} else if ((!quoted) && (!Character.isWhitespace(c)) && (!((c >= 'a') && (c <= 'z')) && !((c >= 'A') && (c <= 'Z')))
+					&& (result.indexOf(String.valueOf(c)) < 0)) {
+				result.append(c);
+			}
+		}
+		return result.toString();
+	}
 
-					}
+	/**
+	 * 
+	 * @param value    value
+	 * @param literals literal characters of a date pattern
+	 * @return true, if the value contains all literal characters
+	 */
+	private static boolean containsLiterals(String value, String literals) {
+		for (int i = 0; i < literals.length(); i++) {
+			if (value.indexOf(literals.charAt(i)) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
 
-				} else {
-					// ignore null values
-				}
+	/**
+	 * Checks if a value has the format yyyy-[m]m-[d]d hh:mm:ss[.f...] expected by java.sql.Timestamp.valueOf, so that it is only called for values that
+	 * are likely timestamps
+	 * 
+	 * @param value value
+	 * @return true, if the value has the format of java.sql.Timestamp
+	 */
+	private static boolean isTimestampValueOfFormat(String value) {
+		String s = value.trim();
+		int pos = ExcelConverterSimpleSpreadSheetCellDAO.skipDigits(s, 0);
+		if ((pos != 4) || (pos >= s.length()) || (s.charAt(pos) != '-')) { // year
+			return false;
+		}
+		int start = pos + 1;
+		pos = ExcelConverterSimpleSpreadSheetCellDAO.skipDigits(s, start);
+		if ((pos - start < 1) || (pos - start > 2) || (pos >= s.length()) || (s.charAt(pos) != '-')) { // month
+			return false;
+		}
+		start = pos + 1;
+		pos = ExcelConverterSimpleSpreadSheetCellDAO.skipDigits(s, start);
+		if ((pos - start < 1) || (pos - start > 2) || (pos >= s.length()) || (s.charAt(pos) != ' ')) { // day
+			return false;
+		}
+		for (int i = 0; i < 3; i++) { // hour, minute, second
+			start = pos + 1;
+			pos = ExcelConverterSimpleSpreadSheetCellDAO.skipDigits(s, start);
+			if ((pos == start) || ((i < 2) && ((pos >= s.length()) || (s.charAt(pos) != ':')))) {
+				return false;
 			}
 		}
+		if (pos == s.length()) {
+			return true;
+		}
+		if (s.charAt(pos) != '.') {
+			return false;
+		}
+		start = pos + 1;
+		pos = ExcelConverterSimpleSpreadSheetCellDAO.skipDigits(s, start);
+		return (pos == s.length()) && (pos - start >= 1) && (pos - start <= 9); // nanos
+	}
+
+	/**
+	 * 
+	 * @param s     text
+	 * @param start position to start
+	 * @return position of the first character that is not an ASCII digit
+	 */
+	private static int skipDigits(String s, int start) {
+		int pos = start;
+		while ((pos < s.length()) && (s.charAt(pos) >= '0') && (s.charAt(pos) <= '9')) {
+			pos++;
+		}
+		return pos;
+	}
+
+	/**
+	 * 
+	 * @param value number without fraction digits
+	 * @param min   minimum
+	 * @param max   maximum
+	 * @return true, if min <= value <= max
+	 */
+	private static boolean isInRange(BigDecimal value, BigDecimal min, BigDecimal max) {
+		return (value.compareTo(min) >= 0) && (value.compareTo(max) <= 0);
 	}
 
 	/**
@@ -369,7 +461,7 @@ public class ExcelConverterSimpleSpreadSheetCellDAO implements Serializable {
 
 			if (currentCell != null) {
 				// determine real position
-				int j = new CellAddress(currentCell.getAddress()).getColumn();
+				int j = MSExcelUtil.getColumnNumberA1Format(currentCell.getAddress());
 				if (j >= returnList.size()) {
 					// fill up
 					for (int x = returnList.size(); x <= j; x++) {
@@ -388,7 +480,9 @@ public class ExcelConverterSimpleSpreadSheetCellDAO implements Serializable {
 				} else if (applyDataType instanceof GenericStringDataType) {
 					returnList.set(j, currentCell.getFormattedValue());
 				} else if (applyDataType instanceof GenericBooleanDataType) {
-					if (!"".equals(currentCell.getFormattedValue())) {
+					if (currentCell.getRawType() == SpreadSheetCellDAO.RAW_TYPE_BOOLEAN) {
+						returnList.set(j, Boolean.valueOf(currentCell.getRawValue() != 0.0));
+					} else if (!"".equals(currentCell.getFormattedValue())) {
 						if (currentCell.getFormattedValue().equalsIgnoreCase("true")
 								|| currentCell.getFormattedValue().equalsIgnoreCase("false")) {
 							returnList.set(j, Boolean.valueOf(currentCell.getFormattedValue()));
@@ -396,7 +490,9 @@ public class ExcelConverterSimpleSpreadSheetCellDAO implements Serializable {
 					}
 				} 
 				else if (applyDataType instanceof GenericTimestampDataType) {
-					if (!"".equals(currentCell.getFormattedValue())) {
+					if (currentCell.getRawType() == SpreadSheetCellDAO.RAW_TYPE_DATE) {
+						returnList.set(j, new java.sql.Timestamp(DateUtil.getJavaDate(currentCell.getRawValue()).getTime()));
+					} else if (!"".equals(currentCell.getFormattedValue())) {
 						boolean timestampFound=false;
 						if (this.dateTimeFormat!=null) { // check first dateTimeFormat
 							Date theDate = this.dateTimeFormat.parse(currentCell.getFormattedValue(), new ParsePosition(0));
@@ -431,7 +527,10 @@ public class ExcelConverterSimpleSpreadSheetCellDAO implements Serializable {
 					}
 				}
 				else if (applyDataType instanceof GenericDateDataType) {
-					if (!"".equals(currentCell.getFormattedValue())) {
+					if (currentCell.getRawType() == SpreadSheetCellDAO.RAW_TYPE_DATE) {
+						// a date does not contain the time of the day
+						returnList.set(j, DateUtil.getJavaDate(Math.floor(currentCell.getRawValue())));
+					} else if (!"".equals(currentCell.getFormattedValue())) {
 						Date theDate = this.dateFormat.parse(currentCell.getFormattedValue(), new ParsePosition(0));
 						
 						if (theDate != null) {
@@ -445,9 +544,9 @@ public class ExcelConverterSimpleSpreadSheetCellDAO implements Serializable {
 
 				else if (applyDataType instanceof GenericNumericDataType) {
 					if (!"".equals(currentCell.getFormattedValue())) {
-						BigDecimal bd = null;
+						BigDecimal bd = this.getRawDecimal(currentCell, applyDataType);
 						try {
-							if (!"".equals(currentCell.getFormattedValue())) {
+							if ((bd == null) && (!"".equals(currentCell.getFormattedValue()))) {
 								// check scientific notation
 								if (currentCell.getFormattedValue().toUpperCase().contains("E")) { // parse scientific notation
 									// remove any characters that could cause issues
@@ -493,6 +592,33 @@ public class ExcelConverterSimpleSpreadSheetCellDAO implements Serializable {
 		return result;
 	}
 
+	/**
+	 * Returns the raw value of a numeric cell (cf. hadoopoffice.read.rawValues), so that the formatted value does not need to be parsed
+	 * 
+	 * @param cell          cell
+	 * @param applyDataType numeric data type of the column
+	 * @return raw value, null if the cell has no numeric raw value or an integral data type is applied to a number with fraction digits (e.g. because
+	 *         the number is formatted without them). In this case the formatted value needs to be parsed
+	 */
+	private BigDecimal getRawDecimal(SpreadSheetCellDAO cell, GenericDataType applyDataType) {
+		if ((cell.getRawType() != SpreadSheetCellDAO.RAW_TYPE_NUMERIC) || (Double.isNaN(cell.getRawValue()))
+				|| (Double.isInfinite(cell.getRawValue()))) {
+			return null;
+		}
+		BigDecimal result = BigDecimal.valueOf(cell.getRawValue());
+		boolean integral = (applyDataType instanceof GenericByteDataType) || (applyDataType instanceof GenericShortDataType)
+				|| (applyDataType instanceof GenericIntegerDataType) || (applyDataType instanceof GenericLongDataType);
+		int rawScale = result.stripTrailingZeros().scale();
+		if ((integral) && (rawScale > 0)) {
+			return null;
+		}
+		if ((applyDataType instanceof GenericBigDecimalDataType) && (rawScale <= ((GenericBigDecimalDataType) applyDataType).getScale())) {
+			// same scale as the formatted values of the column
+			result = result.setScale(((GenericBigDecimalDataType) applyDataType).getScale());
+		}
+		return result;
+	}
+
 	/***
 	 * Converts a row consisting of objects of simple data types (String, byte,
 	 * short, int, long, etc.) to a row of SpreadSheetCellDAO
@@ -22,8 +22,9 @@ import java.io.IOException;
 import java.io.Serializable;
 
 import org.apache.hadoop.io.Writable;
-import org.apache.hadoop.io.WritableFactories;
+import org.apache.hadoop.io.WritableUtils;
 import org.apache.hadoop.io.Text;
+import org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelUtil;
 
 
 /*
@@ -40,6 +41,24 @@ private String comment;
 private String formula;
 private String address;
 private String sheetName;
+private byte rawType;
+private double rawValue;
+
+/** no raw value, e.g. empty cell or raw values are not read (hadoopoffice.read.rawValues) **/
+public static final byte RAW_TYPE_NONE = 0;
+/** raw value is the number stored in the cell **/
+public static final byte RAW_TYPE_NUMERIC = 1;
+/** raw value is the serial date (days since 1900-01-00, fraction is the time of day) of a number with a date format **/
+public static final byte RAW_TYPE_DATE = 2;
+/** raw value is 1 for true and 0 for false **/
+public static final byte RAW_TYPE_BOOLEAN = 3;
+/** raw value is the index of the string in the shared string table, -1 if the string is not shared (e.g. inline string or result of a formula) **/
+public static final byte RAW_TYPE_STRING = 4;
+/** raw value is the error code (cf. org.apache.poi.ss.usermodel.FormulaError) **/
+public static final byte RAW_TYPE_ERROR = 5;
+
+// difference between serial dates of the 1904 date system and the 1900 date system
+private static final int DATE1904_OFFSET = 1462;
 
 public SpreadSheetCellDAO() {
 	this.formattedValue="";
@@ -80,6 +99,52 @@ public String getSheetName() {
 	return this.sheetName;
 }
 
+/**
+ * 
+ * @return type of the raw value (RAW_TYPE_*), RAW_TYPE_NONE if the cell has no raw value
+ */
+public byte getRawType() {
+	return this.rawType;
+}
+
+/**
+ * 
+ * @return raw value of the cell as stored in the file (cf. RAW_TYPE_*), 0 if the cell has no raw value
+ */
+public double getRawValue() {
+	return this.rawValue;
+}
+
+public boolean hasRawValue() {
+	return this.rawType!=SpreadSheetCellDAO.RAW_TYPE_NONE;
+}
+
+/**
+ * Sets the raw value of the cell in addition to its formatted value
+ * 
+ * @param rawType type of the raw value (RAW_TYPE_*)
+ * @param rawValue raw value
+ */
+public void setRawValue(byte rawType, double rawValue) {
+	this.rawType=rawType;
+	this.rawValue=rawType==SpreadSheetCellDAO.RAW_TYPE_NONE?0.0:rawValue;
+}
+
+/**
+ * Sets the raw value of a cell containing a number
+ * 
+ * @param value number stored in the cell
+ * @param date true if the number has a date format, i.e. it is a serial date
+ * @param date1904 true if the workbook uses the 1904 date system. Serial dates are converted to the 1900 date system
+ */
+public void setRawNumericValue(double value, boolean date, boolean date1904) {
+	if (!date) {
+		this.setRawValue(SpreadSheetCellDAO.RAW_TYPE_NUMERIC, value);
+	} else {
+		this.setRawValue(SpreadSheetCellDAO.RAW_TYPE_DATE, date1904?value+SpreadSheetCellDAO.DATE1904_OFFSET:value);
+	}
+}
+
 
 
 public void set(SpreadSheetCellDAO newSpreadSheetCellDAO) {
@@ -88,58 +153,237 @@ public void set(SpreadSheetCellDAO newSpreadSheetCellDAO) {
 	this.formula=newSpreadSheetCellDAO.getFormula();
 	this.address=newSpreadSheetCellDAO.getAddress();
 	this.sheetName=newSpreadSheetCellDAO.getSheetName();
+	this.rawType=newSpreadSheetCellDAO.getRawType();
+	this.rawValue=newSpreadSheetCellDAO.getRawValue();
 }
 
 
 /** Writable **/
 
+// first byte of the compact encoding. The original encoding starts with the length of the formatted value as VInt, which is never negative, i.e. its first byte is never -128
+static final byte COMPACT_ENCODING_MARKER = (byte) -128;
+private static final byte COMPACT_ENCODING_VERSION = 1;
+// fields present in the compact encoding, fields not present are empty
+static final int FIELD_FORMATTED_VALUE = 1;
+static final int FIELD_COMMENT = 2;
+static final int FIELD_FORMULA = 4;
+static final int FIELD_ADDRESS = 8;
+static final int FIELD_CELL_POSITION = 16;
+static final int FIELD_SHEET_NAME = 32;
+static final int FIELD_RAW_VALUE = 64;
+
+// buffers reused when reading the fields of a cell
+private transient Text decodeBuffer;
+private transient Text sheetNameBuffer;
+private transient String decodedSheetName;
+
+  /*
+  * Writes the cell in the compact encoding (version 1): a marker byte, the version and a bitmask of the fields that are not empty followed by these fields. The address is stored
+  * as row and column number (VInt) if it is in A1 format (e.g. AB12), otherwise as string. The raw value is stored as type followed by the number (double), the shared string
+  * index (VInt) or nothing for booleans, of which the value is part of the type.
+  *
+  */
   @Override
   public void write(DataOutput dataOutput) throws IOException {
-    Text formattedValueText = new Text("");
-    if (formattedValue!=null) {
-	formattedValueText = new Text(formattedValue);
+    boolean cellPosition=SpreadSheetCellDAO.isCellPosition(this.address);
+    int fields=0;
+    if (SpreadSheetCellDAO.isPresent(this.formattedValue)) {
+	fields|=SpreadSheetCellDAO.FIELD_FORMATTED_VALUE;
+    }
+    if (SpreadSheetCellDAO.isPresent(this.comment)) {
+	fields|=SpreadSheetCellDAO.FIELD_COMMENT;
+    }
+    if (SpreadSheetCellDAO.isPresent(this.formula)) {
+	fields|=SpreadSheetCellDAO.FIELD_FORMULA;
+    }
+    if (cellPosition) {
+	fields|=SpreadSheetCellDAO.FIELD_CELL_POSITION;
+    } else if (SpreadSheetCellDAO.isPresent(this.address)) {
+	fields|=SpreadSheetCellDAO.FIELD_ADDRESS;
     }
-    Text commentText = new Text("");
-    if (comment!=null) {
-	commentText = new Text(comment);
+    if (SpreadSheetCellDAO.isPresent(this.sheetName)) {
+	fields|=SpreadSheetCellDAO.FIELD_SHEET_NAME;
     }
-    Text formulaText = new Text("");
-    if (formula!=null) {
-	formulaText = new Text(formula);
+    if (this.rawType!=SpreadSheetCellDAO.RAW_TYPE_NONE) {
+	fields|=SpreadSheetCellDAO.FIELD_RAW_VALUE;
     }
-    Text addressText = new Text("");
-    if (address!=null) {
-	addressText = new Text(address);
+    dataOutput.writeByte(SpreadSheetCellDAO.COMPACT_ENCODING_MARKER);
+    dataOutput.writeByte(SpreadSheetCellDAO.COMPACT_ENCODING_VERSION);
+    dataOutput.writeByte(fields);
+    if ((fields & SpreadSheetCellDAO.FIELD_FORMATTED_VALUE)!=0) {
+	Text.writeString(dataOutput, this.formattedValue);
     }
-    Text sheetNameText = new Text("");
-    if (sheetName!=null) {
-	sheetNameText = new Text(sheetName);
+    if ((fields & SpreadSheetCellDAO.FIELD_COMMENT)!=0) {
+	Text.writeString(dataOutput, this.comment);
     }
-    formattedValueText.write(dataOutput);
-    commentText.write(dataOutput);
-    formulaText.write(dataOutput);
-    addressText.write(dataOutput);
-    sheetNameText.write(dataOutput);
+    if ((fields & SpreadSheetCellDAO.FIELD_FORMULA)!=0) {
+	Text.writeString(dataOutput, this.formula);
+    }
+    if (cellPosition) {
+	WritableUtils.writeVInt(dataOutput, MSExcelUtil.getRowNumberA1Format(this.address));
+	WritableUtils.writeVInt(dataOutput, MSExcelUtil.getColumnNumberA1Format(this.address));
+    } else if ((fields & SpreadSheetCellDAO.FIELD_ADDRESS)!=0) {
+	Text.writeString(dataOutput, this.address);
+    }
+    if ((fields & SpreadSheetCellDAO.FIELD_SHEET_NAME)!=0) {
+	Text.writeString(dataOutput, this.sheetName);
+    }
+    if ((fields & SpreadSheetCellDAO.FIELD_RAW_VALUE)!=0) {
+	this.writeRawValue(dataOutput);
+    }
+}
 
+  void writeRawValue(DataOutput dataOutput) throws IOException {
+    switch (this.rawType) {
+	case SpreadSheetCellDAO.RAW_TYPE_BOOLEAN:
+		// value is stored in the type: bit 7 is set for true
+		dataOutput.writeByte(this.rawValue!=0.0?(SpreadSheetCellDAO.RAW_TYPE_BOOLEAN | 0x80):SpreadSheetCellDAO.RAW_TYPE_BOOLEAN);
+		break;
+	case SpreadSheetCellDAO.RAW_TYPE_STRING:
+	case SpreadSheetCellDAO.RAW_TYPE_ERROR:
+		dataOutput.writeByte(this.rawType);
+		WritableUtils.writeVInt(dataOutput, (int) this.rawValue);
+		break;
+	default:
+		dataOutput.writeByte(this.rawType);
+		dataOutput.writeDouble(this.rawValue);
+		break;
+    }
 }
 
+  /*
+  * Reads a cell in the compact encoding or in the original encoding (five Text fields) written by earlier versions
+  *
+  */
   @Override
   public void readFields(DataInput dataInput) throws IOException {
-    Text formattedValueText =  (Text) WritableFactories.newInstance(Text.class);
-    formattedValueText.readFields(dataInput);
-    this.formattedValue=formattedValueText.toString();
-    Text commentText = (Text) WritableFactories.newInstance(Text.class);
-    commentText.readFields(dataInput);
-    this.comment=commentText.toString();
-    Text formulaText = (Text) WritableFactories.newInstance(Text.class);
-    formulaText.readFields(dataInput);
-    this.formula=formulaText.toString();
-    Text addressText = (Text) WritableFactories.newInstance(Text.class);
-    addressText.readFields(dataInput);
-    this.address=addressText.toString();
-    Text sheetNameText = (Text) WritableFactories.newInstance(Text.class);
-    sheetNameText.readFields(dataInput);
-    this.sheetName=sheetNameText.toString();
+    byte firstByte=dataInput.readByte();
+    if (firstByte!=SpreadSheetCellDAO.COMPACT_ENCODING_MARKER) {
+	// original encoding: the first byte belongs to the length of the formatted value
+	this.formattedValue=this.readText(dataInput, SpreadSheetCellDAO.readVInt(firstByte, dataInput));
+	this.comment=this.readText(dataInput, WritableUtils.readVInt(dataInput));
+	this.formula=this.readText(dataInput, WritableUtils.readVInt(dataInput));
+	this.address=this.readText(dataInput, WritableUtils.readVInt(dataInput));
+	this.sheetName=this.readSheetName(dataInput);
+	this.setRawValue(SpreadSheetCellDAO.RAW_TYPE_NONE, 0.0);
+	return;
+    }
+    byte version=dataInput.readByte();
+    if (version!=SpreadSheetCellDAO.COMPACT_ENCODING_VERSION) {
+	throw new IOException("Unsupported version of serialized spreadsheet cell: "+version);
+    }
+    int fields=dataInput.readUnsignedByte();
+    this.formattedValue=(fields & SpreadSheetCellDAO.FIELD_FORMATTED_VALUE)!=0?this.readText(dataInput, WritableUtils.readVInt(dataInput)):"";
+    this.comment=(fields & SpreadSheetCellDAO.FIELD_COMMENT)!=0?this.readText(dataInput, WritableUtils.readVInt(dataInput)):"";
+    this.formula=(fields & SpreadSheetCellDAO.FIELD_FORMULA)!=0?this.readText(dataInput, WritableUtils.readVInt(dataInput)):"";
+    if ((fields & SpreadSheetCellDAO.FIELD_CELL_POSITION)!=0) {
+	int row=WritableUtils.readVInt(dataInput);
+	int column=WritableUtils.readVInt(dataInput);
+	this.address=MSExcelUtil.getCellAddressA1Format(row, column);
+    } else {
+	this.address=(fields & SpreadSheetCellDAO.FIELD_ADDRESS)!=0?this.readText(dataInput, WritableUtils.readVInt(dataInput)):"";
+    }
+    this.sheetName=(fields & SpreadSheetCellDAO.FIELD_SHEET_NAME)!=0?this.readSheetName(dataInput):"";
+    if ((fields & SpreadSheetCellDAO.FIELD_RAW_VALUE)!=0) {
+	this.readRawValue(dataInput);
+    } else {
+	this.setRawValue(SpreadSheetCellDAO.RAW_TYPE_NONE, 0.0);
+    }
+}
+
+  void readRawValue(DataInput dataInput) throws IOException {
+    int type=dataInput.readUnsignedByte();
+    switch (type & 0x7F) {
+	case SpreadSheetCellDAO.RAW_TYPE_BOOLEAN:
+		this.setRawValue(SpreadSheetCellDAO.RAW_TYPE_BOOLEAN, (type & 0x80)!=0?1.0:0.0);
+		break;
+	case SpreadSheetCellDAO.RAW_TYPE_STRING:
+	case SpreadSheetCellDAO.RAW_TYPE_ERROR:
+		this.setRawValue((byte) type, WritableUtils.readVInt(dataInput));
+		break;
+	case SpreadSheetCellDAO.RAW_TYPE_NUMERIC:
+	case SpreadSheetCellDAO.RAW_TYPE_DATE:
+		this.setRawValue((byte) type, dataInput.readDouble());
+		break;
+	default:
+		throw new IOException("Unsupported type of raw value of serialized spreadsheet cell: "+type);
+    }
+}
+
+  /*
+  * Reads a string of the given length in bytes (UTF-8) with a reused buffer
+  *
+  */
+  private String readText(DataInput dataInput, int length) throws IOException {
+    if (this.decodeBuffer==null) {
+	this.decodeBuffer=new Text();
+    }
+    this.decodeBuffer.readWithKnownLength(dataInput, length);
+    return this.decodeBuffer.toString();
+}
+
+  /*
+  * Reads the sheet name. Usually many cells of the same sheet are read one after the other into the same object, so the sheet name of the previous cell is reused, if it is the same
+  *
+  */
+  private String readSheetName(DataInput dataInput) throws IOException {
+    if (this.sheetNameBuffer==null) {
+	this.sheetNameBuffer=new Text();
+    }
+    if (this.decodeBuffer==null) {
+	this.decodeBuffer=new Text();
+    }
+    this.decodeBuffer.readFields(dataInput);
+    if ((this.decodedSheetName==null) || (!this.decodeBuffer.equals(this.sheetNameBuffer))) {
+	this.sheetNameBuffer.set(this.decodeBuffer);
+	this.decodedSheetName=this.decodeBuffer.toString();
+    }
+    return this.decodedSheetName;
+}
+
+  /*
+  * Decodes a VInt (cf. WritableUtils.readVInt) of which the first byte has already been read
+  *
+  */
+  private static int readVInt(byte firstByte, DataInput dataInput) throws IOException {
+    int size=WritableUtils.decodeVIntSize(firstByte);
+    if (size==1) {
+	return firstByte;
+    }
+    long result=0;
+    for (int i=0;i<size-1;i++) {
+	result=(result << 8) | (dataInput.readByte() & 0xFF);
+    }
+    return (int) (WritableUtils.isNegativeVInt(firstByte)?(result ^ -1L):result);
+}
+
+  static boolean isPresent(String field) {
+    return (field!=null) && (!field.isEmpty());
+}
+
+  /*
+  * Checks if an address is in A1 format without absolute references or leading zeros (e.g. AB12), i.e. it can be restored from its row and column number
+  *
+  */
+  static boolean isCellPosition(String address) {
+    if (address==null) {
+	return false;
+    }
+    int length=address.length();
+    int pos=0;
+    while ((pos<length) && (address.charAt(pos)>='A') && (address.charAt(pos)<='Z')) {
+	pos++;
+    }
+    // at most three letters (XFD is the last column) and the first row is 1
+    if ((pos==0) || (pos>3) || (pos==length) || (address.charAt(pos)<'1') || (address.charAt(pos)>'9') || (length-pos>7)) {
+	return false;
+    }
+    for (pos++;pos<length;pos++) {
+	if ((address.charAt(pos)<'0') || (address.charAt(pos)>'9')) {
+		return false;
+	}
+    }
+    return true;
 }
 
 }
@@ -15,12 +15,27 @@
 **/
 package org.zuinnote.hadoop.office.format.common.dao;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 
 import org.apache.hadoop.io.ArrayWritable;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.io.WritableUtils;
+import org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelUtil;
 
 /**
+ * Row of a spreadsheet. Null cells are allowed.
  *
+ * The row is written in a row-aware encoding: the sheet name and the row number shared by the cells (taken from the first cell of the row) are written
+ * once at the beginning, so that rows can be sorted by sheet and row number without deserializing them (cf. SpreadSheetCellDAOArrayWritable.Comparator).
+ * They are followed by the number of cells, a bitmap of the cells that are not null and the cells that are not null. A cell only stores the fields that
+ * are not empty, its column as difference to the column of the previous cell (if it is in the row of the first cell) and its sheet name only if it
+ * differs from the one of the first cell. Rows written by earlier versions as ArrayWritable can still be read.
  *
  */
 public class SpreadSheetCellDAOArrayWritable extends ArrayWritable implements Serializable {
@@ -30,8 +45,246 @@ public class SpreadSheetCellDAOArrayWritable extends ArrayWritable implements Se
 	 * 
 	 */
 	private static final long serialVersionUID = 8628020322181414463L;
+	private static final byte ROW_ENCODING_VERSION = 1;
+
+	// buffer reused when reading the fields of cells
+	private transient Text decodeBuffer;
 
 	public SpreadSheetCellDAOArrayWritable() {
 		super(SpreadSheetCellDAO.class);
 	}
+
+	/**
+	 * 
+	 * @return sheet name of the first cell that is not null, empty if the row has no cells
+	 */
+	public String getSheetName() {
+		SpreadSheetCellDAO firstCell = this.getFirstCell();
+		if ((firstCell == null) || (firstCell.getSheetName() == null)) {
+			return "";
+		}
+		return firstCell.getSheetName();
+	}
+
+	/**
+	 * 
+	 * @return row number (starting with 0) of the first cell that is not null, -1 if the row has no cells or the address of the cell is not in A1 format
+	 */
+	public int getRowNumber() {
+		SpreadSheetCellDAO firstCell = this.getFirstCell();
+		if ((firstCell == null) || (!SpreadSheetCellDAO.isCellPosition(firstCell.getAddress()))) {
+			return -1;
+		}
+		return MSExcelUtil.getRowNumberA1Format(firstCell.getAddress());
+	}
+
+	private SpreadSheetCellDAO getFirstCell() {
+		Writable[] cells = this.get();
+		if (cells == null) {
+			return null;
+		}
+		for (Writable cell : cells) {
+			if (cell != null) {
+				return (SpreadSheetCellDAO) cell;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void write(DataOutput dataOutput) throws IOException {
+		Writable[] cells = this.get();
+		if (cells == null) {
+			cells = new Writable[0];
+		}
+		String sheetName = this.getSheetName();
+		int rowNumber = this.getRowNumber();
+		dataOutput.writeByte(SpreadSheetCellDAO.COMPACT_ENCODING_MARKER);
+		dataOutput.writeByte(SpreadSheetCellDAOArrayWritable.ROW_ENCODING_VERSION);
+		Text.writeString(dataOutput, sheetName);
+		WritableUtils.writeVInt(dataOutput, rowNumber + 1);
+		WritableUtils.writeVInt(dataOutput, cells.length);
+		// bitmap of cells that are not null
+		for (int i = 0; i < cells.length; i += 8) {
+			int bits = 0;
+			for (int j = i; (j < i + 8) && (j < cells.length); j++) {
+				if (cells[j] != null) {
+					bits |= 1 << (j - i);
+				}
+			}
+			dataOutput.writeByte(bits);
+		}
+		int previousColumn = -1;
+		for (Writable currentCell : cells) {
+			if (currentCell == null) {
+				continue;
+			}
+			SpreadSheetCellDAO cell = (SpreadSheetCellDAO) currentCell;
+			boolean inRow = (rowNumber >= 0) && (SpreadSheetCellDAO.isCellPosition(cell.getAddress()))
+					&& (MSExcelUtil.getRowNumberA1Format(cell.getAddress()) == rowNumber);
+			int fields = 0;
+			if (SpreadSheetCellDAO.isPresent(cell.getFormattedValue())) {
+				fields |= SpreadSheetCellDAO.FIELD_FORMATTED_VALUE;
+			}
+			if (SpreadSheetCellDAO.isPresent(cell.getComment())) {
+				fields |= SpreadSheetCellDAO.FIELD_COMMENT;
+			}
+			if (SpreadSheetCellDAO.isPresent(cell.getFormula())) {
+				fields |= SpreadSheetCellDAO.FIELD_FORMULA;
+			}
+			if (inRow) {
+				fields |= SpreadSheetCellDAO.FIELD_CELL_POSITION;
+			} else if (SpreadSheetCellDAO.isPresent(cell.getAddress())) {
+				fields |= SpreadSheetCellDAO.FIELD_ADDRESS;
+			}
+			String cellSheetName = cell.getSheetName() == null ? "" : cell.getSheetName();
+			if (!cellSheetName.equals(sheetName)) {
+				fields |= SpreadSheetCellDAO.FIELD_SHEET_NAME;
+			}
+			if (cell.hasRawValue()) {
+				fields |= SpreadSheetCellDAO.FIELD_RAW_VALUE;
+			}
+			dataOutput.writeByte(fields);
+			if ((fields & SpreadSheetCellDAO.FIELD_FORMATTED_VALUE) != 0) {
+				Text.writeString(dataOutput, cell.getFormattedValue());
+			}
+			if ((fields & SpreadSheetCellDAO.FIELD_COMMENT) != 0) {
+				Text.writeString(dataOutput, cell.getComment());
+			}
+			if ((fields & SpreadSheetCellDAO.FIELD_FORMULA) != 0) {
+				Text.writeString(dataOutput, cell.getFormula());
+			}
+			if (inRow) {
+				int column = MSExcelUtil.getColumnNumberA1Format(cell.getAddress());
+				WritableUtils.writeVInt(dataOutput, column - previousColumn - 1);
+				previousColumn = column;
+			} else if ((fields & SpreadSheetCellDAO.FIELD_ADDRESS) != 0) {
+				Text.writeString(dataOutput, cell.getAddress());
+			}
+			if ((fields & SpreadSheetCellDAO.FIELD_SHEET_NAME) != 0) {
+				Text.writeString(dataOutput, cellSheetName);
+			}
+			if ((fields & SpreadSheetCellDAO.FIELD_RAW_VALUE) != 0) {
+				cell.writeRawValue(dataOutput);
+			}
+		}
+	}
+
+	@Override
+	public void readFields(DataInput dataInput) throws IOException {
+		byte firstByte = dataInput.readByte();
+		if (firstByte != SpreadSheetCellDAO.COMPACT_ENCODING_MARKER) {
+			// written by ArrayWritable: number of cells (int) followed by the cells
+			int length = ((firstByte & 0xFF) << 24) | (dataInput.readUnsignedByte() << 16) | (dataInput.readUnsignedByte() << 8)
+					| dataInput.readUnsignedByte();
+			Writable[] cells = new Writable[length];
+			for (int i = 0; i < length; i++) {
+				SpreadSheetCellDAO cell = new SpreadSheetCellDAO();
+				cell.readFields(dataInput);
+				cells[i] = cell;
+			}
+			this.set(cells);
+			return;
+		}
+		byte version = dataInput.readByte();
+		if (version != SpreadSheetCellDAOArrayWritable.ROW_ENCODING_VERSION) {
+			throw new IOException("Unsupported version of serialized spreadsheet row: " + version);
+		}
+		String sheetName = this.readText(dataInput);
+		int rowNumber = WritableUtils.readVInt(dataInput) - 1;
+		int length = WritableUtils.readVInt(dataInput);
+		byte[] bitmap = new byte[(length + 7) / 8];
+		dataInput.readFully(bitmap);
+		Writable[] cells = new Writable[length];
+		int previousColumn = -1;
+		for (int i = 0; i < length; i++) {
+			if ((bitmap[i / 8] & (1 << (i % 8))) == 0) {
+				continue;
+			}
+			int fields = dataInput.readUnsignedByte();
+			String formattedValue = (fields & SpreadSheetCellDAO.FIELD_FORMATTED_VALUE) != 0 ? this.readText(dataInput) : "";
+			String comment = (fields & SpreadSheetCellDAO.FIELD_COMMENT) != 0 ? this.readText(dataInput) : "";
+			String formula = (fields & SpreadSheetCellDAO.FIELD_FORMULA) != 0 ? this.readText(dataInput) : "";
+			String address = "";
+			if ((fields & SpreadSheetCellDAO.FIELD_CELL_POSITION) != 0) {
+				int column = previousColumn + 1 + WritableUtils.readVInt(dataInput);
+				address = MSExcelUtil.getCellAddressA1Format(rowNumber, column);
+				previousColumn = column;
+			} else if ((fields & SpreadSheetCellDAO.FIELD_ADDRESS) != 0) {
+				address = this.readText(dataInput);
+			}
+			String cellSheetName = (fields & SpreadSheetCellDAO.FIELD_SHEET_NAME) != 0 ? this.readText(dataInput) : sheetName;
+			SpreadSheetCellDAO cell = new SpreadSheetCellDAO(formattedValue, comment, formula, address, cellSheetName);
+			if ((fields & SpreadSheetCellDAO.FIELD_RAW_VALUE) != 0) {
+				cell.readRawValue(dataInput);
+			}
+			cells[i] = cell;
+		}
+		this.set(cells);
+	}
+
+	private String readText(DataInput dataInput) throws IOException {
+		if (this.decodeBuffer == null) {
+			this.decodeBuffer = new Text();
+		}
+		this.decodeBuffer.readFields(dataInput);
+		return this.decodeBuffer.toString();
+	}
+
+	/**
+	 * Sorts rows by sheet name and row number (cf. getSheetName and getRowNumber). Rows in the row-aware encoding are compared without deserializing
+	 * them, rows written by earlier versions are deserialized. Can be used as sort or grouping comparator of a job, e.g. to restore the order of rows
+	 * after a shuffle.
+	 *
+	 */
+	public static class Comparator extends WritableComparator {
+		private DataInputBuffer buffer;
+		private SpreadSheetCellDAOArrayWritable row1;
+		private SpreadSheetCellDAOArrayWritable row2;
+
+		public Comparator() {
+			super();
+			this.buffer = new DataInputBuffer();
+			this.row1 = new SpreadSheetCellDAOArrayWritable();
+			this.row2 = new SpreadSheetCellDAOArrayWritable();
+		}
+
+		@Override
+		public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+			try {
+				if ((b1[s1] != SpreadSheetCellDAO.COMPACT_ENCODING_MARKER) || (b2[s2] != SpreadSheetCellDAO.COMPACT_ENCODING_MARKER)) {
+					this.buffer.reset(b1, s1, l1);
+					this.row1.readFields(this.buffer);
+					this.buffer.reset(b2, s2, l2);
+					this.row2.readFields(this.buffer);
+					return this.compare(this.row1, this.row2);
+				}
+				// sheet name (Text) after marker and version
+				int sheetNameLength1 = WritableComparator.readVInt(b1, s1 + 2);
+				int sheetNameStart1 = s1 + 2 + WritableUtils.decodeVIntSize(b1[s1 + 2]);
+				int sheetNameLength2 = WritableComparator.readVInt(b2, s2 + 2);
+				int sheetNameStart2 = s2 + 2 + WritableUtils.decodeVIntSize(b2[s2 + 2]);
+				int result = WritableComparator.compareBytes(b1, sheetNameStart1, sheetNameLength1, b2, sheetNameStart2, sheetNameLength2);
+				if (result != 0) {
+					return result;
+				}
+				return Integer.compare(WritableComparator.readVInt(b1, sheetNameStart1 + sheetNameLength1),
+						WritableComparator.readVInt(b2, sheetNameStart2 + sheetNameLength2));
+			} catch (IOException e) {
+				throw new IllegalArgumentException(e);
+			}
+		}
+
+		@Override
+		public int compare(Object a, Object b) {
+			SpreadSheetCellDAOArrayWritable rowA = (SpreadSheetCellDAOArrayWritable) a;
+			SpreadSheetCellDAOArrayWritable rowB = (SpreadSheetCellDAOArrayWritable) b;
+			// same order as the UTF-8 encoded sheet names of the serialized rows
+			int result = new Text(rowA.getSheetName()).compareTo(new Text(rowB.getSheetName()));
+			if (result != 0) {
+				return result;
+			}
+			return Integer.compare(rowA.getRowNumber(), rowB.getRowNumber());
+		}
+	}
 }
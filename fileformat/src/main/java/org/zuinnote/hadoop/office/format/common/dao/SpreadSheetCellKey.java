@@ -0,0 +1,185 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.dao;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
+import org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelUtil;
+
+/**
+ * Reference to a cell of a spreadsheet (file, sheet, row, column) that can be used as key, e.g. to sort or group rows of workbooks in a shuffle.
+ *
+ * Keys are ordered numerically by file id, sheet index, row and column (i.e. row 9 is before row 10). They are written with a fixed length so that
+ * the registered SpreadSheetCellKey.Comparator compares them directly on the serialized bytes without deserializing them. The key is mutable so that a
+ * reader can reuse one instance for all rows.
+ *
+ */
+public class SpreadSheetCellKey implements WritableComparable<SpreadSheetCellKey> {
+	/** length of a serialized key in bytes **/
+	public static final int LENGTH = 20;
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	static {
+		WritableComparator.define(SpreadSheetCellKey.class, new Comparator());
+	}
+
+	private long fileId;
+	private int sheetIndex;
+	private int row;
+	private int column;
+
+	public SpreadSheetCellKey() {
+		// reused by readers, fields are set by set or readFields
+	}
+
+	/**
+	 * 
+	 * @param fileId     id of the file, e.g. created with SpreadSheetCellKey.fileId
+	 * @param sheetIndex index of the sheet in the workbook (starting with 0)
+	 * @param row        row number (starting with 0)
+	 * @param column     column number (starting with 0)
+	 */
+	public SpreadSheetCellKey(long fileId, int sheetIndex, int row, int column) {
+		this.set(fileId, sheetIndex, row, column);
+	}
+
+	/**
+	 * Creates an id of a file from its path (64 bit FNV-1a hash). Files are ordered by their id and not by their path
+	 * 
+	 * @param path path of the file
+	 * @return id of the file
+	 */
+	public static long fileId(String path) {
+		long hash = FNV_OFFSET_BASIS;
+		for (int i = 0; i < path.length(); i++) {
+			char c = path.charAt(i);
+			hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+			hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+		}
+		return hash;
+	}
+
+	public void set(long fileId, int sheetIndex, int row, int column) {
+		this.fileId = fileId;
+		this.sheetIndex = sheetIndex;
+		this.row = row;
+		this.column = column;
+	}
+
+	public long getFileId() {
+		return this.fileId;
+	}
+
+	public int getSheetIndex() {
+		return this.sheetIndex;
+	}
+
+	public int getRow() {
+		return this.row;
+	}
+
+	public int getColumn() {
+		return this.column;
+	}
+
+	@Override
+	public void write(DataOutput out) throws IOException {
+		out.writeLong(this.fileId);
+		out.writeInt(this.sheetIndex);
+		out.writeInt(this.row);
+		out.writeInt(this.column);
+	}
+
+	@Override
+	public void readFields(DataInput in) throws IOException {
+		this.fileId = in.readLong();
+		this.sheetIndex = in.readInt();
+		this.row = in.readInt();
+		this.column = in.readInt();
+	}
+
+	@Override
+	public int compareTo(SpreadSheetCellKey o) {
+		int result = Long.compare(this.fileId, o.fileId);
+		if (result != 0) {
+			return result;
+		}
+		result = Integer.compare(this.sheetIndex, o.sheetIndex);
+		if (result != 0) {
+			return result;
+		}
+		result = Integer.compare(this.row, o.row);
+		if (result != 0) {
+			return result;
+		}
+		return Integer.compare(this.column, o.column);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof SpreadSheetCellKey)) {
+			return false;
+		}
+		SpreadSheetCellKey other = (SpreadSheetCellKey) o;
+		return (this.fileId == other.fileId) && (this.sheetIndex == other.sheetIndex) && (this.row == other.row) && (this.column == other.column);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Long.hashCode(this.fileId);
+		result = 31 * result + this.sheetIndex;
+		result = 31 * result + this.row;
+		return 31 * result + this.column;
+	}
+
+	/**
+	 * 
+	 * @return key as text, e.g. 1f3a...:0!B3
+	 */
+	@Override
+	public String toString() {
+		return Long.toHexString(this.fileId) + ":" + this.sheetIndex + "!" + MSExcelUtil.getCellAddressA1Format(this.row, this.column);
+	}
+
+	/**
+	 * Compares serialized keys without deserializing them
+	 *
+	 */
+	public static class Comparator extends WritableComparator {
+
+		public Comparator() {
+			super(SpreadSheetCellKey.class);
+		}
+
+		@Override
+		public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+			int result = Long.compare(WritableComparator.readLong(b1, s1), WritableComparator.readLong(b2, s2));
+			for (int offset = 8; (result == 0) && (offset < LENGTH); offset += 4) {
+				result = Integer.compare(WritableComparator.readInt(b1, s1 + offset), WritableComparator.readInt(b2, s2 + offset));
+			}
+			return result;
+		}
+	}
+}
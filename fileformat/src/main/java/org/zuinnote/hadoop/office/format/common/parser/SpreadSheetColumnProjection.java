@@ -0,0 +1,187 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Columns of a spreadsheet selected for reading (cf. hadoopoffice.read.columns). Parsers skip the cells of other columns before looking up shared
+ * strings, resolving styles and formatting values, and return null for them. The positions of the selected cells in a row do not change.
+ *
+ * Columns can be selected by index (starting with 0) or by header name. Names can only be resolved after the header has been read, so all columns are
+ * selected until resolve is called (projections only consisting of indices are resolved immediately). Parsers reading ahead in background threads may thus return cells of other columns for the first rows, which is why
+ * apply should be called on each row before it is returned.
+ *
+ */
+public class SpreadSheetColumnProjection {
+	private static final Log LOG = LogFactory.getLog(SpreadSheetColumnProjection.class.getName());
+	private List<Integer> indices;
+	private List<String> names;
+	private SpreadSheetRowFilter rowFilter;
+	private String[] header;
+	// null as long as the projection is not resolved, i.e. all columns are selected
+	private volatile boolean[] selected;
+	// columns selected and key columns of the row filter, null as long as the projection is not resolved
+	private volatile boolean[] read;
+
+	private SpreadSheetColumnProjection(List<Integer> indices, List<String> names) {
+		this.indices = indices;
+		this.names = names;
+		this.selected = null;
+		this.read = null;
+	}
+
+	/**
+	 * Creates a projection from a comma-separated list of columns. Numbers are column indices (starting with 0), anything else is a header name (ignoring
+	 * case)
+	 * 
+	 * @param columns list of columns, e.g. 0,3,status
+	 * @return projection or null if no columns are given (i.e. all columns are read)
+	 */
+	public static SpreadSheetColumnProjection create(String columns) {
+		if ((columns == null) || ("".equals(columns.trim()))) {
+			return null;
+		}
+		List<Integer> indices = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+		for (String column : columns.split(",")) {
+			String trimmedColumn = column.trim();
+			if ("".equals(trimmedColumn)) {
+				continue;
+			}
+			if (trimmedColumn.chars().allMatch(Character::isDigit)) {
+				indices.add(Integer.valueOf(trimmedColumn));
+			} else {
+				names.add(trimmedColumn);
+			}
+		}
+		SpreadSheetColumnProjection result = new SpreadSheetColumnProjection(indices, names);
+		if (names.isEmpty()) {
+			// indices do not depend on the header, so cells can be skipped from the beginning
+			result.resolve(null);
+		}
+		return result;
+	}
+
+	/**
+	 * Cells of the key columns of the filter are read even if their column is not selected, so that the filter can be evaluated. They are removed by apply.
+	 * Until the filter is resolved all columns are read
+	 * 
+	 * @param rowFilter filter of the rows
+	 */
+	public void setRowFilter(SpreadSheetRowFilter rowFilter) {
+		this.rowFilter = rowFilter;
+		if (this.isResolved()) {
+			if ((rowFilter == null) || (rowFilter.isResolved())) {
+				this.resolve(this.header);
+			} else {
+				this.read = null;
+				this.selected = null;
+			}
+		}
+	}
+
+	/**
+	 * Resolves the header names to column indices and starts skipping the cells of other columns. Names not found in the header are ignored
+	 * 
+	 * @param header header of the sheet or null if no header is read
+	 */
+	public void resolve(String[] header) {
+		int maxIndex = -1;
+		List<Integer> resolvedIndices = new ArrayList<>(this.indices);
+		for (String name : this.names) {
+			boolean found = false;
+			if (header != null) {
+				for (int i = 0; i < header.length; i++) {
+					if (name.equalsIgnoreCase(header[i])) {
+						resolvedIndices.add(i);
+						found = true;
+					}
+				}
+			}
+			if (!found) {
+				LOG.warn("Selected column \"" + name + "\" not found in header");
+			}
+		}
+		for (Integer index : resolvedIndices) {
+			maxIndex = Math.max(maxIndex, index);
+		}
+		boolean[] resolvedSelected = new boolean[maxIndex + 1];
+		for (Integer index : resolvedIndices) {
+			resolvedSelected[index] = true;
+		}
+		boolean[] resolvedRead = resolvedSelected;
+		if ((this.rowFilter != null) && (this.rowFilter.isResolved())) {
+			int[] keyColumns = this.rowFilter.getKeyColumns();
+			if (keyColumns.length > 0) {
+				resolvedRead = Arrays.copyOf(resolvedSelected, Math.max(resolvedSelected.length, keyColumns[keyColumns.length - 1] + 1));
+				for (int keyColumn : keyColumns) {
+					resolvedRead[keyColumn] = true;
+				}
+			}
+		}
+		this.header = header;
+		this.read = resolvedRead;
+		this.selected = resolvedSelected;
+	}
+
+	/**
+	 * 
+	 * @return true, if resolve has been called
+	 */
+	public boolean isResolved() {
+		return this.selected != null;
+	}
+
+	/**
+	 * 
+	 * @param column index of the column (starting with 0)
+	 * @return true, if the cells of the column need to be read, i.e. the column is selected, it is a key column of the row filter or the projection is not
+	 *         resolved yet
+	 */
+	public boolean isSelected(int column) {
+		boolean[] currentRead = this.read;
+		if (currentRead == null) {
+			return true;
+		}
+		return (column < currentRead.length) && (column >= 0) && currentRead[column];
+	}
+
+	/**
+	 * Removes the cells of columns not selected from a row, if the projection is resolved
+	 * 
+	 * @param row row
+	 * @return the same row, only containing cells of selected columns
+	 */
+	public Object[] apply(Object[] row) {
+		boolean[] currentSelected = this.selected;
+		if ((row == null) || (currentSelected == null)) {
+			return row;
+		}
+		for (int i = 0; i < row.length; i++) {
+			if ((row[i] != null) && ((i >= currentSelected.length) || (!currentSelected[i]))) {
+				row[i] = null;
+			}
+		}
+		return row;
+	}
+
+}
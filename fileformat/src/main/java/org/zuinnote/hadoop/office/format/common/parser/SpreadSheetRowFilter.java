@@ -0,0 +1,407 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+
+/**
+ * Predicate on the cells of a row (cf. hadoopoffice.read.filter). A comparison compares the formatted value of the cell of a column with a string or
+ * number literal, comparisons can be combined with AND and OR, e.g. status = 'OPEN' AND (2 &gt;= 10 OR `due date` &lt; '2019-01-01').
+ *
+ * Columns are referred to by index (starting with 0) or by header name (ignoring case, in backquotes if it is not a simple identifier). Number literals
+ * are compared numerically with cells that contain a number (in plain format or according to the locale), string literals are compared as strings. As in
+ * SQL, a comparison is false if the cell is empty or does not contain a number for a number literal.
+ *
+ * The columns referred to by a filter are the key columns of a row. The low footprint parsers evaluate the filter while reading the cells of a row (cf.
+ * SpreadSheetRowMatcher) and stop creating cells as soon as the row cannot match anymore. Rows rejected this way are returned as REJECTED_ROW.
+ *
+ */
+public class SpreadSheetRowFilter {
+	/**
+	 * Placeholder returned by parsers for rows rejected by the filter, so that the row numbers of subsequent rows do not change
+	 */
+	public static final SpreadSheetCellDAO[] REJECTED_ROW = new SpreadSheetCellDAO[0];
+
+	static final int FALSE = 0;
+	static final int TRUE = 1;
+	static final int UNKNOWN = -1;
+
+	private static final Log LOG = LogFactory.getLog(SpreadSheetRowFilter.class.getName());
+	private static final int TYPE_COMPARISON = 0;
+	private static final int TYPE_AND = 1;
+	private static final int TYPE_OR = 2;
+
+	/**
+	 * Comparison operators
+	 */
+	public enum Operator {
+		EQUAL("="), NOT_EQUAL("!="), LESS("<"), LESS_OR_EQUAL("<="), GREATER(">"), GREATER_OR_EQUAL(">=");
+
+		private final String symbol;
+
+		Operator(String symbol) {
+			this.symbol = symbol;
+		}
+
+		public String getSymbol() {
+			return this.symbol;
+		}
+
+		/**
+		 * 
+		 * @return operator if both sides of the comparison are swapped, e.g. &lt; for &gt;
+		 */
+		public Operator swap() {
+			switch (this) {
+			case LESS:
+				return GREATER;
+			case LESS_OR_EQUAL:
+				return GREATER_OR_EQUAL;
+			case GREATER:
+				return LESS;
+			case GREATER_OR_EQUAL:
+				return LESS_OR_EQUAL;
+			default:
+				return this;
+			}
+		}
+
+		private boolean test(int comparison) {
+			switch (this) {
+			case EQUAL:
+				return comparison == 0;
+			case NOT_EQUAL:
+				return comparison != 0;
+			case LESS:
+				return comparison < 0;
+			case LESS_OR_EQUAL:
+				return comparison <= 0;
+			case GREATER:
+				return comparison > 0;
+			default:
+				return comparison >= 0;
+			}
+		}
+	}
+
+	private int type;
+	// comparison
+	private String columnName;
+	private int column;
+	private Operator operator;
+	private String literal;
+	private BigDecimal numberLiteral;
+	// AND, OR
+	private List<SpreadSheetRowFilter> children;
+	// root only
+	private volatile boolean resolved;
+	private int[] keyColumns;
+
+	private SpreadSheetRowFilter(int type) {
+		this.type = type;
+		this.column = -1;
+	}
+
+	/**
+	 * Creates a comparison of a column with a string literal
+	 * 
+	 * @param column   index (starting with 0) or header name of the column
+	 * @param operator operator
+	 * @param literal  string literal
+	 * @return filter
+	 */
+	public static SpreadSheetRowFilter compare(String column, Operator operator, String literal) {
+		SpreadSheetRowFilter result = new SpreadSheetRowFilter(SpreadSheetRowFilter.TYPE_COMPARISON);
+		result.setColumn(column);
+		result.operator = operator;
+		result.literal = literal;
+		return result;
+	}
+
+	/**
+	 * Creates a comparison of a column with a number literal
+	 * 
+	 * @param column   index (starting with 0) or header name of the column
+	 * @param operator operator
+	 * @param literal  number literal
+	 * @return filter
+	 */
+	public static SpreadSheetRowFilter compare(String column, Operator operator, BigDecimal literal) {
+		SpreadSheetRowFilter result = new SpreadSheetRowFilter(SpreadSheetRowFilter.TYPE_COMPARISON);
+		result.setColumn(column);
+		result.operator = operator;
+		result.numberLiteral = literal;
+		result.literal = literal.toPlainString();
+		return result;
+	}
+
+	/**
+	 * 
+	 * @param filters filters that all need to match
+	 * @return filter
+	 */
+	public static SpreadSheetRowFilter and(SpreadSheetRowFilter... filters) {
+		SpreadSheetRowFilter result = new SpreadSheetRowFilter(SpreadSheetRowFilter.TYPE_AND);
+		result.children = Arrays.asList(filters);
+		return result;
+	}
+
+	/**
+	 * 
+	 * @param filters filters of which at least one needs to match
+	 * @return filter
+	 */
+	public static SpreadSheetRowFilter or(SpreadSheetRowFilter... filters) {
+		SpreadSheetRowFilter result = new SpreadSheetRowFilter(SpreadSheetRowFilter.TYPE_OR);
+		result.children = Arrays.asList(filters);
+		return result;
+	}
+
+	/**
+	 * Parses a filter in the format returned by toString. Filters only referring to columns by index are resolved immediately
+	 * 
+	 * @param filter filter, e.g. status = 'OPEN' AND 3 &gt; 10
+	 * @return filter or null if the filter is empty (i.e. all rows match)
+	 * @throws FormatNotUnderstoodException in case the filter cannot be parsed
+	 */
+	public static SpreadSheetRowFilter parse(String filter) throws FormatNotUnderstoodException {
+		if ((filter == null) || ("".equals(filter.trim()))) {
+			return null;
+		}
+		SpreadSheetRowFilterTokenizer tokenizer = new SpreadSheetRowFilterTokenizer(filter);
+		SpreadSheetRowFilter result = SpreadSheetRowFilter.parseOr(tokenizer);
+		if (tokenizer.next() != null) {
+			throw new FormatNotUnderstoodException("Cannot parse filter \"" + filter + "\": unexpected " + tokenizer.current() + " at position "
+					+ tokenizer.getPosition());
+		}
+		if (!result.hasColumnNames()) {
+			// indices do not depend on the header, so rows can be filtered from the beginning
+			result.resolve(null);
+		}
+		return result;
+	}
+
+	private static SpreadSheetRowFilter parseOr(SpreadSheetRowFilterTokenizer tokenizer) throws FormatNotUnderstoodException {
+		List<SpreadSheetRowFilter> operands = new ArrayList<>();
+		operands.add(SpreadSheetRowFilter.parseAnd(tokenizer));
+		while (tokenizer.acceptKeyword("OR")) {
+			operands.add(SpreadSheetRowFilter.parseAnd(tokenizer));
+		}
+		return operands.size() == 1 ? operands.get(0) : SpreadSheetRowFilter.or(operands.toArray(new SpreadSheetRowFilter[operands.size()]));
+	}
+
+	private static SpreadSheetRowFilter parseAnd(SpreadSheetRowFilterTokenizer tokenizer) throws FormatNotUnderstoodException {
+		List<SpreadSheetRowFilter> operands = new ArrayList<>();
+		operands.add(SpreadSheetRowFilter.parseComparison(tokenizer));
+		while (tokenizer.acceptKeyword("AND")) {
+			operands.add(SpreadSheetRowFilter.parseComparison(tokenizer));
+		}
+		return operands.size() == 1 ? operands.get(0) : SpreadSheetRowFilter.and(operands.toArray(new SpreadSheetRowFilter[operands.size()]));
+	}
+
+	private static SpreadSheetRowFilter parseComparison(SpreadSheetRowFilterTokenizer tokenizer) throws FormatNotUnderstoodException {
+		if (tokenizer.acceptSymbol("(")) {
+			SpreadSheetRowFilter result = SpreadSheetRowFilter.parseOr(tokenizer);
+			tokenizer.expectSymbol(")");
+			return result;
+		}
+		String column = tokenizer.expectColumn();
+		Operator operator = tokenizer.expectOperator();
+		if (tokenizer.isString()) {
+			return SpreadSheetRowFilter.compare(column, operator, tokenizer.expectString());
+		}
+		return SpreadSheetRowFilter.compare(column, operator, tokenizer.expectNumber());
+	}
+
+	private void setColumn(String column) {
+		String trimmedColumn = column.trim();
+		if ((!"".equals(trimmedColumn)) && (trimmedColumn.chars().allMatch(Character::isDigit))) {
+			this.column = Integer.parseInt(trimmedColumn);
+		} else {
+			this.columnName = trimmedColumn;
+		}
+	}
+
+	private boolean hasColumnNames() {
+		if (this.type == SpreadSheetRowFilter.TYPE_COMPARISON) {
+			return this.columnName != null;
+		}
+		for (SpreadSheetRowFilter child : this.children) {
+			if (child.hasColumnNames()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Resolves the header names to column indices. Comparisons of columns not found in the header never match
+	 * 
+	 * @param header header of the sheet or null if no header is read
+	 */
+	public void resolve(String[] header) {
+		TreeSet<Integer> columns = new TreeSet<>();
+		this.resolveColumns(header, columns);
+		int[] resolvedKeyColumns = new int[columns.size()];
+		int i = 0;
+		for (Integer currentColumn : columns) {
+			resolvedKeyColumns[i++] = currentColumn;
+		}
+		this.keyColumns = resolvedKeyColumns;
+		this.resolved = true;
+	}
+
+	private void resolveColumns(String[] header, TreeSet<Integer> columns) {
+		if (this.type != SpreadSheetRowFilter.TYPE_COMPARISON) {
+			for (SpreadSheetRowFilter child : this.children) {
+				child.resolveColumns(header, columns);
+			}
+			return;
+		}
+		if (this.columnName != null) {
+			this.column = -1;
+			if (header != null) {
+				for (int i = 0; i < header.length; i++) {
+					if (this.columnName.equalsIgnoreCase(header[i])) {
+						this.column = i;
+						break;
+					}
+				}
+			}
+			if (this.column == -1) {
+				LOG.warn("Column \"" + this.columnName + "\" of filter not found in header. Comparison never matches");
+			}
+		}
+		if (this.column >= 0) {
+			columns.add(this.column);
+		}
+	}
+
+	/**
+	 * 
+	 * @return true, if resolve has been called
+	 */
+	public boolean isResolved() {
+		return this.resolved;
+	}
+
+	/**
+	 * 
+	 * @return sorted indices of the columns the filter refers to (key columns), only available if the filter is resolved
+	 */
+	public int[] getKeyColumns() {
+		return this.keyColumns;
+	}
+
+	/**
+	 * Creates a matcher to evaluate the filter on rows. Matchers are not thread-safe, each thread needs its own matcher
+	 * 
+	 * @param locale locale of numbers in cells
+	 * @return matcher
+	 */
+	public SpreadSheetRowMatcher newRowMatcher(Locale locale) {
+		return new SpreadSheetRowMatcher(this, locale);
+	}
+
+	/**
+	 * Evaluates the filter on the values of the key columns of a row
+	 * 
+	 * @param values       formatted values of the cells by column index, null for empty cells
+	 * @param lastColumn   last column read, the cells of later columns are not known yet
+	 * @param numberFormat format to parse numbers according to the locale
+	 * @return TRUE, FALSE or UNKNOWN if the result depends on cells not known yet
+	 */
+	int evaluate(String[] values, int lastColumn, NumberFormat numberFormat) {
+		if (this.type == SpreadSheetRowFilter.TYPE_COMPARISON) {
+			if (this.column > lastColumn) {
+				return SpreadSheetRowFilter.UNKNOWN;
+			}
+			String value = (this.column >= 0) && (this.column < values.length) ? values[this.column] : null;
+			return this.compareValue(value, numberFormat) ? SpreadSheetRowFilter.TRUE : SpreadSheetRowFilter.FALSE;
+		}
+		boolean isAnd = this.type == SpreadSheetRowFilter.TYPE_AND;
+		int result = isAnd ? SpreadSheetRowFilter.TRUE : SpreadSheetRowFilter.FALSE;
+		for (SpreadSheetRowFilter child : this.children) {
+			int childResult = child.evaluate(values, lastColumn, numberFormat);
+			if ((isAnd) && (childResult == SpreadSheetRowFilter.FALSE)) {
+				return SpreadSheetRowFilter.FALSE;
+			} else if ((!isAnd) && (childResult == SpreadSheetRowFilter.TRUE)) {
+				return SpreadSheetRowFilter.TRUE;
+			} else if (childResult == SpreadSheetRowFilter.UNKNOWN) {
+				result = SpreadSheetRowFilter.UNKNOWN;
+			}
+		}
+		return result;
+	}
+
+	private boolean compareValue(String value, NumberFormat numberFormat) {
+		if ((value == null) || ("".equals(value))) {
+			return false;
+		}
+		if (this.numberLiteral == null) {
+			return this.operator.test(value.compareTo(this.literal));
+		}
+		BigDecimal numberValue = SpreadSheetRowFilter.parseNumber(value.trim(), numberFormat);
+		if (numberValue == null) {
+			return false;
+		}
+		return this.operator.test(numberValue.compareTo(this.numberLiteral));
+	}
+
+	private static BigDecimal parseNumber(String value, NumberFormat numberFormat) {
+		// formatted values use the locale (e.g. grouping separators), so it takes precedence over the plain notation
+		ParsePosition position = new ParsePosition(0);
+		Number number = numberFormat.parse(value, position);
+		if ((number instanceof BigDecimal) && (position.getIndex() == value.length())) {
+			return (BigDecimal) number;
+		}
+		try {
+			return new BigDecimal(value);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 
+	 * @return filter in the format understood by parse
+	 */
+	@Override
+	public String toString() {
+		if (this.type == SpreadSheetRowFilter.TYPE_COMPARISON) {
+			String columnString = this.columnName == null ? String.valueOf(this.column) : "`" + this.columnName.replace("`", "``") + "`";
+			String literalString = this.numberLiteral == null ? "'" + this.literal.replace("'", "''") + "'" : this.literal;
+			return columnString + " " + this.operator.getSymbol() + " " + literalString;
+		}
+		List<String> operands = new ArrayList<>();
+		for (SpreadSheetRowFilter child : this.children) {
+			operands.add(child.type == SpreadSheetRowFilter.TYPE_COMPARISON ? child.toString() : "(" + child.toString() + ")");
+		}
+		return String.join(this.type == SpreadSheetRowFilter.TYPE_AND ? " AND " : " OR ", operands);
+	}
+
+}
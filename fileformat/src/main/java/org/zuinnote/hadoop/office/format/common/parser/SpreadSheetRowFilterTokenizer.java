@@ -0,0 +1,236 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser;
+
+import java.math.BigDecimal;
+
+/**
+ * Splits the textual representation of a SpreadSheetRowFilter into tokens (parentheses, operators, column names, string and number literals)
+ *
+ */
+class SpreadSheetRowFilterTokenizer {
+	private static final int TYPE_SYMBOL = 0;
+	private static final int TYPE_IDENTIFIER = 1;
+	private static final int TYPE_QUOTED_IDENTIFIER = 2;
+	private static final int TYPE_STRING = 3;
+	private static final int TYPE_NUMBER = 4;
+
+	private String filter;
+	private int position;
+	// next token, null if not read yet or at the end
+	private String token;
+	private int tokenType;
+	private int tokenPosition;
+	private String current;
+
+	SpreadSheetRowFilterTokenizer(String filter) {
+		this.filter = filter;
+		this.position = 0;
+	}
+
+	/**
+	 * 
+	 * @return position of the last token read
+	 */
+	int getPosition() {
+		return this.tokenPosition;
+	}
+
+	/**
+	 * 
+	 * @return last token read
+	 */
+	String current() {
+		return this.current;
+	}
+
+	/**
+	 * Reads the next token
+	 * 
+	 * @return token or null at the end of the filter
+	 * @throws FormatNotUnderstoodException in case of invalid tokens
+	 */
+	String next() throws FormatNotUnderstoodException {
+		String result = this.peek();
+		this.token = null;
+		this.current = result;
+		return result;
+	}
+
+	boolean acceptKeyword(String keyword) throws FormatNotUnderstoodException {
+		String nextToken = this.peek();
+		if ((nextToken != null) && (this.tokenType == SpreadSheetRowFilterTokenizer.TYPE_IDENTIFIER) && (keyword.equalsIgnoreCase(nextToken))) {
+			this.next();
+			return true;
+		}
+		return false;
+	}
+
+	boolean acceptSymbol(String symbol) throws FormatNotUnderstoodException {
+		String nextToken = this.peek();
+		if ((nextToken != null) && (this.tokenType == SpreadSheetRowFilterTokenizer.TYPE_SYMBOL) && (symbol.equals(nextToken))) {
+			this.next();
+			return true;
+		}
+		return false;
+	}
+
+	void expectSymbol(String symbol) throws FormatNotUnderstoodException {
+		if (!this.acceptSymbol(symbol)) {
+			throw this.unexpected("\"" + symbol + "\"");
+		}
+	}
+
+	boolean isString() throws FormatNotUnderstoodException {
+		return (this.peek() != null) && (this.tokenType == SpreadSheetRowFilterTokenizer.TYPE_STRING);
+	}
+
+	String expectColumn() throws FormatNotUnderstoodException {
+		String nextToken = this.peek();
+		if ((nextToken != null) && ((this.tokenType == SpreadSheetRowFilterTokenizer.TYPE_QUOTED_IDENTIFIER)
+				|| ((this.tokenType == SpreadSheetRowFilterTokenizer.TYPE_IDENTIFIER) && (!"AND".equalsIgnoreCase(nextToken))
+						&& (!"OR".equalsIgnoreCase(nextToken)))
+				|| ((this.tokenType == SpreadSheetRowFilterTokenizer.TYPE_NUMBER) && (nextToken.chars().allMatch(Character::isDigit))))) {
+			return this.next();
+		}
+		throw this.unexpected("column");
+	}
+
+	SpreadSheetRowFilter.Operator expectOperator() throws FormatNotUnderstoodException {
+		String nextToken = this.peek();
+		if ((nextToken != null) && (this.tokenType == SpreadSheetRowFilterTokenizer.TYPE_SYMBOL)) {
+			switch (nextToken) {
+			case "=":
+			case "==":
+				this.next();
+				return SpreadSheetRowFilter.Operator.EQUAL;
+			case "!=":
+			case "<>":
+				this.next();
+				return SpreadSheetRowFilter.Operator.NOT_EQUAL;
+			case "<":
+				this.next();
+				return SpreadSheetRowFilter.Operator.LESS;
+			case "<=":
+				this.next();
+				return SpreadSheetRowFilter.Operator.LESS_OR_EQUAL;
+			case ">":
+				this.next();
+				return SpreadSheetRowFilter.Operator.GREATER;
+			case ">=":
+				this.next();
+				return SpreadSheetRowFilter.Operator.GREATER_OR_EQUAL;
+			default:
+				break;
+			}
+		}
+		throw this.unexpected("operator");
+	}
+
+	String expectString() throws FormatNotUnderstoodException {
+		if (!this.isString()) {
+			throw this.unexpected("string");
+		}
+		return this.next();
+	}
+
+	BigDecimal expectNumber() throws FormatNotUnderstoodException {
+		String nextToken = this.peek();
+		if ((nextToken == null) || (this.tokenType != SpreadSheetRowFilterTokenizer.TYPE_NUMBER)) {
+			throw this.unexpected("string or number");
+		}
+		try {
+			return new BigDecimal(this.next());
+		} catch (NumberFormatException e) {
+			throw new FormatNotUnderstoodException("Cannot parse filter \"" + this.filter + "\": invalid number " + this.current + " at position "
+					+ this.tokenPosition);
+		}
+	}
+
+	private FormatNotUnderstoodException unexpected(String expected) throws FormatNotUnderstoodException {
+		String nextToken = this.peek();
+		return new FormatNotUnderstoodException("Cannot parse filter \"" + this.filter + "\": expected " + expected + " at position "
+				+ (nextToken == null ? this.filter.length() : this.tokenPosition) + " but found " + (nextToken == null ? "end of filter" : nextToken));
+	}
+
+	private String peek() throws FormatNotUnderstoodException {
+		if (this.token != null) {
+			return this.token;
+		}
+		while ((this.position < this.filter.length()) && (Character.isWhitespace(this.filter.charAt(this.position)))) {
+			this.position++;
+		}
+		if (this.position == this.filter.length()) {
+			return null;
+		}
+		this.tokenPosition = this.position;
+		char c = this.filter.charAt(this.position);
+		if ((c == '\'') || (c == '`')) {
+			this.tokenType = c == '\'' ? SpreadSheetRowFilterTokenizer.TYPE_STRING : SpreadSheetRowFilterTokenizer.TYPE_QUOTED_IDENTIFIER;
+			this.token = this.readQuoted(c);
+		} else if ((Character.isDigit(c)) || (c == '-') || (c == '+') || (c == '.')) {
+			this.tokenType = SpreadSheetRowFilterTokenizer.TYPE_NUMBER;
+			int start = this.position++;
+			while ((this.position < this.filter.length()) && ((Character.isLetterOrDigit(this.filter.charAt(this.position)))
+					|| (this.filter.charAt(this.position) == '.') || (((this.filter.charAt(this.position) == '-') || (this.filter.charAt(this.position) == '+'))
+							&& (Character.toUpperCase(this.filter.charAt(this.position - 1)) == 'E')))) {
+				this.position++;
+			}
+			this.token = this.filter.substring(start, this.position);
+		} else if ((Character.isLetter(c)) || (c == '_')) {
+			this.tokenType = SpreadSheetRowFilterTokenizer.TYPE_IDENTIFIER;
+			int start = this.position++;
+			while ((this.position < this.filter.length())
+					&& ((Character.isLetterOrDigit(this.filter.charAt(this.position))) || (this.filter.charAt(this.position) == '_'))) {
+				this.position++;
+			}
+			this.token = this.filter.substring(start, this.position);
+		} else {
+			this.tokenType = SpreadSheetRowFilterTokenizer.TYPE_SYMBOL;
+			String twoChars = this.position + 1 < this.filter.length() ? this.filter.substring(this.position, this.position + 2) : "";
+			if (("==".equals(twoChars)) || ("!=".equals(twoChars)) || ("<>".equals(twoChars)) || ("<=".equals(twoChars)) || (">=".equals(twoChars))) {
+				this.token = twoChars;
+				this.position += 2;
+			} else if ((c == '(') || (c == ')') || (c == '=') || (c == '<') || (c == '>')) {
+				this.token = String.valueOf(c);
+				this.position++;
+			} else {
+				throw new FormatNotUnderstoodException("Cannot parse filter \"" + this.filter + "\": invalid character " + c + " at position " + this.position);
+			}
+		}
+		return this.token;
+	}
+
+	private String readQuoted(char quote) throws FormatNotUnderstoodException {
+		StringBuilder result = new StringBuilder();
+		this.position++;
+		while (this.position < this.filter.length()) {
+			char c = this.filter.charAt(this.position++);
+			if (c == quote) {
+				if ((this.position < this.filter.length()) && (this.filter.charAt(this.position) == quote)) { // escaped quote
+					result.append(quote);
+					this.position++;
+				} else {
+					return result.toString();
+				}
+			} else {
+				result.append(c);
+			}
+		}
+		throw new FormatNotUnderstoodException("Cannot parse filter \"" + this.filter + "\": missing closing " + quote + " for position " + this.tokenPosition);
+	}
+
+}
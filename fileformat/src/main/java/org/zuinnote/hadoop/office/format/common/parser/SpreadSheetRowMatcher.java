@@ -0,0 +1,128 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser;
+
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+
+/**
+ * Evaluates a SpreadSheetRowFilter on the rows of a sheet. Parsers report the cells of a row in the order of their columns (cell) and the matcher decides
+ * as soon as the key cells read so far determine the result, so that the parser can skip the remaining cells of a rejected row.
+ *
+ * A matcher is not thread-safe, each parser thread needs its own matcher.
+ *
+ */
+public class SpreadSheetRowMatcher {
+	private SpreadSheetRowFilter filter;
+	private NumberFormat numberFormat;
+	private int[] keyColumns;
+	private String[] values;
+	// index of the next key column not passed yet
+	private int nextKeyColumn;
+	private boolean rejected;
+
+	SpreadSheetRowMatcher(SpreadSheetRowFilter filter, Locale locale) {
+		this.filter = filter;
+		this.numberFormat = NumberFormat.getInstance(locale);
+		if (this.numberFormat instanceof DecimalFormat) {
+			((DecimalFormat) this.numberFormat).setParseBigDecimal(true);
+		}
+	}
+
+	/**
+	 * 
+	 * @return true, if the filter is resolved and rows can be filtered
+	 */
+	public boolean isActive() {
+		return this.filter.isResolved();
+	}
+
+	/**
+	 * Starts a new row
+	 */
+	public void startRow() {
+		if (this.keyColumns == null) {
+			this.keyColumns = this.filter.getKeyColumns();
+			this.values = new String[this.keyColumns.length == 0 ? 0 : this.keyColumns[this.keyColumns.length - 1] + 1];
+		}
+		Arrays.fill(this.values, null);
+		this.nextKeyColumn = 0;
+		this.rejected = false;
+	}
+
+	/**
+	 * Reports a cell of the current row. Cells need to be reported in the order of their columns
+	 * 
+	 * @param column         column of the cell (starting with 0)
+	 * @param formattedValue formatted value of the cell
+	 * @return false, if the row cannot match anymore and the remaining cells can be skipped
+	 */
+	public boolean cell(int column, String formattedValue) {
+		if (this.rejected) {
+			return false;
+		}
+		if (column < this.values.length) {
+			this.values[column] = formattedValue;
+		}
+		boolean keyColumnPassed = false;
+		while ((this.nextKeyColumn < this.keyColumns.length) && (this.keyColumns[this.nextKeyColumn] <= column)) {
+			this.nextKeyColumn++;
+			keyColumnPassed = true;
+		}
+		if ((keyColumnPassed) && (this.filter.evaluate(this.values, column, this.numberFormat) == SpreadSheetRowFilter.FALSE)) {
+			this.rejected = true;
+		}
+		return !this.rejected;
+	}
+
+	/**
+	 * 
+	 * @return true, if the current row cannot match anymore
+	 */
+	public boolean isRejected() {
+		return this.rejected;
+	}
+
+	/**
+	 * Ends the current row
+	 * 
+	 * @return true, if the row matches the filter
+	 */
+	public boolean endRow() {
+		return (!this.rejected) && (this.filter.evaluate(this.values, Integer.MAX_VALUE, this.numberFormat) == SpreadSheetRowFilter.TRUE);
+	}
+
+	/**
+	 * Evaluates the filter on a complete row
+	 * 
+	 * @param row row of SpreadSheetCellDAOs
+	 * @return true, if the row matches the filter
+	 */
+	public boolean accept(Object[] row) {
+		this.startRow();
+		for (int i = 0; i < Math.min(row.length, this.values.length); i++) {
+			if (row[i] != null) {
+				this.values[i] = ((SpreadSheetCellDAO) row[i]).getFormattedValue();
+			}
+		}
+		return this.endRow();
+	}
+
+}
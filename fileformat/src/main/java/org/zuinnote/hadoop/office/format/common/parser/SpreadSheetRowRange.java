@@ -0,0 +1,127 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser;
+
+/**
+ * Range of rows read from each sheet (cf. hadoopoffice.read.rowRange). Rows are numbered as in Excel (starting with 1) and both ends of the range are
+ * included, e.g. 2,100. Either end can be left out (e.g. 2, or ,100) to read up to the end of the sheet or from its beginning.
+ *
+ * Leading rows of a sheet (e.g. lines to skip and the header) are always read, even if they are not part of the range. Rows before the range are returned
+ * by the parsers as SpreadSheetRowFilter.REJECTED_ROW, so that the row numbers of subsequent rows do not change, and parsers stop reading a sheet as soon
+ * as the range is exhausted.
+ *
+ */
+public class SpreadSheetRowRange {
+	// index of the first row of the range (starting with 0)
+	private int firstRow;
+	// index of the first row after the range (starting with 0), Integer.MAX_VALUE if the range ends with the sheet
+	private int endRow;
+
+	/**
+	 * 
+	 * @param firstRow number of the first row of the range (starting with 1)
+	 * @param lastRow  number of the last row of the range (starting with 1), Integer.MAX_VALUE if the range ends with the sheet
+	 */
+	public SpreadSheetRowRange(int firstRow, int lastRow) {
+		this.firstRow = firstRow - 1;
+		this.endRow = lastRow;
+	}
+
+	/**
+	 * Parses a range of rows
+	 * 
+	 * @param rowRange range in the format first,last (e.g. 2,100), either end can be left out
+	 * @return range or null if no range is given (i.e. all rows are read)
+	 * @throws FormatNotUnderstoodException in case the range cannot be parsed
+	 */
+	public static SpreadSheetRowRange parse(String rowRange) throws FormatNotUnderstoodException {
+		if ((rowRange == null) || ("".equals(rowRange.trim()))) {
+			return null;
+		}
+		String[] ends = rowRange.split(",", -1);
+		if (ends.length > 2) {
+			throw new FormatNotUnderstoodException("Cannot parse range of rows \"" + rowRange + "\": expected first,last");
+		}
+		int firstRow = SpreadSheetRowRange.parseRow(rowRange, ends[0], 1);
+		int lastRow = ends.length == 1 ? Integer.MAX_VALUE : SpreadSheetRowRange.parseRow(rowRange, ends[1], Integer.MAX_VALUE);
+		if (lastRow < firstRow) {
+			throw new FormatNotUnderstoodException("Cannot parse range of rows \"" + rowRange + "\": last row is before first row");
+		}
+		return new SpreadSheetRowRange(firstRow, lastRow);
+	}
+
+	private static int parseRow(String rowRange, String row, int defaultRow) throws FormatNotUnderstoodException {
+		String trimmedRow = row.trim();
+		if ("".equals(trimmedRow)) {
+			return defaultRow;
+		}
+		try {
+			int result = Integer.parseInt(trimmedRow);
+			if (result < 1) {
+				throw new FormatNotUnderstoodException("Cannot parse range of rows \"" + rowRange + "\": rows start with 1");
+			}
+			return result;
+		} catch (NumberFormatException e) {
+			throw new FormatNotUnderstoodException("Cannot parse range of rows \"" + rowRange + "\": \"" + trimmedRow + "\" is not a row number");
+		}
+	}
+
+	/**
+	 * 
+	 * @return index of the first row of the range (starting with 0)
+	 */
+	public int getFirstRow() {
+		return this.firstRow;
+	}
+
+	/**
+	 * 
+	 * @return index of the first row after the range (starting with 0), Integer.MAX_VALUE if the range ends with the sheet
+	 */
+	public int getEndRow() {
+		return this.endRow;
+	}
+
+	/**
+	 * 
+	 * @param row         index of a row of a sheet (starting with 0)
+	 * @param leadingRows number of rows at the beginning of the sheet that are always read
+	 * @return true, if the row is not read, because it is before the range
+	 */
+	public boolean isBefore(int row, int leadingRows) {
+		return (row >= leadingRows) && (row < this.firstRow);
+	}
+
+	/**
+	 * 
+	 * @param row         index of a row of a sheet (starting with 0)
+	 * @param leadingRows number of rows at the beginning of the sheet that are always read
+	 * @return true, if the row and all subsequent rows of the sheet are not read, because the range is exhausted
+	 */
+	public boolean isAfter(int row, int leadingRows) {
+		return (row >= leadingRows) && (row >= this.endRow);
+	}
+
+	/**
+	 * 
+	 * @return range in the format understood by parse
+	 */
+	@Override
+	public String toString() {
+		return (this.firstRow + 1) + "," + (this.endRow == Integer.MAX_VALUE ? "" : String.valueOf(this.endRow));
+	}
+
+}
@@ -27,17 +27,20 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.stream.XMLStreamException;
 
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.poi.EmptyFileException;
 import org.apache.poi.EncryptedDocumentException;
 import org.apache.poi.hssf.eventusermodel.EventWorkbookBuilder.SheetRecordCollectingListener;
 import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
 
 import org.apache.poi.hssf.eventusermodel.HSSFRequest;
 import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
@@ -48,6 +51,7 @@ import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
 import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.util.ZipFileZipEntrySource;
 import org.apache.poi.poifs.crypt.ChainingMode;
 import org.apache.poi.poifs.crypt.CipherAlgorithm;
 import org.apache.poi.poifs.crypt.Decryptor;
@@ -62,7 +66,7 @@ import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
 import org.apache.poi.xssf.eventusermodel.XSSFReader;
 import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
-
+import org.apache.poi.xssf.model.CommentsTable;
 import org.apache.poi.xssf.model.StylesTable;
 import org.apache.poi.xssf.usermodel.XSSFRelation;
 import org.apache.xmlbeans.XmlException;
@@ -77,11 +81,30 @@ import org.zuinnote.hadoop.office.format.common.HadoopOfficeReadConfiguration;
 import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
 import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
 import org.zuinnote.hadoop.office.format.common.parser.OfficeReaderParserInterface;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetColumnProjection;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowFilter;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowMatcher;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowRange;
 import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.EncryptedCachedDiskStringsTable;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.HSSFAbortingListener;
 import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.HSSFEventParser;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.HSSFEventStreamingParser;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.HSSFEventStreamingProducer;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.SpreadSheetRowBuffer;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.SpreadSheetRowQueue;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.XSSFColumnProjectionFilter;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.XSSFSheetCompleteException;
 import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.XSSFEventParser;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.XSSFEventStreamingProducer;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.XSSFPullParallelParser;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.XSSFRawValueFilter;
 import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.XSSFPullParser;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.codec.BlockCodec;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.codec.BlockCodecFactory;
 import org.zuinnote.hadoop.office.format.common.util.CertificateChainVerificationUtil;
+import org.zuinnote.hadoop.office.format.common.util.SeekableInputStreamChannel;
+import org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelRowIndex;
+import org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelUtil;
 
 
 /*
@@ -104,7 +127,7 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 
 	private DataFormatter useDataFormatter=null;
 	private static final Log LOG = LogFactory.getLog(MSExcelLowFootprintParser.class.getName());
-	private Map<Integer,List<SpreadSheetCellDAO[]>> spreadSheetCellDAOCache;
+	private Map<Integer,SpreadSheetRowBuffer> spreadSheetCellDAOCache;
 	private List<String> sheetNameList;
 	private InputStream in;
 	private String[] sheets=null;
@@ -118,6 +141,13 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 	private List<InputStream> pullSheetInputList;
 	private List<String> pullSheetNameList;
 	private XSSFPullParser currentPullParser;
+	private XSSFPullParallelParser parallelPullParser;
+	private SpreadSheetColumnProjection columnProjection;
+	private SpreadSheetRowFilter rowFilter;
+	private SpreadSheetRowMatcher rowMatcher;
+	private SpreadSheetRowRange sheetRowRange;
+	// rows that can still be returned (cf. hadoopoffice.read.limit), -1 if there is no limit
+	private long remainingRows;
 	private EncryptedCachedDiskStringsTable pullSST;
 	private ReadOnlySharedStringsTable pushSST;
 	private CipherAlgorithm ca;
@@ -125,6 +155,10 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 	private StylesTable styles;
 	private boolean isDate1904;
 	private boolean headerParsed;
+	private SpreadSheetRowQueue rowQueue;
+	private int streamingSkipRows;
+	private ZipFile randomAccessZip;
+	private SeekableInputStreamChannel randomAccessChannel;
 	
 	public MSExcelLowFootprintParser(HadoopOfficeReadConfiguration hocr) {
 		this(hocr, null);
@@ -144,19 +178,8 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 	public MSExcelLowFootprintParser(HadoopOfficeReadConfiguration hocr, String[] sheets) {
 		this.sheets=sheets;
 		this.hocr=hocr;
-		if (hocr.getLocale()==null)  {
-			if (!this.hocr.getEmulateCSV()) {
-				useDataFormatter=new DataFormatter(); // use default locale
-			} else {
-				useDataFormatter=new DataFormatter(true); // use default locale, emulateCSV
-			}
-		} else {
-			if (!this.hocr.getEmulateCSV()) {
-				useDataFormatter=new DataFormatter(hocr.getLocale());
-			} else {
-				useDataFormatter=new DataFormatter(hocr.getLocale(),true);
-			}
-		}
+		this.useDataFormatter=this.createDataFormatter();
+		this.columnProjection=SpreadSheetColumnProjection.create(hocr.getColumns());
 		this.spreadSheetCellDAOCache=new HashMap<>();
 		this.sheetNameList=new ArrayList<>();
 		this.currentRow=0;
@@ -175,6 +198,49 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 		
 	}
 	
+	/*
+	*
+	* Parses the given InputStream containing Excel data. If the stream is seekable (e.g. an FSDataInputStream) and its length is known then a new Excel
+	* file (.xlsx) that is not encrypted is read by random access: Only the central directory at the end of the file and the parts actually needed (workbook,
+	* shared strings, styles, sheets) are read, instead of reading the complete file into memory.
+	*
+	* @param in InputStream containing Excel data
+	* @param length number of bytes of the document starting from the current position of the stream, -1 if unknown
+	*
+	* @throws org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException in case there are issues reading from the Excel file, e.g. wrong password or unknown format
+	*
+	*/
+	public void parse(InputStream in, long length) throws FormatNotUnderstoodException {
+		if ((length <= 0) || (!SeekableInputStreamChannel.isSeekable(in))) {
+			this.parse(in);
+			return;
+		}
+		try {
+			SeekableInputStreamChannel channel = new SeekableInputStreamChannel(in, length);
+			if (MSExcelUtil.getFileMagic(channel) != FileMagic.OOXML) {
+				// no random access
+				channel.restoreStreamPosition();
+				this.parse(in);
+				return;
+			}
+			LOG.info("Low footprint parsing of new Excel files (.xlsx) - not encrypted file, random access");
+			this.currentRow=0;
+			this.initRowSelection();
+			this.randomAccessChannel = channel;
+			this.randomAccessZip = new ZipFile(channel);
+			try {
+				OPCPackage pkg = OPCPackage.open(new ZipFileZipEntrySource(this.randomAccessZip));
+				this.processOPCPackage(pkg);
+			} catch (InvalidFormatException e) {
+				LOG.error(e);
+				throw new FormatNotUnderstoodException("Error cannot read new Excel file (.xlsx)");
+			}
+		} catch (IOException e) {
+			LOG.error(e);
+			throw new FormatNotUnderstoodException("Could not detect format in Low footprint reading mode");
+		}
+	}
+
 	/*
 	*
 	* Parses the given InputStream containing Excel data. The type of InputStream (e.g. FileInputStream, BufferedInputStream etc.) does not matter here, but it is recommended to use an appropriate
@@ -188,6 +254,7 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 	@Override
 	public void parse(InputStream in) throws FormatNotUnderstoodException {
 		this.currentRow=0;
+		this.initRowSelection();
 		// detect workbook type (based on Workbookfactory code in Apache POI
 		// If clearly doesn't do mark/reset, wrap up
 
@@ -232,6 +299,22 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 					// else we need to 
 					LOG.info("Low footprint parsing of old Excel files (.xls)");
 					this.event=true;
+					if (this.hocr.getLowFootprintStreaming()) {
+						LOG.info("Using streaming mode for low footprint parsing of old Excel files (.xls)");
+						// records are processed in a background thread, which also closes the poifs
+						this.rowQueue = new SpreadSheetRowQueue(this.hocr.getLowFootprintStreamingQueueSize());
+						HSSFEventStreamingParser parser = new HSSFEventStreamingParser(this.sheetNameList,this.useDataFormatter,this.rowQueue,this.sheets);
+						parser.setColumnProjection(this.columnProjection, this.getProjectionLeadingRows());
+						parser.setRawValues(this.hocr.getRawValues());
+						if (this.sheetRowRange!=null) {
+							parser.setSheetRowRange(this.sheetRowRange, this.getProjectionLeadingRows());
+						}
+						this.rowQueue.startProducer(new HSSFEventStreamingProducer(poifs,this.hocr.getPassword(),parser,this.rowQueue), "hadoopoffice-hssf-streaming");
+						// report errors at the beginning of the workbook (e.g. wrong password) already here
+						this.rowQueue.awaitStart();
+						this.processSkipLinesAndHeader();
+						return;
+					}
 					 // use event model API for old Excel files
 					if (this.hocr.getPassword()!=null) {
 						Biff8EncryptionKey.setCurrentUserPassword(this.hocr.getPassword());
@@ -241,14 +324,26 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 					try {
 					  HSSFRequest req = new HSSFRequest();
 					  HSSFEventParser parser = new HSSFEventParser(this.sheetNameList,this.useDataFormatter,this.spreadSheetCellDAOCache,this.sheets);
+					  parser.setColumnProjection(this.columnProjection, this.getProjectionLeadingRows());
+					  parser.setRawValues(this.hocr.getRawValues());
+					  if (this.sheetRowRange!=null) {
+						  parser.setSheetRowRange(this.sheetRowRange, this.getProjectionLeadingRows());
+					  }
+					  if ((this.remainingRows>0) && (this.rowFilter==null)) { // with a filter it is not known how many rows are needed
+						  parser.setRowLimit(this.remainingRows, this.getProjectionLeadingRows());
+					  }
 					  SheetRecordCollectingListener listener = new SheetRecordCollectingListener(new MissingRecordAwareHSSFListener(parser));
 					  parser.setSheetRecordCollectingListener(listener);
-					  req.addListenerForAllRecords(listener);
+					  // stop reading records as soon as all rows needed have been read
+					  req.addListenerForAllRecords(new HSSFAbortingListener(listener, parser::isComplete));
 					  HSSFEventFactory factory = new HSSFEventFactory();
-					  factory.processEvents(req, din);
+					  factory.abortableProcessEvents(req, din);
 					} catch (EncryptedDocumentException e) {
 						LOG.error(e);
 						throw new FormatNotUnderstoodException("Cannot decrypt document");
+					} catch (HSSFUserException e) {
+						LOG.error(e);
+						throw new FormatNotUnderstoodException("Cannot read old Excel file (.xls)");
 					}
 					  finally {
 
@@ -256,6 +351,7 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 						  din.close();
 						  poifs.close();
 					  }
+					this.processSkipLinesAndHeader();
 				} else
 				if(fm==FileMagic.OOXML) { // use event model API for uncrypted new Excel files
 					LOG.info("Low footprint parsing of new Excel files (.xlsx) - not encrypted file");
@@ -355,14 +451,36 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 			} else if (HadoopOfficeReadConfiguration.OPTION_LOWFOOTPRINT_PARSER_STAX.equalsIgnoreCase(this.hocr.getLowFootprintParser())) {
 				List<PackagePart> pkgParts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
 				if (pkgParts.size()>0) {
-					this.pullSST = new EncryptedCachedDiskStringsTable(pkgParts.get(0), this.hocr.getSstCacheSize(), this.hocr.getCompressSST(), this.ca, this.cm);			
+					BlockCodec sstCodec = null;
+					if (this.hocr.getCompressSST()) {
+						try {
+							sstCodec = BlockCodecFactory.createBlockCodec(this.hocr.getCompressSSTCodec());
+						} catch (IllegalArgumentException e) {
+							LOG.error(e);
+							throw new FormatNotUnderstoodException("Unknown codec configured for compressing the shared string table: \""+this.hocr.getCompressSSTCodec()+"\"");
+						}
+					}
+					long sstCacheBytes = this.hocr.getSstCacheBytes();
+					if ((sstCacheBytes <= 0) && (this.hocr.getSstCacheHeapFraction() > 0)) {
+						// size the cache from the heap memory available now
+						Runtime runtime = Runtime.getRuntime();
+						long freeHeap = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+						sstCacheBytes = Math.max(1L, (long) (freeHeap * (double) this.hocr.getSstCacheHeapFraction()));
+						LOG.info("Bounding cache of shared string table by "+sstCacheBytes+" bytes ("+this.hocr.getSstCacheHeapFraction()+" of free heap)");
+					}
+					this.pullSST = new EncryptedCachedDiskStringsTable(pkgParts.get(0), this.hocr.getSstCacheSize(), sstCacheBytes, this.hocr.getCompressSST(), sstCodec, this.ca, this.cm);
 				}
 			}
 			this.styles = r.getStylesTable();
 			XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator)r.getSheetsData();
 			int sheetNumber = 0;
+			List<InputStream> streamingSheetInputList = new ArrayList<>();
+			List<CommentsTable> streamingSheetCommentsList = new ArrayList<>();
+			// rows still needed from the sheets parsed into memory (cf. hadoopoffice.read.limit), -1 if all rows are needed
+			long eventRowBudget = this.rowFilter==null?this.remainingRows:-1;
 			while (iter.hasNext()) {
-				
+				// the name of the sheet is only available after moving to it
+				InputStream rawSheetInputStream = iter.next();
 				// check if we need to parse this sheet?
 				boolean parse=false;
 				if (this.sheets!=null) {
@@ -376,25 +494,65 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 					parse=true;
 				}
 				// sheet is supposed to be parsed
-				if (parse) {
-					
-					InputStream rawSheetInputStream = iter.next();
+				if (!parse) {
+					rawSheetInputStream.close();
+				} else {
 					this.sheetNameList.add(iter.getSheetName());
 					InputSource rawSheetInputSource = new InputSource(rawSheetInputStream);
-					if (HadoopOfficeReadConfiguration.OPTION_LOWFOOTPRINT_PARSER_SAX.equalsIgnoreCase(this.hocr.getLowFootprintParser())) {
+					if ((HadoopOfficeReadConfiguration.OPTION_LOWFOOTPRINT_PARSER_SAX.equalsIgnoreCase(this.hocr.getLowFootprintParser())) && (!this.hocr.getLowFootprintStreaming()) && (eventRowBudget==0)) {
+						LOG.debug("Limit of rows reached. Skipping sheet \""+iter.getSheetName()+"\"");
+						rawSheetInputStream.close();
+					} else if ((HadoopOfficeReadConfiguration.OPTION_LOWFOOTPRINT_PARSER_SAX.equalsIgnoreCase(this.hocr.getLowFootprintParser())) && (this.hocr.getLowFootprintStreaming())) {
+						this.event=true;
+						LOG.info("Using SAX parser for low footprint Excel parsing in streaming mode");
+						// parsing is done in the background thread started below
+						streamingSheetInputList.add(rawSheetInputStream);
+						streamingSheetCommentsList.add(iter.getSheetComments());
+					} else if (HadoopOfficeReadConfiguration.OPTION_LOWFOOTPRINT_PARSER_SAX.equalsIgnoreCase(this.hocr.getLowFootprintParser())) {
 						this.event=true;
 						LOG.info("Using SAX parser for low footprint Excel parsing");
 						XMLReader sheetParser = SAXHelper.newXMLReader();
 						XSSFEventParser xssfp = new XSSFEventParser(sheetNumber,iter.getSheetName(), this.spreadSheetCellDAOCache);
-						
+						if (this.rowMatcher!=null) {
+							xssfp.setRowFilter(this.rowMatcher, this.getProjectionLeadingRows());
+						}
+						if (this.sheetRowRange!=null) {
+							xssfp.setSheetRowRange(this.sheetRowRange, this.getProjectionLeadingRows());
+						}
+						if (eventRowBudget>0) {
+							xssfp.setRowLimit(eventRowBudget, sheetNumber==0?this.getProjectionLeadingRows():this.getAllSheetsSkipRows());
+						}
 			            ContentHandler handler = new XSSFSheetXMLHandler(
 			                  this.styles, iter.getSheetComments(), this.pushSST, xssfp, this.useDataFormatter, false);
+			            if (this.hocr.getRawValues()) {
+			            	xssfp.setRawValues(this.styles, this.isDate1904);
+			            	handler = new XSSFRawValueFilter(handler, xssfp);
+			            }
+			            if ((this.columnProjection!=null) || (this.rowMatcher!=null) || (this.sheetRowRange!=null) || (eventRowBudget>0)) {
+			            	XSSFColumnProjectionFilter projectionFilter = new XSSFColumnProjectionFilter(handler, this.columnProjection, this.getProjectionLeadingRows());
+			            	projectionFilter.setRowParser(xssfp);
+			            	handler = projectionFilter;
+			            }
 			            sheetParser.setContentHandler(handler);
-			            sheetParser.parse(rawSheetInputSource);
+			            try {
+			            	sheetParser.parse(rawSheetInputSource);
+			            } catch (XSSFSheetCompleteException e) {
+			            	LOG.debug(e.getMessage());
+			            } finally {
+			            	rawSheetInputStream.close();
+			            }
+			            if (eventRowBudget>0) {
+			            	eventRowBudget=Math.max(0, eventRowBudget-xssfp.getRowCount());
+			            }
 			            sheetNumber++;
 					} else if (HadoopOfficeReadConfiguration.OPTION_LOWFOOTPRINT_PARSER_STAX.equalsIgnoreCase(this.hocr.getLowFootprintParser())) {
 						LOG.info("Using STAX parser for low footprint Excel parsing");
 						this.event=false;
+						MSExcelRowIndex.RowRange rowRange=this.hocr.getRowRange();
+						if ((rowRange!=null) && (rowRange.getSheet().getName().equals(iter.getSheetName()))) {
+							LOG.info("Reading rows starting at row "+rowRange.getFirstRow()+" of sheet \""+iter.getSheetName()+"\"");
+							rawSheetInputStream=rowRange.openStream(rawSheetInputStream, this.getRowRangeLeadingRows());
+						}
 						this.pullSheetInputList.add(rawSheetInputStream);
 						this.pullSheetNameList.add(iter.getSheetName());
 						// make shared string table available
@@ -407,6 +565,32 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 
 				}
 						}
+			if ((this.pullSheetInputList.size()>1) && (this.hocr.getLowFootprintStaxParallelThreads()>1)) {
+				LOG.info("Parsing "+this.pullSheetInputList.size()+" sheets with "+this.hocr.getLowFootprintStaxParallelThreads()+" threads");
+				final List<String> parallelSheetNames = new ArrayList<>(this.pullSheetNameList);
+				this.parallelPullParser = new XSSFPullParallelParser(this.pullSheetInputList, (sheetIndex, sheetInputStream) -> this.createParallelPullParser(parallelSheetNames.get(sheetIndex), sheetIndex>0, sheetInputStream), this.hocr.getLowFootprintStaxParallelThreads(), this.hocr.getLowFootprintStaxParallelOrdered(), this.hocr.getLowFootprintStreamingQueueSize());
+				this.pullSheetInputList.clear();
+				this.pullSheetNameList.clear();
+			}
+			if (streamingSheetInputList.size()>0) {
+				this.rowQueue = new SpreadSheetRowQueue(this.hocr.getLowFootprintStreamingQueueSize());
+				XSSFEventStreamingProducer producer = new XSSFEventStreamingProducer(this.sheetNameList, streamingSheetInputList, streamingSheetCommentsList, this.styles, this.pushSST, this.useDataFormatter, this.rowQueue);
+				producer.setColumnProjection(this.columnProjection, this.getProjectionLeadingRows());
+				if (this.hocr.getRawValues()) {
+					producer.setRawValues(this.isDate1904);
+				}
+				if (this.sheetRowRange!=null) {
+					producer.setSheetRowRange(this.sheetRowRange, this.getProjectionLeadingRows());
+				}
+				if (this.rowFilter!=null) {
+					producer.setRowFilter(this.rowFilter.newRowMatcher(this.getFilterLocale()), this.getProjectionLeadingRows());
+				}
+				this.rowQueue.startProducer(producer, "hadoopoffice-xssf-sax-streaming");
+			}
+			if ((this.pullSheetInputList.isEmpty()) && (this.parallelPullParser==null) && (this.rowQueue==null)) {
+				// all sheets have been parsed already, the document does not need to be accessed anymore
+				this.releaseRandomAccess();
+			}
 		} catch (InvalidFormatException | IOException e) {
 			LOG.error(e);
 			throw new FormatNotUnderstoodException("Error cannot parse new Excel file (.xlsx)");
@@ -420,6 +604,18 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 			LOG.error(e);
 			throw new FormatNotUnderstoodException("Parsing Excel sheet in .xlsx format failed. Cannot read XML content");
 		}
+		this.processSkipLinesAndHeader();
+		if (this.parallelPullParser!=null) {
+			// rows of the sheets may be mixed after the header of the first sheet
+			this.parallelPullParser.releaseOrder();
+		}
+	}
+	
+	/**
+	 * Skips the configured number of lines in the first sheet and reads the header, if configured
+	 * 
+	 */
+	private void processSkipLinesAndHeader() {
 		 // check skipping of additional lines
 		for (int i=0;i<this.hocr.getSkipLines();i++) {
 			this.getNext();
@@ -440,9 +636,17 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 			 } else {
 				 this.header=new String[0];
 			 }
+		 } else if (this.hocr.getWorkbookHeader()!=null) { // header of the first sheet read by another reader, e.g. for a split of later sheets
+			 this.header=this.hocr.getWorkbookHeader();
 		 }
 		 this.headerParsed=true;
-		
+		 // header names are known now
+		 if (this.rowFilter!=null) {
+			 this.rowFilter.resolve(this.header);
+		 }
+		 if (this.columnProjection!=null) {
+			 this.columnProjection.resolve(this.header);
+		 }
 	}
 	
 	@Override
@@ -474,21 +678,229 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 
 	@Override
 	public Object[] getNext() {
+		if (this.remainingRows==0) { // limit of rows reached
+			return null;
+		}
+		Object[] result=this.getNextRow();
+		if (this.headerParsed) {
+			// skip rows rejected by the parser (e.g. rows before the range of rows) or parsed before the filter has been resolved
+			while ((result!=null) && ((result==SpreadSheetRowFilter.REJECTED_ROW) || ((this.rowMatcher!=null) && (!this.rowMatcher.accept(result))))) {
+				result=this.getNextRow();
+			}
+			if (this.columnProjection!=null) {
+				// rows parsed ahead before the projection has been resolved
+				result=this.columnProjection.apply(result);
+			}
+			if ((result!=null) && (this.remainingRows>0)) {
+				this.remainingRows--;
+				if (this.remainingRows==0) {
+					LOG.info("Limit of "+this.hocr.getLimit()+" rows reached");
+					this.stopParsing();
+				}
+			}
+		}
+		if (result==null) {
+			// all rows read, the document does not need to be accessed anymore
+			this.releaseRandomAccess();
+		}
+		return result;
+	}
+
+	/**
+	 * Closes the random access to the document, if it is read by random access
+	 * 
+	 */
+	private void releaseRandomAccess() {
+		if (this.randomAccessZip!=null) {
+			try {
+				this.randomAccessZip.close();
+			} catch (IOException e) {
+				LOG.error(e);
+			}
+		}
+	}
+
+	/**
+	 * Stops parsing the document once the limit of rows has been reached: Stops the threads parsing in the background and closes the sheets not read yet
+	 * 
+	 */
+	private void stopParsing() {
+		if (this.rowQueue!=null) {
+			this.rowQueue.close();
+		}
+		if (this.parallelPullParser!=null) {
+			this.parallelPullParser.close();
+		}
+		try {
+			if (this.currentPullParser!=null) {
+				this.currentPullParser.close();
+			}
+			for (InputStream sheetInputStream: this.pullSheetInputList) {
+				sheetInputStream.close();
+			}
+		} catch (XMLStreamException | IOException e) {
+			LOG.error(e);
+		}
+		this.pullSheetInputList.clear();
+		this.pullSheetNameList.clear();
+		this.spreadSheetCellDAOCache.clear();
+		this.releaseRandomAccess();
+	}
+
+	/**
+	 * Reads the next row with the parser of the current mode
+	 * 
+	 * @return row or null if there are no more rows
+	 * @throws IllegalStateException in case the document cannot be parsed, e.g. a background parser thread failed
+	 */
+	private Object[] getNextRow() {
 		Object[] result=null;
-		if (event) {
+		if ((event) && (this.rowQueue!=null)) {
+			try {
+				result=this.getNextStreaming();
+			} catch (FormatNotUnderstoodException e) {
+				// not the end of the rows
+				throw new IllegalStateException("Cannot parse the next row: "+e.getMessage(), e);
+			}
+		} else if (event) {
 			result=this.getNextEvent();
 		} else {
 			LOG.info("Using STAX parser for low footprint Excel parsing");
 			// everything else is in the getNextMethod
 			try {
-				result=this.getNextPull();
+				if (this.parallelPullParser!=null) {
+					result=this.parallelPullParser.take();
+					this.currentSheet=this.parallelPullParser.getCurrentSheet();
+				} else {
+					result=this.getNextPull();
+				}
 			} catch (XMLStreamException | FormatNotUnderstoodException e) {
-				LOG.error(e);
+				// not the end of the rows
+				throw new IllegalStateException("Cannot parse the next row: "+e.getMessage(), e);
 			}
 		} 
 		return result;
 	}
 	
+	/**
+	 * Creates a formatter for the values of cells according to the configuration. A DataFormatter must not be used by several threads
+	 * 
+	 * @return formatter
+	 */
+	private DataFormatter createDataFormatter() {
+		if (this.hocr.getLocale()==null)  {
+			if (!this.hocr.getEmulateCSV()) {
+				return new DataFormatter(); // use default locale
+			} else {
+				return new DataFormatter(true); // use default locale, emulateCSV
+			}
+		} else {
+			if (!this.hocr.getEmulateCSV()) {
+				return new DataFormatter(this.hocr.getLocale());
+			} else {
+				return new DataFormatter(this.hocr.getLocale(),true);
+			}
+		}
+	}
+
+	/**
+	 * Parses the row filter (hadoopoffice.read.filter), the range of rows (hadoopoffice.read.rowRange) and the limit of rows (hadoopoffice.read.limit).
+	 * The key columns of the filter are read even if they are not selected
+	 * 
+	 * @throws FormatNotUnderstoodException in case the filter or the range of rows cannot be parsed
+	 */
+	private void initRowSelection() throws FormatNotUnderstoodException {
+		this.rowFilter=SpreadSheetRowFilter.parse(this.hocr.getFilter());
+		if (this.rowFilter!=null) {
+			this.rowMatcher=this.rowFilter.newRowMatcher(this.getFilterLocale());
+			if (this.columnProjection!=null) {
+				this.columnProjection.setRowFilter(this.rowFilter);
+			}
+		}
+		this.sheetRowRange=SpreadSheetRowRange.parse(this.hocr.getSheetRowRange());
+		this.remainingRows=this.hocr.getLimit()>0?this.hocr.getLimit():-1;
+	}
+
+	/**
+	 * 
+	 * @return locale of numbers compared by the row filter
+	 */
+	private Locale getFilterLocale() {
+		return this.hocr.getLocale()==null?Locale.getDefault():this.hocr.getLocale();
+	}
+
+	/**
+	 * Number of rows at the beginning of a sheet that are read completely, even if only some columns are selected, i.e. the lines to skip and the header
+	 * 
+	 * @return number of rows
+	 */
+	private int getProjectionLeadingRows() {
+		return this.hocr.getSkipLines()+(this.hocr.getReadHeader()?1:0);
+	}
+
+	/**
+	 * Number of rows skipped at the beginning of all sheets but the first one (cf. hadoopoffice.read.skipLinesAllSheets and
+	 * hadoopoffice.read.header.skipheaderinallsheets)
+	 * 
+	 * @return number of rows
+	 */
+	private int getAllSheetsSkipRows() {
+		return (this.hocr.getSkipLinesAllSheets()?this.hocr.getSkipLines():0)+(this.hocr.getIgnoreHeaderInAllSheets()?1:0);
+	}
+
+	/**
+	 * Number of rows at the beginning of a sheet read in addition to a range of rows (cf. MSExcelRowIndex.RowRange), i.e. the lines to skip and the header
+	 * 
+	 * @return number of rows, 0 if the range starts at the beginning of the sheet
+	 */
+	private int getRowRangeLeadingRows() {
+		if (this.hocr.getRowRange().isFirst()) {
+			return 0;
+		}
+		return this.hocr.getSkipLines()+(this.hocr.getReadHeader()?1:0);
+	}
+
+	/**
+	 * Creates the pull parser of a sheet parsed concurrently with other sheets. It has its own DataFormatter, because a DataFormatter must not be used by
+	 * several threads. Skips lines and the header, if configured, and if it is not the first sheet.
+	 * 
+	 * @param sheetName        name of the sheet
+	 * @param skipRows         true, if lines and the header should be skipped as configured for all sheets
+	 * @param sheetInputStream sheet in xlsx format input stream
+	 * @return pull parser
+	 * @throws XMLStreamException           in case the sheet cannot be parsed
+	 * @throws FormatNotUnderstoodException in case the sheet cannot be parsed
+	 */
+	private XSSFPullParser createParallelPullParser(String sheetName, boolean skipRows, InputStream sheetInputStream) throws XMLStreamException, FormatNotUnderstoodException {
+		XSSFPullParser parser = new XSSFPullParser(sheetName, sheetInputStream, this.pullSST, this.styles, this.createDataFormatter(), this.isDate1904);
+		parser.setColumnProjection(this.columnProjection, this.getProjectionLeadingRows());
+		parser.setRawValues(this.hocr.getRawValues());
+		if (this.sheetRowRange!=null) {
+			parser.setSheetRowRange(this.sheetRowRange, this.getProjectionLeadingRows());
+		}
+		if (this.rowFilter!=null) {
+			// each parser is used by one thread at a time
+			parser.setRowFilter(this.rowFilter.newRowMatcher(this.getFilterLocale()), this.getProjectionLeadingRows());
+		}
+		MSExcelRowIndex.RowRange rowRange=this.hocr.getRowRange();
+		if ((rowRange!=null) && (rowRange.getSheet().getName().equals(sheetName))) {
+			parser.setRowRange(this.getRowRangeLeadingRows(), rowRange.getFirstRow());
+		}
+		if (skipRows) {
+			int rows=0;
+			if (this.hocr.getSkipLinesAllSheets()) {
+				rows+=this.hocr.getSkipLines();
+			}
+			if (this.hocr.getIgnoreHeaderInAllSheets()) {
+				rows++;
+			}
+			for (int i=0;(i<rows) && (parser.hasNext());i++) {
+				parser.getNext(); // skip line
+			}
+		}
+		return parser;
+	}
+
 	private Object[] getNextPull() throws XMLStreamException, FormatNotUnderstoodException {
 		Object[] result=null;
 		// check if currentPullParser == null
@@ -496,6 +908,18 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 			if (this.pullSheetInputList.size()>0) {
 					try {
 						this.currentPullParser=new XSSFPullParser(this.pullSheetNameList.get(0),this.pullSheetInputList.get(0),this.pullSST,this.styles, this.useDataFormatter, this.isDate1904);
+						this.currentPullParser.setColumnProjection(this.columnProjection, this.getProjectionLeadingRows());
+						this.currentPullParser.setRawValues(this.hocr.getRawValues());
+						if (this.rowMatcher!=null) {
+							this.currentPullParser.setRowFilter(this.rowMatcher, this.getProjectionLeadingRows());
+						}
+						if (this.sheetRowRange!=null) {
+							this.currentPullParser.setSheetRowRange(this.sheetRowRange, this.getProjectionLeadingRows());
+						}
+						MSExcelRowIndex.RowRange rowRange=this.hocr.getRowRange();
+						if ((rowRange!=null) && (rowRange.getSheet().getName().equals(this.pullSheetNameList.get(0)))) {
+							this.currentPullParser.setRowRange(this.getRowRangeLeadingRows(), rowRange.getFirstRow());
+						}
 						this.pullSheetNameList.remove(0);
 						this.pullSheetInputList.remove(0);
 						// check if we need to skip lines
@@ -528,36 +952,68 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 		return result;
 	}
 	
+	/**
+	 * Takes the next row from the queue filled by the background parser thread. Skips lines and headers of all sheets but the first one, if configured.
+	 * 
+	 * @return next row or null if there are no more rows
+	 * @throws FormatNotUnderstoodException in case the background parser thread failed
+	 */
+	private Object[] getNextStreaming() throws FormatNotUnderstoodException {
+		SpreadSheetCellDAO[] result = this.rowQueue.take();
+		while (result!=null) {
+			if (this.rowQueue.getCurrentSheet()!=this.currentSheet) { // first row of next sheet
+				this.currentSheet=this.rowQueue.getCurrentSheet();
+				this.currentRow=0;
+				this.streamingSkipRows=0;
+				if (this.headerParsed) {
+					// check if we need to skip lines
+					if (this.hocr.getSkipLinesAllSheets()) {
+						this.streamingSkipRows+=this.hocr.getSkipLines();
+					}
+					// check if we need to skip header
+					if (this.hocr.getIgnoreHeaderInAllSheets()) {
+						this.streamingSkipRows++;
+					}
+				}
+			}
+			this.currentRow++;
+			if (this.streamingSkipRows==0) {
+				return result;
+			}
+			this.streamingSkipRows--;
+			result=this.rowQueue.take();
+		}
+		return result;
+	}
+	
 	private Object[] getNextEvent() {
 		SpreadSheetCellDAO[] result = null;
 		if (this.spreadSheetCellDAOCache.size()==0) {
 			return result;
 		}
-		if (this.spreadSheetCellDAOCache.get(this.currentSheet).size()>0) {
-			result=this.spreadSheetCellDAOCache.get(this.currentSheet).remove(0);
+		SpreadSheetRowBuffer currentSheetRows = this.spreadSheetCellDAOCache.get(this.currentSheet);
+		if (!currentSheetRows.isEmpty()) {
+			result=currentSheetRows.poll();
 			this.currentRow++;
 		} 
-		while (this.spreadSheetCellDAOCache.get(this.currentSheet).size()<=0) { // next sheet
+		while (currentSheetRows.isEmpty()) { // next sheet
 			this.spreadSheetCellDAOCache.remove(this.currentSheet);
 			if (this.spreadSheetCellDAOCache.size()==0) {
 				return result;
 			}
 			this.currentSheet++;
 			this.currentRow=0;
+			currentSheetRows = this.spreadSheetCellDAOCache.get(this.currentSheet);
 			// check if we need to skip lines
 			if (this.hocr.getSkipLinesAllSheets()) {
 				for (int i=0;i<this.hocr.getSkipLines();i++) {
-					if (this.spreadSheetCellDAOCache.get(this.currentSheet).size()>0) {
-						this.spreadSheetCellDAOCache.get(this.currentSheet).remove(0);
-					}
+					currentSheetRows.poll();
 					this.currentRow++;
 				}
 			}
 			// check if we need to skip header
 			if (this.hocr.getIgnoreHeaderInAllSheets()) {
-				if (this.spreadSheetCellDAOCache.get(this.currentSheet).size()>0) {
-					this.spreadSheetCellDAOCache.get(this.currentSheet).remove(0);
-				}
+				currentSheetRows.poll();
 				this.currentRow++;
 			}
 			
@@ -565,6 +1021,14 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 		return result;
 	}
 
+	/**
+	 * 
+	 * @return true, if the document is read by random access and has not been closed yet
+	 */
+	boolean isRandomAccessOpen() {
+		return (this.randomAccessChannel!=null) && (this.randomAccessChannel.isOpen());
+	}
+
 	@Override
 	public boolean getFiltered() {
 		return true;
@@ -572,11 +1036,27 @@ public class MSExcelLowFootprintParser implements OfficeReaderParserInterface  {
 
 	@Override
 	public void close() throws IOException {
- 	  if (this.in!=null) {
- 		  this.in.close();
- 	  }
-	  if (this.pullSST!=null) {
-		  this.pullSST.close();
+	  // stop the threads parsing in the background first, they may still read the shared strings and the document
+	  if (this.parallelPullParser!=null) {
+		  this.parallelPullParser.close();
+	  }
+	  if (this.rowQueue!=null) {
+		  this.rowQueue.close();
+	  }
+	  try {
+		  if (this.pullSST!=null) {
+			  this.pullSST.close();
+		  }
+	  } finally {
+		  try {
+			  if (this.randomAccessZip!=null) {
+				  this.randomAccessZip.close();
+			  }
+		  } finally {
+			  if (this.in!=null) {
+				  this.in.close();
+			  }
+		  }
 	  }
 	}
 
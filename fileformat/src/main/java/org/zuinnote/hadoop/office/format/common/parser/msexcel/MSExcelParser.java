@@ -23,6 +23,7 @@ import java.text.SimpleDateFormat;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
@@ -31,10 +32,14 @@ import java.util.Iterator;
 import org.apache.poi.hssf.model.InternalWorkbook;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ooxml.POIXMLProperties;
+import org.apache.poi.xssf.usermodel.XSSFCell;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
 import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Date1904Support;
+import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Comment;
 import org.apache.poi.ss.usermodel.Row;
@@ -64,6 +69,10 @@ import org.zuinnote.hadoop.office.format.common.HadoopOfficeReadConfiguration;
 import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
 import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
 import org.zuinnote.hadoop.office.format.common.parser.OfficeReaderParserInterface;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetColumnProjection;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowFilter;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowMatcher;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowRange;
 import org.zuinnote.hadoop.office.format.common.util.CertificateChainVerificationUtil;
 
 /*
@@ -81,6 +90,8 @@ private static final Log LOG = LogFactory.getLog(MSExcelParser.class.getName());
 public static final String DATE_FORMAT = "hh:mm:ss dd.MM.yyyy";
 public static final int MAX_LINKEDWB_OLDEXCEL=100;
 private FormulaEvaluator formulaEvaluator;
+private boolean rawValues;
+private boolean date1904;
 private InputStream in;
 private DataFormatter useDataFormatter=null;
 private String[] sheets=null;
@@ -96,6 +107,10 @@ private boolean filtered=false;
 private HadoopOfficeReadConfiguration hocr;
 private String[] header;
 private int currentSkipLine=0;
+private SpreadSheetColumnProjection columnProjection=null; // set after the header has been read
+private SpreadSheetRowMatcher rowMatcher=null; // set after the header has been read
+private SpreadSheetRowRange sheetRowRange=null;
+private long remainingRows=-1; // rows left until the limit is reached, -1 if there is no limit (set after the header has been read)
 
 	/*
 	* In the default case all sheets are parsed one after the other.
@@ -224,6 +239,9 @@ private int currentSkipLine=0;
 		 this.addedFormulaEvaluators.put(this.hocr.getFileName(),this.formulaEvaluator);
 		 this.formulaEvaluator.setIgnoreMissingWorkbooks(this.hocr.getIgnoreMissingLinkedWorkbooks());
 		 this.filtered=this.checkFiltered();
+		 this.rawValues=this.hocr.getRawValues();
+		 this.date1904=MSExcelParser.isDate1904(this.currentWorkbook);
+		 this.sheetRowRange=SpreadSheetRowRange.parse(this.hocr.getSheetRowRange());
 		 this.currentRow=0;
 		 if (this.sheets==null) {
 			this.currentSheetName=this.currentWorkbook.getSheetAt(0).getSheetName();
@@ -250,8 +268,22 @@ private int currentSkipLine=0;
 			 } else {
 				 this.header=new String[0];
 			 }
+		 } else if (this.hocr.getWorkbookHeader()!=null) { // header of the first sheet read by another reader, e.g. for a split of later sheets
+			 this.header=this.hocr.getWorkbookHeader();
+		 }
+		 SpreadSheetRowFilter rowFilter=SpreadSheetRowFilter.parse(this.hocr.getFilter());
+		 if (rowFilter!=null) {
+			 rowFilter.resolve(this.header);
+			 this.rowMatcher=rowFilter.newRowMatcher(this.hocr.getLocale()==null?Locale.getDefault():this.hocr.getLocale());
+		 }
+		 this.columnProjection=SpreadSheetColumnProjection.create(this.hocr.getColumns());
+		 if (this.columnProjection!=null) {
+			 this.columnProjection.setRowFilter(rowFilter);
+			 this.columnProjection.resolve(this.header);
+		 }
+		 if (this.hocr.getLimit()>0) {
+			 this.remainingRows=this.hocr.getLimit();
 		 }
-
 	
 	}
 
@@ -425,30 +457,72 @@ private int currentSkipLine=0;
 	*/
 	@Override
 	public Object[] getNext() {
+		if (this.remainingRows==0) { // limit reached
+			return null;
+		}
+		Object[] result=this.getNextRow();
+		while (result==SpreadSheetRowFilter.REJECTED_ROW) {
+			result=this.getNextRow();
+		}
+		if ((result!=null) && (this.remainingRows>0)) {
+			this.remainingRows--;
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the next row. Stops creating cells as soon as the row cannot match the row filter anymore
+	 * 
+	 * @return row, SpreadSheetRowFilter.REJECTED_ROW if the row does not match the row filter or null if there are no more rows
+	 */
+	private Object[] getNextRow() {
 	
 		SpreadSheetCellDAO[] result=null;
-		// all sheets?
-		if (this.sheets==null) { //  go on with all sheets
-			if (!nextAllSheets()) {
-				return result;
+		Sheet rSheet;
+		while (true) {
+			// all sheets?
+			if (this.sheets==null) { //  go on with all sheets
+				if (!nextAllSheets()) {
+					return result;
+				}
+			} else { // go on with specified sheets
+				if (!nextSpecificSheets()) {
+					return result;
+				}
+			}
+			rSheet = this.currentWorkbook.getSheetAt(this.currentSheet);
+			if (this.sheetRowRange==null) {
+				break;
 			}
-		} else { // go on with specified sheets
-			if (!nextSpecificSheets()) {
-				return result;
+			int leadingRows=this.hocr.getSkipLines()+(this.hocr.getReadHeader()?1:0);
+			if (this.sheetRowRange.isBefore(this.currentRow, leadingRows)) { // continue with the range
+				this.currentRow=this.sheetRowRange.getFirstRow();
+			} else if (this.sheetRowRange.isAfter(this.currentRow, leadingRows)) { // range exhausted => next sheet
+				this.currentRow=rSheet.getLastRowNum()+1;
+			} else {
+				break;
 			}
 		}
 		// read row from the sheet currently to be processed
-		Sheet rSheet = this.currentWorkbook.getSheetAt(this.currentSheet);
 		Row rRow = rSheet.getRow(this.currentRow);
+		if (this.rowMatcher!=null) {
+			this.rowMatcher.startRow();
+		}
 		if ((rRow==null) || (rRow.getLastCellNum()<0)) {
 			this.currentRow++;
+			if ((this.rowMatcher!=null) && (!this.rowMatcher.endRow())) {
+				return SpreadSheetRowFilter.REJECTED_ROW;
+			}
 			return new SpreadSheetCellDAO[0]; // emtpy row
 		}
 		result = new SpreadSheetCellDAO[rRow.getLastCellNum()];
 		for (int i=0;i<rRow.getLastCellNum();i++) {
 			Cell currentCell=rRow.getCell(i);
-			if (currentCell==null) {
+			if ((currentCell==null) || ((this.columnProjection!=null) && (!this.columnProjection.isSelected(i)))) {
 				result[i]=null;
+				if ((this.rowMatcher!=null) && (!this.rowMatcher.cell(i, null))) {
+					break; // row cannot match anymore
+				}
 			} else {	
 				String formattedValue=useDataFormatter.formatCellValue(currentCell,this.formulaEvaluator);
 				String formula = "";
@@ -463,13 +537,26 @@ private int currentSkipLine=0;
 				String address = currentCell.getAddress().toString();
 				String sheetName = currentCell.getSheet().getSheetName();
 				SpreadSheetCellDAO mySpreadSheetCellDAO = new SpreadSheetCellDAO(formattedValue,comment,formula,address,sheetName);
+				if (this.rawValues) {
+					MSExcelParser.setRawValue(mySpreadSheetCellDAO, currentCell, this.date1904);
+				}
 				
 				result[i]=mySpreadSheetCellDAO;
+				if ((this.rowMatcher!=null) && (!this.rowMatcher.cell(i, formattedValue))) {
+					break; // row cannot match anymore
+				}
 			}
 		}
 		
 		// increase rows
 		this.currentRow++;
+		if ((this.rowMatcher!=null) && (!this.rowMatcher.endRow())) {
+			return SpreadSheetRowFilter.REJECTED_ROW;
+		}
+		if (this.columnProjection!=null) {
+			// key columns of the row filter not selected
+			this.columnProjection.apply(result);
+		}
 		return result;
 	}
 	
@@ -1025,4 +1112,45 @@ private int currentSkipLine=0;
 		}
 		return result;
 	}
+
+	/**
+	 * Sets the raw value of a cell (cf. hadoopoffice.read.rawValues). Formulas are not evaluated, the raw value is the result cached in the file
+	 * 
+	 * @param cellDAO cell read
+	 * @param cell cell of the workbook
+	 * @param date1904 true if the workbook uses the 1904 date system
+	 */
+	private static void setRawValue(SpreadSheetCellDAO cellDAO, Cell cell, boolean date1904) {
+		CellType type=cell.getCellType()==CellType.FORMULA?cell.getCachedFormulaResultType():cell.getCellType();
+		switch (type) {
+			case NUMERIC:
+				cellDAO.setRawNumericValue(cell.getNumericCellValue(), DateUtil.isCellDateFormatted(cell), date1904);
+				break;
+			case BOOLEAN:
+				cellDAO.setRawValue(SpreadSheetCellDAO.RAW_TYPE_BOOLEAN, cell.getBooleanCellValue()?1.0:0.0);
+				break;
+			case STRING:
+				int sstIndex=-1;
+				if ((cell instanceof XSSFCell) && (cell.getCellType()==CellType.STRING) && (((XSSFCell) cell).getCTCell().getT()==STCellType.S)) {
+					sstIndex=Integer.parseInt(((XSSFCell) cell).getCTCell().getV());
+				}
+				cellDAO.setRawValue(SpreadSheetCellDAO.RAW_TYPE_STRING, sstIndex);
+				break;
+			case ERROR:
+				cellDAO.setRawValue(SpreadSheetCellDAO.RAW_TYPE_ERROR, cell.getErrorCellValue());
+				break;
+			default: // blank
+				break;
+		}
+	}
+
+	private static boolean isDate1904(Workbook workbook) {
+		if (workbook instanceof Date1904Support) {
+			return ((Date1904Support) workbook).isDate1904();
+		}
+		if (workbook instanceof HSSFWorkbook) {
+			return ((HSSFWorkbook) workbook).getInternalWorkbook().isUsing1904DateWindowing();
+		}
+		return false;
+	}
 }
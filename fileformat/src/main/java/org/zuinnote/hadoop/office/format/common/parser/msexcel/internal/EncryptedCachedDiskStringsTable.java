@@ -15,26 +15,25 @@
 **/
 package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
 
-import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 import javax.crypto.Cipher;
-import javax.crypto.CipherInputStream;
 import javax.crypto.CipherOutputStream;
+import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLStreamException;
@@ -45,18 +44,24 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.poi.openxml4j.opc.PackagePart;
 import org.apache.poi.poifs.crypt.ChainingMode;
 import org.apache.poi.poifs.crypt.CipherAlgorithm;
-import org.apache.poi.poifs.crypt.CryptoFunctions;
+import org.apache.poi.poifs.nio.CleanerUtil;
+import org.apache.poi.poifs.nio.CleanerUtil.BufferCleaner;
 import org.apache.poi.ss.usermodel.RichTextString;
 import org.apache.poi.util.StaxHelper;
 import org.apache.poi.util.TempFile;
 import org.apache.poi.xssf.model.SharedStringsTable;
 import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.cache.FrequencyStringCache;
 import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.cache.LRUCache;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.cache.StringCache;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.cache.UnboundedStringCache;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.codec.BlockCodec;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.codec.DeflateBlockCodec;
 
 /**
  * This class implements on top of Apache POI SharedStrings table a disk-based
- * gzip-compressed cached encrypted SharedStringsTable that does not require to
+ * block-compressed cached encrypted SharedStringsTable that does not require to
  * keep the full SharedStringsTable in-memory (in case of large ones). It is
  * only for the new XML-based Excel format The StaX (instead of the SAX) parser
  * is used for efficient low memory/low CPU parsing of string tables. This class
@@ -72,31 +77,50 @@ import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.cache.LR
  * The implementation assumes that the SST will be accessed sequentially in most
  * cases (due to the large number of entries)
  * 
- * Note that encryption and compression significantly reduce performance due to
- * the lack of random access in those files. You will need to define a suitable
- * cache size for those
+ * The temporary file is memory-mapped and each string is read directly from
+ * the mapped file. Encryption uses the counter (CTR) mode with a random key,
+ * so any string can be decrypted without decrypting the data before it. If
+ * compression is enabled then the strings are compressed in independent
+ * blocks of a fixed number of strings. Only the position of each block needs
+ * to be kept in memory and the most recently used decompressed blocks are
+ * cached.
+ * 
+ * Entries can be read by several threads, e.g. when sheets are parsed
+ * concurrently.
  * 
  */
 public class EncryptedCachedDiskStringsTable extends SharedStringsTable implements AutoCloseable {
 	private static final Log LOG = LogFactory.getLog(EncryptedCachedDiskStringsTable.class.getName());
 	public static final int compressBufferSize = 1 * 1024 * 1024;
 	public static final String encoding = "UTF-8";
-	private List<Long> stringPositionInFileList;
-	private Map<Integer, String> cache;
+	// the temporary file is mapped in segments, because a single mapping is limited to 2 GB
+	private static final int MAPPED_SEGMENT_SHIFT = 30;
+	private static final long MAPPED_SEGMENT_SIZE = 1L << MAPPED_SEGMENT_SHIFT;
+	private static final int INITIAL_POSITION_CAPACITY = 1024;
+	private static final int STRINGS_PER_BLOCK = 128;
+	private static final int BLOCK_CACHE_SIZE = 16;
+	private long[] stringPositionInFile;
+	private long[] blockPositionInFile;
+	private int blockCount;
+	private byte[] blockBuffer;
+	private int blockBufferLength;
+	private int stringsInBlock;
+	private Map<Integer, DecompressedBlock> blockCache;
+	private BlockCodec codec;
+	private MappedByteBuffer[] mappedTempFile;
+	private byte[] readBuffer;
+	private StringCache cache;
 	private int cacheSize;
 	private File tempFile;
 	private long tempFileSize;
-	private InputStream in;
 	private InputStream originalIS;
 	private CipherAlgorithm ca;
-	private ChainingMode cm;
-	private Cipher ciEncrypt;
-	private Cipher ciDecrypt;
+	private Cipher tempFileCipher;
+	private SecretKeySpec skeySpec;
+	private byte[] iv;
 	private boolean compressTempFile;
-	private long currentPos;
 	private int currentItem;
 	private int count;
-	private RandomAccessFile tempRAF = null;
 
 	/***
 	 * Create a new encrypted cached string table
@@ -106,47 +130,113 @@ public class EncryptedCachedDiskStringsTable extends SharedStringsTable implemen
 	 *                         nothing is in memory, positive means only that
 	 *                         fractions is kept in-memory
 	 * @param compressTempFile true, if temporary file storage for shared string
-	 *                         table should be gzip compressed, false if not
+	 *                         table should be compressed (deflate), false if not
 	 * @param                  ca, cipher algorithm leave it null for disabling
 	 *                         encryption (not recommended if source document is
-	 *                         encrypted)
-	 * @param                  cm, chaining mode, only need to be specified if
-	 *                         cipher algorithm is specified
+	 *                         encrypted). Stream ciphers (RC4) are replaced by
+	 *                         AES-128
+	 * @param                  cm, chaining mode of the source document. It is
+	 *                         ignored, because the temporary file is always
+	 *                         encrypted in CTR mode to allow random access
 	 * @throws IOException
 	 */
 
 	public EncryptedCachedDiskStringsTable(PackagePart part, int cacheSize, boolean compressTempFile,
 			CipherAlgorithm ca, ChainingMode cm) throws IOException {
+		this(part, cacheSize, compressTempFile, compressTempFile ? new DeflateBlockCodec() : null, ca, cm);
+	}
+
+	/***
+	 * Create a new encrypted cached string table
+	 * 
+	 * @param part             package part with Shared String Table
+	 * @param cacheSize        cache = -1 means all is in memory, cache = 0 means
+	 *                         nothing is in memory, positive means only that
+	 *                         fractions is kept in-memory
+	 * @param compressTempFile true, if temporary file storage for shared string
+	 *                         table should be compressed, false if not
+	 * @param codec            codec for compressing the blocks of the temporary
+	 *                         file, only used if compressTempFile is true. It is
+	 *                         closed when the table is closed
+	 * @param                  ca, cipher algorithm leave it null for disabling
+	 *                         encryption (not recommended if source document is
+	 *                         encrypted). Stream ciphers (RC4) are replaced by
+	 *                         AES-128
+	 * @param                  cm, chaining mode of the source document. It is
+	 *                         ignored, because the temporary file is always
+	 *                         encrypted in CTR mode to allow random access
+	 * @throws IOException
+	 */
+
+	public EncryptedCachedDiskStringsTable(PackagePart part, int cacheSize, boolean compressTempFile,
+			BlockCodec codec, CipherAlgorithm ca, ChainingMode cm) throws IOException {
+		this(part, cacheSize, 0L, compressTempFile, codec, ca, cm);
+	}
+
+	/***
+	 * Create a new encrypted cached string table
+	 * 
+	 * @param part             package part with Shared String Table
+	 * @param cacheSize        cache = -1 means all is in memory, cache = 0 means
+	 *                         nothing is in memory, positive means only that
+	 *                         fractions is kept in-memory
+	 * @param cacheBytes       if positive (and cacheSize is positive) then the
+	 *                         cache is bounded by the estimated number of bytes of
+	 *                         the cached strings instead of cacheSize entries
+	 * @param compressTempFile true, if temporary file storage for shared string
+	 *                         table should be compressed, false if not
+	 * @param codec            codec for compressing the blocks of the temporary
+	 *                         file, only used if compressTempFile is true. It is
+	 *                         closed when the table is closed
+	 * @param                  ca, cipher algorithm leave it null for disabling
+	 *                         encryption (not recommended if source document is
+	 *                         encrypted). Stream ciphers (RC4) are replaced by
+	 *                         AES-128
+	 * @param                  cm, chaining mode of the source document. It is
+	 *                         ignored, because the temporary file is always
+	 *                         encrypted in CTR mode to allow random access
+	 * @throws IOException
+	 */
+
+	public EncryptedCachedDiskStringsTable(PackagePart part, int cacheSize, long cacheBytes, boolean compressTempFile,
+			BlockCodec codec, CipherAlgorithm ca, ChainingMode cm) throws IOException {
 		this.cacheSize = cacheSize;
 		this.count=0;
-		if (this.cacheSize > 0) {
-
-			this.cache = new LRUCache<>(((int) Math.ceil(this.cacheSize / 0.75)) + 1); // based on recommendations of
-																						// the Javadoc of HashMap
-			this.stringPositionInFileList = new ArrayList<>(this.cacheSize);
-		} else {
-			this.cache = new LRUCache<>();
-			this.stringPositionInFileList = new ArrayList<>();
+		if ((this.cacheSize > 0) && (cacheBytes > 0)) {
+			this.cache = new FrequencyStringCache(Integer.MAX_VALUE, cacheBytes);
+		} else if (this.cacheSize > 0) {
+			this.cache = new FrequencyStringCache(this.cacheSize);
+		} else if (this.cacheSize < 0) {
+			this.cache = new UnboundedStringCache();
 		}
-		this.stringPositionInFileList = new ArrayList<>();
+		this.readBuffer = new byte[4];
 		this.compressTempFile = compressTempFile;
+		this.codec = codec;
+		if (this.compressTempFile) { // only the positions of the blocks are needed
+			this.blockPositionInFile = new long[EncryptedCachedDiskStringsTable.INITIAL_POSITION_CAPACITY];
+			this.blockBuffer = new byte[4096];
+			this.blockCache = new LRUCache<>(EncryptedCachedDiskStringsTable.BLOCK_CACHE_SIZE);
+		} else {
+			this.stringPositionInFile = new long[EncryptedCachedDiskStringsTable.INITIAL_POSITION_CAPACITY];
+		}
 		this.tempFile = TempFile.createTempFile("hadooffice-poi-temp-sst", ".tmp");
 		this.tempFileSize = 0L;
 		// generate random key for temnporary files
 		if (ca != null) {
+			// CTR requires a block cipher
+			this.ca = ca.blockSize > 0 ? ca : CipherAlgorithm.aes128;
 			SecureRandom sr = new SecureRandom();
-			byte[] iv = new byte[ca.blockSize];
-			byte[] key = new byte[ca.defaultKeySize / 8];
-			sr.nextBytes(iv);
+			this.iv = new byte[this.ca.blockSize];
+			byte[] key = new byte[this.ca.defaultKeySize / 8];
+			sr.nextBytes(this.iv);
 			sr.nextBytes(key);
-			SecretKeySpec skeySpec = new SecretKeySpec(key, ca.jceId);
-			this.ca = ca;
-			this.cm = cm;
-			if (this.cm.jceId.equals(ChainingMode.ecb.jceId)) { // does not work with Crpyto Functions since it does not require IV
-				this.cm=ChainingMode.cbc;
+			this.skeySpec = new SecretKeySpec(key, this.ca.jceId);
+			try {
+				this.tempFileCipher = Cipher.getInstance(this.ca.jceId + "/CTR/NoPadding");
+			} catch (GeneralSecurityException e) {
+				LOG.error(e);
+				throw new IOException("Cipher algorithm " + this.ca.jceId + " in CTR mode is not available for temporary files", e);
 			}
-			this.ciEncrypt = CryptoFunctions.getCipher(skeySpec, this.ca, this.cm, iv, Cipher.ENCRYPT_MODE, "PKCS5Padding");
-			this.ciDecrypt = CryptoFunctions.getCipher(skeySpec, this.ca, this.cm, iv, Cipher.DECRYPT_MODE, "PKCS5Padding");
 		}
 		this.originalIS = part.getInputStream();
 		this.readFrom(this.originalIS);
@@ -165,19 +255,13 @@ public class EncryptedCachedDiskStringsTable extends SharedStringsTable implemen
 		this.currentItem = 0;
 		// read from source and write into tempfile
 		// open temp file depending on options compressed/encrypted
-		OutputStream tempOS = null;
-		if ((this.ca != null) || (this.compressTempFile)) {
-			tempOS = new FileOutputStream(this.tempFile);
-			if (this.ca != null) { // encrypt file if configured
-				tempOS = new CipherOutputStream(tempOS, this.ciEncrypt);
-			}
-			if (this.compressTempFile) { // compress file if configured
-				tempOS = new GZIPOutputStream(tempOS, EncryptedCachedDiskStringsTable.compressBufferSize);
-			}
-		} else { // not encrypted and not compressed: configure a random access file for
-					// writing/reading = highest performance
-			this.tempRAF = new RandomAccessFile(this.tempFile, "rw");
+		OutputStream tempOS = new FileOutputStream(this.tempFile);
+		if (this.ca != null) { // encrypt file if configured
+			this.initTempFileCipher(Cipher.ENCRYPT_MODE, 0L);
+			tempOS = new CipherOutputStream(tempOS, this.tempFileCipher);
 		}
+		// the file is memory-mapped for reading = highest performance
+		tempOS = new BufferedOutputStream(tempOS, EncryptedCachedDiskStringsTable.compressBufferSize);
 		// read from source
 		// use Stax event reader
 		XMLEventReader xer = null;
@@ -193,6 +277,9 @@ public class EncryptedCachedDiskStringsTable extends SharedStringsTable implemen
 					this.count++;
 				}
 			}
+			if (this.stringsInBlock > 0) { // write last block
+				this.writeBlock(tempOS);
+			}
 			// close tempfile
 			// make tempFile available as a reader
 		} catch (XMLStreamException e) {
@@ -208,8 +295,8 @@ public class EncryptedCachedDiskStringsTable extends SharedStringsTable implemen
 				tempOS.close();
 			}
 		}
-		// open the input stream towards the temp file
-		this.accessTempFile(0L);
+		// map the temp file for random access
+		this.mapTempFile();
 
 	}
 
@@ -221,7 +308,7 @@ public class EncryptedCachedDiskStringsTable extends SharedStringsTable implemen
 	 * 
 	 */
 	@Override
-	public RichTextString getItemAt(int idx) {
+	public synchronized RichTextString getItemAt(int idx) {
 		try {
 			return new XSSFRichTextString(this.getString(idx));
 		} catch (IOException e) {
@@ -237,10 +324,16 @@ public class EncryptedCachedDiskStringsTable extends SharedStringsTable implemen
 	 * 
 	 */
 	@Override
-	public void close() throws IOException {
-		if (this.in != null) {
-			this.in.close();
+	public synchronized void close() throws IOException {
+		if (this.cache != null) {
+			LOG.debug("Shared string table cache: " + this.cache.size() + " entries, " + this.cache.getHits() + " hits, "
+					+ this.cache.getMisses() + " misses, " + this.cache.getEvictions() + " evictions");
 		}
+		if (this.codec != null) {
+			this.codec.close();
+		}
+		// the mapping must be released before the file can be deleted on some platforms (e.g. Windows)
+		this.unmapTempFile();
 		if (!this.tempFile.delete()) {
 			LOG.warn("Cannot delete tempFile: " + this.tempFile.getAbsolutePath());
 			throw new IOException("Cannot delete tempFile: " + this.tempFile.getAbsolutePath());
@@ -259,27 +352,60 @@ public class EncryptedCachedDiskStringsTable extends SharedStringsTable implemen
 		if (this.cacheSize >= 0) { // add to disk
 			byte[] strbytes = str.getBytes(EncryptedCachedDiskStringsTable.encoding);
 			byte[] sizeOfStr = ByteBuffer.allocate(4).putInt(strbytes.length).array();
-			this.stringPositionInFileList.add(this.tempFileSize);
-			if (os != null) {
+			if (this.compressTempFile) { // add to current block
+				int newBlockBufferLength = this.blockBufferLength + sizeOfStr.length + strbytes.length;
+				if (newBlockBufferLength > this.blockBuffer.length) {
+					this.blockBuffer = Arrays.copyOf(this.blockBuffer, Math.max(newBlockBufferLength, this.blockBuffer.length * 2));
+				}
+				System.arraycopy(sizeOfStr, 0, this.blockBuffer, this.blockBufferLength, sizeOfStr.length);
+				System.arraycopy(strbytes, 0, this.blockBuffer, this.blockBufferLength + sizeOfStr.length, strbytes.length);
+				this.blockBufferLength = newBlockBufferLength;
+				this.stringsInBlock++;
+				if (this.stringsInBlock == EncryptedCachedDiskStringsTable.STRINGS_PER_BLOCK) {
+					this.writeBlock(os);
+				}
+			} else {
+				if (this.count == this.stringPositionInFile.length) {
+					this.stringPositionInFile = Arrays.copyOf(this.stringPositionInFile, this.count * 2);
+				}
+				this.stringPositionInFile[this.count] = this.tempFileSize;
 				os.write(sizeOfStr);
 				os.write(strbytes);
-			} else { // we can write to the random access file
-				FileChannel fc = this.tempRAF.getChannel().position(this.tempFileSize);
-				fc.write(ByteBuffer.wrap(sizeOfStr));
-				fc.write(ByteBuffer.wrap(strbytes));
+				this.tempFileSize += sizeOfStr.length + strbytes.length;
 			}
-			this.tempFileSize += sizeOfStr.length + strbytes.length;
 		}
 		if (this.cacheSize < 0) { // put it into cache
 			this.cache.put(this.currentItem, str);
 			this.currentItem++;
-		} else if ((this.cacheSize > 0) && (this.currentItem < this.cacheSize)) { // put the first items already into
-																					// cache
+		} else if ((this.cacheSize > 0) && (this.currentItem < this.cacheSize)
+				&& (this.cache.size() == this.currentItem)) { // put the first items already into cache until it is full
 			this.cache.put(this.currentItem, str);
 			this.currentItem++;
 		}
 	}
 
+	/**
+	 * Compresses the current block and writes it to the temp file. A block
+	 * consists of the length of the uncompressed data, the length of the
+	 * compressed data and the compressed data.
+	 * 
+	 * @param os OutputStream to use to write it
+	 * @throws IOException
+	 */
+	private void writeBlock(OutputStream os) throws IOException {
+		byte[] compressed = this.codec.compress(this.blockBuffer, 0, this.blockBufferLength);
+		if (this.blockCount == this.blockPositionInFile.length) {
+			this.blockPositionInFile = Arrays.copyOf(this.blockPositionInFile, this.blockCount * 2);
+		}
+		this.blockPositionInFile[this.blockCount] = this.tempFileSize;
+		this.blockCount++;
+		os.write(ByteBuffer.allocate(8).putInt(this.blockBufferLength).putInt(compressed.length).array());
+		os.write(compressed);
+		this.tempFileSize += 8 + compressed.length;
+		this.blockBufferLength = 0;
+		this.stringsInBlock = 0;
+	}
+
 	/**
 	 * Parses a string item from a SST in XML format
 	 * 
@@ -352,37 +478,35 @@ public class EncryptedCachedDiskStringsTable extends SharedStringsTable implemen
 	 * @param index
 	 * @return
 	 * @throws IOException
+	 * @throws IndexOutOfBoundsException in case there is no String with the index
 	 */
 
 	private String getString(int index) throws IOException {
+		// the arrays of positions and offsets can be larger than the number of strings
+		if ((index < 0) || (index >= this.count)) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.count);
+		}
 		// check if it is in cache?
-		if (this.cache.containsKey(index)) {
-			return this.cache.get(index);
+		if (this.cache != null) {
+			String cached = this.cache.get(index);
+			if (cached != null) {
+				return cached;
+			}
 		}
 		// if not we have to read it from the file
-		long itemPosition = this.stringPositionInFileList.get(index);
 		String result = null;
-		if (this.tempRAF == null) {
-			this.accessTempFile(itemPosition);
-			byte[] readSize = new byte[4];
-			this.in.read(readSize);
-			int sizeOfString = ByteBuffer.wrap(readSize).getInt();
-			byte[] strbytes = new byte[sizeOfString];
-			this.in.read(strbytes);
-			this.currentPos += readSize.length + strbytes.length;
-			result = new String(strbytes, EncryptedCachedDiskStringsTable.encoding);
+		if (this.compressTempFile) {
+			DecompressedBlock block = this.getBlock(index / EncryptedCachedDiskStringsTable.STRINGS_PER_BLOCK);
+			int offset = block.stringOffsets[index % EncryptedCachedDiskStringsTable.STRINGS_PER_BLOCK];
+			result = new String(block.data, offset + 4, readInt(block.data, offset), StandardCharsets.UTF_8);
 		} else {
-			FileChannel fc = this.tempRAF.getChannel().position(itemPosition);
-			ByteBuffer bb = ByteBuffer.allocate(4);
+			long itemPosition = this.stringPositionInFile[index];
 			// read size of String
-			fc.read(bb);
-			bb.flip();
-			int sizeOfStr = bb.getInt();
-			// read string
-			bb = ByteBuffer.allocate(sizeOfStr);
-			fc.read(bb);
-			bb.flip();
-			result = new String(bb.array(), EncryptedCachedDiskStringsTable.encoding);
+			int offset = this.readRandomAccess(itemPosition, 4);
+			int sizeOfStr = readInt(this.readBuffer, offset);
+			// read string into the reused buffer and decode it from there
+			offset = this.readRandomAccess(itemPosition + 4, sizeOfStr);
+			result = new String(this.readBuffer, offset, sizeOfStr, StandardCharsets.UTF_8);
 		}
 		if (this.cacheSize != 0) {
 			this.cache.put(index, result);
@@ -403,31 +527,168 @@ public class EncryptedCachedDiskStringsTable extends SharedStringsTable implemen
 		}
 	}
 
-	/***
-	 * Simulates random access to the tempfile even if not supported due to
-	 * encryption and/or compression
+	/**
+	 * Maps the temp file into memory. Larger files are mapped in several segments.
 	 * 
-	 * @param position
 	 * @throws IOException
 	 */
-	private void accessTempFile(long position) throws IOException {
-		if ((position == 0L) || (position < this.currentPos)) { // in those cases we have to read from scratch
-			this.in = new FileInputStream(this.tempFile);
-			if (this.ca != null) {
-				// decrypt
-				this.in = new CipherInputStream(this.in, this.ciDecrypt);
+	private void mapTempFile() throws IOException {
+		int segments = (int) ((this.tempFileSize + EncryptedCachedDiskStringsTable.MAPPED_SEGMENT_SIZE - 1)
+				>>> EncryptedCachedDiskStringsTable.MAPPED_SEGMENT_SHIFT);
+		this.mappedTempFile = new MappedByteBuffer[segments];
+		try (RandomAccessFile tempRAF = new RandomAccessFile(this.tempFile, "r")) {
+			FileChannel fc = tempRAF.getChannel();
+			for (int i = 0; i < segments; i++) {
+				long segmentStart = ((long) i) << EncryptedCachedDiskStringsTable.MAPPED_SEGMENT_SHIFT;
+				long segmentSize = Math.min(EncryptedCachedDiskStringsTable.MAPPED_SEGMENT_SIZE,
+						this.tempFileSize - segmentStart);
+				this.mappedTempFile[i] = fc.map(FileChannel.MapMode.READ_ONLY, segmentStart, segmentSize);
 			}
-			if (this.compressTempFile) { // decompress it
-				this.in = new GZIPInputStream(this.in, EncryptedCachedDiskStringsTable.compressBufferSize);
-			} else { // configure a buffer for reading it
-				this.in = new BufferedInputStream(this.in, EncryptedCachedDiskStringsTable.compressBufferSize);
+		} // the mapping stays valid after the channel has been closed
+	}
+
+	/**
+	 * Releases the memory mapping of the temp file. Without it the mapping is only released when the buffers are garbage collected. The buffers cannot be
+	 * accessed anymore afterwards
+	 */
+	private void unmapTempFile() {
+		if (this.mappedTempFile == null) {
+			return;
+		}
+		if (CleanerUtil.UNMAP_SUPPORTED) {
+			BufferCleaner cleaner = CleanerUtil.getCleaner();
+			for (MappedByteBuffer segment : this.mappedTempFile) {
+				if (segment == null) { // mapping failed
+					continue;
+				}
+				try {
+					cleaner.freeBuffer(segment);
+				} catch (IOException e) {
+					LOG.warn("Cannot release mapping of tempFile: " + this.tempFile.getAbsolutePath(), e);
+				}
 			}
-			this.currentPos = 0L;
-		} else if (position > this.currentPos) {
-			this.in.skip(position - this.currentPos);
-			this.currentPos = position; // attention needs to be updated after read!
+		} else {
+			LOG.debug("Cannot release mapping of tempFile: " + CleanerUtil.UNMAP_NOT_SUPPORTED_REASON);
+		}
+		this.mappedTempFile = null;
+	}
+
+	/**
+	 * Reads (and decrypts) bytes from the memory-mapped temp file into the read
+	 * buffer
+	 * 
+	 * @param position position in the temp file
+	 * @param length   number of bytes to read
+	 * @return offset of the first byte in the read buffer
+	 * @throws IOException
+	 */
+	private int readRandomAccess(long position, int length) throws IOException {
+		if (this.ca == null) {
+			this.ensureReadBufferCapacity(length);
+			this.readMapped(position, this.readBuffer, length);
+			return 0;
+		}
+		// CTR: decryption starts at the beginning of the block containing the position
+		int blockOffset = (int) (position % this.ca.blockSize);
+		int cipherLength = blockOffset + length;
+		this.ensureReadBufferCapacity(cipherLength);
+		this.readMapped(position - blockOffset, this.readBuffer, cipherLength);
+		this.initTempFileCipher(Cipher.DECRYPT_MODE, position / this.ca.blockSize);
+		try {
+			this.tempFileCipher.doFinal(this.readBuffer, 0, cipherLength, this.readBuffer, 0);
+		} catch (GeneralSecurityException e) {
+			LOG.error(e);
+			throw new IOException("Cannot decrypt temporary shared strings table", e);
+		}
+		return blockOffset;
+	}
+
+	/**
+	 * Initializes the cipher of the temp file so that it encrypts/decrypts starting
+	 * from the given block of the file
+	 * 
+	 * @param mode  Cipher.ENCRYPT_MODE or Cipher.DECRYPT_MODE
+	 * @param block number of the block (counter) from which to start
+	 * @throws IOException
+	 */
+	private void initTempFileCipher(int mode, long block) throws IOException {
+		// counter = iv + block (big endian)
+		byte[] counter = this.iv.clone();
+		long carry = block;
+		for (int i = counter.length - 1; (i >= 0) && (carry != 0); i--) {
+			long sum = (counter[i] & 0xFFL) + (carry & 0xFFL);
+			counter[i] = (byte) sum;
+			carry = (carry >>> 8) + (sum >>> 8);
 		}
+		try {
+			this.tempFileCipher.init(mode, this.skeySpec, new IvParameterSpec(counter));
+		} catch (GeneralSecurityException e) {
+			LOG.error(e);
+			throw new IOException("Cannot initialize cipher for temporary shared strings table", e);
+		}
+	}
+
+	private void ensureReadBufferCapacity(int length) {
+		if (length > this.readBuffer.length) {
+			this.readBuffer = new byte[Math.max(length, this.readBuffer.length * 2)];
+		}
+	}
+
+	/**
+	 * Copies bytes from the memory-mapped temp file
+	 * 
+	 * @param position position in the temp file
+	 * @param dst      destination
+	 * @param length   number of bytes to copy
+	 */
+	private void readMapped(long position, byte[] dst, int length) {
+		int copied = 0;
+		while (copied < length) {
+			long currentPosition = position + copied;
+			MappedByteBuffer segment = this.mappedTempFile[(int) (currentPosition >>> EncryptedCachedDiskStringsTable.MAPPED_SEGMENT_SHIFT)];
+			int segmentOffset = (int) (currentPosition & (EncryptedCachedDiskStringsTable.MAPPED_SEGMENT_SIZE - 1));
+			int chunk = Math.min(length - copied, segment.limit() - segmentOffset);
+			segment.position(segmentOffset);
+			segment.get(dst, copied, chunk);
+			copied += chunk;
+		}
+	}
+
+	/**
+	 * Gets a decompressed block from the block cache or reads and decompresses it
+	 * from the temp file
+	 * 
+	 * @param blockNumber number of the block
+	 * @return decompressed block
+	 * @throws IOException
+	 */
+	private DecompressedBlock getBlock(int blockNumber) throws IOException {
+		DecompressedBlock block = this.blockCache.get(blockNumber);
+		if (block != null) {
+			return block;
+		}
+		long blockPosition = this.blockPositionInFile[blockNumber];
+		int offset = this.readRandomAccess(blockPosition, 8);
+		int uncompressedLength = readInt(this.readBuffer, offset);
+		int compressedLength = readInt(this.readBuffer, offset + 4);
+		offset = this.readRandomAccess(blockPosition + 8, compressedLength);
+		byte[] data = new byte[uncompressedLength];
+		this.codec.decompress(this.readBuffer, offset, compressedLength, data, uncompressedLength);
+		// determine the position of each string in the block
+		int[] stringOffsets = new int[EncryptedCachedDiskStringsTable.STRINGS_PER_BLOCK];
+		int stringOffset = 0;
+		for (int i = 0; (i < stringOffsets.length) && (stringOffset < uncompressedLength); i++) {
+			stringOffsets[i] = stringOffset;
+			stringOffset += 4 + readInt(data, stringOffset);
+		}
+		block = new DecompressedBlock(data, stringOffsets);
+		this.blockCache.put(blockNumber, block);
+		return block;
+	}
 
+	private static int readInt(byte[] data, int offset) {
+		return ((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16) | ((data[offset + 2] & 0xFF) << 8)
+				| (data[offset + 3] & 0xFF);
 	}
 
 	/**
@@ -438,5 +699,19 @@ public class EncryptedCachedDiskStringsTable extends SharedStringsTable implemen
 		return count;
 	}
 
+	/**
+	 * Decompressed block of strings of the temp file
+	 *
+	 */
+	private static class DecompressedBlock {
+		private byte[] data;
+		private int[] stringOffsets;
+
+		DecompressedBlock(byte[] data, int[] stringOffsets) {
+			this.data = data;
+			this.stringOffsets = stringOffsets;
+		}
+	}
+
 
 }
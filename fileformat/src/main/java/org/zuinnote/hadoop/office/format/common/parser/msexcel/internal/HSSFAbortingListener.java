@@ -0,0 +1,49 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
+
+import java.util.function.BooleanSupplier;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.record.Record;
+
+/**
+ * Passes the records of an old Excel file (.xls) to a listener and stops processing the workbook (cf. HSSFEventFactory.abortableProcessEvents) as soon as
+ * no further records are needed, e.g. because the range of rows read is exhausted or enough rows have been read.
+ *
+ */
+public class HSSFAbortingListener extends AbortableHSSFListener {
+	private HSSFListener listener;
+	private BooleanSupplier complete;
+
+	/**
+	 * 
+	 * @param listener listener receiving the records
+	 * @param complete true, if no further records are needed
+	 */
+	public HSSFAbortingListener(HSSFListener listener, BooleanSupplier complete) {
+		this.listener = listener;
+		this.complete = complete;
+	}
+
+	@Override
+	public short abortableProcessRecord(Record record) {
+		this.listener.processRecord(record);
+		return (short) (this.complete.getAsBoolean() ? 1 : 0);
+	}
+
+}
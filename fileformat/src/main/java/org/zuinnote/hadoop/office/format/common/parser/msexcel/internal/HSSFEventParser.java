@@ -28,6 +28,8 @@ import org.apache.poi.hssf.eventusermodel.dummyrecord.MissingRowDummyRecord;
 import org.apache.poi.hssf.model.HSSFFormulaParser;
 import org.apache.poi.hssf.record.BOFRecord;
 import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
 import org.apache.poi.hssf.record.ExtendedFormatRecord;
 import org.apache.poi.hssf.record.FormatRecord;
 import org.apache.poi.hssf.record.FormulaRecord;
@@ -39,7 +41,11 @@ import org.apache.poi.hssf.record.SSTRecord;
 import org.apache.poi.hssf.record.StringRecord;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
 import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetColumnProjection;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowFilter;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowRange;
 import org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelUtil;
 
 /**
@@ -53,7 +59,11 @@ import org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelUtil;
  * **/
 public class HSSFEventParser implements HSSFListener {
 	private static final Log LOG = LogFactory.getLog(HSSFEventParser.class.getName());
-	private Map<Integer,List<SpreadSheetCellDAO[]>> spreadSheetCellDAOCache; 
+	// types of the cached result of a formula (FormulaRecord.getCachedResultType), the codes of CellType.NUMERIC, BOOLEAN and ERROR
+	private static final int CACHED_RESULT_NUMERIC = 0;
+	private static final int CACHED_RESULT_BOOLEAN = 4;
+	private static final int CACHED_RESULT_ERROR = 5;
+	private Map<Integer,SpreadSheetRowBuffer> spreadSheetCellDAOCache; 
 	private List<String> sheetList;
 	private Map<Integer,Boolean> sheetMap;
 	private Map<Integer,Long> sheetSizeMap;
@@ -68,8 +78,26 @@ public class HSSFEventParser implements HSSFListener {
 	private SSTRecord currentSSTrecord;
 	private SheetRecordCollectingListener workbookBuildingListener;
 	private HSSFWorkbook stubWorkbook;
+	private SpreadSheetColumnProjection columnProjection;
+	private int leadingRows;
+	private boolean cachedSkipped;
+	private SpreadSheetRowRange sheetRowRange;
+	private int rangeLeadingRows;
+	private long rowLimit;
+	private int limitSkipRows;
+	// rows created that are returned by the reader
+	private long rowCount;
+	// first row of the current sheet not created anymore, because the limit of rows has been reached
+	private int limitEndRow;
+	private int substreamDepth;
+	// index of the sheet substream currently processed
+	private int currentSubstream;
+	private int lastSelectedSheet;
+	private boolean complete;
+	private boolean rawValues;
+	private boolean date1904;
 
-	public HSSFEventParser(List<String> sheetNameList,DataFormatter useDataFormatter, Map<Integer,List<SpreadSheetCellDAO[]>> spreadSheetCellDAOCache, String[] sheets) {
+	public HSSFEventParser(List<String> sheetNameList,DataFormatter useDataFormatter, Map<Integer,SpreadSheetRowBuffer> spreadSheetCellDAOCache, String[] sheets) {
 		this.spreadSheetCellDAOCache=spreadSheetCellDAOCache;
 		this.sheets=sheets;
 		this.currentCellNum=0L;
@@ -83,6 +111,9 @@ public class HSSFEventParser implements HSSFListener {
 		this.formatRecordIndexMap=new HashMap<>();
 		this.sheetList=sheetNameList;
 		this.useDataFormatter=useDataFormatter;
+		this.rowLimit=-1;
+		this.currentSubstream=-1;
+		this.lastSelectedSheet=-1;
 	}
 	
 	public void setSheetRecordCollectingListener(SheetRecordCollectingListener listener) {
@@ -90,10 +121,144 @@ public class HSSFEventParser implements HSSFListener {
 		
 	}
 
+	/**
+	 * Skips the cells of columns not selected. Leading rows of a sheet (e.g. lines to skip and the header) are always read completely
+	 * 
+	 * @param columnProjection selected columns
+	 * @param leadingRows      number of rows at the beginning of each sheet read completely
+	 */
+	public void setColumnProjection(SpreadSheetColumnProjection columnProjection, int leadingRows) {
+		this.columnProjection = columnProjection;
+		this.leadingRows = leadingRows;
+	}
+
+	/**
+	 * Only creates a range of rows of each sheet (cf. hadoopoffice.read.rowRange). Rows before the range are created as SpreadSheetRowFilter.REJECTED_ROW
+	 * without reading their cells. Leading rows of a sheet (e.g. lines to skip and the header) are always created
+	 * 
+	 * @param sheetRowRange range of rows
+	 * @param leadingRows   number of rows at the beginning of each sheet always created
+	 */
+	public void setSheetRowRange(SpreadSheetRowRange sheetRowRange, int leadingRows) {
+		this.sheetRowRange = sheetRowRange;
+		this.rangeLeadingRows = leadingRows;
+	}
+
+	/**
+	 * Sets the raw values of the cells in addition to their formatted values (cf. hadoopoffice.read.rawValues)
+	 * 
+	 * @param rawValues true if raw values are set
+	 */
+	public void setRawValues(boolean rawValues) {
+		this.rawValues = rawValues;
+	}
+
+	/**
+	 * Stops creating rows once enough rows for the limit of rows (cf. hadoopoffice.read.limit) have been created
+	 * 
+	 * @param rowLimit number of rows needed from the workbook
+	 * @param skipRows number of rows at the beginning of a sheet not returned by the reader (e.g. lines to skip and the header), which are not counted
+	 */
+	public void setRowLimit(long rowLimit, int skipRows) {
+		this.rowLimit = rowLimit;
+		this.limitSkipRows = skipRows;
+		this.limitEndRow = skipRows;
+	}
+
+	/**
+	 * 
+	 * @return true, if no further records of the workbook are needed, i.e. processing of the workbook can be stopped (cf. HSSFAbortingListener)
+	 */
+	public boolean isComplete() {
+		return this.complete;
+	}
+
+	/**
+	 * 
+	 * @param row    row of the cell (starting with 0)
+	 * @param column column of the cell (starting with 0)
+	 * @return true, if the cell is not part of the selected columns or its row is not created
+	 */
+	private boolean isSkipped(int row, int column) {
+		if (this.isDropped(row)) {
+			// cells arrive ordered by row, i.e. all cells of rows created before have been read
+			if ((this.isLimitReached()) || (this.currentSubstream >= this.lastSelectedSheet)) {
+				this.complete = true;
+			}
+			return true;
+		}
+		return (this.isBeforeRange(row)) || ((this.columnProjection != null) && (row >= this.leadingRows) && (!this.columnProjection.isSelected(column)));
+	}
+
+	/**
+	 * 
+	 * @param row row of the current sheet (starting with 0)
+	 * @return true, if the row is before the range of rows
+	 */
+	private boolean isBeforeRange(int row) {
+		return (this.sheetRowRange != null) && (this.sheetRowRange.isBefore(row, this.rangeLeadingRows));
+	}
+
+	/**
+	 * 
+	 * @param row row of the current sheet (starting with 0)
+	 * @return true, if the row is not created, because it is after the range of rows or the limit of rows has been reached
+	 */
+	private boolean isDropped(int row) {
+		return ((this.sheetRowRange != null) && (this.sheetRowRange.isAfter(row, this.rangeLeadingRows))) || ((this.isLimitReached()) && (row >= this.limitEndRow));
+	}
+
+	private boolean isLimitReached() {
+		return (this.rowLimit >= 0) && (this.rowCount >= this.rowLimit);
+	}
+
+	/**
+	 * Creates a row of the current sheet, if the sheet is supposed to be parsed
+	 * 
+	 * @param row   row (starting with 0)
+	 * @param cells number of cells of the row
+	 */
+	private void addRow(int row, int cells) {
+		if ((!this.sheetMap.get(this.currentSheet-1)) || (this.isDropped(row))) {
+			return;
+		}
+		if (this.isBeforeRange(row)) {
+			this.spreadSheetCellDAOCache.get(this.currentSheet-1).add(SpreadSheetRowFilter.REJECTED_ROW);
+			return;
+		}
+		this.spreadSheetCellDAOCache.get(this.currentSheet-1).add(new SpreadSheetCellDAO[cells]);
+		if ((this.rowLimit >= 0) && (row >= this.limitSkipRows)) {
+			this.rowCount++;
+			if (this.isLimitReached()) {
+				this.limitEndRow = row + 1;
+			}
+		}
+	}
+
+	/**
+	 * Starts the next sheet. Sheets are recognized by their first row
+	 * 
+	 */
+	private void startSheet() {
+		if (this.currentSheet>0) {
+			LOG.debug("Sheet number : "+this.currentSheet+" total number of cells "+this.currentCellNum);
+			this.sheetSizeMap.put(this.currentSheet-1, this.currentCellNum);
+			if (this.isLimitReached()) {
+				// no rows are needed from subsequent sheets
+				this.limitEndRow = 0;
+			}
+		}
+		this.currentSheet++; // start processing next sheet
+		this.currentCellNum=0;
+	}
+
 	@Override
 	public void processRecord(Record record) {
 		switch (record.getSid()) // one should note that these do not arrive necessary in linear order. First all the sheets are processed. Then all the rows of the sheets
         {
+            case DateWindow1904Record.sid:
+            	this.date1904=((DateWindow1904Record) record).getWindowing()==1;
+            	break;
             // the BOFRecord can represent either the beginning of a sheet or the workbook
             case BOFRecord.sid:
                 BOFRecord bof = (BOFRecord) record;
@@ -109,6 +274,17 @@ public class HSSFEventParser implements HSSFListener {
                 {
                     // ignored
                 }
+                this.substreamDepth++;
+                if ((bof.getType() != bof.TYPE_WORKBOOK) && (this.substreamDepth == 1)) { // sheet substream (embedded charts are nested)
+                	this.currentSubstream++;
+                }
+                break;
+            case EOFRecord.sid:
+                if ((this.substreamDepth == 1) && (this.currentSubstream >= 0) && ((this.isLimitReached()) || (this.currentSubstream >= this.lastSelectedSheet))) {
+                	// all rows needed have been read
+                	this.complete = true;
+                }
+                this.substreamDepth--;
                 break;
             case BoundSheetRecord.sid:
                 BoundSheetRecord bsr = (BoundSheetRecord) record;
@@ -132,27 +308,18 @@ public class HSSFEventParser implements HSSFListener {
                     this.sheetList.add(currentSheet);
                 } 
                 if (this.sheetMap.get(this.sheetList.size()-1)) { // create sheet
-                	 this.spreadSheetCellDAOCache.put(this.sheetList.size()-1, new ArrayList<SpreadSheetCellDAO[]>());
+                	 this.spreadSheetCellDAOCache.put(this.sheetList.size()-1, new SpreadSheetRowBuffer());
+                	 this.lastSelectedSheet=this.sheetList.size()-1;
                 }
                 break;
             case RowRecord.sid:
             	  RowRecord rowRec = (RowRecord) record;
 	              LOG.debug("Row found. Number of Cells: "+rowRec.getLastCol());
-	              if ((this.currentSheet==0) && (rowRec.getRowNumber()==0)) { // first sheet
-	            	  // special handling first sheet
-	            	  this.currentSheet++;
-	            	  this.currentCellNum=0;
-	              } else
-	              if ((this.currentSheet>0) && (rowRec.getRowNumber()==0)) { // new sheet
-	            	  LOG.debug("Sheet number : "+this.currentSheet+" total number of cells "+this.currentCellNum);
-	            	  this.sheetSizeMap.put(this.currentSheet-1, this.currentCellNum);
-	            	  this.currentSheet++; // start processing next sheet
-	            	  this.currentCellNum=0;
+	              if (rowRec.getRowNumber()==0) { // first row of a sheet
+	            	  this.startSheet();
 	              }
 	              // create row if this sheet is supposed to be parsed
-	              if (this.sheetMap.get(this.currentSheet-1)) {
-	            	  this.spreadSheetCellDAOCache.get(this.currentSheet-1).add(new SpreadSheetCellDAO[rowRec.getLastCol()]);
-	              }
+	              this.addRow(rowRec.getRowNumber(), rowRec.getLastCol());
 	              this.currentCellNum+=rowRec.getLastCol();
                 break;
             case FormulaRecord.sid:
@@ -165,6 +332,10 @@ public class HSSFEventParser implements HSSFListener {
             		break;
             	}
             	/** **/
+            	this.cachedSkipped=this.isSkipped(formRec.getRow(), formRec.getColumn());
+            	if (this.cachedSkipped) { // column not selected
+            		break;
+            	}
             	String formulaString = "";
             	if (this.stubWorkbook!=null) {
             		formulaString=HSSFFormulaParser.toFormulaString(stubWorkbook, formRec.getParsedExpression());
@@ -182,7 +353,11 @@ public class HSSFEventParser implements HSSFListener {
 
             			int formatIndex= this.extendedRecordFormatIndexList.get(formRec.getXFIndex());
             			String theNumber=this.useDataFormatter.formatRawCellContents(formRec.getValue(), formatIndex, this.formatRecordIndexMap.get(formatIndex));
-            			this.spreadSheetCellDAOCache.get(this.currentSheet-1).get(formRec.getRow())[formRec.getColumn()]=new SpreadSheetCellDAO(theNumber,"",formulaString,MSExcelUtil.getCellAddressA1Format(formRec.getRow(), formRec.getColumn()),this.sheetList.get(this.currentSheet-1));          			
+            			SpreadSheetCellDAO formulaCellDAO=new SpreadSheetCellDAO(theNumber,"",formulaString,MSExcelUtil.getCellAddressA1Format(formRec.getRow(), formRec.getColumn()),this.sheetList.get(this.currentSheet-1));
+            			if (this.rawValues) {
+            				HSSFEventParser.setRawFormulaResult(formulaCellDAO, formRec, formatIndex, this.formatRecordIndexMap.get(formatIndex), this.date1904);
+            			}
+            			this.spreadSheetCellDAOCache.get(this.currentSheet-1).get(formRec.getRow())[formRec.getColumn()]=formulaCellDAO;
             		}
             	}
             	break;
@@ -190,11 +365,15 @@ public class HSSFEventParser implements HSSFListener {
             	LOG.debug("String Record found");
             	StringRecord strRec=(StringRecord) record;
             	/** check if this one should be parsed **/
-               	if (!this.sheetMap.get(this.currentSheet-1)) {// if not then do nothing
+               	if ((!this.sheetMap.get(this.currentSheet-1)) || (this.cachedSkipped)) {// if not then do nothing
             		break;
             	}
             	/** **/
-              this.spreadSheetCellDAOCache.get(this.currentSheet-1).get(this.cachedRowNum)[this.cachedColumnNum]=new SpreadSheetCellDAO(strRec.getString(),"","",MSExcelUtil.getCellAddressA1Format(this.cachedRowNum,this.cachedColumnNum),this.sheetList.get(this.currentSheet-1));          			
+              SpreadSheetCellDAO stringCellDAO=new SpreadSheetCellDAO(strRec.getString(),"","",MSExcelUtil.getCellAddressA1Format(this.cachedRowNum,this.cachedColumnNum),this.sheetList.get(this.currentSheet-1));
+              if (this.rawValues) {
+            	  stringCellDAO.setRawValue(SpreadSheetCellDAO.RAW_TYPE_STRING, -1);
+              }
+              this.spreadSheetCellDAOCache.get(this.currentSheet-1).get(this.cachedRowNum)[this.cachedColumnNum]=stringCellDAO;
     	        
             	
             	break;
@@ -205,7 +384,7 @@ public class HSSFEventParser implements HSSFListener {
            
             
                 /** check if this one should be parsed **/
-               	if (!this.sheetMap.get(this.currentSheet-1)) {// if not then do nothing
+               	if ((!this.sheetMap.get(this.currentSheet-1)) || (this.isSkipped(numrec.getRow(), numrec.getColumn()))) {// if not then do nothing
             		break;
             	}
             	/** **/
@@ -217,6 +396,9 @@ public class HSSFEventParser implements HSSFListener {
         			int formatIndex= this.extendedRecordFormatIndexList.get(numrec.getXFIndex());
         			String theNumber=this.useDataFormatter.formatRawCellContents(numrec.getValue(), formatIndex, this.formatRecordIndexMap.get(formatIndex));
         			SpreadSheetCellDAO mySpreadSheetCellDAO =   new SpreadSheetCellDAO(theNumber,"","",MSExcelUtil.getCellAddressA1Format(numrec.getRow(),numrec.getColumn()),this.sheetList.get(this.currentSheet-1));
+        			if (this.rawValues) {
+        				mySpreadSheetCellDAO.setRawNumericValue(numrec.getValue(), DateUtil.isADateFormat(formatIndex, this.formatRecordIndexMap.get(formatIndex)), this.date1904);
+        			}
 
         			this.spreadSheetCellDAOCache.get(this.currentSheet-1).get(numrec.getRow())[numrec.getColumn()]=mySpreadSheetCellDAO;          		
         		}
@@ -231,7 +413,7 @@ public class HSSFEventParser implements HSSFListener {
             	LOG.debug("Label found");
                 LabelSSTRecord lrec = (LabelSSTRecord) record;
               	/** check if this one should be parsed **/
-               	if (!this.sheetMap.get(this.currentSheet-1)) {// if not then do nothing
+               	if ((!this.sheetMap.get(this.currentSheet-1)) || (this.isSkipped(lrec.getRow(), lrec.getColumn()))) {// if not then do nothing
             		break;
             	}
             	/** **/
@@ -242,7 +424,11 @@ public class HSSFEventParser implements HSSFListener {
         			if ((lrec.getSSTIndex()<0) || (lrec.getSSTIndex()>=this.currentSSTrecord.getNumUniqueStrings())) {
         				LOG.error("Invalid SST record index. Cell ignored");
         			} else {
-        				   this.spreadSheetCellDAOCache.get(this.currentSheet-1).get(lrec.getRow())[lrec.getColumn()]=new SpreadSheetCellDAO(this.currentSSTrecord.getString(lrec.getSSTIndex()).getString(),"","",MSExcelUtil.getCellAddressA1Format(lrec.getRow(),lrec.getColumn()),this.sheetList.get(this.currentSheet-1));          		
+        				   SpreadSheetCellDAO labelCellDAO=new SpreadSheetCellDAO(this.currentSSTrecord.getString(lrec.getSSTIndex()).getString(),"","",MSExcelUtil.getCellAddressA1Format(lrec.getRow(),lrec.getColumn()),this.sheetList.get(this.currentSheet-1));
+        				   if (this.rawValues) {
+        					   labelCellDAO.setRawValue(SpreadSheetCellDAO.RAW_TYPE_STRING, lrec.getSSTIndex());
+        				   }
+        				   this.spreadSheetCellDAOCache.get(this.currentSheet-1).get(lrec.getRow())[lrec.getColumn()]=labelCellDAO;
         	            	
         				
         			}
@@ -269,24 +455,39 @@ public class HSSFEventParser implements HSSFListener {
 		if (record instanceof MissingRowDummyRecord) { // this is an empty row in the Excel
 			MissingRowDummyRecord emptyRow = (MissingRowDummyRecord)record;
 			 LOG.debug("Detected Empty row");
-              if ((this.currentSheet==0) && (emptyRow.getRowNumber()==0)) { // first sheet
-            	  // special handling first sheet
-            	  this.currentSheet++;
-            	  this.currentCellNum=0;
-              } else
-              if ((this.currentSheet>0) && (emptyRow.getRowNumber()==0)) { // new sheet
-            	  LOG.debug("Sheet number : "+this.currentSheet+" total number of cells "+this.currentCellNum);
-            	  this.sheetSizeMap.put(this.currentSheet-1, this.currentCellNum);
-            	  this.currentSheet++; // start processing next sheet
-            	  this.currentCellNum=0;
+              if (emptyRow.getRowNumber()==0) { // first row of a sheet
+            	  this.startSheet();
               }
               // create empty row if this sheet is supposed to be parsed
-              if (this.sheetMap.get(this.currentSheet-1)) {
-            	  this.spreadSheetCellDAOCache.get(this.currentSheet-1).add(new SpreadSheetCellDAO[0]);
-              }
+              this.addRow(emptyRow.getRowNumber(), 0);
 		}
 		
 		
 	}
 	
+	/**
+	 * Sets the raw value of a formula cell to the result cached in the file, if it is not a string (the string follows in a StringRecord)
+	 * 
+	 * @param cellDAO      cell created for the formula
+	 * @param formRec      formula
+	 * @param formatIndex  index of the format of the cell
+	 * @param formatString format of the cell, null for built-in formats
+	 * @param date1904     true if the workbook uses the 1904 date system
+	 */
+	static void setRawFormulaResult(SpreadSheetCellDAO cellDAO, FormulaRecord formRec, int formatIndex, String formatString, boolean date1904) {
+		switch (formRec.getCachedResultType()) {
+			case CACHED_RESULT_NUMERIC:
+				cellDAO.setRawNumericValue(formRec.getValue(), DateUtil.isADateFormat(formatIndex, formatString), date1904);
+				break;
+			case CACHED_RESULT_BOOLEAN:
+				cellDAO.setRawValue(SpreadSheetCellDAO.RAW_TYPE_BOOLEAN, formRec.getCachedBooleanValue()?1.0:0.0);
+				break;
+			case CACHED_RESULT_ERROR:
+				cellDAO.setRawValue(SpreadSheetCellDAO.RAW_TYPE_ERROR, formRec.getCachedErrorValue());
+				break;
+			default:
+				break;
+		}
+	}
+
 }
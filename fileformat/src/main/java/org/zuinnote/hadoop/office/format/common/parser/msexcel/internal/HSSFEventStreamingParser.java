@@ -0,0 +1,460 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.poi.hssf.eventusermodel.EventWorkbookBuilder.SheetRecordCollectingListener;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.dummyrecord.MissingRowDummyRecord;
+import org.apache.poi.hssf.model.HSSFFormulaParser;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.ExtendedFormatRecord;
+import org.apache.poi.hssf.record.FormatRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetColumnProjection;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowFilter;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowRange;
+import org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelUtil;
+
+/**
+ * Processes the records of an old Excel file (.xls) incrementally and hands over each row to a bounded SpreadSheetRowQueue as soon as it is complete
+ * instead of keeping all sheets in-memory.
+ *
+ * The workbook globals (sheet names, shared string table, formats) arrive before the first sheet. Each sheet is a substream starting with a BOF record
+ * and ending with an EOF record. Within a sheet rows are stored in blocks of (up to) 32 row records followed by the cells of these rows. A row is
+ * complete once a cell of a subsequent row, the first row record of the next block or the end of the sheet has been seen. Thus, only the rows of
+ * the current block are kept in-memory.
+ *
+ */
+public class HSSFEventStreamingParser implements HSSFListener {
+	private static final Log LOG = LogFactory.getLog(HSSFEventStreamingParser.class.getName());
+	private SpreadSheetRowQueue rowQueue;
+	private List<String> sheetList;
+	private List<Boolean> sheetSelectedList;
+	private List<Integer> extendedRecordFormatIndexList;
+	private Map<Integer, String> formatRecordIndexMap;
+	private DataFormatter useDataFormatter;
+	private String[] sheets;
+	private SSTRecord currentSSTrecord;
+	private SheetRecordCollectingListener workbookBuildingListener;
+	private HSSFWorkbook stubWorkbook;
+	private int substreamDepth;
+	private int currentSheet;
+	private boolean currentSheetSelected;
+	private Deque<SpreadSheetCellDAO[]> pendingRows;
+	private int firstPendingRowNum;
+	private boolean cellsInCurrentBlock;
+	private int cachedRowNum;
+	private short cachedColumnNum;
+	private boolean cachedSkipped;
+	private SpreadSheetColumnProjection columnProjection;
+	private int leadingRows;
+	private SpreadSheetRowRange sheetRowRange;
+	private int rangeLeadingRows;
+	private int lastSelectedSheet;
+	private boolean complete;
+	private boolean rawValues;
+	private boolean date1904;
+
+	/**
+	 *
+	 * @param sheetNameList    list receiving the names of all sheets of the workbook (also the ones not selected)
+	 * @param useDataFormatter DataFormatter to format numbers. It is only used by the producer thread
+	 * @param rowQueue         queue receiving the rows of the selected sheets
+	 * @param sheets           selected sheets, null if all sheets should be parsed
+	 */
+	public HSSFEventStreamingParser(List<String> sheetNameList, DataFormatter useDataFormatter,
+			SpreadSheetRowQueue rowQueue, String[] sheets) {
+		this.sheetList = sheetNameList;
+		this.useDataFormatter = useDataFormatter;
+		this.rowQueue = rowQueue;
+		this.sheets = sheets;
+		this.sheetSelectedList = new ArrayList<>();
+		this.extendedRecordFormatIndexList = new ArrayList<>();
+		this.formatRecordIndexMap = new HashMap<>();
+		this.pendingRows = new ArrayDeque<>();
+		this.substreamDepth = 0;
+		this.currentSheet = -1;
+		this.currentSheetSelected = false;
+		this.lastSelectedSheet = -1;
+	}
+
+	public void setSheetRecordCollectingListener(SheetRecordCollectingListener listener) {
+		this.workbookBuildingListener = listener;
+	}
+
+	/**
+	 * Skips the cells of columns not selected. Leading rows of a sheet (e.g. lines to skip and the header) are always read completely
+	 * 
+	 * @param columnProjection selected columns
+	 * @param leadingRows      number of rows at the beginning of each sheet read completely
+	 */
+	public void setColumnProjection(SpreadSheetColumnProjection columnProjection, int leadingRows) {
+		this.columnProjection = columnProjection;
+		this.leadingRows = leadingRows;
+	}
+
+	/**
+	 * Sets the raw values of the cells in addition to their formatted values (cf. hadoopoffice.read.rawValues)
+	 * 
+	 * @param rawValues true if raw values are set
+	 */
+	public void setRawValues(boolean rawValues) {
+		this.rawValues = rawValues;
+	}
+
+	/**
+	 * Only reads a range of rows of each sheet (cf. hadoopoffice.read.rowRange). Rows before the range are handed over as
+	 * SpreadSheetRowFilter.REJECTED_ROW without reading their cells. Leading rows of a sheet (e.g. lines to skip and the header) are always read
+	 * 
+	 * @param sheetRowRange range of rows
+	 * @param leadingRows   number of rows at the beginning of each sheet always read
+	 */
+	public void setSheetRowRange(SpreadSheetRowRange sheetRowRange, int leadingRows) {
+		this.sheetRowRange = sheetRowRange;
+		this.rangeLeadingRows = leadingRows;
+	}
+
+	/**
+	 * 
+	 * @return true, if all rows needed have been handed over to the queue, i.e. processing of the workbook can be stopped (cf. HSSFAbortingListener)
+	 */
+	public boolean isComplete() {
+		return this.complete;
+	}
+
+	/**
+	 * 
+	 * @param cellRecord record of the cell
+	 * @return true, if the cell is not part of the selected columns or the range of rows
+	 */
+	private boolean isSkipped(CellValueRecordInterface cellRecord) {
+		if (this.isAfterRange(cellRecord.getRow())) {
+			if (this.currentSheet >= this.lastSelectedSheet) {
+				// cells arrive ordered by row, i.e. all rows of the range are complete
+				this.flushPendingRows(Integer.MAX_VALUE);
+				this.complete = true;
+			}
+			return true;
+		}
+		return (this.isBeforeRange(cellRecord.getRow())) || ((this.columnProjection != null) && (cellRecord.getRow() >= this.leadingRows)
+				&& (!this.columnProjection.isSelected(cellRecord.getColumn())));
+	}
+
+	private boolean isBeforeRange(int rowNum) {
+		return (this.sheetRowRange != null) && (this.sheetRowRange.isBefore(rowNum, this.rangeLeadingRows));
+	}
+
+	private boolean isAfterRange(int rowNum) {
+		return (this.sheetRowRange != null) && (this.sheetRowRange.isAfter(rowNum, this.rangeLeadingRows));
+	}
+
+	@Override
+	public void processRecord(Record record) {
+		switch (record.getSid()) {
+		case DateWindow1904Record.sid:
+			this.date1904 = ((DateWindow1904Record) record).getWindowing() == 1;
+			break;
+		case BOFRecord.sid:
+			this.substreamDepth++;
+			BOFRecord bof = (BOFRecord) record;
+			if (bof.getType() == BOFRecord.TYPE_WORKBOOK) {
+				if ((this.stubWorkbook == null) && (this.workbookBuildingListener != null)) {
+					this.stubWorkbook = this.workbookBuildingListener.getStubHSSFWorkbook();
+				} else {
+					LOG.error("Cannot create stub network. Formula Strings cannot be parsed");
+				}
+			} else if (this.substreamDepth == 1) { // sheet substream (embedded charts are nested)
+				this.startSheet();
+			}
+			break;
+		case EOFRecord.sid:
+			if ((this.substreamDepth == 1) && (this.currentSheet >= 0)) {
+				this.flushPendingRows(Integer.MAX_VALUE);
+				this.currentSheetSelected = false;
+				if (this.currentSheet >= this.lastSelectedSheet) { // no further sheets selected
+					this.complete = true;
+				}
+			}
+			this.substreamDepth--;
+			break;
+		case BoundSheetRecord.sid:
+			BoundSheetRecord bsr = (BoundSheetRecord) record;
+			String sheetName = bsr.getSheetname();
+			LOG.debug("Sheet found: " + sheetName);
+			this.sheetSelectedList.add(this.isSelected(sheetName));
+			if (this.isSelected(sheetName)) {
+				this.lastSelectedSheet = this.sheetList.size();
+			}
+			this.sheetList.add(sheetName);
+			break;
+		case SSTRecord.sid:
+			LOG.debug("SST record found");
+			this.currentSSTrecord = (SSTRecord) record;
+			break;
+		case ExtendedFormatRecord.sid:
+			ExtendedFormatRecord nfir = (ExtendedFormatRecord) record;
+			this.extendedRecordFormatIndexList.add((int) nfir.getFormatIndex());
+			break;
+		case FormatRecord.sid:
+			FormatRecord frec = (FormatRecord) record;
+			this.formatRecordIndexMap.put(frec.getIndexCode(), frec.getFormatString());
+			break;
+		case RowRecord.sid:
+			if (this.currentSheetSelected) {
+				RowRecord rowRec = (RowRecord) record;
+				this.addRow(rowRec.getRowNumber(), new SpreadSheetCellDAO[rowRec.getLastCol()]);
+			}
+			break;
+		case FormulaRecord.sid:
+			this.cachedSkipped = true;
+			if ((this.currentSheetSelected) && (!this.isSkipped((CellValueRecordInterface) record))) {
+				this.cachedSkipped = false;
+				FormulaRecord formRec = (FormulaRecord) record;
+				String formulaString = "";
+				if (this.stubWorkbook != null) {
+					formulaString = HSSFFormulaParser.toFormulaString(this.stubWorkbook, formRec.getParsedExpression());
+				}
+				if (formRec.hasCachedResultString()) { // result is in the subsequent string record
+					this.cachedColumnNum = formRec.getColumn();
+					this.cachedRowNum = formRec.getRow();
+					this.getRow(formRec); // completes previous rows
+				} else {
+					int formatIndex = this.extendedRecordFormatIndexList.get(formRec.getXFIndex());
+					String formatString = this.getFormatString(formatIndex);
+					String theNumber = this.useDataFormatter.formatRawCellContents(formRec.getValue(), formatIndex,
+							formatString);
+					SpreadSheetCellDAO formulaCellDAO = new SpreadSheetCellDAO(theNumber, "", formulaString,
+							MSExcelUtil.getCellAddressA1Format(formRec.getRow(), formRec.getColumn()),
+							this.sheetList.get(this.currentSheet));
+					if (this.rawValues) {
+						HSSFEventParser.setRawFormulaResult(formulaCellDAO, formRec, formatIndex, formatString, this.date1904);
+					}
+					this.setCell(formRec, formulaCellDAO);
+				}
+			}
+			break;
+		case StringRecord.sid: // cached formula results
+			if ((this.currentSheetSelected) && (!this.cachedSkipped)) {
+				StringRecord strRec = (StringRecord) record;
+				SpreadSheetCellDAO[] row = this.getPendingRow(this.cachedRowNum);
+				if ((row != null) && (this.cachedColumnNum < row.length)) {
+					row[this.cachedColumnNum] = new SpreadSheetCellDAO(strRec.getString(), "", "",
+							MSExcelUtil.getCellAddressA1Format(this.cachedRowNum, this.cachedColumnNum),
+							this.sheetList.get(this.currentSheet));
+					if (this.rawValues) {
+						row[this.cachedColumnNum].setRawValue(SpreadSheetCellDAO.RAW_TYPE_STRING, -1);
+					}
+				}
+			}
+			break;
+		case NumberRecord.sid:
+			if ((this.currentSheetSelected) && (!this.isSkipped((CellValueRecordInterface) record))) {
+				NumberRecord numrec = (NumberRecord) record;
+				int formatIndex = this.extendedRecordFormatIndexList.get(numrec.getXFIndex());
+				String formatString = this.getFormatString(formatIndex);
+				String theNumber = this.useDataFormatter.formatRawCellContents(numrec.getValue(), formatIndex,
+						formatString);
+				SpreadSheetCellDAO numberCellDAO = new SpreadSheetCellDAO(theNumber, "", "",
+						MSExcelUtil.getCellAddressA1Format(numrec.getRow(), numrec.getColumn()),
+						this.sheetList.get(this.currentSheet));
+				if (this.rawValues) {
+					numberCellDAO.setRawNumericValue(numrec.getValue(), DateUtil.isADateFormat(formatIndex, formatString), this.date1904);
+				}
+				this.setCell(numrec, numberCellDAO);
+			}
+			break;
+		case LabelSSTRecord.sid:
+			if ((this.currentSheetSelected) && (!this.isSkipped((CellValueRecordInterface) record))) {
+				LabelSSTRecord lrec = (LabelSSTRecord) record;
+				if ((this.currentSSTrecord == null) || (lrec.getSSTIndex() < 0)
+						|| (lrec.getSSTIndex() >= this.currentSSTrecord.getNumUniqueStrings())) {
+					LOG.error("Invalid SST record index. Cell ignored");
+				} else {
+					SpreadSheetCellDAO labelCellDAO = new SpreadSheetCellDAO(
+							this.currentSSTrecord.getString(lrec.getSSTIndex()).getString(), "", "",
+							MSExcelUtil.getCellAddressA1Format(lrec.getRow(), lrec.getColumn()),
+							this.sheetList.get(this.currentSheet));
+					if (this.rawValues) {
+						labelCellDAO.setRawValue(SpreadSheetCellDAO.RAW_TYPE_STRING, lrec.getSSTIndex());
+					}
+					this.setCell(lrec, labelCellDAO);
+				}
+			}
+			break;
+		default:
+			break;
+		}
+		if ((record instanceof MissingRowDummyRecord) && (this.currentSheetSelected)) { // empty row
+			this.addRow(((MissingRowDummyRecord) record).getRowNumber(), new SpreadSheetCellDAO[0]);
+		}
+	}
+
+	/**
+	 * Starts a new sheet substream. Sheets appear in the same order as their BoundSheet records
+	 *
+	 */
+	private void startSheet() {
+		this.currentSheet++;
+		this.pendingRows.clear();
+		this.cellsInCurrentBlock = false;
+		this.currentSheetSelected = (this.currentSheet < this.sheetSelectedList.size())
+				&& (this.sheetSelectedList.get(this.currentSheet));
+		if (this.currentSheetSelected) {
+			LOG.debug("Streaming sheet: " + this.sheetList.get(this.currentSheet));
+			try {
+				this.rowQueue.startSheet(this.currentSheet);
+			} catch (InterruptedException e) {
+				this.interrupted(e);
+			}
+		}
+	}
+
+	/**
+	 * Adds a row (or empty row) to the current block. If cells have already been seen then a new block starts and all rows of the previous block are
+	 * complete. Rows after the range of rows are not added
+	 *
+	 * @param rowNum row number
+	 * @param row    empty row with the number of cells of this row
+	 */
+	private void addRow(int rowNum, SpreadSheetCellDAO[] row) {
+		if (this.isAfterRange(rowNum)) {
+			return;
+		}
+		if (this.cellsInCurrentBlock) {
+			this.flushPendingRows(Integer.MAX_VALUE);
+			this.cellsInCurrentBlock = false;
+		}
+		if (this.pendingRows.isEmpty()) {
+			this.firstPendingRowNum = rowNum;
+		}
+		this.pendingRows.addLast(this.isBeforeRange(rowNum) ? SpreadSheetRowFilter.REJECTED_ROW : row);
+	}
+
+	/**
+	 * Sets a cell in its pending row
+	 *
+	 * @param cellRecord record of the cell
+	 * @param cell       parsed cell
+	 */
+	private void setCell(CellValueRecordInterface cellRecord, SpreadSheetCellDAO cell) {
+		SpreadSheetCellDAO[] row = this.getRow(cellRecord);
+		if (row == null) {
+			return;
+		}
+		if (cellRecord.getColumn() >= row.length) {
+			LOG.error("More cells in row than expected. Row number:" + (cellRecord.getRow()) + "Column number: "
+					+ cellRecord.getColumn() + "row length " + row.length);
+		} else {
+			row[cellRecord.getColumn()] = cell;
+		}
+	}
+
+	/**
+	 * Returns the pending row of a cell. All rows before are complete and are handed over to the queue
+	 *
+	 * @param cellRecord record of the cell
+	 * @return row or null if the row of the cell is not known
+	 */
+	private SpreadSheetCellDAO[] getRow(CellValueRecordInterface cellRecord) {
+		this.cellsInCurrentBlock = true;
+		this.flushPendingRows(cellRecord.getRow());
+		SpreadSheetCellDAO[] row = this.getPendingRow(cellRecord.getRow());
+		if (row == null) {
+			LOG.error("Cell without row record. Row number: " + cellRecord.getRow() + " Column number: "
+					+ cellRecord.getColumn());
+		}
+		return row;
+	}
+
+	private SpreadSheetCellDAO[] getPendingRow(int rowNum) {
+		if ((this.pendingRows.isEmpty()) || (rowNum != this.firstPendingRowNum)) {
+			return null;
+		}
+		return this.pendingRows.peekFirst();
+	}
+
+	/**
+	 * Hands over all pending rows before the given row number to the queue
+	 *
+	 * @param rowNum row number of the first row that is not complete yet
+	 */
+	private void flushPendingRows(int rowNum) {
+		try {
+			while ((!this.pendingRows.isEmpty()) && (this.firstPendingRowNum < rowNum)) {
+				this.rowQueue.put(this.pendingRows.removeFirst());
+				this.firstPendingRowNum++;
+			}
+		} catch (InterruptedException e) {
+			this.interrupted(e);
+		}
+	}
+
+	/**
+	 * Returns the format string of a format index. Built-in formats do not need to have a format record
+	 *
+	 * @param formatIndex index of the format
+	 * @return format string
+	 */
+	private String getFormatString(int formatIndex) {
+		String result = this.formatRecordIndexMap.get(formatIndex);
+		if (result == null) {
+			result = BuiltinFormats.getBuiltinFormat(formatIndex);
+		}
+		return result;
+	}
+
+	private boolean isSelected(String sheetName) {
+		if (this.sheets == null) {
+			return true;
+		}
+		for (int i = 0; i < this.sheets.length; i++) {
+			if (this.sheets[i].equals(sheetName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void interrupted(InterruptedException e) {
+		Thread.currentThread().interrupt();
+		throw new IllegalStateException("Streaming of workbook has been interrupted", e);
+	}
+
+}
@@ -0,0 +1,90 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.poi.hssf.eventusermodel.EventWorkbookBuilder.SheetRecordCollectingListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
+import org.apache.poi.hssf.record.crypto.Biff8EncryptionKey;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+
+/**
+ * Reads the Workbook stream of an old Excel file (.xls) in a background thread and hands over the rows parsed by HSSFEventStreamingParser to a
+ * bounded SpreadSheetRowQueue.
+ *
+ */
+public class HSSFEventStreamingProducer implements Runnable {
+	private static final Log LOG = LogFactory.getLog(HSSFEventStreamingProducer.class.getName());
+	private POIFSFileSystem poifs;
+	private String password;
+	private HSSFEventStreamingParser parser;
+	private SpreadSheetRowQueue rowQueue;
+
+	/**
+	 *
+	 * @param poifs    OLE2 container of the workbook. It is closed by the producer
+	 * @param password password of the workbook, null if it is not encrypted
+	 * @param parser   parser handing over the rows to the queue
+	 * @param rowQueue queue receiving the parsed rows
+	 */
+	public HSSFEventStreamingProducer(POIFSFileSystem poifs, String password, HSSFEventStreamingParser parser,
+			SpreadSheetRowQueue rowQueue) {
+		this.poifs = poifs;
+		this.password = password;
+		this.parser = parser;
+		this.rowQueue = rowQueue;
+	}
+
+	@Override
+	public void run() {
+		// the password is stored thread local by Apache POI, so it needs to be set in the thread reading the records
+		if (this.password != null) {
+			Biff8EncryptionKey.setCurrentUserPassword(this.password);
+		}
+		try (InputStream din = this.poifs.createDocumentInputStream("Workbook")) {
+			HSSFRequest req = new HSSFRequest();
+			SheetRecordCollectingListener listener = new SheetRecordCollectingListener(
+					new MissingRecordAwareHSSFListener(this.parser));
+			this.parser.setSheetRecordCollectingListener(listener);
+			// stop reading records as soon as the last row needed has been handed over
+			req.addListenerForAllRecords(new HSSFAbortingListener(listener, this.parser::isComplete));
+			HSSFEventFactory factory = new HSSFEventFactory();
+			factory.abortableProcessEvents(req, din);
+			this.rowQueue.finish();
+		} catch (IOException | HSSFUserException | RuntimeException e) {
+			if (Thread.currentThread().isInterrupted()) {
+				LOG.debug("Streaming of workbook stopped by consumer");
+			} else {
+				this.rowQueue.fail(e);
+			}
+		} finally {
+			Biff8EncryptionKey.setCurrentUserPassword(null);
+			try {
+				this.poifs.close();
+			} catch (IOException e) {
+				LOG.error(e);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,136 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+
+/**
+ * Stores the rows of a sheet parsed in event mode until they are consumed.
+ *
+ * Rows are appended to fixed size chunks and consumed from the head with a read cursor, so appending, accessing and removing the first row take constant
+ * time (in contrast to ArrayList.remove(0), which shifts all remaining rows). A chunk is released as soon as all of its rows have been consumed, so the memory
+ * occupied by the buffer falls while the rows are read.
+ *
+ */
+public class SpreadSheetRowBuffer {
+	private static final int CHUNK_SHIFT = 10;
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private List<SpreadSheetCellDAO[][]> chunks;
+	// position of the next row to read, counted from the first row ever added
+	private int head;
+	// position after the last row added
+	private int tail;
+
+	public SpreadSheetRowBuffer() {
+		this.chunks = new ArrayList<>();
+		this.head = 0;
+		this.tail = 0;
+	}
+
+	/**
+	 * Appends a row at the end of the buffer
+	 *
+	 * @param row row
+	 */
+	public void add(SpreadSheetCellDAO[] row) {
+		int chunkIndex = this.tail >>> SpreadSheetRowBuffer.CHUNK_SHIFT;
+		if (chunkIndex == this.chunks.size()) {
+			this.chunks.add(new SpreadSheetCellDAO[SpreadSheetRowBuffer.CHUNK_SIZE][]);
+		}
+		this.chunks.get(chunkIndex)[this.tail & SpreadSheetRowBuffer.CHUNK_MASK] = row;
+		this.tail++;
+	}
+
+	/**
+	 * Returns a row not consumed yet
+	 *
+	 * @param index index of the row relative to the first row not consumed yet
+	 * @return row
+	 * @throws IndexOutOfBoundsException if there is no row with this index
+	 */
+	public SpreadSheetCellDAO[] get(int index) {
+		if ((index < 0) || (index >= this.size())) {
+			throw new IndexOutOfBoundsException("Row index: " + index + ", rows: " + this.size());
+		}
+		int position = this.head + index;
+		return this.chunks.get(position >>> SpreadSheetRowBuffer.CHUNK_SHIFT)[position & SpreadSheetRowBuffer.CHUNK_MASK];
+	}
+
+	/**
+	 * Removes the first row not consumed yet
+	 *
+	 * @return row or null if all rows have been consumed
+	 */
+	public SpreadSheetCellDAO[] poll() {
+		if (this.head == this.tail) {
+			return null;
+		}
+		int chunkIndex = this.head >>> SpreadSheetRowBuffer.CHUNK_SHIFT;
+		SpreadSheetCellDAO[][] chunk = this.chunks.get(chunkIndex);
+		int offset = this.head & SpreadSheetRowBuffer.CHUNK_MASK;
+		SpreadSheetCellDAO[] result = chunk[offset];
+		chunk[offset] = null;
+		this.head++;
+		if ((offset == SpreadSheetRowBuffer.CHUNK_MASK) || (this.head == this.tail)) {
+			if (this.head == this.tail) {
+				// everything consumed: start again with the first chunk
+				this.chunks.clear();
+				this.head = 0;
+				this.tail = 0;
+			} else {
+				// release the chunk
+				this.chunks.set(chunkIndex, null);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 *
+	 * @return number of rows not consumed yet
+	 */
+	public int size() {
+		return this.tail - this.head;
+	}
+
+	/**
+	 *
+	 * @return true, if all rows have been consumed
+	 */
+	public boolean isEmpty() {
+		return this.head == this.tail;
+	}
+
+	/**
+	 *
+	 * @return number of chunks not released yet
+	 */
+	int getChunkCount() {
+		int result = 0;
+		for (SpreadSheetCellDAO[][] chunk : this.chunks) {
+			if (chunk != null) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,221 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
+
+/**
+ * Bounded hand-over of rows between a background thread parsing a workbook (the producer) and the thread calling getNext of the parser (the consumer).
+ *
+ * The producer announces each sheet with startSheet before putting its rows. It blocks as soon as the configured number of rows is waiting, so only a bounded
+ * number of rows is kept in-memory independent of the size of the workbook.
+ *
+ */
+public class SpreadSheetRowQueue implements AutoCloseable {
+	private static final Log LOG = LogFactory.getLog(SpreadSheetRowQueue.class.getName());
+	private static final long OFFER_TIMEOUT_MS = 100L;
+	private static final long CLOSE_TIMEOUT_MS = 1000L;
+	private static final Object END_OF_WORKBOOK = new Object();
+
+	private BlockingQueue<Object> queue;
+	private volatile boolean closed;
+	private Thread producer;
+	private int currentSheet;
+	private Object head;
+
+	/**
+	 *
+	 * @param capacity maximum number of rows (including sheet markers) waiting to be consumed
+	 */
+	public SpreadSheetRowQueue(int capacity) {
+		this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+		this.closed = false;
+		this.currentSheet = -1;
+	}
+
+	/**
+	 * Starts the producer in a background (daemon) thread
+	 *
+	 * @param producerRunnable parses the workbook and puts its rows into this queue
+	 * @param name             name of the thread
+	 */
+	public void startProducer(Runnable producerRunnable, String name) {
+		this.producer = new Thread(producerRunnable, name);
+		this.producer.setDaemon(true);
+		this.producer.start();
+	}
+
+	/**
+	 * Called by the producer before the first row of a sheet is put into the queue
+	 *
+	 * @param sheetIndex index of the sheet
+	 * @throws InterruptedException if the queue has been closed by the consumer
+	 */
+	public void startSheet(int sheetIndex) throws InterruptedException {
+		this.offer(Integer.valueOf(sheetIndex));
+	}
+
+	/**
+	 * Called by the producer for each row of the current sheet. Blocks if the queue is full.
+	 *
+	 * @param row row
+	 * @throws InterruptedException if the queue has been closed by the consumer
+	 */
+	public void put(SpreadSheetCellDAO[] row) throws InterruptedException {
+		this.offer(row);
+	}
+
+	/**
+	 * Called by the producer when all sheets have been parsed
+	 *
+	 */
+	public void finish() {
+		try {
+			this.offer(END_OF_WORKBOOK);
+		} catch (InterruptedException e) {
+			LOG.debug("Queue closed before end of workbook could be signaled");
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Called by the producer if the workbook cannot be parsed. The consumer receives the error after all rows produced so far.
+	 *
+	 * @param e error of the producer
+	 */
+	public void fail(Exception e) {
+		try {
+			this.offer(e);
+		} catch (InterruptedException ie) {
+			LOG.debug("Queue closed before error could be signaled");
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Called by the consumer to fetch the next row. Blocks until the producer has put a row, finished or failed.
+	 *
+	 * @return next row or null if there are no more rows
+	 * @throws FormatNotUnderstoodException in case the producer failed parsing the workbook
+	 */
+	public SpreadSheetCellDAO[] take() throws FormatNotUnderstoodException {
+		if (this.closed) {
+			return null;
+		}
+		try {
+			while (true) {
+				Object item = this.head;
+				if (item == null) {
+					item = this.queue.take();
+				} else {
+					this.head = null;
+				}
+				if (item instanceof SpreadSheetCellDAO[]) {
+					return (SpreadSheetCellDAO[]) item;
+				} else if (item instanceof Integer) {
+					this.currentSheet = (Integer) item;
+				} else if (item == END_OF_WORKBOOK) {
+					this.closed = true;
+					return null;
+				} else if (item instanceof Exception) {
+					this.closed = true;
+					LOG.error((Exception) item);
+					throw new FormatNotUnderstoodException("Error parsing workbook in streaming mode: " + ((Exception) item).getMessage());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new FormatNotUnderstoodException("Interrupted while waiting for next row");
+		}
+	}
+
+	/**
+	 * Called by the consumer to wait until the producer has put the first item into the queue. This allows to report errors occurring at the
+	 * beginning of the workbook, such as a wrong password, before the first row is read.
+	 *
+	 * @throws FormatNotUnderstoodException in case the producer failed before the first item
+	 */
+	public void awaitStart() throws FormatNotUnderstoodException {
+		if ((this.closed) || (this.head != null)) {
+			return;
+		}
+		try {
+			this.head = this.queue.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new FormatNotUnderstoodException("Interrupted while waiting for first row");
+		}
+		if (this.head instanceof Exception) {
+			Exception e = (Exception) this.head;
+			this.head = null;
+			this.closed = true;
+			LOG.error(e);
+			throw new FormatNotUnderstoodException("Error parsing workbook in streaming mode: " + e.getMessage());
+		}
+	}
+
+	/**
+	 *
+	 * @return the index of the sheet of the row returned by the last call to take, -1 if no row has been taken yet
+	 */
+	public int getCurrentSheet() {
+		return this.currentSheet;
+	}
+
+	/**
+	 * Stops the producer, if it is still running, waits until it has ended and releases all rows not consumed yet
+	 *
+	 */
+	@Override
+	public void close() {
+		this.closed = true;
+		this.queue.clear();
+		this.head = null;
+		if ((this.producer != null) && (this.producer.isAlive())) {
+			this.producer.interrupt();
+			try {
+				this.producer.join(SpreadSheetRowQueue.CLOSE_TIMEOUT_MS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (this.producer.isAlive()) {
+				LOG.warn("Thread parsing the workbook did not stop in time");
+			}
+		}
+		// rows put by the producer while it was stopping
+		this.queue.clear();
+	}
+
+	private void offer(Object item) throws InterruptedException {
+		while (!this.queue.offer(item, SpreadSheetRowQueue.OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+			if (this.closed) {
+				throw new InterruptedException("Row queue has been closed");
+			}
+		}
+		if (this.closed) {
+			this.queue.clear();
+			throw new InterruptedException("Row queue has been closed");
+		}
+	}
+
+}
@@ -0,0 +1,120 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.XMLFilterImpl;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetColumnProjection;
+import org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelUtil;
+
+/**
+ * Removes the cells of columns not selected from the SAX events of a sheet in xlsx format before they reach the handler of the sheet (e.g.
+ * XSSFSheetXMLHandler), so that no shared strings are looked up, no styles are resolved and no values are formatted for them. Leading rows of the sheet
+ * (e.g. lines to skip and the header) are passed completely.
+ *
+ * Additionally, the remaining cells of a row rejected by the row filter of the XSSFEventParser receiving the cells are removed and parsing is stopped with
+ * a XSSFSheetCompleteException as soon as the parser does not need the remaining rows of the sheet.
+ *
+ */
+public class XSSFColumnProjectionFilter extends XMLFilterImpl {
+	private static final String ELEMENT_ROW = "row";
+	private static final String ELEMENT_CELL = "c";
+	private static final String ATTRIBUTE_REFERENCE = "r";
+
+	private SpreadSheetColumnProjection columnProjection;
+	private int leadingRows;
+	private int currentRow;
+	// depth of the elements of a skipped cell, 0 if no cell is skipped
+	private int skipDepth;
+	private XSSFEventParser rowParser;
+
+	/**
+	 * 
+	 * @param handler          handler of the sheet receiving the events of the selected cells
+	 * @param columnProjection selected columns, null if all columns are selected
+	 * @param leadingRows      number of rows at the beginning of the sheet passed completely
+	 */
+	public XSSFColumnProjectionFilter(ContentHandler handler, SpreadSheetColumnProjection columnProjection, int leadingRows) {
+		this.setContentHandler(handler);
+		this.columnProjection = columnProjection;
+		this.leadingRows = leadingRows;
+		this.currentRow = 0;
+		this.skipDepth = 0;
+	}
+
+	/**
+	 * Skips the remaining cells of rows rejected by the row filter of the parser and stops parsing once the sheet is complete for the parser
+	 * 
+	 * @param rowParser parser receiving the cells (via the handler of the sheet)
+	 */
+	public void setRowParser(XSSFEventParser rowParser) {
+		this.rowParser = rowParser;
+	}
+
+	@Override
+	public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+		if (this.skipDepth > 0) {
+			this.skipDepth++;
+			return;
+		}
+		String name = "".equals(localName) ? qName : localName;
+		if (XSSFColumnProjectionFilter.ELEMENT_ROW.equals(name)) {
+			String rowReference = atts.getValue(XSSFColumnProjectionFilter.ATTRIBUTE_REFERENCE);
+			this.currentRow = rowReference == null ? this.currentRow + 1 : Integer.parseInt(rowReference);
+			if ((this.rowParser != null) && (this.rowParser.isSheetComplete(this.currentRow - 1))) {
+				throw new XSSFSheetCompleteException(this.rowParser.getSheetName());
+			}
+		} else if ((XSSFColumnProjectionFilter.ELEMENT_CELL.equals(name)) && (this.currentRow > this.leadingRows)) {
+			if ((this.rowParser != null) && (this.rowParser.isRowRejected())) {
+				this.skipDepth = 1;
+				return;
+			}
+			String cellReference = atts.getValue(XSSFColumnProjectionFilter.ATTRIBUTE_REFERENCE);
+			if ((this.columnProjection != null) && (cellReference != null)
+					&& (!this.columnProjection.isSelected(MSExcelUtil.getColumnNumberA1Format(cellReference)))) {
+				this.skipDepth = 1;
+				return;
+			}
+		}
+		super.startElement(uri, localName, qName, atts);
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName) throws SAXException {
+		if (this.skipDepth > 0) {
+			this.skipDepth--;
+			return;
+		}
+		super.endElement(uri, localName, qName);
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) throws SAXException {
+		if (this.skipDepth == 0) {
+			super.characters(ch, start, length);
+		}
+	}
+
+	@Override
+	public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+		if (this.skipDepth == 0) {
+			super.ignorableWhitespace(ch, start, length);
+		}
+	}
+
+}
@@ -17,13 +17,19 @@
 package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
 
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
-import org.apache.poi.ss.util.CellAddress;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
 import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowFilter;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowMatcher;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowRange;
+import org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelUtil;
 
 
 
@@ -33,52 +39,219 @@ import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
  * **/
 //https://svn.apache.org/repos/asf/poi/trunk/src/examples/src/org/apache/poi/xssf/streaming/examples/HybridStreaming.java
 public class XSSFEventParser implements SheetContentsHandler {
-	private Map<Integer,List<SpreadSheetCellDAO[]>> spreadSheetCellDAOCache; 
+	private static final String CELLTYPE_NUMBER = "n";
+	private static final String CELLTYPE_BOOLEAN = "b";
+	private static final String CELLTYPE_ERROR = "e";
+	private static final String CELLTYPE_SHAREDSTRING = "s";
+	private static final String CELLTYPE_FORMULASTRING = "str";
+	private static final String CELLTYPE_INLINESTRING = "inlineStr";
+	private Map<Integer,SpreadSheetRowBuffer> spreadSheetCellDAOCache; 
+	private SpreadSheetRowQueue rowQueue;
 	private ArrayList<SpreadSheetCellDAO> spreadSheetCellDAOCurrentRow;
 	private String sheetName;
 	private Integer currentSheet;
 
 	private int currentRow;
 	private int currentColumn;
+	private SpreadSheetRowMatcher rowMatcher;
+	private int filterLeadingRows;
+	// matcher of the current row, null if the row is not filtered
+	private SpreadSheetRowMatcher currentRowMatcher;
+	private SpreadSheetRowRange sheetRowRange;
+	private int rangeLeadingRows;
+	private long rowLimit;
+	private int limitSkipRows;
+	// rows stored that are returned by the reader
+	private long rowCount;
+	// current row is before the range of rows or not needed anymore (sheet complete)
+	private boolean currentRowSkipped;
+	private boolean currentRowDropped;
+	private boolean rawValues;
+	private StylesTable styles;
+	private boolean date1904;
+	// type, style and unformatted value of the next cell reported (cf. XSSFRawValueFilter)
+	private String rawCellType;
+	private String rawCellStyle;
+	private String rawCellValue;
 	
-	public XSSFEventParser(Integer currentSheet,String sheetName, Map<Integer,List<SpreadSheetCellDAO[]>> spreadSheetCellDAOCache) {
+	public XSSFEventParser(Integer currentSheet,String sheetName, Map<Integer,SpreadSheetRowBuffer> spreadSheetCellDAOCache) {
 		this.currentSheet=currentSheet;
 		this.spreadSheetCellDAOCache=spreadSheetCellDAOCache;
-		this.spreadSheetCellDAOCache.put(currentSheet, new ArrayList<SpreadSheetCellDAO[]>());
+		this.spreadSheetCellDAOCache.put(currentSheet, new SpreadSheetRowBuffer());
 		this.sheetName=sheetName;
 		this.currentRow=-1;
+		this.rowLimit=-1;
 	}
 	
+	/**
+	 * Creates a parser that hands over each row to a bounded queue as soon as it has been parsed instead of keeping all rows of the sheet in-memory
+	 * 
+	 * @param currentSheet index of the sheet
+	 * @param sheetName name of the sheet
+	 * @param rowQueue queue consumed by the thread calling getNext of the parser
+	 */
+	public XSSFEventParser(Integer currentSheet,String sheetName, SpreadSheetRowQueue rowQueue) {
+		this.currentSheet=currentSheet;
+		this.rowQueue=rowQueue;
+		this.sheetName=sheetName;
+		this.currentRow=-1;
+		this.rowLimit=-1;
+	}
+	
+	
+	/**
+	 * Evaluates a row filter while receiving the cells of a row. Cells of a row that cannot match anymore are not created anymore and the row is stored as
+	 * SpreadSheetRowFilter.REJECTED_ROW. Leading rows of the sheet (e.g. lines to skip and the header) are not filtered
+	 * 
+	 * @param rowMatcher  matcher of the row filter, only used by this parser
+	 * @param leadingRows number of rows at the beginning of the sheet not filtered
+	 */
+	public void setRowFilter(SpreadSheetRowMatcher rowMatcher, int leadingRows) {
+		this.rowMatcher = rowMatcher;
+		this.filterLeadingRows = leadingRows;
+	}
+	
+	/**
+	 * Only stores a range of rows of the sheet (cf. hadoopoffice.read.rowRange). Rows before the range are stored as SpreadSheetRowFilter.REJECTED_ROW
+	 * without creating their cells. Leading rows of the sheet (e.g. lines to skip and the header) are always stored
+	 * 
+	 * @param sheetRowRange range of rows
+	 * @param leadingRows   number of rows at the beginning of the sheet always stored
+	 */
+	public void setSheetRowRange(SpreadSheetRowRange sheetRowRange, int leadingRows) {
+		this.sheetRowRange = sheetRowRange;
+		this.rangeLeadingRows = leadingRows;
+	}
+	
+	/**
+	 * Stops storing rows once enough rows for the limit of rows (cf. hadoopoffice.read.limit) have been stored
+	 * 
+	 * @param rowLimit number of rows needed from this sheet
+	 * @param skipRows number of rows at the beginning of the sheet not returned by the reader (e.g. lines to skip and the header), which are not counted
+	 */
+	public void setRowLimit(long rowLimit, int skipRows) {
+		this.rowLimit = rowLimit;
+		this.limitSkipRows = skipRows;
+	}
+	
+	/**
+	 * Stores the raw value of each cell (cf. hadoopoffice.read.rawValues). The raw values are received from a XSSFRawValueFilter before the cells
+	 * 
+	 * @param styles   StylesTable of the document to detect numeric cells formatted as dates
+	 * @param date1904 date format 1904 (true) or 1900 (false)
+	 */
+	public void setRawValues(StylesTable styles, boolean date1904) {
+		this.rawValues = true;
+		this.styles = styles;
+		this.date1904 = date1904;
+	}
+	
+	/**
+	 * Receives the type, style and unformatted value of the next cell reported
+	 * 
+	 * @param cellType  type of the cell (attribute t), null if not set
+	 * @param cellStyle style of the cell (attribute s), null if not set
+	 * @param value     unformatted value of the cell (element v), null if the cell has no value
+	 */
+	public void setRawCell(String cellType, String cellStyle, String value) {
+		this.rawCellType = cellType;
+		this.rawCellStyle = cellStyle;
+		this.rawCellValue = value;
+	}
+	
+	/**
+	 * 
+	 * @return name of the sheet
+	 */
+	public String getSheetName() {
+		return this.sheetName;
+	}
+	
+	/**
+	 * 
+	 * @return number of rows stored so far that are returned by the reader, i.e. not counting rejected rows and rows skipped at the beginning of the sheet
+	 */
+	public long getRowCount() {
+		return this.rowCount;
+	}
+	
+	/**
+	 * 
+	 * @param rowNum row (starting with 0)
+	 * @return true, if this row and all subsequent rows of the sheet are not needed anymore, i.e. parsing of the sheet can be stopped
+	 */
+	public boolean isSheetComplete(int rowNum) {
+		return ((this.sheetRowRange!=null) && (this.sheetRowRange.isAfter(rowNum, this.rangeLeadingRows))) || ((this.rowLimit>=0) && (this.rowCount>=this.rowLimit));
+	}
+	
+	/**
+	 * 
+	 * @return true, if the current row cannot match the row filter anymore or is not stored, i.e. its remaining cells can be skipped
+	 */
+	public boolean isRowRejected() {
+		return (this.currentRowSkipped) || (this.currentRowDropped) || ((this.currentRowMatcher!=null) && (this.currentRowMatcher.isRejected()));
+	}
 	
 	@Override
 	public void startRow(int rowNum) {
 		if (rowNum>currentRow+1) {
 			// create empty rows
 			while (rowNum-1!=currentRow) {
-				this.spreadSheetCellDAOCache.get(this.currentSheet).add(new SpreadSheetCellDAO[0]);
+				int emptyRowNum=currentRow+1;
+				if (!this.isSheetComplete(emptyRowNum)) {
+					// empty rows never match a filter
+					this.addRow(emptyRowNum, (this.isFiltered(emptyRowNum)) || (this.isBeforeRange(emptyRowNum))?SpreadSheetRowFilter.REJECTED_ROW:new SpreadSheetCellDAO[0]);
+				}
 				this.currentRow++;
 			}
 		}
 			// create for current Row temporary storage
 			this.spreadSheetCellDAOCurrentRow=new ArrayList<SpreadSheetCellDAO>();
 			this.currentColumn=0;
+			this.currentRowDropped=this.isSheetComplete(rowNum);
+			this.currentRowSkipped=this.isBeforeRange(rowNum);
+			this.currentRowMatcher=(!this.currentRowSkipped) && (this.isFiltered(rowNum))?this.rowMatcher:null;
+			if (this.currentRowMatcher!=null) {
+				this.currentRowMatcher.startRow();
+			}
 	}
 	
 	@Override
 	public void endRow(int rowNum) {
 		currentRow+=1;
+		if (this.currentRowDropped) {
+			return;
+		}
+		if ((this.currentRowSkipped) || ((this.currentRowMatcher!=null) && (!this.currentRowMatcher.endRow()))) {
+			this.addRow(rowNum, SpreadSheetRowFilter.REJECTED_ROW);
+			return;
+		}
 		// store row
 		SpreadSheetCellDAO[] currentRowDAO = new SpreadSheetCellDAO[this.spreadSheetCellDAOCurrentRow.size()];
 		currentRowDAO=this.spreadSheetCellDAOCurrentRow.toArray(currentRowDAO);
-		this.spreadSheetCellDAOCache.get(this.currentSheet).add(currentRowDAO);
+		this.addRow(rowNum, currentRowDAO);
 		
 	}
 	@Override
 	public void cell(String cellReference, String formattedValue, XSSFComment comment) {
 		// create empty column, if needed
-		
-		CellAddress currentCellAddress = new CellAddress(cellReference);
-		for (int i=this.currentColumn;i<currentCellAddress.getColumn();i++) {
+		String rawValue = this.rawCellValue;
+		this.rawCellValue = null;
+		if ((this.currentRowSkipped) || (this.currentRowDropped)) {
+			return;
+		}
+		int cellColumn = MSExcelUtil.getColumnNumberA1Format(cellReference);
+		if (this.currentRowMatcher!=null) {
+			if (this.currentRowMatcher.isRejected()) {
+				return;
+			}
+			if (!this.currentRowMatcher.cell(cellColumn, formattedValue)) {
+				// row cannot match anymore
+				this.spreadSheetCellDAOCurrentRow.clear();
+				return;
+			}
+		}
+		for (int i=this.currentColumn;i<cellColumn;i++) {
 			this.spreadSheetCellDAOCurrentRow.add(null);
 			this.currentColumn++;
 		}
@@ -89,6 +262,9 @@ public class XSSFEventParser implements SheetContentsHandler {
 		} else {
 			currentDAO = new SpreadSheetCellDAO(formattedValue,"", "", cellReference,this.sheetName);
 		}
+		if ((this.rawValues) && (rawValue!=null)) {
+			XSSFEventParser.setRawValue(currentDAO, this.rawCellType, this.rawCellStyle, rawValue, this.styles, this.date1904);
+		}
 		this.currentColumn++;
 		this.spreadSheetCellDAOCurrentRow.add(currentDAO);
 	}
@@ -99,6 +275,79 @@ public class XSSFEventParser implements SheetContentsHandler {
 		
 	}
 	
+	/**
+	 * Sets the raw value of a cell of a sheet in xlsx format. Cells with a date in ISO 8601 format (type d) do not have a raw value
+	 * 
+	 * @param cellDAO   cell
+	 * @param cellType  type of the cell (attribute t), null if not set (number)
+	 * @param cellStyle style of the cell (attribute s), null if not set
+	 * @param value     unformatted value of the cell (element v), empty for inline strings
+	 * @param styles    StylesTable of the document
+	 * @param date1904  date format 1904 (true) or 1900 (false)
+	 */
+	static void setRawValue(SpreadSheetCellDAO cellDAO, String cellType, String cellStyle, String value, StylesTable styles, boolean date1904) {
+		try {
+			if ((cellType==null) || (XSSFEventParser.CELLTYPE_NUMBER.equals(cellType))) {
+				double number = Double.parseDouble(value);
+				// style 0 is the default style if the cell has none
+				XSSFCellStyle style = styles==null?null:styles.getStyleAt(cellStyle==null?0:Integer.parseInt(cellStyle));
+				boolean date = (style!=null) && (DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString()));
+				cellDAO.setRawNumericValue(number, date, date1904);
+			} else if (XSSFEventParser.CELLTYPE_SHAREDSTRING.equals(cellType)) {
+				cellDAO.setRawValue(SpreadSheetCellDAO.RAW_TYPE_STRING, Integer.parseInt(value));
+			} else if ((XSSFEventParser.CELLTYPE_FORMULASTRING.equals(cellType)) || (XSSFEventParser.CELLTYPE_INLINESTRING.equals(cellType))) {
+				cellDAO.setRawValue(SpreadSheetCellDAO.RAW_TYPE_STRING, -1);
+			} else if (XSSFEventParser.CELLTYPE_BOOLEAN.equals(cellType)) {
+				cellDAO.setRawValue(SpreadSheetCellDAO.RAW_TYPE_BOOLEAN, "1".equals(value)?1.0:0.0);
+			} else if (XSSFEventParser.CELLTYPE_ERROR.equals(cellType)) {
+				cellDAO.setRawValue(SpreadSheetCellDAO.RAW_TYPE_ERROR, FormulaError.forString(value).getCode());
+			}
+		} catch (IllegalArgumentException e) { // includes NumberFormatException
+			// value cannot be interpreted, the cell has only the formatted value
+			cellDAO.setRawValue(SpreadSheetCellDAO.RAW_TYPE_NONE, 0.0);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param rowNum row (starting with 0)
+	 * @return true, if the row needs to be filtered
+	 */
+	private boolean isFiltered(int rowNum) {
+		return (this.rowMatcher!=null) && (rowNum>=this.filterLeadingRows) && (this.rowMatcher.isActive());
+	}
+	
+	/**
+	 * 
+	 * @param rowNum row (starting with 0)
+	 * @return true, if the row is before the range of rows read
+	 */
+	private boolean isBeforeRange(int rowNum) {
+		return (this.sheetRowRange!=null) && (this.sheetRowRange.isBefore(rowNum, this.rangeLeadingRows));
+	}
+	
+	/**
+	 * Stores a parsed row either in the cache or hands it over to the row queue (streaming)
+	 * 
+	 * @param rowNum row (starting with 0)
+	 * @param row parsed row
+	 */
+	private void addRow(int rowNum, SpreadSheetCellDAO[] row) {
+		if ((row!=SpreadSheetRowFilter.REJECTED_ROW) && (rowNum>=this.limitSkipRows)) {
+			this.rowCount++;
+		}
+		if (this.rowQueue==null) {
+			this.spreadSheetCellDAOCache.get(this.currentSheet).add(row);
+		} else {
+			try {
+				this.rowQueue.put(row);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Streaming of sheet \""+this.sheetName+"\" has been interrupted",e);
+			}
+		}
+	}
+	
 	
 	
 }
@@ -0,0 +1,184 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.CommentsTable;
+import org.apache.poi.xssf.model.StylesTable;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetColumnProjection;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowMatcher;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowRange;
+
+/**
+ * Parses the selected sheets of a .xlsx file one after the other with the SAX parser in a background thread and hands over each row to a bounded
+ * SpreadSheetRowQueue. This avoids keeping all rows of the workbook in-memory and parsing overlaps with the processing of the rows already parsed.
+ *
+ */
+public class XSSFEventStreamingProducer implements Runnable {
+	private static final Log LOG = LogFactory.getLog(XSSFEventStreamingProducer.class.getName());
+	private List<String> sheetNameList;
+	private List<InputStream> sheetInputStreamList;
+	private List<CommentsTable> sheetCommentsList;
+	private StylesTable styles;
+	private ReadOnlySharedStringsTable sst;
+	private DataFormatter dataFormatter;
+	private SpreadSheetRowQueue rowQueue;
+	private SpreadSheetColumnProjection columnProjection;
+	private int leadingRows;
+	private SpreadSheetRowMatcher rowMatcher;
+	private SpreadSheetRowRange sheetRowRange;
+	private boolean rawValues;
+	private boolean date1904;
+
+	/**
+	 *
+	 * @param sheetNameList        names of the sheets to parse
+	 * @param sheetInputStreamList xml content of the sheets to parse (same order as sheetNameList)
+	 * @param sheetCommentsList    comments of the sheets to parse (same order as sheetNameList, can contain null)
+	 * @param styles               StylesTable of the document
+	 * @param sst                  shared strings table of the document
+	 * @param dataFormatter        DataFormatter to format cells. It is only used by the producer thread
+	 * @param rowQueue             queue receiving the parsed rows
+	 */
+	public XSSFEventStreamingProducer(List<String> sheetNameList, List<InputStream> sheetInputStreamList,
+			List<CommentsTable> sheetCommentsList, StylesTable styles, ReadOnlySharedStringsTable sst,
+			DataFormatter dataFormatter, SpreadSheetRowQueue rowQueue) {
+		this.sheetNameList = sheetNameList;
+		this.sheetInputStreamList = sheetInputStreamList;
+		this.sheetCommentsList = sheetCommentsList;
+		this.styles = styles;
+		this.sst = sst;
+		this.dataFormatter = dataFormatter;
+		this.rowQueue = rowQueue;
+	}
+
+	/**
+	 * Skips the cells of columns not selected. Leading rows of a sheet (e.g. lines to skip and the header) are always read completely. Needs to be called
+	 * before the producer is started
+	 * 
+	 * @param columnProjection selected columns
+	 * @param leadingRows      number of rows at the beginning of each sheet read completely
+	 */
+	public void setColumnProjection(SpreadSheetColumnProjection columnProjection, int leadingRows) {
+		this.columnProjection = columnProjection;
+		this.leadingRows = leadingRows;
+	}
+
+	/**
+	 * Evaluates a row filter while parsing the rows and skips the remaining cells of rows that cannot match anymore. Needs to be called before the producer is
+	 * started
+	 * 
+	 * @param rowMatcher  matcher of the row filter, only used by the producer thread
+	 * @param leadingRows number of rows at the beginning of each sheet not filtered
+	 */
+	public void setRowFilter(SpreadSheetRowMatcher rowMatcher, int leadingRows) {
+		this.rowMatcher = rowMatcher;
+		this.leadingRows = leadingRows;
+	}
+
+	/**
+	 * Only reads a range of rows of each sheet and continues with the next sheet as soon as the range is exhausted. Needs to be called before the producer
+	 * is started
+	 * 
+	 * @param sheetRowRange range of rows
+	 * @param leadingRows   number of rows at the beginning of each sheet always read
+	 */
+	public void setSheetRowRange(SpreadSheetRowRange sheetRowRange, int leadingRows) {
+		this.sheetRowRange = sheetRowRange;
+		this.leadingRows = leadingRows;
+	}
+
+	/**
+	 * Stores the raw value of each cell (cf. hadoopoffice.read.rawValues). Needs to be called before the producer is started
+	 * 
+	 * @param date1904 date format 1904 (true) or 1900 (false) of the document
+	 */
+	public void setRawValues(boolean date1904) {
+		this.rawValues = true;
+		this.date1904 = date1904;
+	}
+
+	@Override
+	public void run() {
+		int i = 0;
+		try {
+			for (; i < this.sheetInputStreamList.size(); i++) {
+				LOG.debug("Streaming sheet: " + this.sheetNameList.get(i));
+				this.rowQueue.startSheet(i);
+				XMLReader sheetParser = SAXHelper.newXMLReader();
+				XSSFEventParser xssfp = new XSSFEventParser(i, this.sheetNameList.get(i), this.rowQueue);
+				ContentHandler handler = new XSSFSheetXMLHandler(this.styles, this.sheetCommentsList.get(i), this.sst,
+						xssfp, this.dataFormatter, false);
+				if (this.rawValues) {
+					// only receives the cells passed by the projection filter
+					xssfp.setRawValues(this.styles, this.date1904);
+					handler = new XSSFRawValueFilter(handler, xssfp);
+				}
+				if (this.rowMatcher != null) {
+					xssfp.setRowFilter(this.rowMatcher, this.leadingRows);
+				}
+				if (this.sheetRowRange != null) {
+					xssfp.setSheetRowRange(this.sheetRowRange, this.leadingRows);
+				}
+				if ((this.columnProjection != null) || (this.rowMatcher != null) || (this.sheetRowRange != null)) {
+					XSSFColumnProjectionFilter projectionFilter = new XSSFColumnProjectionFilter(handler, this.columnProjection, this.leadingRows);
+					projectionFilter.setRowParser(xssfp);
+					handler = projectionFilter;
+				}
+				sheetParser.setContentHandler(handler);
+				try (InputStream sheetInputStream = this.sheetInputStreamList.get(i)) {
+					sheetParser.parse(new InputSource(sheetInputStream));
+				} catch (XSSFSheetCompleteException e) {
+					LOG.debug(e.getMessage());
+				}
+			}
+			this.rowQueue.finish();
+		} catch (InterruptedException e) {
+			LOG.debug("Streaming of workbook stopped by consumer");
+		} catch (IOException | SAXException | ParserConfigurationException | RuntimeException e) {
+			if (Thread.currentThread().isInterrupted()) {
+				LOG.debug("Streaming of workbook stopped by consumer");
+			} else {
+				this.rowQueue.fail(e);
+			}
+		} finally {
+			// sheets not parsed, e.g. because the consumer stopped reading
+			for (int j = i; j < this.sheetInputStreamList.size(); j++) {
+				try {
+					this.sheetInputStreamList.get(j).close();
+				} catch (IOException e) {
+					LOG.error(e);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,252 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
+
+/**
+ * Parses several sheets of a new Excel file (.xlsx) concurrently with XSSFPullParser on a small pool of background (daemon) threads. The shared strings
+ * table and the styles are shared by all threads, so they must support concurrent reads (cf. EncryptedCachedDiskStringsTable).
+ *
+ * Each sheet has its own bounded queue of parsed rows, so only a bounded number of rows is kept in-memory. The rows are returned by take either in the
+ * order of the sheets (all rows of the first sheet, then all rows of the second sheet etc.) or, if unordered, as soon as they are available. Even in
+ * unordered mode the rows are returned in the order of the sheets until releaseOrder is called, e.g. after the header of the first sheet has been read.
+ *
+ */
+public class XSSFPullParallelParser implements AutoCloseable {
+	private static final Log LOG = LogFactory.getLog(XSSFPullParallelParser.class.getName());
+	private static final Object END_OF_SHEET = new Object();
+	private static final long CLOSE_TIMEOUT_MS = 1000L;
+
+	/**
+	 * Creates the pull parser of a sheet. It is called by the thread parsing the sheet
+	 *
+	 */
+	public interface SheetParserFactory {
+		/**
+		 * 
+		 * @param sheetIndex       index of the sheet in the list of sheets to parse
+		 * @param sheetInputStream sheet in xlsx format input stream
+		 * @return parser positioned at the first row to return (e.g. after lines to skip)
+		 * @throws XMLStreamException           in case the sheet cannot be parsed
+		 * @throws FormatNotUnderstoodException in case the sheet cannot be parsed
+		 */
+		XSSFPullParser create(int sheetIndex, InputStream sheetInputStream) throws XMLStreamException, FormatNotUnderstoodException;
+	}
+
+	private List<InputStream> sheetInputStreams;
+	private List<BlockingQueue<Object>> queues;
+	// one permit per item put into any queue
+	private Semaphore available;
+	private boolean[] finished;
+	private int finishedSheets;
+	private boolean ordered;
+	private boolean unordered;
+	private int currentSheet;
+	private ExecutorService executor;
+	private volatile boolean closed;
+
+	/**
+	 * 
+	 * @param sheetInputStreams input streams of the sheets to parse. They are closed after parsing
+	 * @param factory           creates the pull parser of a sheet
+	 * @param threads           number of threads parsing sheets concurrently
+	 * @param ordered           true, if the rows are returned in the order of the sheets, false if they are returned as soon as they are available
+	 * @param capacity          maximum number of rows per sheet waiting to be consumed
+	 */
+	public XSSFPullParallelParser(List<InputStream> sheetInputStreams, final SheetParserFactory factory, int threads, boolean ordered, int capacity) {
+		this.sheetInputStreams = new ArrayList<>(sheetInputStreams);
+		this.queues = new ArrayList<>();
+		for (int i = 0; i < this.sheetInputStreams.size(); i++) {
+			this.queues.add(new ArrayBlockingQueue<>(Math.max(1, capacity)));
+		}
+		this.available = new Semaphore(0);
+		this.finished = new boolean[this.sheetInputStreams.size()];
+		this.finishedSheets = 0;
+		this.ordered = true;
+		this.unordered = !ordered;
+		this.currentSheet = 0;
+		this.closed = false;
+		final AtomicInteger threadNumber = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+			Thread thread = new Thread(runnable, "hadoopoffice-xssf-stax-parallel-" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+		// sheets are submitted in order, so a sheet is parsed at the latest when all previous sheets have been consumed
+		for (int i = 0; i < this.sheetInputStreams.size(); i++) {
+			final int sheetIndex = i;
+			this.executor.execute(() -> this.parseSheet(sheetIndex, factory));
+		}
+		this.executor.shutdown();
+	}
+
+	/**
+	 * Parses a sheet and puts its rows into its queue. Runs in a background thread
+	 * 
+	 * @param sheetIndex index of the sheet
+	 * @param factory    creates the pull parser of the sheet
+	 */
+	private void parseSheet(int sheetIndex, SheetParserFactory factory) {
+		InputStream sheetInputStream = this.sheetInputStreams.get(sheetIndex);
+		try {
+			XSSFPullParser parser = factory.create(sheetIndex, sheetInputStream);
+			while (!this.closed && parser.hasNext()) {
+				this.put(sheetIndex, parser.getNext());
+			}
+			this.put(sheetIndex, END_OF_SHEET);
+		} catch (InterruptedException e) {
+			LOG.debug("Parsing of sheet " + sheetIndex + " stopped");
+			Thread.currentThread().interrupt();
+		} catch (XMLStreamException | FormatNotUnderstoodException | RuntimeException e) {
+			LOG.error(e);
+			try {
+				this.put(sheetIndex, e);
+			} catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+			}
+		} finally {
+			try {
+				sheetInputStream.close();
+			} catch (IOException e) {
+				LOG.error(e);
+			}
+		}
+	}
+
+	private void put(int sheetIndex, Object item) throws InterruptedException {
+		this.queues.get(sheetIndex).put(item);
+		this.available.release();
+	}
+
+	/**
+	 * Returns the rows in the order they are parsed from now on, if this has been configured. Before, the rows are returned in the order of the sheets
+	 *
+	 */
+	public void releaseOrder() {
+		this.ordered = !this.unordered;
+	}
+
+	/**
+	 * Fetches the next row. Blocks until a row has been parsed or all sheets have been parsed
+	 * 
+	 * @return next row or null if there are no more rows
+	 * @throws FormatNotUnderstoodException in case a sheet cannot be parsed
+	 */
+	public Object[] take() throws FormatNotUnderstoodException {
+		try {
+			while (!this.closed && (this.finishedSheets < this.queues.size())) {
+				Object item;
+				if (this.ordered) {
+					while (this.finished[this.currentSheet]) {
+						this.currentSheet++;
+					}
+					item = this.queues.get(this.currentSheet).take();
+					this.available.acquire();
+				} else {
+					this.available.acquire();
+					item = this.pollAnySheet();
+				}
+				if (item == END_OF_SHEET) {
+					this.finished[this.currentSheet] = true;
+					this.finishedSheets++;
+				} else if (item instanceof Exception) {
+					this.close();
+					throw new FormatNotUnderstoodException("Cannot parse sheet " + this.currentSheet + ": " + item);
+				} else {
+					return (Object[]) item;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			this.close();
+		}
+		return null;
+	}
+
+	/**
+	 * Takes an item of the next sheet, starting from the current one, that has one. There is at least one item, because a permit has been acquired
+	 * 
+	 * @return item
+	 */
+	private Object pollAnySheet() {
+		int sheets = this.queues.size();
+		while (true) {
+			for (int i = 0; i < sheets; i++) {
+				int sheetIndex = (this.currentSheet + i) % sheets;
+				if (!this.finished[sheetIndex]) {
+					Object item = this.queues.get(sheetIndex).poll();
+					if (item != null) {
+						this.currentSheet = sheetIndex;
+						return item;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @return index of the sheet of the row returned by the last call of take
+	 */
+	public int getCurrentSheet() {
+		return this.currentSheet;
+	}
+
+	/**
+	 * Stops parsing and closes the input streams of the sheets
+	 */
+	@Override
+	public void close() {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		this.executor.shutdownNow();
+		try {
+			if (!this.executor.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+				LOG.warn("Threads parsing sheets did not stop in time");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		// sheets not parsed yet
+		for (InputStream sheetInputStream : this.sheetInputStreams) {
+			try {
+				sheetInputStream.close();
+			} catch (IOException e) {
+				LOG.error(e);
+			}
+		}
+	}
+
+}
@@ -15,28 +15,33 @@
 **/
 package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 
-import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
 
 import org.apache.commons.logging.LogFactory;
 import org.apache.commons.logging.Log;
 import org.apache.poi.ss.usermodel.DataFormatter;
-import org.apache.poi.ss.util.CellAddress;
 import org.apache.poi.util.StaxHelper;
 import org.apache.poi.xssf.model.SharedStringsTable;
 import org.apache.poi.xssf.model.StylesTable;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
 import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetColumnProjection;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowFilter;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowMatcher;
+import org.zuinnote.hadoop.office.format.common.parser.SpreadSheetRowRange;
+import org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelUtil;
 
 /**
  * Parses .xlsx files in pull mode instead of push
+ * 
+ * The sheet is read with the cursor API of StAX (XMLStreamReader), which does not create event or attribute objects for each tag of the sheet.
  *
  */
 public class XSSFPullParser {
@@ -45,16 +50,34 @@ public class XSSFPullParser {
 	public static final String CELLTYPE_NUMBER = "n";
 	public static final String CELL_NOT_PROCESSABLE = "not processable";
 	private static final Log LOG = LogFactory.getLog(XSSFPullParser.class.getName());
+	private static final String ELEMENT_ROW = "row";
+	private static final String ELEMENT_CELL = "c";
+	private static final String ELEMENT_VALUE = "v";
+	private static final String ELEMENT_FORMULA = "f";
+	private static final String ELEMENT_INLINESTRING = "is";
+	private static final String ATTRIBUTE_REFERENCE = "r";
+	private static final String ATTRIBUTE_TYPE = "t";
+	private static final String ATTRIBUTE_STYLE = "s";
 	private boolean nextBeingCalled;
 	private boolean finalized;
 	private int nextRow;
 	private int currentRow;
-	private XMLEventReader xer;
+	private int rangeLeadingRows;
+	private int rangeFirstRow;
+	private InputStream sheetInputStream;
+	private XMLStreamReader xsr;
 	private SharedStringsTable sst;
 	private StylesTable styles;
 	private String sheetName;
 	private DataFormatter dataFormatter;
+	private SpreadSheetColumnProjection columnProjection;
+	private int projectionLeadingRows;
+	private SpreadSheetRowMatcher rowMatcher;
+	private int filterLeadingRows;
+	private SpreadSheetRowRange sheetRowRange;
+	private int sheetRowRangeLeadingRows;
 	boolean isDate1904;
+	private boolean rawValues;
 
 	/**
 	 * 
@@ -68,7 +91,8 @@ public class XSSFPullParser {
 	public XSSFPullParser(String sheetName, InputStream sheetInputStream, SharedStringsTable sst, StylesTable styles,
 			DataFormatter dataFormatter, boolean isDate1904) throws XMLStreamException {
 		this.sheetName = sheetName;
-		this.xer = StaxHelper.newXMLInputFactory().createXMLEventReader(sheetInputStream);
+		this.sheetInputStream = sheetInputStream;
+		this.xsr = StaxHelper.newXMLInputFactory().createXMLStreamReader(sheetInputStream);
 		this.nextBeingCalled = false;
 		this.finalized = false;
 		this.nextRow = 1;
@@ -77,6 +101,66 @@ public class XSSFPullParser {
 		this.styles = styles;
 		this.dataFormatter = dataFormatter;
 		this.isDate1904 = isDate1904;
+		this.rangeLeadingRows = 0;
+		this.rangeFirstRow = 0;
+	}
+
+	/**
+	 * Configures that the sheet only contains a range of rows (cf. MSExcelRowIndex.RowRange), so that the empty rows between the leading rows and the range
+	 * are not reported
+	 * 
+	 * @param leadingRows number of rows at the beginning of the sheet that are contained before the range
+	 * @param firstRow    number of the first row of the range (starting with 1)
+	 */
+	public void setRowRange(int leadingRows, int firstRow) {
+		this.rangeLeadingRows = leadingRows;
+		this.rangeFirstRow = firstRow;
+	}
+
+	/**
+	 * Skips the cells of columns not selected without looking up shared strings, resolving styles or formatting values. Leading rows of the sheet (e.g.
+	 * lines to skip and the header) are always read completely
+	 * 
+	 * @param columnProjection selected columns
+	 * @param leadingRows      number of rows at the beginning of the sheet read completely
+	 */
+	public void setColumnProjection(SpreadSheetColumnProjection columnProjection, int leadingRows) {
+		this.columnProjection = columnProjection;
+		this.projectionLeadingRows = leadingRows;
+	}
+
+	/**
+	 * Stores the raw value of each cell (cf. hadoopoffice.read.rawValues), e.g. the number of a numeric cell or the index of a shared string
+	 * 
+	 * @param rawValues true, if raw values should be stored
+	 */
+	public void setRawValues(boolean rawValues) {
+		this.rawValues = rawValues;
+	}
+
+	/**
+	 * Evaluates a row filter while reading the cells of a row. The remaining cells of a row that cannot match anymore are skipped and the row is returned
+	 * as SpreadSheetRowFilter.REJECTED_ROW. Leading rows of the sheet (e.g. lines to skip and the header) are not filtered
+	 * 
+	 * @param rowMatcher  matcher of the row filter, only used by this parser
+	 * @param leadingRows number of rows at the beginning of the sheet not filtered
+	 */
+	public void setRowFilter(SpreadSheetRowMatcher rowMatcher, int leadingRows) {
+		this.rowMatcher = rowMatcher;
+		this.filterLeadingRows = leadingRows;
+	}
+
+	/**
+	 * Only reads a range of rows of the sheet (cf. hadoopoffice.read.rowRange). Rows before the range are skipped without creating cells and returned as
+	 * SpreadSheetRowFilter.REJECTED_ROW. The sheet is closed as soon as the range is exhausted. Leading rows of the sheet (e.g. lines to skip and the header)
+	 * are always read
+	 * 
+	 * @param sheetRowRange range of rows
+	 * @param leadingRows   number of rows at the beginning of the sheet always read
+	 */
+	public void setSheetRowRange(SpreadSheetRowRange sheetRowRange, int leadingRows) {
+		this.sheetRowRange = sheetRowRange;
+		this.sheetRowRangeLeadingRows = leadingRows;
 	}
 
 	public boolean hasNext() throws XMLStreamException {
@@ -84,19 +168,21 @@ public class XSSFPullParser {
 		if (this.finalized) { // we finished already - no more to read
 			return false;
 		}
+		if ((this.sheetRowRange != null) && (this.sheetRowRange.isAfter(this.currentRow - 1, this.sheetRowRangeLeadingRows))) { // range exhausted
+			this.close();
+			return false;
+		}
+		if ((this.currentRow > this.rangeLeadingRows) && (this.currentRow < this.rangeFirstRow)) { // continue with the range
+			this.currentRow = this.rangeFirstRow;
+		}
 		if ((this.currentRow > 1) && (this.currentRow <= this.nextRow)) { // we still have to process an empty row
 			return true;
 		}
 		// search for the next row
-		while (this.xer.hasNext()) {
-			XMLEvent xe = xer.nextEvent();
-			if (xe.isStartElement() && xe.asStartElement().getName().getLocalPart().equalsIgnoreCase("row")) { // we
-																												// found
-																												// a row
+		while (this.xsr.hasNext()) {
+			if ((this.xsr.next() == XMLStreamConstants.START_ELEMENT) && (isElement(XSSFPullParser.ELEMENT_ROW))) { // we found a row
 				// get row number.
-				Attribute at = xe.asStartElement().getAttributeByName(new QName("r"));
-				String atValue = at.getValue();
-				this.nextRow = Integer.valueOf(atValue);
+				this.nextRow = Integer.parseInt(this.xsr.getAttributeValue(null, XSSFPullParser.ATTRIBUTE_REFERENCE));
 				return true;
 			}
 		}
@@ -116,141 +202,197 @@ public class XSSFPullParser {
 		if (this.finalized) { // no more to read
 			return null;
 		}
+		if ((this.sheetRowRange != null) && (this.sheetRowRange.isBefore(this.currentRow - 1, this.sheetRowRangeLeadingRows))) {
+			if (this.currentRow == this.nextRow) {
+				this.skipCurrentElement(); // cells of the row
+			}
+			this.nextBeingCalled = false;
+			this.currentRow++;
+			return SpreadSheetRowFilter.REJECTED_ROW;
+		}
 		// check
 		ArrayList<SpreadSheetCellDAO> cells = new ArrayList<>();
+		SpreadSheetRowMatcher currentRowMatcher = null;
+		if ((this.rowMatcher != null) && (this.currentRow > this.filterLeadingRows) && (this.rowMatcher.isActive())) {
+			currentRowMatcher = this.rowMatcher;
+			currentRowMatcher.startRow();
+		}
 		if (this.currentRow == this.nextRow) { // only if we have a row to report
 			// read through row, cf.
 			// http://download.microsoft.com/download/3/E/3/3E3435BD-AA68-4B32-B84D-B633F0D0F90D/SpreadsheetMLBasics.ppt
 			int currentCellCount = 0;
-			while (this.xer.hasNext()) {
-				XMLEvent xe = xer.nextEvent();
+			SpreadSheetColumnProjection rowProjection = this.currentRow > this.projectionLeadingRows ? this.columnProjection : null;
+			while (this.xsr.hasNext()) {
+				int eventType = this.xsr.next();
 				// read+
-				if (xe.isEndElement()) {
-					if (xe.asEndElement().getName().getLocalPart().equalsIgnoreCase("row")) {
+				if (eventType == XMLStreamConstants.END_ELEMENT) {
+					if (isElement(XSSFPullParser.ELEMENT_ROW)) {
 						break; // end of row
 					}
-				} else if (xe.isStartElement()) {
-					if (xe.asStartElement().getName().getLocalPart().equalsIgnoreCase("c")) {
-
-						Attribute cellAddressAT = xe.asStartElement().getAttributeByName(new QName("r"));
-						// check if cell is a subsequent cell and add null, if needed
-						CellAddress currentCellAddress = new CellAddress(cellAddressAT.getValue());
-						for (int i = currentCellCount; i < currentCellAddress.getColumn(); i++) {
-							cells.add(null);
-							currentCellCount++;
+				} else if ((eventType == XMLStreamConstants.START_ELEMENT) && (isElement(XSSFPullParser.ELEMENT_CELL))) {
+					String cellAddress = this.xsr.getAttributeValue(null, XSSFPullParser.ATTRIBUTE_REFERENCE);
+					int cellColumn = MSExcelUtil.getColumnNumberA1Format(cellAddress);
+					if ((rowProjection != null) && (!rowProjection.isSelected(cellColumn))) { // column not selected
+						this.skipCurrentElement();
+						if ((currentRowMatcher != null) && (!currentRowMatcher.cell(cellColumn, null))) {
+							this.skipCurrentElement(); // rest of the row
+							break;
 						}
-						currentCellCount++; // current cell
-						Attribute cellTypeTAT = xe.asStartElement().getAttributeByName(new QName("t"));
-						Attribute cellTypeSAT = xe.asStartElement().getAttributeByName(new QName("s"));
-						String cellFormattedValue = "";
-						String cellFormula = "";
-						String cellAddress = cellAddressAT.getValue();
-
-						String cellComment = "";
-						String cellSheetName = this.sheetName;
+						continue;
+					}
+					String cellType = this.xsr.getAttributeValue(null, XSSFPullParser.ATTRIBUTE_TYPE);
+					String cellStyle = this.xsr.getAttributeValue(null, XSSFPullParser.ATTRIBUTE_STYLE);
+					// check if cell is a subsequent cell and add null, if needed
+					for (int i = currentCellCount; i < cellColumn; i++) {
+						cells.add(null);
+						currentCellCount++;
+					}
+					currentCellCount++; // current cell
+					String cellFormattedValue = "";
+					// unformatted value of the cell, null if the cell has no value
+					String cellRawValue = null;
+					String cellFormula = "";
 
-						while ((!xe.isEndElement()) || !((xe.isEndElement())
-								&& (xe.asEndElement().getName().getLocalPart().equalsIgnoreCase("c")))) {
-							xe = xer.nextEvent();
-							if ((xe.isStartElement())
-									&& (xe.asStartElement().getName().getLocalPart().equalsIgnoreCase("v"))) {
-								// if a cell data type is set (e.g. b boolean (covered?), d date in ISO8601 format, e
-								// error, inlineStr (covered), n number (covered), s shared string (covered), str formula string (covered)
-								// we return as string
-								if (cellTypeTAT != null) {
-									XMLEvent xeSubCharacters = xer.nextEvent();
-									if (!xeSubCharacters.isCharacters()) {
-										LOG.error(
-												"Error parsing excel file. Value attribute (v) of cell does not contains characters");
-									} else {
-										cellFormattedValue = xeSubCharacters.asCharacters().getData();
+					String cellComment = "";
+					String cellSheetName = this.sheetName;
+					// read until end of cell
+					while (!(((eventType = this.xsr.next()) == XMLStreamConstants.END_ELEMENT)
+							&& (isElement(XSSFPullParser.ELEMENT_CELL)))) {
+						if (eventType != XMLStreamConstants.START_ELEMENT) {
+							continue;
+						}
+						// the local name is determined once per element
+						String localName = this.xsr.getLocalName();
+						if (XSSFPullParser.ELEMENT_VALUE.equals(localName)) {
+							// if a cell data type is set (e.g. b boolean (covered?), d date in ISO8601 format, e
+							// error, inlineStr (covered), n number (covered), s shared string (covered), str formula string (covered)
+							// we return as string
+							if (cellType != null) {
+								if (this.xsr.next() != XMLStreamConstants.CHARACTERS) {
+									LOG.error(
+											"Error parsing excel file. Value attribute (v) of cell does not contains characters");
+								} else {
+									cellFormattedValue = this.xsr.getText();
+									cellRawValue = cellFormattedValue;
 
-										if (XSSFPullParser.CELLTYPE_STRING.equals(cellTypeTAT.getValue())) { // need to
-																												// read
-																												// from
-																												// Shared
-																												// String
-																												// Table
-											int strIdx = Integer.valueOf(cellFormattedValue);
-											if ((this.sst != null) && (this.sst.getCount() > strIdx)) {
-												cellFormattedValue = this.sst.getItemAt(strIdx).getString();
-											} else {
-												cellFormattedValue = "";
-											}
-										} else if (XSSFPullParser.CELLTYPE_NUMBER.equals(cellTypeTAT.getValue())) {
-											// need to read number and format it (e.g. if it is a date etc.) according
-											// to style
-											int strStyleIdx = Integer.valueOf(cellTypeSAT.getValue());
-											XSSFCellStyle cellStyle = this.styles.getStyleAt(strStyleIdx);
-											cellFormattedValue = this.dataFormatter.formatRawCellContents(
-													Double.valueOf(cellFormattedValue), cellStyle.getDataFormat(),
-													cellStyle.getDataFormatString(), this.isDate1904);
+									if (XSSFPullParser.CELLTYPE_STRING.equals(cellType)) { // need to read from Shared String Table
+										int strIdx = Integer.parseInt(cellFormattedValue);
+										if ((this.sst != null) && (this.sst.getCount() > strIdx)) {
+											cellFormattedValue = this.sst.getItemAt(strIdx).getString();
+										} else {
+											cellFormattedValue = "";
 										}
-
+									} else if (XSSFPullParser.CELLTYPE_NUMBER.equals(cellType)) {
+										// need to read number and format it (e.g. if it is a date etc.) according
+										// to style
+										// style 0 is the default style if the cell has none
+										int strStyleIdx = cellStyle == null ? 0 : Integer.parseInt(cellStyle);
+										XSSFCellStyle currentCellStyle = this.styles.getStyleAt(strStyleIdx);
+										cellFormattedValue = this.dataFormatter.formatRawCellContents(
+												Double.parseDouble(cellFormattedValue), currentCellStyle.getDataFormat(),
+												currentCellStyle.getDataFormatString(), this.isDate1904);
 									}
-								} else {
-									LOG.error("Cannot read celltype");
-								}
-							} else if ((xe.isStartElement())
-									&& (xe.asStartElement().getName().getLocalPart().equalsIgnoreCase("f"))) {
-								// read formula
-								XMLEvent xeSubCharacters = xer.nextEvent();
 
-								if (!xeSubCharacters.isCharacters()) {
-									LOG.error(
-											"Error parsing excel file. Formula attribute (f) of cell does not contains characters");
-								} else {
-									cellFormula = xeSubCharacters.asCharacters().getData();
 								}
-							} else if ((xe.isStartElement())
-									&& (xe.asStartElement().getName().getLocalPart().equalsIgnoreCase("is"))) {
-								// read inline string
-								cellFormattedValue = this.parseCellInlineStringText(xer);
+							} else {
+								LOG.error("Cannot read celltype");
+							}
+						} else if (XSSFPullParser.ELEMENT_FORMULA.equals(localName)) {
+							// read formula
+							if (this.xsr.next() != XMLStreamConstants.CHARACTERS) {
+								LOG.error(
+										"Error parsing excel file. Formula attribute (f) of cell does not contains characters");
+							} else {
+								cellFormula = this.xsr.getText();
 							}
+						} else if (XSSFPullParser.ELEMENT_INLINESTRING.equals(localName)) {
+							// read inline string
+							cellFormattedValue = this.parseCellInlineStringText(this.xsr);
+							cellRawValue = "";
 						}
-						cells.add(new SpreadSheetCellDAO(cellFormattedValue, cellComment, cellFormula, cellAddress,
-								cellSheetName));
-
 					}
+					SpreadSheetCellDAO cellDAO = new SpreadSheetCellDAO(cellFormattedValue, cellComment, cellFormula, cellAddress,
+							cellSheetName);
+					if ((this.rawValues) && (cellRawValue != null)) {
+						XSSFEventParser.setRawValue(cellDAO, cellType, cellStyle, cellRawValue, this.styles, this.isDate1904);
+					}
+					cells.add(cellDAO);
+					if ((currentRowMatcher != null) && (!currentRowMatcher.cell(cellColumn, cellFormattedValue))) {
+						this.skipCurrentElement(); // rest of the row, it cannot match anymore
+						break;
+					}
+
 				}
 				// else ignore (e.g. col)
 			}
 		}
 
 		// convert to array
-		result = new SpreadSheetCellDAO[cells.size()];
-		result = cells.toArray(result);
+		if ((currentRowMatcher != null) && (!currentRowMatcher.endRow())) {
+			result = SpreadSheetRowFilter.REJECTED_ROW;
+		} else {
+			result = new SpreadSheetCellDAO[cells.size()];
+			result = cells.toArray(result);
+		}
 		// read all cells in row and create SpreadSheetCellDAOs
 		this.nextBeingCalled = false;
 		this.currentRow++;
 		return result;
 	}
 
+	/**
+	 * Stops reading the sheet and closes its input stream
+	 * 
+	 * @throws XMLStreamException in case the sheet cannot be closed
+	 */
+	public void close() throws XMLStreamException {
+		this.finalized = true;
+		if (this.sheetInputStream == null) { // closed already
+			return;
+		}
+		this.xsr.close();
+		try {
+			this.sheetInputStream.close();
+		} catch (IOException e) {
+			LOG.error(e);
+		}
+		this.sheetInputStream = null;
+	}
+
+	/**
+	 * Checks if the local name of the current start or end element of the reader matches the given name. Element names of SpreadsheetML are case-sensitive
+	 * 
+	 * @param name name of element
+	 * @return true, if it matches, false if not
+	 */
+	private boolean isElement(String name) {
+		return name.equals(this.xsr.getLocalName());
+	}
+
 	/**
 	 * Parses an inline string from cell in XML format
 	 * 
-	 * @param xer XMLEventReader from which to read the inline string content
+	 * @param xsr XMLStreamReader from which to read the inline string content
 	 * @throws XMLStreamException           in case the string item cannot be
 	 *                                      correctly read from the XML file
 	 * @throws FormatNotUnderstoodException in case a string cannot be identified in
 	 *                                      cell
 	 */
-	private String parseCellInlineStringText(XMLEventReader xer)
+	private String parseCellInlineStringText(XMLStreamReader xsr)
 			throws XMLStreamException, FormatNotUnderstoodException {
 		String result = "";
-		XMLEvent xe;
-		while ((xe = xer.nextTag()).isStartElement()) {
-			String elementName = xe.asStartElement().getName().getLocalPart().toUpperCase();
+		while (xsr.nextTag() == XMLStreamConstants.START_ELEMENT) {
+			String elementName = xsr.getLocalName().toUpperCase();
 			switch (elementName) {
 			case "T": // normal text
-				result = xer.getElementText();
+				result = xsr.getElementText();
 				break;
 			case "R": // rich text (returned as normal text)
-				result = this.parseCellInlineStringRichText(xer);
+				result = this.parseCellInlineStringRichText(xsr);
 				break;
 			case "RPH": // phonetic (ignored)
 			case "PHONETICPR": // phonetic properties (ignored)
-				this.skipXMLElementHierarchy(xer);
+				this.skipXMLElementHierarchy(xsr);
 				break;
 			default:
 				LOG.error("Unknown inline string tag: " + elementName);
@@ -265,20 +407,19 @@ public class XSSFPullParser {
 	 * Parses a rich text item of a shared string table and returns the unformatted
 	 * text
 	 * 
-	 * @param xer
+	 * @param xsr
 	 * @return unformatted text of rich text item
 	 * @throws FormatNotUnderstoodException
 	 * @throws XMLStreamException
 	 */
-	private String parseCellInlineStringRichText(XMLEventReader xer)
+	private String parseCellInlineStringRichText(XMLStreamReader xsr)
 			throws XMLStreamException, FormatNotUnderstoodException {
 		String result = "";
-		XMLEvent xe;
-		while ((xe = xer.nextTag()).isStartElement()) {
-			String elementName = xe.asStartElement().getName().getLocalPart().toUpperCase();
+		while (xsr.nextTag() == XMLStreamConstants.START_ELEMENT) {
+			String elementName = xsr.getLocalName().toUpperCase();
 			switch (elementName) {
 			case "T": // normal text
-				result = xer.getElementText();
+				result = xsr.getElementText();
 				break;
 			case "RPR": // run properties (ignored)
 			default:
@@ -291,16 +432,33 @@ public class XSSFPullParser {
 		return result;
 	}
 
+	/**
+	 * Skips the current element including its content (e.g. values, formulas, inline strings)
+	 * 
+	 * @throws XMLStreamException
+	 */
+	private void skipCurrentElement() throws XMLStreamException {
+		int depth = 1;
+		while ((depth > 0) && (this.xsr.hasNext())) {
+			int eventType = this.xsr.next();
+			if (eventType == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (eventType == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
 	/**
 	 * 
 	 * Skips over an arbitrary deep hierarchy of XML tags
 	 * 
-	 * @param xer XMLEventReader from which the tags should be skipped
+	 * @param xsr XMLStreamReader from which the tags should be skipped
 	 * @throws XMLStreamException
 	 */
-	private void skipXMLElementHierarchy(XMLEventReader xer) throws XMLStreamException {
-		while (xer.nextTag().isStartElement()) {
-			skipXMLElementHierarchy(xer);
+	private void skipXMLElementHierarchy(XMLStreamReader xsr) throws XMLStreamException {
+		while (xsr.nextTag() == XMLStreamConstants.START_ELEMENT) {
+			skipXMLElementHierarchy(xsr);
 		}
 	}
 
@@ -0,0 +1,90 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+/**
+ * Collects the type (t), the style (s) and the unformatted value (v) of the cells of a sheet in xlsx format and hands them over to the XSSFEventParser
+ * receiving the cells before the handler of the sheet (e.g. XSSFSheetXMLHandler) reports the formatted value of the cell. This allows the parser to
+ * store the raw value of a cell (cf. hadoopoffice.read.rawValues) without parsing the formatted value again.
+ *
+ */
+public class XSSFRawValueFilter extends XMLFilterImpl {
+	private static final String ELEMENT_CELL = "c";
+	private static final String ELEMENT_VALUE = "v";
+	private static final String ELEMENT_INLINESTRING = "is";
+	private static final String ATTRIBUTE_TYPE = "t";
+	private static final String ATTRIBUTE_STYLE = "s";
+
+	private XSSFEventParser rowParser;
+	private String cellType;
+	private String cellStyle;
+	private boolean valueOpen;
+	private StringBuilder value;
+
+	/**
+	 * 
+	 * @param handler   handler of the sheet receiving the events of the cells
+	 * @param rowParser parser receiving the cells (via the handler of the sheet)
+	 */
+	public XSSFRawValueFilter(ContentHandler handler, XSSFEventParser rowParser) {
+		this.setContentHandler(handler);
+		this.rowParser = rowParser;
+		this.value = new StringBuilder();
+	}
+
+	@Override
+	public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+		String name = "".equals(localName) ? qName : localName;
+		if (XSSFRawValueFilter.ELEMENT_CELL.equals(name)) {
+			this.cellType = atts.getValue(XSSFRawValueFilter.ATTRIBUTE_TYPE);
+			this.cellStyle = atts.getValue(XSSFRawValueFilter.ATTRIBUTE_STYLE);
+			this.rowParser.setRawCell(null, null, null);
+		} else if (XSSFRawValueFilter.ELEMENT_VALUE.equals(name)) {
+			this.valueOpen = true;
+			this.value.setLength(0);
+		} else if (XSSFRawValueFilter.ELEMENT_INLINESTRING.equals(name)) {
+			// the text of an inline string is reported before the end of the cell
+			this.rowParser.setRawCell(this.cellType, this.cellStyle, "");
+		}
+		super.startElement(uri, localName, qName, atts);
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName) throws SAXException {
+		if (this.valueOpen) {
+			String name = "".equals(localName) ? qName : localName;
+			if (XSSFRawValueFilter.ELEMENT_VALUE.equals(name)) {
+				this.valueOpen = false;
+				this.rowParser.setRawCell(this.cellType, this.cellStyle, this.value.toString());
+			}
+		}
+		super.endElement(uri, localName, qName);
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) throws SAXException {
+		if (this.valueOpen) {
+			this.value.append(ch, start, length);
+		}
+		super.characters(ch, start, length);
+	}
+
+}
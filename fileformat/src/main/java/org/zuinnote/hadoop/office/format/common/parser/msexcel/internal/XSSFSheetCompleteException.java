@@ -0,0 +1,32 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
+
+import org.xml.sax.SAXException;
+
+/**
+ * Thrown by XSSFColumnProjectionFilter to stop the SAX parser as soon as the remaining rows of a sheet are not needed anymore (e.g. the range of rows read
+ * is exhausted). It is not an error: the rows parsed so far are complete.
+ *
+ */
+public class XSSFSheetCompleteException extends SAXException {
+	private static final long serialVersionUID = 4139575214851234101L;
+
+	public XSSFSheetCompleteException(String sheetName) {
+		super("Remaining rows of sheet \"" + sheetName + "\" are not needed");
+	}
+
+}
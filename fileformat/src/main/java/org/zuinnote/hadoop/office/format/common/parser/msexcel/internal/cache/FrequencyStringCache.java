@@ -0,0 +1,406 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.cache;
+
+import java.util.Arrays;
+
+/**
+ * Scan-resistant cache of strings bounded by a number of entries and/or by the estimated number of bytes retained by the cached strings.
+ *
+ * Eviction candidates are selected with the CLOCK algorithm (an approximation of LRU). A new string is only admitted if it has been requested more often
+ * than the eviction candidate (TinyLFU admission). The access frequencies of all keys, including those not in the cache, are estimated by a small count-min
+ * sketch with 4 bit counters that are halved periodically, so that old accesses are forgotten. A scan over many strings that are requested only once (e.g.
+ * a column with unique values) thus does not evict the frequently requested strings (e.g. a column with country codes), as it would happen with LRU.
+ *
+ * If the cache is bounded by bytes then as many candidates are evicted as needed to make room for a new string, so a long string can replace several short
+ * ones, but only if it is requested more often than each of them.
+ *
+ * Keys and the index of the cache use primitive int arrays, so no objects are created for lookups.
+ *
+ */
+public class FrequencyStringCache implements StringCache {
+	private static final int EMPTY = -1;
+	private static final int SKETCH_DEPTH = 4;
+	private static final int SKETCH_MAX_COUNT = 15;
+	private static final int SAMPLE_FACTOR = 10;
+	private static final int INITIAL_SLOTS = 1024;
+
+	private int maxEntries;
+	private long maxWeight;
+	private int size;
+	private long weight;
+	// entries, a slot is free if its key is EMPTY
+	private int[] slotKeys;
+	private String[] slotValues;
+	private int[] slotWeights;
+	private boolean[] slotReferenced;
+	private int usedSlots;
+	private int[] freeSlots;
+	private int freeSlotCount;
+	private int clockHand;
+	private int[] victimSlots;
+	// open addressing (linear probing) index: key -> slot
+	private int[] indexKeys;
+	private int[] indexSlots;
+	private int indexMask;
+	// frequency sketch
+	private byte[] sketch;
+	private int sketchMask;
+	private int sketchAdditions;
+	private int sketchSampleSize;
+	// statistics
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 *
+	 * @param maxEntries maximum number of strings in the cache
+	 */
+	public FrequencyStringCache(int maxEntries) {
+		this(maxEntries, Long.MAX_VALUE);
+	}
+
+	/**
+	 *
+	 * @param maxEntries maximum number of strings in the cache
+	 * @param maxWeight  maximum number of bytes retained by the strings in the cache (cf. estimateWeight)
+	 */
+	public FrequencyStringCache(int maxEntries, long maxWeight) {
+		this.maxEntries = Math.max(1, maxEntries);
+		this.maxWeight = Math.max(1L, maxWeight);
+		// slots grow on demand if the number of entries is not known in advance
+		int slots = this.maxWeight == Long.MAX_VALUE ? this.maxEntries
+				: Math.min(this.maxEntries, FrequencyStringCache.INITIAL_SLOTS);
+		this.slotKeys = new int[slots];
+		Arrays.fill(this.slotKeys, FrequencyStringCache.EMPTY);
+		this.slotValues = new String[slots];
+		this.slotWeights = new int[slots];
+		this.slotReferenced = new boolean[slots];
+		this.freeSlots = new int[16];
+		this.victimSlots = new int[16];
+		this.createIndex(tableSize(slots * 2));
+		int sketchSize = tableSize(slots * 4);
+		this.sketch = new byte[sketchSize];
+		this.sketchMask = sketchSize - 1;
+		this.sketchSampleSize = (int) Math.min(Integer.MAX_VALUE, (long) slots * FrequencyStringCache.SAMPLE_FACTOR);
+	}
+
+	/**
+	 * Estimates the number of bytes retained by a string in the cache (object headers, character array and slot of the cache)
+	 *
+	 * @param value string
+	 * @return estimated number of bytes
+	 */
+	public static int estimateWeight(String value) {
+		// String object (24) + reference and key in the cache (16) + char array (16 header + 2 per char, aligned to 8 bytes)
+		return 40 + ((16 + 2 * value.length() + 7) & ~7);
+	}
+
+	@Override
+	public String get(int key) {
+		this.recordAccess(key);
+		int slot = this.findSlot(key);
+		if (slot == FrequencyStringCache.EMPTY) {
+			this.misses++;
+			return null;
+		}
+		this.hits++;
+		this.slotReferenced[slot] = true;
+		return this.slotValues[slot];
+	}
+
+	@Override
+	public void put(int key, String value) {
+		int valueWeight = this.maxWeight == Long.MAX_VALUE ? 1 : estimateWeight(value);
+		int slot = this.findSlot(key);
+		if (slot != FrequencyStringCache.EMPTY) {
+			this.update(slot, value, valueWeight);
+			return;
+		}
+		if (valueWeight > this.maxWeight) {
+			return;
+		}
+		// collect enough victims to make room before deciding, so that either all of them or none are evicted
+		int victimCount = 0;
+		long victimWeight = 0L;
+		while ((this.size - victimCount >= this.maxEntries) || (this.weight - victimWeight + valueWeight > this.maxWeight)) {
+			int victimSlot = this.selectVictim(FrequencyStringCache.EMPTY, victimCount);
+			// admission: only replace the victims if the new key is requested more often than each of them
+			if (this.frequency(key) <= this.frequency(this.slotKeys[victimSlot])) {
+				return;
+			}
+			if (victimCount == this.victimSlots.length) {
+				this.victimSlots = Arrays.copyOf(this.victimSlots, victimCount * 2);
+			}
+			this.victimSlots[victimCount] = victimSlot;
+			victimCount++;
+			victimWeight += this.slotWeights[victimSlot];
+		}
+		for (int i = 0; i < victimCount; i++) {
+			this.removeSlot(this.victimSlots[i]);
+			this.evictions++;
+		}
+		slot = this.allocateSlot();
+		this.slotKeys[slot] = key;
+		this.slotValues[slot] = value;
+		this.slotWeights[slot] = valueWeight;
+		this.slotReferenced[slot] = false;
+		this.size++;
+		this.weight += valueWeight;
+		this.addToIndex(key, slot);
+	}
+
+	/**
+	 * Replaces the value of a key in the cache. The key has already been admitted, so other entries are evicted if the new value is heavier and does not fit
+	 *
+	 * @param slot        slot of the key
+	 * @param value       new value
+	 * @param valueWeight weight of the new value
+	 */
+	private void update(int slot, String value, int valueWeight) {
+		if (valueWeight > this.maxWeight) {
+			this.removeSlot(slot);
+			return;
+		}
+		this.weight += valueWeight - this.slotWeights[slot];
+		this.slotValues[slot] = value;
+		this.slotWeights[slot] = valueWeight;
+		this.slotReferenced[slot] = true;
+		while (this.weight > this.maxWeight) {
+			this.removeSlot(this.selectVictim(slot, 0));
+			this.evictions++;
+		}
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 *
+	 * @return estimated number of bytes retained by the cached strings, if the cache is bounded by bytes, otherwise the number of entries
+	 */
+	public long getWeight() {
+		return this.weight;
+	}
+
+	@Override
+	public long getHits() {
+		return this.hits;
+	}
+
+	@Override
+	public long getMisses() {
+		return this.misses;
+	}
+
+	@Override
+	public long getEvictions() {
+		return this.evictions;
+	}
+
+	/**
+	 * Selects the next entry not referenced since the last pass of the clock hand
+	 *
+	 * @param excludedSlot slot that must not be selected or EMPTY
+	 * @param victimCount  number of victims selected before (in victimSlots) that must not be selected again
+	 * @return slot of the entry
+	 */
+	private int selectVictim(int excludedSlot, int victimCount) {
+		while (true) {
+			if (this.clockHand >= this.usedSlots) {
+				this.clockHand = 0;
+			}
+			int slot = this.clockHand;
+			this.clockHand++;
+			if ((this.slotKeys[slot] != FrequencyStringCache.EMPTY) && (slot != excludedSlot) && (!this.isVictim(slot, victimCount))) {
+				if (!this.slotReferenced[slot]) {
+					return slot;
+				}
+				this.slotReferenced[slot] = false;
+			}
+		}
+	}
+
+	private boolean isVictim(int slot, int victimCount) {
+		for (int i = 0; i < victimCount; i++) {
+			if (this.victimSlots[i] == slot) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int allocateSlot() {
+		if (this.freeSlotCount > 0) {
+			this.freeSlotCount--;
+			return this.freeSlots[this.freeSlotCount];
+		}
+		if (this.usedSlots == this.slotKeys.length) {
+			this.growSlots();
+		}
+		int result = this.usedSlots;
+		this.usedSlots++;
+		return result;
+	}
+
+	private void removeSlot(int slot) {
+		this.removeFromIndex(this.slotKeys[slot]);
+		this.size--;
+		this.weight -= this.slotWeights[slot];
+		this.slotKeys[slot] = FrequencyStringCache.EMPTY;
+		this.slotValues[slot] = null;
+		if (this.freeSlotCount == this.freeSlots.length) {
+			this.freeSlots = Arrays.copyOf(this.freeSlots, this.freeSlots.length * 2);
+		}
+		this.freeSlots[this.freeSlotCount] = slot;
+		this.freeSlotCount++;
+	}
+
+	/**
+	 * Doubles the number of slots (up to the maximum number of entries), the index and the frequency sketch
+	 */
+	private void growSlots() {
+		int oldLength = this.slotKeys.length;
+		int newLength = (int) Math.min(this.maxEntries, oldLength * 2L);
+		this.slotKeys = Arrays.copyOf(this.slotKeys, newLength);
+		Arrays.fill(this.slotKeys, oldLength, newLength, FrequencyStringCache.EMPTY);
+		this.slotValues = Arrays.copyOf(this.slotValues, newLength);
+		this.slotWeights = Arrays.copyOf(this.slotWeights, newLength);
+		this.slotReferenced = Arrays.copyOf(this.slotReferenced, newLength);
+		// rebuild index
+		int newIndexSize = tableSize(newLength * 2);
+		if (newIndexSize > this.indexKeys.length) {
+			this.createIndex(newIndexSize);
+			for (int i = 0; i < this.usedSlots; i++) {
+				if (this.slotKeys[i] != FrequencyStringCache.EMPTY) {
+					this.addToIndex(this.slotKeys[i], i);
+				}
+			}
+		}
+		// grow sketch: a counter at position p is found at p and p + old size with the larger mask, so the estimates are kept
+		int newSketchSize = tableSize(newLength * 4);
+		if (newSketchSize > this.sketch.length) {
+			byte[] newSketch = new byte[newSketchSize];
+			for (int i = 0; i < newSketchSize; i++) {
+				newSketch[i] = this.sketch[i & this.sketchMask];
+			}
+			this.sketch = newSketch;
+			this.sketchMask = newSketchSize - 1;
+			this.sketchSampleSize = (int) Math.min(Integer.MAX_VALUE, (long) newLength * FrequencyStringCache.SAMPLE_FACTOR);
+		}
+	}
+
+	/**
+	 * Increments the estimated frequency of a key and halves all frequencies after a sample of accesses
+	 *
+	 * @param key key
+	 */
+	private void recordAccess(int key) {
+		int hash = spread(key);
+		int step = spread(hash) | 1;
+		for (int i = 0; i < FrequencyStringCache.SKETCH_DEPTH; i++) {
+			int pos = (hash + i * step) & this.sketchMask;
+			if (this.sketch[pos] < FrequencyStringCache.SKETCH_MAX_COUNT) {
+				this.sketch[pos]++;
+			}
+		}
+		this.sketchAdditions++;
+		if (this.sketchAdditions >= this.sketchSampleSize) { // aging
+			for (int i = 0; i < this.sketch.length; i++) {
+				this.sketch[i] = (byte) (this.sketch[i] >>> 1);
+			}
+			this.sketchAdditions = this.sketchAdditions / 2;
+		}
+	}
+
+	/**
+	 *
+	 * @param key key
+	 * @return estimated number of recent accesses of the key
+	 */
+	private int frequency(int key) {
+		int hash = spread(key);
+		int step = spread(hash) | 1;
+		int result = FrequencyStringCache.SKETCH_MAX_COUNT;
+		for (int i = 0; i < FrequencyStringCache.SKETCH_DEPTH; i++) {
+			result = Math.min(result, this.sketch[(hash + i * step) & this.sketchMask]);
+		}
+		return result;
+	}
+
+	private void createIndex(int indexSize) {
+		this.indexKeys = new int[indexSize];
+		Arrays.fill(this.indexKeys, FrequencyStringCache.EMPTY);
+		this.indexSlots = new int[indexSize];
+		this.indexMask = indexSize - 1;
+	}
+
+	private int findSlot(int key) {
+		int pos = spread(key) & this.indexMask;
+		while (this.indexKeys[pos] != FrequencyStringCache.EMPTY) {
+			if (this.indexKeys[pos] == key) {
+				return this.indexSlots[pos];
+			}
+			pos = (pos + 1) & this.indexMask;
+		}
+		return FrequencyStringCache.EMPTY;
+	}
+
+	private void addToIndex(int key, int slot) {
+		int pos = spread(key) & this.indexMask;
+		while (this.indexKeys[pos] != FrequencyStringCache.EMPTY) {
+			pos = (pos + 1) & this.indexMask;
+		}
+		this.indexKeys[pos] = key;
+		this.indexSlots[pos] = slot;
+	}
+
+	private void removeFromIndex(int key) {
+		int pos = spread(key) & this.indexMask;
+		while (this.indexKeys[pos] != key) {
+			pos = (pos + 1) & this.indexMask;
+		}
+		// shift back following entries of the same probe sequence (no tombstones needed)
+		int next = (pos + 1) & this.indexMask;
+		while (this.indexKeys[next] != FrequencyStringCache.EMPTY) {
+			int home = spread(this.indexKeys[next]) & this.indexMask;
+			if (((next - home) & this.indexMask) >= ((next - pos) & this.indexMask)) {
+				this.indexKeys[pos] = this.indexKeys[next];
+				this.indexSlots[pos] = this.indexSlots[next];
+				pos = next;
+			}
+			next = (next + 1) & this.indexMask;
+		}
+		this.indexKeys[pos] = FrequencyStringCache.EMPTY;
+	}
+
+	private static int spread(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private static int tableSize(int minimumSize) {
+		int result = 16;
+		while ((result < minimumSize) && (result < (1 << 30))) {
+			result <<= 1;
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,64 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.cache;
+
+/**
+ * Cache of strings with a primitive int key, e.g. the index of an item of a shared strings table. Implementations count hits, misses and evictions.
+ *
+ */
+public interface StringCache {
+
+	/**
+	 * Returns the string for a key and records the access
+	 *
+	 * @param key key
+	 * @return string or null if it is not in the cache (miss)
+	 */
+	String get(int key);
+
+	/**
+	 * Offers a string to the cache. Depending on the implementation the string may not be stored or other strings may be evicted.
+	 *
+	 * @param key   key
+	 * @param value string
+	 */
+	void put(int key, String value);
+
+	/**
+	 *
+	 * @return number of strings in the cache
+	 */
+	int size();
+
+	/**
+	 *
+	 * @return number of calls of get that returned a string
+	 */
+	long getHits();
+
+	/**
+	 *
+	 * @return number of calls of get that returned null
+	 */
+	long getMisses();
+
+	/**
+	 *
+	 * @return number of strings removed from the cache to make room for others
+	 */
+	long getEvictions();
+
+}
@@ -0,0 +1,80 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.cache;
+
+import java.util.Arrays;
+
+/**
+ * Keeps all strings in-memory. The keys are expected to be dense (e.g. 0..n-1 for the items of a shared strings table), so the strings are stored in an
+ * array indexed by the key.
+ *
+ */
+public class UnboundedStringCache implements StringCache {
+	private String[] values;
+	private int size;
+	private long hits;
+	private long misses;
+
+	public UnboundedStringCache() {
+		this.values = new String[1024];
+	}
+
+	@Override
+	public String get(int key) {
+		String result = null;
+		if (key < this.values.length) {
+			result = this.values[key];
+		}
+		if (result == null) {
+			this.misses++;
+		} else {
+			this.hits++;
+		}
+		return result;
+	}
+
+	@Override
+	public void put(int key, String value) {
+		if (key >= this.values.length) {
+			this.values = Arrays.copyOf(this.values, Math.max(key + 1, this.values.length * 2));
+		}
+		if (this.values[key] == null) {
+			this.size++;
+		}
+		this.values[key] = value;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public long getHits() {
+		return this.hits;
+	}
+
+	@Override
+	public long getMisses() {
+		return this.misses;
+	}
+
+	@Override
+	public long getEvictions() {
+		return 0L;
+	}
+
+}
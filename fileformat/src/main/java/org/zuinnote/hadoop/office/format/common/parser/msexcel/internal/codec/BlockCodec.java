@@ -0,0 +1,56 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.codec;
+
+import java.io.IOException;
+
+/**
+ * Compresses independent blocks of data, e.g. blocks of items of the shared strings table that are swapped to disk. Each block can be decompressed without
+ * the blocks before it. An instance is only used by one thread at a time and may reuse internal state between calls.
+ *
+ */
+public interface BlockCodec {
+
+	/**
+	 * Compresses a block
+	 *
+	 * @param data   array containing the block
+	 * @param offset offset of the block in data
+	 * @param length length of the block
+	 * @return compressed block
+	 * @throws IOException if the block cannot be compressed
+	 */
+	byte[] compress(byte[] data, int offset, int length) throws IOException;
+
+	/**
+	 * Decompresses a block
+	 *
+	 * @param compressed         array containing the compressed block
+	 * @param offset             offset of the compressed block
+	 * @param length             length of the compressed block
+	 * @param dst                array receiving the decompressed block, starting at 0
+	 * @param uncompressedLength length of the decompressed block
+	 * @throws IOException if the block cannot be decompressed
+	 */
+	void decompress(byte[] compressed, int offset, int length, byte[] dst, int uncompressedLength) throws IOException;
+
+	/**
+	 * Releases the resources of the codec (e.g. native memory). The codec cannot be used anymore afterwards.
+	 *
+	 */
+	void close();
+
+}
@@ -0,0 +1,57 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.codec;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Creates BlockCodecs by name
+ *
+ */
+public class BlockCodecFactory {
+	public static final String CODEC_DEFLATE = "deflate";
+	public static final String CODEC_LZ4 = "lz4";
+
+	private BlockCodecFactory() {
+	}
+
+	/**
+	 * Creates a new codec
+	 *
+	 * @param name deflate, lz4 or the class name of an implementation of BlockCodec with a public constructor without arguments
+	 * @return codec
+	 * @throws IllegalArgumentException if there is no codec with the given name
+	 */
+	public static BlockCodec createBlockCodec(String name) {
+		if (BlockCodecFactory.CODEC_DEFLATE.equalsIgnoreCase(name)) {
+			return new DeflateBlockCodec();
+		} else if (BlockCodecFactory.CODEC_LZ4.equalsIgnoreCase(name)) {
+			return new LZ4BlockCodec();
+		}
+		try {
+			Class<?> codecClass = Class.forName(name);
+			if (!BlockCodec.class.isAssignableFrom(codecClass)) {
+				throw new IllegalArgumentException("Class " + name + " does not implement " + BlockCodec.class.getName());
+			}
+			return (BlockCodec) codecClass.getDeclaredConstructor().newInstance();
+		} catch (ClassNotFoundException e) {
+			throw new IllegalArgumentException("Unknown block codec: " + name, e);
+		} catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalArgumentException("Cannot instantiate block codec " + name + ", it needs a public constructor without arguments", e);
+		}
+	}
+
+}
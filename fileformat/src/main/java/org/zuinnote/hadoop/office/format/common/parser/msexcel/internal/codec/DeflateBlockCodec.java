@@ -0,0 +1,79 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.codec;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses blocks with Deflate (java.util.zip) without zlib header
+ *
+ */
+public class DeflateBlockCodec implements BlockCodec {
+	private Deflater deflater;
+	private Inflater inflater;
+	private byte[] buffer;
+
+	public DeflateBlockCodec() {
+		this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		this.inflater = new Inflater(true);
+		this.buffer = new byte[4096];
+	}
+
+	@Override
+	public byte[] compress(byte[] data, int offset, int length) throws IOException {
+		this.deflater.reset();
+		this.deflater.setInput(data, offset, length);
+		this.deflater.finish();
+		int compressedLength = 0;
+		while (!this.deflater.finished()) {
+			if (compressedLength == this.buffer.length) {
+				this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+			}
+			compressedLength += this.deflater.deflate(this.buffer, compressedLength, this.buffer.length - compressedLength);
+		}
+		return Arrays.copyOf(this.buffer, compressedLength);
+	}
+
+	@Override
+	public void decompress(byte[] compressed, int offset, int length, byte[] dst, int uncompressedLength) throws IOException {
+		this.inflater.reset();
+		// no dummy byte at the end of the input is needed (cf. javadoc of Inflater), because inflating stops after uncompressedLength bytes and does not wait for the end of the stream
+		this.inflater.setInput(compressed, offset, length);
+		try {
+			int decompressedLength = 0;
+			while (decompressedLength < uncompressedLength) {
+				int inflated = this.inflater.inflate(dst, decompressedLength, uncompressedLength - decompressedLength);
+				if ((inflated == 0) && ((this.inflater.finished()) || (this.inflater.needsInput()))) {
+					throw new IOException("Compressed block is shorter than expected");
+				}
+				decompressedLength += inflated;
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Cannot decompress block", e);
+		}
+	}
+
+	@Override
+	public void close() {
+		this.deflater.end();
+		this.inflater.end();
+	}
+
+}
@@ -0,0 +1,89 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time spent by a stage of a pipeline reading a document (e.g. decompressing, parsing). A stage is either busy (working on its items) or waiting (for
+ * items of the previous stage or for space in the buffer to the next stage). Each stage is updated by one thread only, but can be read by any thread.
+ *
+ */
+public class PipelineStageStatistics {
+	private String name;
+	private volatile long busyNanos;
+	private volatile long waitNanos;
+	private volatile long items;
+
+	/**
+	 * 
+	 * @param name name of the stage, e.g. decompress
+	 */
+	public PipelineStageStatistics(String name) {
+		this.name = name;
+		this.busyNanos = 0L;
+		this.waitNanos = 0L;
+		this.items = 0L;
+	}
+
+	/**
+	 * Adds time the stage has been working. Called by the thread of the stage
+	 * 
+	 * @param nanos time in nanoseconds
+	 */
+	public void addBusyNanos(long nanos) {
+		this.busyNanos += nanos;
+	}
+
+	/**
+	 * Adds time the stage has been waiting for the previous or the next stage. Called by the thread of the stage
+	 * 
+	 * @param nanos time in nanoseconds
+	 */
+	public void addWaitNanos(long nanos) {
+		this.waitNanos += nanos;
+	}
+
+	/**
+	 * Counts an item (e.g. a buffer, a row) produced by the stage. Called by the thread of the stage
+	 */
+	public void incrementItems() {
+		this.items++;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public long getBusyNanos() {
+		return this.busyNanos;
+	}
+
+	public long getWaitNanos() {
+		return this.waitNanos;
+	}
+
+	public long getItems() {
+		return this.items;
+	}
+
+	@Override
+	public String toString() {
+		return this.name + ": busy " + TimeUnit.NANOSECONDS.toMillis(this.busyNanos) + " ms, waiting " + TimeUnit.NANOSECONDS.toMillis(this.waitNanos)
+				+ " ms, " + this.items + " items";
+	}
+
+}
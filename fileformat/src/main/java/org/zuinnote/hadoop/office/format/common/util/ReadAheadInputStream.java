@@ -0,0 +1,194 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Reads an input stream (e.g. a decompressing stream of a Hadoop codec) in a background (daemon) thread ahead of the reader, so that decompressing and
+ * parsing run on different cores. At most the given number of bytes is read in advance.
+ *
+ * The time the background thread spends reading is recorded as busy time of the stage, the time it waits for the reader to consume buffers as waiting
+ * time.
+ *
+ */
+public class ReadAheadInputStream extends InputStream {
+	private static final Log LOG = LogFactory.getLog(ReadAheadInputStream.class.getName());
+	public static final int BUFFER_SIZE = 64 * 1024;
+	private static final byte[] END_OF_STREAM = new byte[0];
+
+	private InputStream in;
+	private BlockingQueue<Object> buffers;
+	private PipelineStageStatistics statistics;
+	private Thread readThread;
+	private byte[] currentBuffer;
+	private int currentPosition;
+	private boolean endOfStream;
+	private volatile boolean closed;
+
+	/**
+	 * 
+	 * @param in         input stream to read in the background. It is closed when this stream is closed
+	 * @param readAhead  maximum number of bytes read in advance (rounded up to a multiple of BUFFER_SIZE)
+	 * @param statistics time spent by the background thread
+	 */
+	public ReadAheadInputStream(InputStream in, long readAhead, PipelineStageStatistics statistics) {
+		this.in = in;
+		this.buffers = new ArrayBlockingQueue<>((int) Math.max(1L, Math.min(Integer.MAX_VALUE, (readAhead + BUFFER_SIZE - 1) / BUFFER_SIZE)));
+		this.statistics = statistics;
+		this.currentBuffer = null;
+		this.currentPosition = 0;
+		this.endOfStream = false;
+		this.closed = false;
+		this.readThread = new Thread(this::readAhead, "hadoopoffice-pipeline-" + statistics.getName());
+		this.readThread.setDaemon(true);
+		this.readThread.start();
+	}
+
+	/**
+	 * Reads buffers from the underlying stream until the end of the stream. Runs in the background thread
+	 */
+	private void readAhead() {
+		try {
+			while (!this.closed) {
+				long startTime = System.nanoTime();
+				byte[] buffer = new byte[BUFFER_SIZE];
+				int length = 0;
+				int read = 0;
+				while ((length < BUFFER_SIZE) && ((read = this.in.read(buffer, length, BUFFER_SIZE - length)) != -1)) {
+					length += read;
+				}
+				long readTime = System.nanoTime();
+				this.statistics.addBusyNanos(readTime - startTime);
+				if (length > 0) {
+					this.statistics.incrementItems();
+					this.buffers.put(length < BUFFER_SIZE ? Arrays.copyOf(buffer, length) : buffer);
+				}
+				if (read == -1) {
+					this.buffers.put(END_OF_STREAM);
+					this.statistics.addWaitNanos(System.nanoTime() - readTime);
+					return;
+				}
+				this.statistics.addWaitNanos(System.nanoTime() - readTime);
+			}
+		} catch (InterruptedException e) {
+			LOG.debug("Reading ahead stopped");
+			Thread.currentThread().interrupt();
+		} catch (IOException | RuntimeException e) {
+			if (!this.closed) {
+				LOG.error(e);
+				try {
+					this.buffers.put(e);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Makes the next buffer read in the background the current buffer
+	 * 
+	 * @return true, if there is a current buffer with bytes left, false at the end of the stream
+	 * @throws IOException in case the background thread could not read the stream or this thread has been interrupted
+	 */
+	private boolean fill() throws IOException {
+		while (!this.endOfStream && ((this.currentBuffer == null) || (this.currentPosition == this.currentBuffer.length))) {
+			if (this.closed) {
+				throw new IOException("Stream closed");
+			}
+			Object item;
+			try {
+				item = this.buffers.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for data read ahead");
+			}
+			if (item == END_OF_STREAM) {
+				this.endOfStream = true;
+				this.currentBuffer = null;
+			} else if (item instanceof IOException) {
+				throw new IOException("Cannot read stream ahead", (IOException) item);
+			} else if (item instanceof RuntimeException) {
+				throw (RuntimeException) item;
+			} else {
+				this.currentBuffer = (byte[]) item;
+				this.currentPosition = 0;
+			}
+		}
+		return !this.endOfStream;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!this.fill()) {
+			return -1;
+		}
+		return this.currentBuffer[this.currentPosition++] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!this.fill()) {
+			return -1;
+		}
+		int result = Math.min(len, this.currentBuffer.length - this.currentPosition);
+		System.arraycopy(this.currentBuffer, this.currentPosition, b, off, result);
+		this.currentPosition += result;
+		return result;
+	}
+
+	@Override
+	public int available() throws IOException {
+		if ((this.currentBuffer == null) || this.endOfStream) {
+			return 0;
+		}
+		return this.currentBuffer.length - this.currentPosition;
+	}
+
+	/**
+	 * Stops the background thread and closes the underlying stream
+	 * 
+	 * @throws IOException in case the underlying stream cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		this.readThread.interrupt();
+		try {
+			this.readThread.join(1000L);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.buffers.clear();
+		this.in.close();
+	}
+
+}
@@ -0,0 +1,207 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.util;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.zuinnote.hadoop.office.format.common.parser.OfficeReaderParserInterface;
+
+/**
+ * Fetches the rows of a parser in a background (daemon) thread and hands them over to the reader through a bounded buffer, so that parsing (incl.
+ * formatting the cells) and converting the rows (e.g. to Hadoop Writables) run on different cores. The sheet name and row number are recorded with each
+ * row, because the parser is already ahead of the reader.
+ *
+ * The parse stage is busy while the parser fetches a row and waits while the buffer is full. The consume stage (the thread calling next) waits while the
+ * buffer is empty and is busy in between (converting the row and processing it further).
+ *
+ */
+public class RowPipeline implements Closeable {
+	private static final Log LOG = LogFactory.getLog(RowPipeline.class.getName());
+	private static final Object END_OF_ROWS = new Object();
+
+	private OfficeReaderParserInterface parser;
+	private BlockingQueue<Object> rows;
+	private PipelineStageStatistics parseStatistics;
+	private PipelineStageStatistics consumeStatistics;
+	private Thread parseThread;
+	private boolean endOfRows;
+	private String currentSheetName;
+	private long currentRow;
+	private long lastReturned;
+	private volatile boolean closed;
+
+	/**
+	 * A row with its position in the document
+	 */
+	private static class Row {
+		private Object[] cells;
+		private String sheetName;
+		private long rowNumber;
+
+		Row(Object[] cells, String sheetName, long rowNumber) {
+			this.cells = cells;
+			this.sheetName = sheetName;
+			this.rowNumber = rowNumber;
+		}
+	}
+
+	/**
+	 * Starts fetching rows. The parser must not be used by any other thread afterwards
+	 * 
+	 * @param parser            parser of the document
+	 * @param capacity          maximum number of rows fetched in advance
+	 * @param parseStatistics   time spent by the background thread
+	 * @param consumeStatistics time spent by the thread calling next
+	 */
+	public RowPipeline(OfficeReaderParserInterface parser, int capacity, PipelineStageStatistics parseStatistics, PipelineStageStatistics consumeStatistics) {
+		this.parser = parser;
+		this.rows = new ArrayBlockingQueue<>(Math.max(1, capacity));
+		this.parseStatistics = parseStatistics;
+		this.consumeStatistics = consumeStatistics;
+		this.endOfRows = false;
+		this.currentSheetName = null;
+		this.currentRow = 0;
+		this.lastReturned = 0;
+		this.closed = false;
+		this.parseThread = new Thread(this::fetchRows, "hadoopoffice-pipeline-" + parseStatistics.getName());
+		this.parseThread.setDaemon(true);
+		this.parseThread.start();
+	}
+
+	/**
+	 * Fetches rows from the parser until there are no more rows. Runs in the background thread
+	 */
+	private void fetchRows() {
+		try {
+			while (!this.closed) {
+				long startTime = System.nanoTime();
+				Object[] cells = this.parser.getNext();
+				if (this.closed) { // the parser may have consumed the interrupt of close
+					return;
+				}
+				Object item = cells == null ? END_OF_ROWS : new Row(cells, this.parser.getCurrentSheetName(), this.parser.getCurrentRow());
+				long parsedTime = System.nanoTime();
+				this.parseStatistics.addBusyNanos(parsedTime - startTime);
+				this.rows.put(item);
+				this.parseStatistics.addWaitNanos(System.nanoTime() - parsedTime);
+				if (cells == null) {
+					return;
+				}
+				this.parseStatistics.incrementItems();
+			}
+		} catch (InterruptedException e) {
+			LOG.debug("Fetching rows stopped");
+			Thread.currentThread().interrupt();
+		} catch (RuntimeException | Error e) {
+			LOG.error(e);
+			if (this.closed) { // nobody waits for the failure
+				return;
+			}
+			try {
+				this.rows.put(e);
+			} catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Returns the next row fetched in the background. A RuntimeException or Error of the parser is rethrown
+	 * 
+	 * @return column values of the row or null if there are no further rows
+	 */
+	public Object[] next() {
+		long startTime = System.nanoTime();
+		if (this.lastReturned != 0) {
+			this.consumeStatistics.addBusyNanos(startTime - this.lastReturned);
+		}
+		if (this.endOfRows || this.closed) {
+			return null;
+		}
+		Object item;
+		try {
+			item = this.rows.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOG.error("Interrupted while waiting for the next row");
+			return null;
+		}
+		this.lastReturned = System.nanoTime();
+		this.consumeStatistics.addWaitNanos(this.lastReturned - startTime);
+		if (item == END_OF_ROWS) {
+			this.endOfRows = true;
+			return null;
+		} else if (item instanceof RuntimeException) {
+			this.endOfRows = true;
+			throw (RuntimeException) item;
+		} else if (item instanceof Error) {
+			this.endOfRows = true;
+			throw (Error) item;
+		}
+		Row row = (Row) item;
+		this.currentSheetName = row.sheetName;
+		this.currentRow = row.rowNumber;
+		this.consumeStatistics.incrementItems();
+		return row.cells;
+	}
+
+	/**
+	 * 
+	 * @return name of the sheet of the row returned by the last call of next
+	 */
+	public String getCurrentSheetName() {
+		return this.currentSheetName;
+	}
+
+	/**
+	 * 
+	 * @return number of the row returned by the last call of next
+	 */
+	public long getCurrentRow() {
+		return this.currentRow;
+	}
+
+	/**
+	 * Stops fetching rows and waits until the background thread has ended (at the latest after the row it is parsing), so that the parser can be closed
+	 * afterwards. Does not close the parser
+	 */
+	@Override
+	public void close() {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		this.parseThread.interrupt();
+		boolean interrupted = false;
+		while (this.parseThread.isAlive()) {
+			try {
+				this.parseThread.join();
+			} catch (InterruptedException e) {
+				// the parser must not be closed while the background thread is using it
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		this.rows.clear();
+	}
+
+}
@@ -0,0 +1,152 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+import org.apache.hadoop.fs.Seekable;
+
+/**
+ * Read-only SeekableByteChannel on a seekable InputStream, such as the FSDataInputStream of a file in HDFS.
+ *
+ * This allows random access to a file without reading it completely, e.g. to read the central directory at the end of a ZIP file and afterwards only
+ * the entries needed. Position 0 of the channel is the position of the stream when the channel is created. The stream is not closed by the channel.
+ *
+ */
+public class SeekableInputStreamChannel implements SeekableByteChannel {
+	private static final int TRANSFER_BUFFER_SIZE = 8192;
+
+	private InputStream in;
+	private Seekable seekable;
+	private long offset;
+	private long size;
+	private long position;
+	private byte[] transferBuffer;
+	private boolean open;
+
+	/**
+	 *
+	 * @param in   stream, needs to implement org.apache.hadoop.fs.Seekable
+	 * @param size number of bytes that can be read from the current position of the stream (e.g. size of the file)
+	 * @throws IOException              if the position of the stream cannot be determined
+	 * @throws IllegalArgumentException if the stream is not seekable
+	 */
+	public SeekableInputStreamChannel(InputStream in, long size) throws IOException {
+		if (!(in instanceof Seekable)) {
+			throw new IllegalArgumentException("Stream is not seekable");
+		}
+		this.in = in;
+		this.seekable = (Seekable) in;
+		this.offset = this.seekable.getPos();
+		this.size = size;
+		this.position = 0;
+		this.transferBuffer = new byte[SeekableInputStreamChannel.TRANSFER_BUFFER_SIZE];
+		this.open = true;
+	}
+
+	/**
+	 * Checks if a stream can be accessed randomly using this channel
+	 *
+	 * @param in stream
+	 * @return true, if the stream is seekable
+	 */
+	public static boolean isSeekable(InputStream in) {
+		return in instanceof Seekable;
+	}
+
+	/**
+	 * Moves the stream back to the position it had when the channel was created, e.g. to read it sequentially after the channel has been used
+	 *
+	 * @throws IOException if the stream cannot be positioned
+	 */
+	public synchronized void restoreStreamPosition() throws IOException {
+		this.seekable.seek(this.offset);
+	}
+
+	@Override
+	public synchronized int read(ByteBuffer dst) throws IOException {
+		this.ensureOpen();
+		if (this.position >= this.size) {
+			return -1;
+		}
+		if (this.seekable.getPos() != this.offset + this.position) {
+			this.seekable.seek(this.offset + this.position);
+		}
+		int length = (int) Math.min(Math.min(dst.remaining(), this.size - this.position), this.transferBuffer.length);
+		int read = this.in.read(this.transferBuffer, 0, length);
+		if (read < 0) {
+			return -1;
+		}
+		dst.put(this.transferBuffer, 0, read);
+		this.position += read;
+		return read;
+	}
+
+	@Override
+	public int write(ByteBuffer src) {
+		throw new NonWritableChannelException();
+	}
+
+	@Override
+	public synchronized long position() throws IOException {
+		this.ensureOpen();
+		return this.position;
+	}
+
+	@Override
+	public synchronized SeekableByteChannel position(long newPosition) throws IOException {
+		this.ensureOpen();
+		if (newPosition < 0) {
+			throw new IllegalArgumentException("Negative position: " + newPosition);
+		}
+		this.position = newPosition;
+		return this;
+	}
+
+	@Override
+	public long size() throws IOException {
+		this.ensureOpen();
+		return this.size;
+	}
+
+	@Override
+	public SeekableByteChannel truncate(long newSize) {
+		throw new NonWritableChannelException();
+	}
+
+	@Override
+	public synchronized boolean isOpen() {
+		return this.open;
+	}
+
+	@Override
+	public synchronized void close() {
+		// the stream is owned by the caller
+		this.open = false;
+	}
+
+	private void ensureOpen() throws ClosedChannelException {
+		if (!this.open) {
+			throw new ClosedChannelException();
+		}
+	}
+
+}
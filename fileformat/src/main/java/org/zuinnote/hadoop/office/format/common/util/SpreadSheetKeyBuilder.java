@@ -0,0 +1,167 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellKey;
+import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
+import org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelWorkbookIndex;
+
+/**
+ * Sets the keys of the rows read from a file without creating objects per row. The reference of the current sheet ([name.xlsx]Sheet1!A) is only
+ * encoded when the sheet changes and the row number is appended as digits.
+ *
+ */
+public class SpreadSheetKeyBuilder {
+	private static final Log LOG = LogFactory.getLog(SpreadSheetKeyBuilder.class.getName());
+	private static final int MAX_DIGITS = 20;
+
+	private String fileName;
+	private long fileId;
+	private List<String> workbookSheets;
+	private Map<String, Integer> sheetIndexMap;
+	private String currentSheetName;
+	private int currentSheetIndex;
+	private byte[] textBuffer;
+	private int prefixLength;
+
+	/**
+	 * 
+	 * @param path           path of the file
+	 * @param fileName       name of the file used in text keys
+	 * @param workbookSheets names of all sheets in the order of the workbook. If null then the sheets are numbered in the order they are read, which
+	 *                       is only unique if all sheets of the file are read by the same reader
+	 */
+	public SpreadSheetKeyBuilder(String path, String fileName, List<String> workbookSheets) {
+		this.fileName = fileName;
+		this.fileId = SpreadSheetCellKey.fileId(path);
+		this.workbookSheets = workbookSheets;
+		this.sheetIndexMap = new HashMap<>();
+		this.textBuffer = new byte[0];
+		this.prefixLength = 0;
+	}
+
+	/**
+	 * Reads the names of all sheets of a workbook, e.g. to number the sheets of a split containing only some sheets of the workbook
+	 * 
+	 * @param conf     configuration
+	 * @param file     workbook
+	 * @param password password of an old Excel file (.xls), null if it is not encrypted
+	 * @return names of the sheets in the order of the workbook, null if they cannot be read without parsing the workbook (e.g. compressed file)
+	 * @throws IOException in case the file cannot be read
+	 */
+	public static List<String> readWorkbookSheets(Configuration conf, Path file, String password) throws IOException {
+		if (new CompressionCodecFactory(conf).getCodec(file) != null) {
+			return null;
+		}
+		FileSystem fs = file.getFileSystem(conf);
+		try (FSDataInputStream in = fs.open(file)) {
+			return MSExcelWorkbookIndex.getSheetNames(in, fs.getFileStatus(file).getLen(), password);
+		} catch (FormatNotUnderstoodException e) {
+			LOG.warn("Sheets of file \""+file+"\" are numbered in the order they are read: "+e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Sets a text key referencing the first cell of a row, e.g. [name.xlsx]Sheet1!A1
+	 * 
+	 * @param key       key to set
+	 * @param sheetName name of the sheet
+	 * @param row       row number (starting with 1)
+	 */
+	public void setText(Text key, String sheetName, long row) {
+		this.selectSheet(sheetName);
+		int length = this.prefixLength + MAX_DIGITS;
+		int position = length;
+		long remaining = row;
+		boolean negative = remaining < 0;
+		do {
+			this.textBuffer[--position] = (byte) ('0' + Math.abs(remaining % 10));
+			remaining /= 10;
+		} while (remaining != 0);
+		if (negative) {
+			this.textBuffer[--position] = (byte) '-';
+		}
+		// move the digits directly behind the reference of the sheet
+		int digits = length - position;
+		System.arraycopy(this.textBuffer, position, this.textBuffer, this.prefixLength, digits);
+		key.set(this.textBuffer, 0, this.prefixLength + digits);
+	}
+
+	/**
+	 * Sets a cell key referencing the first cell of a row
+	 * 
+	 * @param key       key to set
+	 * @param sheetName name of the sheet
+	 * @param row       row number (starting with 1)
+	 */
+	public void setCellKey(SpreadSheetCellKey key, String sheetName, long row) {
+		this.selectSheet(sheetName);
+		key.set(this.fileId, this.currentSheetIndex, (int) (row - 1), 0);
+	}
+
+	private void selectSheet(String sheetName) {
+		if ((sheetName == this.currentSheetName) && (this.textBuffer.length > 0)) {
+			return;
+		}
+		if ((sheetName != null) && (sheetName.equals(this.currentSheetName)) && (this.textBuffer.length > 0)) {
+			this.currentSheetName = sheetName;
+			return;
+		}
+		this.currentSheetName = sheetName;
+		this.currentSheetIndex = this.getSheetIndex(sheetName);
+		ByteBuffer prefix;
+		try {
+			prefix = Text.encode("[" + this.fileName + "]" + sheetName + "!A");
+		} catch (CharacterCodingException e) {
+			throw new IllegalArgumentException("Cannot encode name of sheet \"" + sheetName + "\"", e);
+		}
+		this.prefixLength = prefix.limit();
+		this.textBuffer = new byte[this.prefixLength + MAX_DIGITS];
+		prefix.get(this.textBuffer, 0, this.prefixLength);
+	}
+
+	private int getSheetIndex(String sheetName) {
+		if (this.workbookSheets != null) {
+			int index = this.workbookSheets.indexOf(sheetName);
+			if (index >= 0) {
+				return index;
+			}
+		}
+		Integer index = this.sheetIndexMap.get(sheetName);
+		if (index == null) {
+			// sheets not in the workbook list are numbered after the sheets of the list
+			index = (this.workbookSheets == null ? 0 : this.workbookSheets.size()) + this.sheetIndexMap.size();
+			this.sheetIndexMap.put(sheetName, index);
+		}
+		return index;
+	}
+}
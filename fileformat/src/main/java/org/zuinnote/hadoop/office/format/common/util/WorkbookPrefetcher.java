@@ -0,0 +1,206 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Opens the workbooks of a multi-file reader (e.g. one split containing several files) one after the other. While the rows of a workbook are read, the
+ * following workbooks are opened in a background (daemon) thread, i.e. they are fetched from the file system, decrypted and parsed as far as the parser
+ * does this when it is opened (e.g. spooling the shared strings table in low footprint mode).
+ *
+ * Only as many workbooks are opened in advance as fit into the byte budget (sum of the file lengths of the workbooks opened, but not yet returned by
+ * next). A workbook larger than the budget is opened when it is needed. A budget of 0 disables the prefetching.
+ *
+ * @param <R> reader of a workbook
+ */
+public class WorkbookPrefetcher<R> implements Closeable {
+	private static final Log LOG = LogFactory.getLog(WorkbookPrefetcher.class.getName());
+
+	/**
+	 * Opens the reader of a workbook
+	 *
+	 * @param <R> reader of a workbook
+	 */
+	public interface WorkbookOpener<R> {
+		/**
+		 * 
+		 * @param index index of the workbook
+		 * @return reader of the workbook
+		 * @throws IOException          in case the workbook cannot be read
+		 * @throws InterruptedException in case the workbook cannot be read or the thread has been interrupted
+		 */
+		R open(int index) throws IOException, InterruptedException;
+	}
+
+	/**
+	 * Closes the reader of a workbook opened in advance, but not used
+	 *
+	 * @param <R> reader of a workbook
+	 */
+	public interface WorkbookCloser<R> {
+		/**
+		 * 
+		 * @param reader reader of the workbook
+		 * @throws IOException in case the reader cannot be closed
+		 */
+		void close(R reader) throws IOException;
+	}
+
+	private long[] lengths;
+	private long budget;
+	private WorkbookOpener<R> opener;
+	private WorkbookCloser<R> closer;
+	private ExecutorService executor;
+	private Deque<Future<R>> prefetched;
+	private long prefetchedBytes;
+	// index of the next workbook returned by next
+	private int nextIndex;
+	// index of the next workbook to prefetch
+	private int nextPrefetchIndex;
+
+	/**
+	 * 
+	 * @param lengths lengths of the workbooks in the order they are read
+	 * @param budget  maximum number of bytes of workbooks opened in advance
+	 * @param opener  opens the reader of a workbook
+	 * @param closer  closes the reader of a workbook
+	 */
+	public WorkbookPrefetcher(long[] lengths, long budget, WorkbookOpener<R> opener, WorkbookCloser<R> closer) {
+		this.lengths = lengths;
+		this.budget = budget;
+		this.opener = opener;
+		this.closer = closer;
+		this.prefetched = new ArrayDeque<>();
+		this.prefetchedBytes = 0;
+		this.nextIndex = 0;
+		this.nextPrefetchIndex = 0;
+		if (this.budget > 0) {
+			this.executor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "hadoopoffice-prefetch");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * Returns the reader of the next workbook and starts opening the following workbooks in the background
+	 * 
+	 * @return reader or null if all workbooks have been returned
+	 * @throws IOException          in case the workbook cannot be read
+	 * @throws InterruptedException in case the workbook cannot be read or the thread has been interrupted
+	 */
+	public R next() throws IOException, InterruptedException {
+		if (this.nextIndex >= this.lengths.length) {
+			return null;
+		}
+		int index = this.nextIndex++;
+		R result;
+		if (index < this.nextPrefetchIndex) {
+			Future<R> future = this.prefetched.poll();
+			this.prefetchedBytes -= this.lengths[index];
+			this.prefetch();
+			result = WorkbookPrefetcher.get(future);
+		} else {
+			// too large to be prefetched
+			this.nextPrefetchIndex = index + 1;
+			this.prefetch();
+			result = this.opener.open(index);
+		}
+		return result;
+	}
+
+	/**
+	 * Starts opening the following workbooks until the budget is exhausted
+	 */
+	private void prefetch() {
+		if (this.executor == null) {
+			return;
+		}
+		while ((this.nextPrefetchIndex < this.lengths.length) && (this.prefetchedBytes + this.lengths[this.nextPrefetchIndex] <= this.budget)) {
+			final int index = this.nextPrefetchIndex++;
+			LOG.debug("Prefetching workbook " + index);
+			this.prefetchedBytes += this.lengths[index];
+			this.prefetched.add(this.executor.submit(() -> this.opener.open(index)));
+		}
+	}
+
+	private static <R> R get(Future<R> future) throws IOException, InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof InterruptedException) {
+				throw (InterruptedException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * Stops prefetching and closes the readers of the workbooks opened in advance
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.executor == null) {
+			return;
+		}
+		for (Future<R> future : this.prefetched) {
+			future.cancel(false);
+		}
+		this.executor.shutdown();
+		IOException closeException = null;
+		for (Future<R> future : this.prefetched) {
+			try {
+				R reader = future.get();
+				if (reader != null) {
+					this.closer.close(reader);
+				}
+			} catch (CancellationException | ExecutionException e) {
+				LOG.debug("Workbook opened in advance not used: " + e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				closeException = new InterruptedIOException("Interrupted while closing workbooks opened in advance");
+			} catch (IOException e) {
+				closeException = e;
+			}
+		}
+		this.prefetched.clear();
+		if (closeException != null) {
+			throw closeException;
+		}
+	}
+
+}
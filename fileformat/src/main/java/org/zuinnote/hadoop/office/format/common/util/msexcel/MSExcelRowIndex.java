@@ -0,0 +1,788 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.util.msexcel;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.BoundedInputStream;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.util.ZipFileZipEntrySource;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
+import org.zuinnote.hadoop.office.format.common.util.SeekableInputStreamChannel;
+
+/**
+ * Row index of the sheets of a new Excel file (.xlsx), stored in a sidecar file next to the Excel file (file name + ".hoidx").
+ *
+ * For every n-th row of a sheet the index contains the offset of the row in the uncompressed sheet XML (a checkpoint). A reader can then parse a range
+ * of rows between two checkpoints without parsing the rows before: the sheet XML is still inflated from its beginning (the ZIP entries use deflate, which
+ * cannot be resumed in the middle of a stream with the JDK), but the bytes before the range are only skipped and not parsed, which is the main cost of
+ * reading a sheet. The XML of the range is wrapped in the start of the sheet XML up to the sheetData element (e.g. namespaces) and the end tags of the
+ * sheet.
+ *
+ * The index is created by one pass over the file, e.g. hadoop jar hadoopoffice-fileformat.jar
+ * org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelRowIndex hdfs:///path/to/file.xlsx
+ *
+ */
+public class MSExcelRowIndex {
+	public static final String INDEX_FILE_SUFFIX = ".hoidx";
+	public static final int DEFAULT_ROWS_PER_CHECKPOINT = 10000;
+	// number of rows at the beginning of a sheet that can be read in addition to a range (e.g. lines to skip and header)
+	public static final int MAX_LEADING_ROWS = 16;
+	private static final Log LOG = LogFactory.getLog(MSExcelRowIndex.class.getName());
+	private static final int MAGIC = 0x484F4958; // HOIX
+	private static final int VERSION = 1;
+
+	private long fileLength;
+	private int rowsPerCheckpoint;
+	private List<Sheet> sheets;
+
+	private MSExcelRowIndex(long fileLength, int rowsPerCheckpoint, List<Sheet> sheets) {
+		this.fileLength = fileLength;
+		this.rowsPerCheckpoint = rowsPerCheckpoint;
+		this.sheets = sheets;
+	}
+
+	/**
+	 *
+	 * @return length of the indexed Excel file, to detect outdated indexes
+	 */
+	public long getFileLength() {
+		return this.fileLength;
+	}
+
+	/**
+	 *
+	 * @return number of rows between two checkpoints
+	 */
+	public int getRowsPerCheckpoint() {
+		return this.rowsPerCheckpoint;
+	}
+
+	/**
+	 *
+	 * @return indexed sheets in the order of the workbook
+	 */
+	public List<Sheet> getSheets() {
+		return Collections.unmodifiableList(this.sheets);
+	}
+
+	/**
+	 *
+	 * @param name name of the sheet
+	 * @return index of the sheet, null if there is no sheet with this name
+	 */
+	public Sheet getSheet(String name) {
+		for (Sheet sheet : this.sheets) {
+			if (sheet.getName().equals(name)) {
+				return sheet;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Creates the row index of a new Excel file (.xlsx) by reading all its sheets once
+	 *
+	 * @param in                stream containing the Excel file. It is not closed
+	 * @param length            length of the Excel file starting from the current position of the stream. If the stream is seekable then the file is read
+	 *                          by random access
+	 * @param rowsPerCheckpoint number of rows between two checkpoints (at least MAX_LEADING_ROWS)
+	 * @return index
+	 * @throws IOException                  in case of errors reading the file
+	 * @throws FormatNotUnderstoodException if the file is not an unencrypted new Excel file
+	 */
+	public static MSExcelRowIndex create(InputStream in, long length, int rowsPerCheckpoint)
+			throws IOException, FormatNotUnderstoodException {
+		if (rowsPerCheckpoint < MSExcelRowIndex.MAX_LEADING_ROWS) {
+			throw new IllegalArgumentException("At least " + MSExcelRowIndex.MAX_LEADING_ROWS + " rows per checkpoint are needed");
+		}
+		ZipFile zipFile = null;
+		try {
+			OPCPackage pkg;
+			if (SeekableInputStreamChannel.isSeekable(in)) {
+				SeekableInputStreamChannel channel = new SeekableInputStreamChannel(in, length);
+				if (MSExcelUtil.getFileMagic(channel) != FileMagic.OOXML) {
+					throw new FormatNotUnderstoodException("Row index is only supported for unencrypted new Excel files (.xlsx)");
+				}
+				zipFile = new ZipFile(channel);
+				pkg = OPCPackage.open(new ZipFileZipEntrySource(zipFile));
+			} else {
+				InputStream nin = FileMagic.prepareToCheckMagic(in);
+				if (FileMagic.valueOf(nin) != FileMagic.OOXML) {
+					throw new FormatNotUnderstoodException("Row index is only supported for unencrypted new Excel files (.xlsx)");
+				}
+				pkg = OPCPackage.open(nin);
+			}
+			try {
+				List<Sheet> sheets = new ArrayList<>();
+				XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+				while (iter.hasNext()) {
+					try (InputStream sheetInputStream = iter.next()) {
+						sheets.add(indexSheet(iter.getSheetName(), iter.getSheetPart().getPartName().getName(), sheetInputStream,
+								rowsPerCheckpoint));
+					}
+				}
+				return new MSExcelRowIndex(length, rowsPerCheckpoint, sheets);
+			} finally {
+				pkg.revert();
+			}
+		} catch (OpenXML4JException e) {
+			LOG.error(e);
+			throw new FormatNotUnderstoodException("Cannot read new Excel file (.xlsx) to create row index");
+		} finally {
+			if (zipFile != null) {
+				zipFile.close();
+			}
+		}
+	}
+
+	/**
+	 * Scans the XML of a sheet for the offsets of rows. The XML is not parsed, only tags are recognized.
+	 *
+	 * @param name              name of the sheet
+	 * @param partName          name of the part containing the sheet
+	 * @param sheetInputStream  uncompressed sheet XML
+	 * @param rowsPerCheckpoint number of rows between two checkpoints
+	 * @return index of the sheet
+	 * @throws IOException
+	 * @throws FormatNotUnderstoodException if the sheet does not contain sheet data
+	 */
+	private static Sheet indexSheet(String name, String partName, InputStream sheetInputStream, int rowsPerCheckpoint)
+			throws IOException, FormatNotUnderstoodException {
+		SheetScanner scanner = new SheetScanner(new BufferedInputStream(sheetInputStream, 65536));
+		ByteArrayOutputStream header = new ByteArrayOutputStream();
+		scanner.setCapture(header);
+		String rootName = null;
+		String sheetDataName = null;
+		// header: everything up to and including the start tag of sheetData
+		while (scanner.nextTag()) {
+			if (scanner.isStartTag() && (rootName == null)) {
+				rootName = scanner.getTagName();
+			}
+			if ("sheetData".equals(scanner.getLocalTagName())) {
+				sheetDataName = scanner.getTagName();
+				if (!scanner.isStartTag() || scanner.isEmptyTag()) {
+					sheetDataName = null; // no rows
+				}
+				break;
+			}
+		}
+		if ((rootName == null) || (sheetDataName == null)) {
+			return new Sheet(name, partName, new byte[0], "", new int[0], new long[0], 0L, new int[0], new long[0]);
+		}
+		scanner.setCapture(null);
+		String footer = "</" + sheetDataName + "></" + rootName + ">";
+		long[] checkpointOffsets = new long[16];
+		int[] checkpointFirstRows = new int[16];
+		int checkpoints = 0;
+		long[] leadingRowOffsets = new long[MSExcelRowIndex.MAX_LEADING_ROWS + 1];
+		int[] leadingRowNumbers = new int[MSExcelRowIndex.MAX_LEADING_ROWS];
+		int rowElements = 0;
+		int previousRow = 0;
+		long endOffset = -1;
+		while (scanner.nextTag()) {
+			String localName = scanner.getLocalTagName();
+			if ("row".equals(localName) && scanner.isStartTag()) {
+				int rowNumber = scanner.getRowReference();
+				if (rowNumber <= 0) { // row numbers are optional
+					rowNumber = previousRow + 1;
+				}
+				if ((rowElements % rowsPerCheckpoint) == 0) {
+					if (checkpoints == checkpointOffsets.length) {
+						checkpointOffsets = Arrays.copyOf(checkpointOffsets, checkpoints * 2);
+						checkpointFirstRows = Arrays.copyOf(checkpointFirstRows, checkpoints * 2);
+					}
+					checkpointOffsets[checkpoints] = scanner.getTagOffset();
+					checkpointFirstRows[checkpoints] = previousRow + 1;
+					checkpoints++;
+				}
+				if (rowElements <= MSExcelRowIndex.MAX_LEADING_ROWS) {
+					leadingRowOffsets[rowElements] = scanner.getTagOffset();
+					if (rowElements < MSExcelRowIndex.MAX_LEADING_ROWS) {
+						leadingRowNumbers[rowElements] = rowNumber;
+					}
+				}
+				rowElements++;
+				previousRow = rowNumber;
+			} else if ("sheetData".equals(localName) && !scanner.isStartTag()) {
+				endOffset = scanner.getTagOffset();
+				break;
+			}
+		}
+		if (endOffset < 0) {
+			throw new FormatNotUnderstoodException("Sheet \"" + name + "\" is not complete");
+		}
+		int leadingRows = Math.min(rowElements, MSExcelRowIndex.MAX_LEADING_ROWS);
+		long[] leadingRowEnds = new long[leadingRows];
+		for (int i = 0; i < leadingRows; i++) {
+			leadingRowEnds[i] = (i + 1 < rowElements) ? leadingRowOffsets[i + 1] : endOffset;
+		}
+		return new Sheet(name, partName, header.toByteArray(), footer, Arrays.copyOf(checkpointFirstRows, checkpoints),
+				Arrays.copyOf(checkpointOffsets, checkpoints), endOffset, Arrays.copyOf(leadingRowNumbers, leadingRows), leadingRowEnds);
+	}
+
+	/**
+	 * Writes the index
+	 *
+	 * @param out output
+	 * @throws IOException
+	 */
+	public void write(DataOutput out) throws IOException {
+		out.writeInt(MSExcelRowIndex.MAGIC);
+		out.writeInt(MSExcelRowIndex.VERSION);
+		out.writeLong(this.fileLength);
+		out.writeInt(this.rowsPerCheckpoint);
+		out.writeInt(this.sheets.size());
+		for (Sheet sheet : this.sheets) {
+			Text.writeString(out, sheet.name);
+			Text.writeString(out, sheet.partName);
+			out.writeInt(sheet.header.length);
+			out.write(sheet.header);
+			Text.writeString(out, sheet.footer);
+			out.writeLong(sheet.endOffset);
+			out.writeInt(sheet.checkpointOffsets.length);
+			for (int i = 0; i < sheet.checkpointOffsets.length; i++) {
+				out.writeInt(sheet.checkpointFirstRows[i]);
+				out.writeLong(sheet.checkpointOffsets[i]);
+			}
+			out.writeInt(sheet.leadingRowEnds.length);
+			for (int i = 0; i < sheet.leadingRowEnds.length; i++) {
+				out.writeInt(sheet.leadingRowNumbers[i]);
+				out.writeLong(sheet.leadingRowEnds[i]);
+			}
+		}
+	}
+
+	/**
+	 * Reads an index
+	 *
+	 * @param in input
+	 * @return index
+	 * @throws IOException if the input is not an index of a supported version
+	 */
+	public static MSExcelRowIndex read(DataInput in) throws IOException {
+		if (in.readInt() != MSExcelRowIndex.MAGIC) {
+			throw new IOException("Not a row index of an Excel file");
+		}
+		int version = in.readInt();
+		if (version != MSExcelRowIndex.VERSION) {
+			throw new IOException("Unsupported version of row index: " + version);
+		}
+		long fileLength = in.readLong();
+		int rowsPerCheckpoint = in.readInt();
+		int sheetCount = in.readInt();
+		List<Sheet> sheets = new ArrayList<>(sheetCount);
+		for (int s = 0; s < sheetCount; s++) {
+			String name = Text.readString(in);
+			String partName = Text.readString(in);
+			byte[] header = new byte[in.readInt()];
+			in.readFully(header);
+			String footer = Text.readString(in);
+			long endOffset = in.readLong();
+			int checkpoints = in.readInt();
+			int[] checkpointFirstRows = new int[checkpoints];
+			long[] checkpointOffsets = new long[checkpoints];
+			for (int i = 0; i < checkpoints; i++) {
+				checkpointFirstRows[i] = in.readInt();
+				checkpointOffsets[i] = in.readLong();
+			}
+			int leadingRows = in.readInt();
+			int[] leadingRowNumbers = new int[leadingRows];
+			long[] leadingRowEnds = new long[leadingRows];
+			for (int i = 0; i < leadingRows; i++) {
+				leadingRowNumbers[i] = in.readInt();
+				leadingRowEnds[i] = in.readLong();
+			}
+			sheets.add(new Sheet(name, partName, header, footer, checkpointFirstRows, checkpointOffsets, endOffset, leadingRowNumbers,
+					leadingRowEnds));
+		}
+		return new MSExcelRowIndex(fileLength, rowsPerCheckpoint, sheets);
+	}
+
+	/**
+	 *
+	 * @param file Excel file
+	 * @return path of the sidecar file containing the row index
+	 */
+	public static Path getIndexPath(Path file) {
+		return new Path(file.getParent(), file.getName() + MSExcelRowIndex.INDEX_FILE_SUFFIX);
+	}
+
+	/**
+	 * Creates the row index of an Excel file and writes it to the sidecar file (an existing index is overwritten)
+	 *
+	 * @param conf              configuration of the file system
+	 * @param file              Excel file (.xlsx)
+	 * @param rowsPerCheckpoint number of rows between two checkpoints
+	 * @return index
+	 * @throws IOException                  in case of errors reading the file or writing the index
+	 * @throws FormatNotUnderstoodException if the file is not an unencrypted new Excel file
+	 */
+	public static MSExcelRowIndex writeIndex(Configuration conf, Path file, int rowsPerCheckpoint)
+			throws IOException, FormatNotUnderstoodException {
+		FileSystem fs = file.getFileSystem(conf);
+		MSExcelRowIndex index;
+		try (FSDataInputStream in = fs.open(file)) {
+			index = MSExcelRowIndex.create(in, fs.getFileStatus(file).getLen(), rowsPerCheckpoint);
+		}
+		try (FSDataOutputStream out = fs.create(MSExcelRowIndex.getIndexPath(file), true)) {
+			index.write(out);
+		}
+		return index;
+	}
+
+	/**
+	 * Reads the row index of an Excel file from its sidecar file
+	 *
+	 * @param conf configuration of the file system
+	 * @param file Excel file
+	 * @return index, null if there is no index or the index does not match the file
+	 * @throws IOException in case of errors reading the index
+	 */
+	public static MSExcelRowIndex readIndex(Configuration conf, Path file) throws IOException {
+		FileSystem fs = file.getFileSystem(conf);
+		Path indexPath = MSExcelRowIndex.getIndexPath(file);
+		if (!fs.exists(indexPath)) {
+			return null;
+		}
+		MSExcelRowIndex index;
+		try (DataInputStream in = fs.open(indexPath)) {
+			index = MSExcelRowIndex.read(in);
+		}
+		if (index.getFileLength() != fs.getFileStatus(file).getLen()) {
+			LOG.warn("Row index \"" + indexPath + "\" does not match file \"" + file + "\". It is ignored");
+			return null;
+		}
+		return index;
+	}
+
+	/**
+	 * Creates the row index of the Excel files given as arguments
+	 *
+	 * @param args files, optionally preceded by -rows n for the number of rows between two checkpoints
+	 * @throws IOException                  in case of errors reading a file or writing an index
+	 * @throws FormatNotUnderstoodException if a file is not an unencrypted new Excel file
+	 */
+	public static void main(String[] args) throws IOException, FormatNotUnderstoodException {
+		int rowsPerCheckpoint = MSExcelRowIndex.DEFAULT_ROWS_PER_CHECKPOINT;
+		int first = 0;
+		if ((args.length > 1) && ("-rows".equals(args[0]))) {
+			rowsPerCheckpoint = Integer.parseInt(args[1]);
+			first = 2;
+		}
+		Configuration conf = new Configuration();
+		for (int i = first; i < args.length; i++) {
+			MSExcelRowIndex index = MSExcelRowIndex.writeIndex(conf, new Path(args[i]), rowsPerCheckpoint);
+			LOG.info("Created row index for \"" + args[i] + "\" with " + index.getSheets().size() + " sheets");
+		}
+	}
+
+	/**
+	 * Row index of one sheet
+	 *
+	 */
+	public static class Sheet {
+		private String name;
+		private String partName;
+		private byte[] header;
+		private String footer;
+		private int[] checkpointFirstRows;
+		private long[] checkpointOffsets;
+		private long endOffset;
+		private int[] leadingRowNumbers;
+		private long[] leadingRowEnds;
+
+		Sheet(String name, String partName, byte[] header, String footer, int[] checkpointFirstRows, long[] checkpointOffsets,
+				long endOffset, int[] leadingRowNumbers, long[] leadingRowEnds) {
+			this.name = name;
+			this.partName = partName;
+			this.header = header;
+			this.footer = footer;
+			this.checkpointFirstRows = checkpointFirstRows;
+			this.checkpointOffsets = checkpointOffsets;
+			this.endOffset = endOffset;
+			this.leadingRowNumbers = leadingRowNumbers;
+			this.leadingRowEnds = leadingRowEnds;
+		}
+
+		/**
+		 *
+		 * @return name of the sheet
+		 */
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 *
+		 * @return name of the package part of the sheet (e.g. /xl/worksheets/sheet1.xml)
+		 */
+		public String getPartName() {
+			return this.partName;
+		}
+
+		/**
+		 *
+		 * @return number of checkpoints, a range of rows starts and ends at a checkpoint
+		 */
+		public int getCheckpointCount() {
+			return this.checkpointOffsets.length;
+		}
+
+		/**
+		 *
+		 * @param checkpoint checkpoint
+		 * @return number of the first row (starting with 1) of the range starting at the checkpoint, including empty rows before the checkpoint
+		 */
+		public int getCheckpointFirstRow(int checkpoint) {
+			return this.checkpointFirstRows[checkpoint];
+		}
+	}
+
+	/**
+	 * Range of rows of a sheet between two checkpoints
+	 *
+	 */
+	public static class RowRange {
+		private Sheet sheet;
+		private int firstCheckpoint;
+		private int endCheckpoint;
+
+		/**
+		 *
+		 * @param sheet           index of the sheet
+		 * @param firstCheckpoint checkpoint where the range starts
+		 * @param endCheckpoint   checkpoint where the range ends (exclusive), number of checkpoints for the end of the sheet
+		 */
+		public RowRange(Sheet sheet, int firstCheckpoint, int endCheckpoint) {
+			if ((firstCheckpoint < 0) || (endCheckpoint > sheet.getCheckpointCount()) || (firstCheckpoint >= endCheckpoint)) {
+				throw new IllegalArgumentException("Invalid range of checkpoints [" + firstCheckpoint + "," + endCheckpoint + ") for sheet \""
+						+ sheet.getName() + "\"");
+			}
+			this.sheet = sheet;
+			this.firstCheckpoint = firstCheckpoint;
+			this.endCheckpoint = endCheckpoint;
+		}
+
+		public Sheet getSheet() {
+			return this.sheet;
+		}
+
+		/**
+		 *
+		 * @return true, if the range starts at the beginning of the sheet
+		 */
+		public boolean isFirst() {
+			return this.firstCheckpoint == 0;
+		}
+
+		/**
+		 *
+		 * @return number of the first row of the range (starting with 1)
+		 */
+		public int getFirstRow() {
+			return this.sheet.getCheckpointFirstRow(this.firstCheckpoint);
+		}
+
+		/**
+		 * Creates the XML of a sheet that only contains the rows of the range and, if the range does not start at the beginning of the sheet, the given
+		 * number of rows from the beginning of the sheet (e.g. the header)
+		 *
+		 * @param sheetInputStream uncompressed XML of the complete sheet, positioned at its beginning. It is closed when the returned stream is closed
+		 * @param leadingRows      number of rows from the beginning of the sheet (at most MAX_LEADING_ROWS)
+		 * @return XML of the range
+		 * @throws IllegalArgumentException if more than MAX_LEADING_ROWS are requested
+		 */
+		public InputStream openStream(final InputStream sheetInputStream, int leadingRows) {
+			if (leadingRows > MSExcelRowIndex.MAX_LEADING_ROWS) {
+				throw new IllegalArgumentException("At most " + MSExcelRowIndex.MAX_LEADING_ROWS + " leading rows are supported");
+			}
+			final Sheet indexedSheet = this.sheet;
+			// segments of the sheet XML: start, end (exclusive)
+			final List<long[]> segments = new ArrayList<>();
+			long leadingEnd = -1;
+			if (!this.isFirst()) {
+				for (int i = 0; i < indexedSheet.leadingRowNumbers.length; i++) {
+					if (indexedSheet.leadingRowNumbers[i] <= leadingRows) {
+						leadingEnd = indexedSheet.leadingRowEnds[i];
+					}
+				}
+			}
+			if (leadingEnd > 0) {
+				segments.add(new long[] { indexedSheet.checkpointOffsets[0], leadingEnd });
+			}
+			long end = this.endCheckpoint < indexedSheet.getCheckpointCount() ? indexedSheet.checkpointOffsets[this.endCheckpoint]
+					: indexedSheet.endOffset;
+			segments.add(new long[] { indexedSheet.checkpointOffsets[this.firstCheckpoint], end });
+			Enumeration<InputStream> parts = new Enumeration<InputStream>() {
+				private int part = -1;
+				private long position = 0;
+
+				@Override
+				public boolean hasMoreElements() {
+					return this.part < segments.size() + 1;
+				}
+
+				@Override
+				public InputStream nextElement() {
+					if (!this.hasMoreElements()) {
+						throw new NoSuchElementException();
+					}
+					this.part++;
+					if (this.part == 0) {
+						return new ByteArrayInputStream(indexedSheet.header);
+					}
+					if (this.part > segments.size()) {
+						return new ByteArrayInputStream(indexedSheet.footer.getBytes(StandardCharsets.UTF_8));
+					}
+					long[] segment = segments.get(this.part - 1);
+					// skip (without parsing) to the start of the segment when it is reached
+					return new BoundedInputStream(sheetInputStream, segment[1] - segment[0]) {
+						private boolean skipped = false;
+
+						@Override
+						public int read() throws IOException {
+							this.skipToSegment();
+							return super.read();
+						}
+
+						@Override
+						public int read(byte[] b, int off, int len) throws IOException {
+							this.skipToSegment();
+							return super.read(b, off, len);
+						}
+
+						private void skipToSegment() throws IOException {
+							if (!this.skipped) {
+								this.skipped = true;
+								IOUtils.skipFully(sheetInputStream, segment[0] - position);
+								position = segment[1];
+							}
+						}
+					};
+				}
+			};
+			return new SequenceInputStream(parts) {
+				@Override
+				public void close() throws IOException {
+					super.close();
+					sheetInputStream.close();
+				}
+			};
+		}
+	}
+
+	/**
+	 * Finds the tags of an XML document without parsing it
+	 *
+	 */
+	private static class SheetScanner {
+		private InputStream in;
+		private long offset;
+		private ByteArrayOutputStream capture;
+		private byte[] tag;
+		private int tagLength;
+		private long tagOffset;
+		private boolean startTag;
+		private boolean emptyTag;
+
+		SheetScanner(InputStream in) {
+			this.in = in;
+			this.offset = 0;
+			this.tag = new byte[256];
+		}
+
+		void setCapture(ByteArrayOutputStream capture) {
+			this.capture = capture;
+		}
+
+		private int read() throws IOException {
+			int b = this.in.read();
+			if (b >= 0) {
+				this.offset++;
+				if (this.capture != null) {
+					this.capture.write(b);
+				}
+			}
+			return b;
+		}
+
+		/**
+		 * Moves to the next start or end tag (processing instructions, comments, CDATA and DTDs are skipped)
+		 *
+		 * @return false if the end of the document has been reached
+		 * @throws IOException
+		 */
+		boolean nextTag() throws IOException {
+			int b;
+			while ((b = this.read()) >= 0) {
+				if (b != '<') {
+					continue;
+				}
+				this.tagOffset = this.offset - 1;
+				b = this.read();
+				if ((b == '?') || (b == '!')) {
+					this.skipSpecial(b);
+					continue;
+				}
+				this.startTag = b != '/';
+				if (!this.startTag) {
+					b = this.read();
+				}
+				// read tag until its end, keep quoted attribute values
+				this.tagLength = 0;
+				int quote = 0;
+				while (b >= 0) {
+					if (quote != 0) {
+						if (b == quote) {
+							quote = 0;
+						}
+					} else if ((b == '"') || (b == '\'')) {
+						quote = b;
+					} else if (b == '>') {
+						break;
+					}
+					if (this.tagLength == this.tag.length) {
+						this.tag = Arrays.copyOf(this.tag, this.tag.length * 2);
+					}
+					this.tag[this.tagLength++] = (byte) b;
+					b = this.read();
+				}
+				if (b < 0) {
+					return false;
+				}
+				this.emptyTag = (this.tagLength > 0) && (this.tag[this.tagLength - 1] == '/');
+				return true;
+			}
+			return false;
+		}
+
+		private void skipSpecial(int type) throws IOException {
+			String end = ">";
+			if (type == '!') {
+				int b = this.read();
+				if (b == '-') {
+					end = "-->";
+				} else if (b == '[') {
+					end = "]]>";
+				}
+			} else {
+				end = "?>";
+			}
+			int matched = 0;
+			int b;
+			while ((matched < end.length()) && ((b = this.read()) >= 0)) {
+				if (b == end.charAt(matched)) {
+					matched++;
+				} else {
+					matched = (b == end.charAt(0)) ? 1 : 0;
+				}
+			}
+		}
+
+		long getTagOffset() {
+			return this.tagOffset;
+		}
+
+		boolean isStartTag() {
+			return this.startTag;
+		}
+
+		boolean isEmptyTag() {
+			return this.emptyTag;
+		}
+
+		private int getNameEnd() {
+			int i = 0;
+			while ((i < this.tagLength) && (this.tag[i] != ' ') && (this.tag[i] != '\t') && (this.tag[i] != '\r')
+					&& (this.tag[i] != '\n') && (this.tag[i] != '/')) {
+				i++;
+			}
+			return i;
+		}
+
+		String getTagName() {
+			return new String(this.tag, 0, this.getNameEnd(), StandardCharsets.UTF_8);
+		}
+
+		String getLocalTagName() {
+			int end = this.getNameEnd();
+			int start = 0;
+			for (int i = 0; i < end; i++) {
+				if (this.tag[i] == ':') {
+					start = i + 1;
+				}
+			}
+			return new String(this.tag, start, end - start, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 *
+		 * @return value of the attribute r of the current tag as number, 0 if it does not exist
+		 */
+		int getRowReference() {
+			for (int i = this.getNameEnd(); i + 2 < this.tagLength; i++) {
+				byte before = this.tag[i];
+				if (((before == ' ') || (before == '\t') || (before == '\r') || (before == '\n')) && (this.tag[i + 1] == 'r')) {
+					int j = i + 2;
+					while ((j < this.tagLength) && ((this.tag[j] == ' ') || (this.tag[j] == '='))) {
+						j++;
+					}
+					if ((j < this.tagLength) && ((this.tag[j] == '"') || (this.tag[j] == '\''))) {
+						if ((j > i + 2) && (this.tag[j - 1] == '=')) {
+							int result = 0;
+							for (j++; (j < this.tagLength) && (this.tag[j] >= '0') && (this.tag[j] <= '9'); j++) {
+								result = result * 10 + (this.tag[j] - '0');
+							}
+							return result;
+						}
+					}
+				}
+			}
+			return 0;
+		}
+	}
+
+}
@@ -16,6 +16,11 @@
 
 package org.zuinnote.hadoop.office.format.common.util.msexcel;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.ss.util.CellAddress;
 
 public class MSExcelUtil {
@@ -39,4 +44,105 @@ public static String getCellAddressA1Format(int rowNum, int columnNum) {
 }
 
 
+/**
+* Determines the column number of a cell address in A1 format (e.g. 2 for C7). This is the inverse of getCellAddressA1Format and does not create any objects,
+* so it can be used for each cell that is read. Absolute references (e.g. $C$7) and lower case letters are supported.
+*
+* @param address cell address in A1 format
+*
+* @return column number (starting with 0)
+*
+* @throws IllegalArgumentException if the address does not start with a column
+*
+*/
+
+public static int getColumnNumberA1Format(CharSequence address) {
+ int length = address.length();
+ int pos = 0;
+ if ((pos < length) && (address.charAt(pos) == '$')) {
+	 pos++;
+ }
+ int start = pos;
+ int column = 0;
+ for (; pos < length; pos++) {
+	 char c = address.charAt(pos);
+	 if ((c >= 'A') && (c <= 'Z')) {
+		 column = column * 26 + (c - 'A' + 1);
+	 } else if ((c >= 'a') && (c <= 'z')) {
+		 column = column * 26 + (c - 'a' + 1);
+	 } else {
+		 break;
+	 }
+ }
+ if (pos == start) {
+	 throw new IllegalArgumentException("Invalid cell address in A1 format: " + address);
+ }
+ return column - 1;
+}
+
+/**
+* Determines the row number of a cell address in A1 format (e.g. 6 for C7). This is the inverse of getCellAddressA1Format and does not create any objects,
+* so it can be used for each cell that is read. Absolute references (e.g. $C$7) are supported.
+*
+* @param address cell address in A1 format
+*
+* @return row number (starting with 0)
+*
+* @throws IllegalArgumentException if the address does not end with a row
+*
+*/
+
+public static int getRowNumberA1Format(CharSequence address) {
+ int length = address.length();
+ int pos = 0;
+ if ((pos < length) && (address.charAt(pos) == '$')) {
+	 pos++;
+ }
+ while ((pos < length) && (Character.isLetter(address.charAt(pos)))) {
+	 pos++;
+ }
+ if ((pos < length) && (address.charAt(pos) == '$')) {
+	 pos++;
+ }
+ int start = pos;
+ int row = 0;
+ for (; pos < length; pos++) {
+	 char c = address.charAt(pos);
+	 if ((c < '0') || (c > '9')) {
+		 throw new IllegalArgumentException("Invalid cell address in A1 format: " + address);
+	 }
+	 row = row * 10 + (c - '0');
+ }
+ if ((pos == start) || (row == 0)) {
+	 throw new IllegalArgumentException("Invalid cell address in A1 format: " + address);
+ }
+ return row - 1;
+}
+
+
+/**
+* Detects the format of a document accessed by random access (e.g. OOXML for new Excel files or OLE2 for old Excel files or encrypted new Excel files).
+* The header of the document is read from position 0 and the channel is positioned at 0 afterwards.
+*
+* @param channel channel to read the document
+*
+* @return format, FileMagic.UNKNOWN if the document is too short
+*
+* @throws java.io.IOException in case of errors reading from the channel
+*
+*/
+
+public static FileMagic getFileMagic(SeekableByteChannel channel) throws IOException {
+ ByteBuffer header = ByteBuffer.allocate(8);
+ channel.position(0);
+ while ((header.hasRemaining()) && (channel.read(header) >= 0)) {
+	 // read header
+ }
+ channel.position(0);
+ if (header.hasRemaining()) {
+	 return FileMagic.UNKNOWN;
+ }
+ return FileMagic.valueOf(header.array());
+}
+
 }
@@ -0,0 +1,171 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.util.msexcel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.poi.EncryptedDocumentException;
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.crypto.Biff8EncryptionKey;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.util.ZipFileZipEntrySource;
+import org.apache.poi.poifs.crypt.Decryptor;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.xmlbeans.XmlException;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTSheet;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.WorkbookDocument;
+import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
+import org.zuinnote.hadoop.office.format.common.util.SeekableInputStreamChannel;
+
+/**
+ * Reads the index of an Excel workbook (the list of sheets) without parsing the sheets, e.g. to create one input split per sheet.
+ *
+ * For new Excel files (.xlsx) on a seekable stream only the central directory of the ZIP file and the workbook part are read. For old Excel files (.xls)
+ * only the workbook globals (BoundSheet records) are processed.
+ *
+ */
+public class MSExcelWorkbookIndex {
+	private static final Log LOG = LogFactory.getLog(MSExcelWorkbookIndex.class.getName());
+
+	private MSExcelWorkbookIndex() {
+	}
+
+	/**
+	 * Reads the names of the sheets of a workbook in the order of the workbook
+	 *
+	 * @param in       stream containing the workbook. It is not closed
+	 * @param length   length of the workbook starting from the current position of the stream, -1 if unknown. If the stream is seekable and the
+	 *                 length is known then new Excel files are read by random access
+	 * @param password password of an old Excel file (.xls), null if it is not encrypted
+	 * @return names of the sheets
+	 * @throws IOException                  in case of errors reading the stream
+	 * @throws FormatNotUnderstoodException if the format is not supported, e.g. an encrypted new Excel file
+	 */
+	public static List<String> getSheetNames(InputStream in, long length, String password)
+			throws IOException, FormatNotUnderstoodException {
+		if ((length > 0) && (SeekableInputStreamChannel.isSeekable(in))) {
+			SeekableInputStreamChannel channel = new SeekableInputStreamChannel(in, length);
+			if (MSExcelUtil.getFileMagic(channel) == FileMagic.OOXML) {
+				try (ZipFile zipFile = new ZipFile(channel)) {
+					return getSheetNames(OPCPackage.open(new ZipFileZipEntrySource(zipFile)));
+				} catch (OpenXML4JException e) {
+					LOG.error(e);
+					throw new FormatNotUnderstoodException("Cannot read sheets of new Excel file (.xlsx)");
+				}
+			}
+			channel.restoreStreamPosition();
+		}
+		InputStream nin = FileMagic.prepareToCheckMagic(in);
+		FileMagic fm = FileMagic.valueOf(nin);
+		if (fm == FileMagic.OOXML) {
+			try {
+				return getSheetNames(OPCPackage.open(nin));
+			} catch (OpenXML4JException e) {
+				LOG.error(e);
+				throw new FormatNotUnderstoodException("Cannot read sheets of new Excel file (.xlsx)");
+			}
+		} else if (fm == FileMagic.OLE2) {
+			try (POIFSFileSystem poifs = new POIFSFileSystem(nin)) {
+				if (poifs.getRoot().hasEntry(Decryptor.DEFAULT_POIFS_ENTRY)) {
+					throw new FormatNotUnderstoodException("Cannot read sheets of encrypted new Excel file (.xlsx) without decrypting it");
+				}
+				return getSheetNames(poifs, password);
+			}
+		}
+		throw new FormatNotUnderstoodException("Could not detect Excel format");
+	}
+
+	/**
+	 * Reads the names of the sheets from the workbook part of a new Excel file (.xlsx)
+	 *
+	 * @param pkg package of the Excel file, it is closed without saving
+	 * @return names of the sheets
+	 * @throws IOException
+	 * @throws OpenXML4JException
+	 */
+	private static List<String> getSheetNames(OPCPackage pkg) throws IOException, OpenXML4JException {
+		try {
+			XSSFReader r = new XSSFReader(pkg);
+			try (InputStream workbookDataXML = r.getWorkbookData()) {
+				WorkbookDocument wd = WorkbookDocument.Factory.parse(workbookDataXML);
+				List<String> result = new ArrayList<>();
+				for (CTSheet sheet : wd.getWorkbook().getSheets().getSheetList()) {
+					result.add(sheet.getName());
+				}
+				return result;
+			}
+		} catch (XmlException e) {
+			throw new OpenXML4JException(e.getMessage());
+		} finally {
+			pkg.revert();
+		}
+	}
+
+	/**
+	 * Reads the names of the sheets from the BoundSheet records of an old Excel file (.xls). Processing stops at the end of the workbook globals.
+	 *
+	 * @param poifs    OLE2 container of the Excel file
+	 * @param password password, null if the file is not encrypted
+	 * @return names of the sheets
+	 * @throws IOException
+	 * @throws FormatNotUnderstoodException
+	 */
+	private static List<String> getSheetNames(POIFSFileSystem poifs, String password)
+			throws IOException, FormatNotUnderstoodException {
+		final List<String> result = new ArrayList<>();
+		HSSFRequest req = new HSSFRequest();
+		req.addListenerForAllRecords(new AbortableHSSFListener() {
+			@Override
+			public short abortableProcessRecord(Record record) {
+				if (record instanceof BoundSheetRecord) {
+					result.add(((BoundSheetRecord) record).getSheetname());
+				} else if (record.getSid() == EOFRecord.sid) {
+					// end of workbook globals
+					return 1;
+				}
+				return 0;
+			}
+		});
+		if (password != null) {
+			Biff8EncryptionKey.setCurrentUserPassword(password);
+		}
+		try {
+			new HSSFEventFactory().abortableProcessWorkbookEvents(req, poifs);
+		} catch (HSSFUserException | EncryptedDocumentException e) {
+			LOG.error(e);
+			throw new FormatNotUnderstoodException("Cannot read sheets of old Excel file (.xls)");
+		} finally {
+			Biff8EncryptionKey.setCurrentUserPassword(null);
+		}
+		return result;
+	}
+
+}
@@ -18,18 +18,28 @@ package org.zuinnote.hadoop.office.format.mapred;
 
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
-
-
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.ArrayWritable;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
 import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.InputSplit;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.RecordReader;
 import org.apache.hadoop.mapred.Reporter;
+import org.zuinnote.hadoop.office.format.common.HadoopOfficeReadConfiguration;
+import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
+import org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelRowIndex;
+import org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelWorkbookIndex;
 
 
 
@@ -38,6 +48,7 @@ import org.apache.hadoop.mapred.Reporter;
 /* The input format will return an array of strings that it reads per "row" from the source formats */
 
 public abstract class AbstractSpreadSheetDocumentFileInputFormat<K>  extends FileInputFormat<Text,K> {
+private static final Log LOG = LogFactory.getLog(AbstractSpreadSheetDocumentFileInputFormat.class.getName());
 
 	@Override
 	public abstract RecordReader<Text,K> getRecordReader(InputSplit split, JobConf job, Reporter reporter) throws IOException;
@@ -45,6 +56,135 @@ public abstract class AbstractSpreadSheetDocumentFileInputFormat<K>  extends Fil
 	protected abstract boolean isSplitable(FileSystem fs, Path file);
 
 	public abstract void configure(JobConf conf);
+
+	/**
+	 * Creates one split per file or, if hadoopoffice.read.split.sheets is true, one split per group of sheets of a workbook. Sheets of a workbook with a row
+	 * index are split further into ranges of rows (hadoopoffice.read.split.rowindex)
+	 * 
+	 * @param job configuration of the job
+	 * @param numSplits hint for the number of splits, ignored
+	 * @return splits
+	 * @throws IOException in case the files cannot be listed
+	 */
+	@Override
+	public InputSplit[] getSplits(JobConf job, int numSplits) throws IOException {
+		return splitBySheets(job, super.getSplits(job, numSplits));
+	}
+
+	/**
+	 * Splits the file splits by sheets and ranges of rows (cf. getSplits). Shared with input formats that do not use text keys
+	 * 
+	 * @param job configuration of the job
+	 * @param splits one split per file
+	 * @return splits
+	 * @throws IOException in case the files cannot be read
+	 */
+	static InputSplit[] splitBySheets(JobConf job, InputSplit[] splits) throws IOException {
+		HadoopOfficeReadConfiguration hocr = new HadoopOfficeReadConfiguration(job);
+		if (!hocr.getSplitSheets()) {
+			return splits;
+		}
+		int groupSize = Math.max(1, hocr.getSplitSheetsGroupSize());
+		List<InputSplit> result = new ArrayList<>();
+		for (InputSplit split: splits) {
+			FileSplit fSplit = (FileSplit) split;
+			List<String> sheets = getSheets(job, fSplit.getPath(), hocr);
+			if (sheets == null) {
+				result.add(split);
+				continue;
+			}
+			MSExcelRowIndex rowIndex = getRowIndex(job, fSplit.getPath(), hocr);
+			int checkpointsPerSplit = rowIndex == null ? 1 : Math.max(1, hocr.getSplitRowIndexRows() / rowIndex.getRowsPerCheckpoint());
+			List<InputSplit> fileSplits = new ArrayList<>();
+			List<String> group = new ArrayList<>();
+			for (String sheet: sheets) {
+				MSExcelRowIndex.Sheet sheetIndex = rowIndex == null ? null : rowIndex.getSheet(sheet);
+				if ((sheetIndex == null) || (sheetIndex.getCheckpointCount() <= checkpointsPerSplit)) {
+					group.add(sheet);
+					if (group.size() == groupSize) {
+						fileSplits.add(new SpreadSheetFileSplit(fSplit.getPath(), fSplit.getStart(), fSplit.getLength(), fSplit.getLocations(), group.toArray(new String[0]), -1, -1, sheets.get(0)));
+						group.clear();
+					}
+					continue;
+				}
+				// one split per range of rows
+				for (int i = 0; i < sheetIndex.getCheckpointCount(); i += checkpointsPerSplit) {
+					fileSplits.add(new SpreadSheetFileSplit(fSplit.getPath(), fSplit.getStart(), fSplit.getLength(), fSplit.getLocations(), new String[] {sheet}, i, Math.min(sheetIndex.getCheckpointCount(), i + checkpointsPerSplit), sheets.get(0)));
+				}
+			}
+			if (!group.isEmpty()) {
+				fileSplits.add(new SpreadSheetFileSplit(fSplit.getPath(), fSplit.getStart(), fSplit.getLength(), fSplit.getLocations(), group.toArray(new String[0]), -1, -1, sheets.get(0)));
+			}
+			if (fileSplits.size() <= 1) {
+				result.add(split);
+			} else {
+				result.addAll(fileSplits);
+			}
+		}
+		return result.toArray(new InputSplit[result.size()]);
+	}
+
+	/**
+	 * Reads the sheets of a workbook that should be parsed
+	 * 
+	 * @param job configuration
+	 * @param file workbook
+	 * @param hocr configuration for reading
+	 * @return names of the selected sheets in the order they are read if the workbook is not split, null if the workbook cannot be split by sheets (e.g.
+	 *         compressed file)
+	 * @throws IOException in case the file cannot be read
+	 */
+	private static List<String> getSheets(JobConf job, Path file, HadoopOfficeReadConfiguration hocr) throws IOException {
+		if (new CompressionCodecFactory(job).getCodec(file) != null) {
+			LOG.info("Compressed file \""+file+"\" is not split by sheets");
+			return null;
+		}
+		FileSystem fs = file.getFileSystem(job);
+		List<String> sheets;
+		try (FSDataInputStream in = fs.open(file)) {
+			sheets = MSExcelWorkbookIndex.getSheetNames(in, fs.getFileStatus(file).getLen(), hocr.getPassword());
+		} catch (FormatNotUnderstoodException e) {
+			LOG.warn("File \""+file+"\" is not split by sheets: "+e.getMessage());
+			return null;
+		}
+		if ((hocr.getSheets() != null) && (!"".equals(hocr.getSheets()))) {
+			List<String> selectedSheets = Arrays.asList(hocr.getSheets().split(":"));
+			if (hocr.getLowFootprint()) { // sheets are read in the order of the workbook
+				sheets.retainAll(selectedSheets);
+			} else { // sheets are read in the order of the configuration
+				List<String> orderedSheets = new ArrayList<>();
+				for (String sheet: selectedSheets) {
+					if ((sheets.contains(sheet)) && (!orderedSheets.contains(sheet))) {
+						orderedSheets.add(sheet);
+					}
+				}
+				sheets = orderedSheets;
+			}
+		}
+		return sheets;
+	}
+
+	/**
+	 * Reads the row index of a workbook if its sheets can be split into ranges of rows
+	 * 
+	 * @param job configuration
+	 * @param file workbook
+	 * @param hocr configuration for reading
+	 * @return row index, null if there is no row index or it cannot be used with the configuration
+	 * @throws IOException in case the row index cannot be read
+	 */
+	private static MSExcelRowIndex getRowIndex(JobConf job, Path file, HadoopOfficeReadConfiguration hocr) throws IOException {
+		if ((!hocr.getSplitRowIndex()) || (!hocr.getLowFootprint()) || (!HadoopOfficeReadConfiguration.OPTION_LOWFOOTPRINT_PARSER_STAX.equalsIgnoreCase(hocr.getLowFootprintParser()))) {
+			return null;
+		}
+		// leading rows of the first sheet and of the following sheets (cf. HadoopOfficeReadConfiguration.skipLeadingRowsAsInFollowingSheets)
+		int leadingRows = Math.max(hocr.getSkipLines() + (hocr.getReadHeader() ? 1 : 0), (hocr.getSkipLinesAllSheets() ? hocr.getSkipLines() : 0) + (hocr.getIgnoreHeaderInAllSheets() ? 1 : 0));
+		if (leadingRows > MSExcelRowIndex.MAX_LEADING_ROWS) {
+			LOG.warn("Sheets of file \""+file+"\" are not split into ranges of rows, because more than "+MSExcelRowIndex.MAX_LEADING_ROWS+" lines are skipped");
+			return null;
+		}
+		return MSExcelRowIndex.readIndex(job, file);
+	}
 	
 	
 
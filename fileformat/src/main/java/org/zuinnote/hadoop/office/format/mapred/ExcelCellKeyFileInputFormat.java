@@ -0,0 +1,83 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.mapred;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.ArrayWritable;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.InputSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+import org.apache.hadoop.mapred.Reporter;
+import org.zuinnote.hadoop.office.format.common.HadoopOfficeReadConfiguration;
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellKey;
+import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
+
+/**
+ * Reads rows of Excel files like ExcelFileInputFormat, but keys them by a SpreadSheetCellKey (file id, sheet index, row, column of the first cell) instead
+ * of a text reference. The keys are ordered numerically and are compared on their serialized bytes, e.g. when rows are sorted or grouped in a shuffle.
+ *
+ */
+public class ExcelCellKeyFileInputFormat extends FileInputFormat<SpreadSheetCellKey,ArrayWritable> {
+
+private static final Log LOGIF = LogFactory.getLog(ExcelCellKeyFileInputFormat.class.getName());
+
+@Override
+public RecordReader<SpreadSheetCellKey,ArrayWritable> getRecordReader(InputSplit split, JobConf job, Reporter reporter) throws IOException {
+try {
+		 // send configuration option to ms excel. The format of the Excel (old vs new) is detected automaitcally
+ 		job.set(HadoopOfficeReadConfiguration.CONF_MIMETYPE,"ms-excel");
+		return new ExcelCellKeyRecordReader( (FileSplit) split,job,reporter);
+	} catch (FormatNotUnderstoodException e) {
+		// log
+		LOGIF.error(e);
+	} catch (GeneralSecurityException gse) {
+		LOGIF.error(gse);
+	}
+return null;
+}
+
+	/**
+	 * Creates the same splits as ExcelFileInputFormat (cf. AbstractSpreadSheetDocumentFileInputFormat.getSplits)
+	 * 
+	 * @param job configuration of the job
+	 * @param numSplits hint for the number of splits, ignored
+	 * @return splits
+	 * @throws IOException in case the files cannot be listed
+	 */
+	@Override
+	public InputSplit[] getSplits(JobConf job, int numSplits) throws IOException {
+		return AbstractSpreadSheetDocumentFileInputFormat.splitBySheets(job, super.getSplits(job, numSplits));
+	}
+
+	/**
+	 * Excel documents cannot be split by bytes (cf. ExcelFileInputFormat)
+	 *
+	*/
+@Override
+protected boolean isSplitable(FileSystem fs, Path file) {
+	return false;
+}	
+
+
+}
@@ -0,0 +1,110 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.mapred;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.List;
+
+import org.apache.hadoop.io.ArrayWritable;
+
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.Reporter;
+
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.logging.Log;
+
+import org.zuinnote.hadoop.office.format.common.HadoopOfficeReadConfiguration;
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellKey;
+import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
+import org.zuinnote.hadoop.office.format.common.util.SpreadSheetKeyBuilder;
+
+/* ExcelCellKeyRecordReader reads rows from Excel. Rows are keyed by a SpreadSheetCellKey referencing the first cell of the row
+*
+* You can specify the following options:
+* See AbstractTableDocumentRecordReader
+*
+*
+*/
+
+
+public class ExcelCellKeyRecordReader extends AbstractSpreadSheetDocumentRecordReader<SpreadSheetCellKey,ArrayWritable> {
+private static final Log LOG = LogFactory.getLog(ExcelCellKeyRecordReader.class.getName());
+private SpreadSheetKeyBuilder keyBuilder;
+
+public ExcelCellKeyRecordReader(FileSplit split, JobConf job, Reporter reporter) throws IOException,FormatNotUnderstoodException,GeneralSecurityException {
+ super(split,job,reporter);
+ LOG.debug("Initialize ExcelCellKeyRecordReader");
+ // if the split contains only some sheets of the workbook then the sheets are numbered in the order of the workbook
+ List<String> workbookSheets = null;
+ if (split instanceof SpreadSheetFileSplit) {
+	 workbookSheets = SpreadSheetKeyBuilder.readWorkbookSheets(job, split.getPath(), new HadoopOfficeReadConfiguration(job).getPassword());
+ }
+ this.keyBuilder=new SpreadSheetKeyBuilder(split.getPath().toString(),split.getPath().getName(),workbookSheets);
+}
+
+/**
+*
+* Create an empty key. The reader sets the same key instance for all rows
+*
+* @return key
+*/
+@Override
+public SpreadSheetCellKey createKey() {	
+	return new SpreadSheetCellKey();	
+}
+
+/**
+*
+* Create an empty value
+*
+* @return value
+*/
+@Override
+public ArrayWritable createValue() {
+	ArrayWritable newArrayWritable = new ArrayWritable(SpreadSheetCellDAO.class);
+	newArrayWritable.set(new SpreadSheetCellDAO[0]);
+	return newArrayWritable;
+}
+
+
+
+/**
+*
+* Read row from Office document. If document does not match a defined metadata filter then it returns no rows. If no metadata filter is defined or document matches metadata filter then it returns rows, if available in the document/selected sheet
+*
+* @return true if next more rows are available, false if not
+*/
+@Override
+public boolean next(SpreadSheetCellKey key, ArrayWritable value) throws IOException {
+	if (!(this.getOfficeReader().getFiltered())) {
+		return false;
+	}
+	Object[] objectArray = this.getNextRow();
+	if (objectArray==null) {
+		return false; // no more to read
+	}
+	SpreadSheetCellDAO[] cellRows = (SpreadSheetCellDAO[])objectArray;
+	this.keyBuilder.setCellKey(key,this.getOfficeReader().getCurrentSheetName(),this.getOfficeReader().getCurrentRow());
+	value.set(cellRows);
+	return true;	
+}
+
+
+
+}
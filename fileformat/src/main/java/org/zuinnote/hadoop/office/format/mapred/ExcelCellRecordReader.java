@@ -26,6 +26,7 @@ import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.Reporter;
 import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+import org.zuinnote.hadoop.office.format.common.util.SpreadSheetKeyBuilder;
 import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
 
 /* ExcelRecordReader reads cells from Excel
@@ -39,6 +40,7 @@ public class ExcelCellRecordReader extends AbstractSpreadSheetDocumentRecordRead
 
 	private static final Log LOG = LogFactory.getLog(ExcelCellRecordReader.class.getName());
 	private FileSplit split;
+	private SpreadSheetKeyBuilder keyBuilder;
 	private Object[] objectArray;
 	private int objectArrayPos;
 	
@@ -46,6 +48,7 @@ public class ExcelCellRecordReader extends AbstractSpreadSheetDocumentRecordRead
 			throws IOException, FormatNotUnderstoodException, GeneralSecurityException {
 		super(split, job, reporter);
 		this.split=split;
+		this.keyBuilder=new SpreadSheetKeyBuilder(split.getPath().toString(),split.getPath().getName(),null);
 		this.objectArrayPos=0;
 	}
 
@@ -60,7 +63,7 @@ public class ExcelCellRecordReader extends AbstractSpreadSheetDocumentRecordRead
 				this.objectArrayPos++;
 			}
 			else { // we need to load a  new row
-				this.objectArray = this.getOfficeReader().getNext();
+				this.objectArray = this.getNextRow();
 				this.objectArrayPos=0;
 				if (objectArray==null) {
 					return false; // no more to read
@@ -68,7 +71,7 @@ public class ExcelCellRecordReader extends AbstractSpreadSheetDocumentRecordRead
 			}
 		}
 		SpreadSheetCellDAO currentCell = (SpreadSheetCellDAO) this.objectArray[this.objectArrayPos++];
-		key.set("["+this.split.getPath().getName()+"]"+this.getOfficeReader().getCurrentSheetName()+"!A"+this.getOfficeReader().getCurrentRow());
+		this.keyBuilder.setText(key,this.getOfficeReader().getCurrentSheetName(),this.getOfficeReader().getCurrentRow());
 		value.set(currentCell);
 		return true;	
 	}
@@ -0,0 +1,59 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.mapred;
+
+import java.io.IOException;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.ArrayWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.InputSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hadoop.mapred.lib.CombineFileInputFormat;
+import org.apache.hadoop.mapred.lib.CombineFileSplit;
+import org.zuinnote.hadoop.office.format.common.HadoopOfficeReadConfiguration;
+
+/**
+ * Reads many small Excel files with few tasks: each split contains several complete files, preferably stored on the same node or rack. The files of a
+ * split are read one after the other by the same reader, which opens keystores and truststores only once. The keys identify the file of each row (e.g.
+ * [name.xlsx]Sheet1!A1).
+ *
+ * The size of the splits is configured with the options of CombineFileInputFormat (e.g. mapreduce.input.fileinputformat.split.maxsize). All options for
+ * reading Excel files are supported, except hadoopoffice.read.split.sheets.
+ *
+ */
+public class ExcelCombineFileInputFormat extends CombineFileInputFormat<Text, ArrayWritable> {
+
+	@Override
+	public RecordReader<Text, ArrayWritable> getRecordReader(InputSplit split, JobConf job, Reporter reporter) throws IOException {
+		// send configuration option to ms excel. The format of the Excel (old vs new) is detected automaitcally
+		job.set(HadoopOfficeReadConfiguration.CONF_MIMETYPE, "ms-excel");
+		return new ExcelCombineRecordReader((CombineFileSplit) split, job, reporter);
+	}
+
+	/**
+	 * Excel documents cannot be split, a document is always read completely by one reader
+	 *
+	 */
+	@Override
+	protected boolean isSplitable(FileSystem fs, Path file) {
+		return false;
+	}
+
+}
@@ -0,0 +1,197 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.mapred;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.security.GeneralSecurityException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.io.ArrayWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hadoop.mapred.lib.CombineFileSplit;
+import org.zuinnote.hadoop.office.format.common.HadoopKeyStoreCache;
+import org.zuinnote.hadoop.office.format.common.HadoopOfficeReadConfiguration;
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
+import org.zuinnote.hadoop.office.format.common.util.WorkbookPrefetcher;
+
+/**
+ * Reads the rows of all Excel files of a CombineFileSplit one file after the other. Keystores and truststores are shared by the readers of the files. The
+ * following files can be opened in advance in a background thread (hadoopoffice.read.prefetch.bytes).
+ *
+ */
+public class ExcelCombineRecordReader implements RecordReader<Text, ArrayWritable> {
+	private static final Log LOG = LogFactory.getLog(ExcelCombineRecordReader.class.getName());
+	private CombineFileSplit split;
+	private JobConf job;
+	private Reporter reporter;
+	private HadoopKeyStoreCache keyStoreCache;
+	private WorkbookPrefetcher<ExcelRecordReader> prefetcher;
+	private int currentFile;
+	private ExcelRecordReader currentReader;
+	// length of the files read completely
+	private long processedLength;
+
+	public ExcelCombineRecordReader(CombineFileSplit split, JobConf job, Reporter reporter) throws IOException {
+		this.split = split;
+		this.job = job;
+		this.reporter = reporter;
+		this.keyStoreCache = new HadoopKeyStoreCache();
+		this.currentFile = -1;
+		this.processedLength = 0;
+		long prefetchBytes = new HadoopOfficeReadConfiguration(job).getPrefetchBytes();
+		this.prefetcher = new WorkbookPrefetcher<>(this.split.getLengths(), prefetchBytes, this::openFile, ExcelRecordReader::close);
+		this.nextFile();
+	}
+
+	/**
+	 * Closes the reader of the current file and opens the reader of the next file of the split
+	 * 
+	 * @return true, if there is a next file, false if all files have been read
+	 * @throws IOException in case of errors reading the file or if it has an invalid format
+	 */
+	private boolean nextFile() throws IOException {
+		if (this.currentReader != null) {
+			this.currentReader.close();
+			this.currentReader = null;
+			this.processedLength += this.split.getLength(this.currentFile);
+		}
+		this.currentFile++;
+		try {
+			this.currentReader = this.prefetcher.next();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while opening file of split");
+		}
+		return this.currentReader != null;
+	}
+
+	/**
+	 * Opens the reader of a file of the split, possibly in a background thread
+	 * 
+	 * @param index index of the file in the split
+	 * @return reader
+	 * @throws IOException in case of errors reading the file or if it has an invalid format
+	 */
+	private ExcelRecordReader openFile(int index) throws IOException {
+		FileSplit fileSplit = new FileSplit(this.split.getPath(index), this.split.getOffset(index), this.split.getLength(index),
+				this.split.getLocations());
+		LOG.debug("Opening file \"" + fileSplit.getPath() + "\"");
+		try {
+			return new ExcelRecordReader(fileSplit, this.job, this.reporter, this.keyStoreCache);
+		} catch (FormatNotUnderstoodException | GeneralSecurityException e) {
+			LOG.error(e);
+			throw new IOException("Cannot read file \"" + fileSplit.getPath() + "\"", e);
+		}
+	}
+
+	/**
+	 *
+	 * Create an empty key
+	 *
+	 * @return key
+	 */
+	@Override
+	public Text createKey() {
+		return new Text("");
+	}
+
+	/**
+	 *
+	 * Create an empty value
+	 *
+	 * @return value
+	 */
+	@Override
+	public ArrayWritable createValue() {
+		ArrayWritable newArrayWritable = new ArrayWritable(SpreadSheetCellDAO.class);
+		newArrayWritable.set(new SpreadSheetCellDAO[0]);
+		return newArrayWritable;
+	}
+
+	/**
+	 *
+	 * Read row from the current Excel file or, if it has no further rows, from the next files. The key contains the file of the row (e.g.
+	 * [name.xlsx]Sheet1!A1)
+	 *
+	 * @return true if next more rows are available, false if not
+	 */
+	@Override
+	public boolean next(Text key, ArrayWritable value) throws IOException {
+		while (this.currentReader != null) {
+			if (this.currentReader.next(key, value)) {
+				return true;
+			}
+			this.nextFile();
+		}
+		return false;
+	}
+
+	/*
+	 * Get position in the split, i.e. the length of the files read completely and the position in the current file
+	 *
+	 * @return position
+	 *
+	 * @throws java.io.IOException in case of errors reading from the filestream provided by Hadoop
+	 *
+	 */
+	@Override
+	public long getPos() throws IOException {
+		if (this.currentReader == null) {
+			return this.processedLength;
+		}
+		return this.processedLength + this.currentReader.getPos() - this.split.getOffset(this.currentFile);
+	}
+
+	/*
+	 * Returns how much of the files have been processed in terms of bytes
+	 *
+	 * @return progress percentage
+	 *
+	 * @throws java.io.IOException in case of errors reading from the filestream provided by Hadoop
+	 *
+	 */
+	@Override
+	public float getProgress() throws IOException {
+		if (this.split.getLength() == 0) {
+			return this.currentReader == null ? 1.0f : 0.0f;
+		}
+		long processed = this.processedLength;
+		if (this.currentReader != null) {
+			processed += (long) (this.currentReader.getProgress() * this.split.getLength(this.currentFile));
+		}
+		return Math.min(1.0f, processed / (float) this.split.getLength());
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (this.currentReader != null) {
+				this.currentReader.close();
+				this.currentReader = null;
+			}
+		} finally {
+			this.prefetcher.close();
+		}
+	}
+
+}
@@ -30,7 +30,9 @@ import org.apache.hadoop.mapred.Reporter;
 import org.apache.commons.logging.LogFactory;
 import org.apache.commons.logging.Log;
 
+import org.zuinnote.hadoop.office.format.common.HadoopKeyStoreCache;
 import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+import org.zuinnote.hadoop.office.format.common.util.SpreadSheetKeyBuilder;
 import org.zuinnote.hadoop.office.format.common.parser.*;
 
 /* ExcelRecordReader reads rows from Excel
@@ -45,11 +47,20 @@ import org.zuinnote.hadoop.office.format.common.parser.*;
 public class ExcelRecordReader extends AbstractSpreadSheetDocumentRecordReader<Text,ArrayWritable> {
 private static final Log LOG = LogFactory.getLog(ExcelRecordReader.class.getName());
 private FileSplit split;
+private SpreadSheetKeyBuilder keyBuilder;
 
 public ExcelRecordReader(FileSplit split, JobConf job, Reporter reporter) throws IOException,FormatNotUnderstoodException,GeneralSecurityException {
  super(split,job,reporter);
  LOG.debug("Initialize ExcelRecordReader");
  this.split=split;
+ this.keyBuilder=new SpreadSheetKeyBuilder(split.getPath().toString(),split.getPath().getName(),null);
+}
+
+public ExcelRecordReader(FileSplit split, JobConf job, Reporter reporter, HadoopKeyStoreCache keyStoreCache) throws IOException,FormatNotUnderstoodException,GeneralSecurityException {
+ super(split,job,reporter,keyStoreCache);
+ LOG.debug("Initialize ExcelRecordReader");
+ this.split=split;
+ this.keyBuilder=new SpreadSheetKeyBuilder(split.getPath().toString(),split.getPath().getName(),null);
 }
 
 /**
@@ -89,12 +100,12 @@ public boolean next(Text key, ArrayWritable value) throws IOException {
 	if (!(this.getOfficeReader().getFiltered())) {
 		return false;
 	}
-	Object[] objectArray = this.getOfficeReader().getNext();
+	Object[] objectArray = this.getNextRow();
 	if (objectArray==null) {
 		return false; // no more to read
 	}
 	SpreadSheetCellDAO[] cellRows = (SpreadSheetCellDAO[])objectArray;
-	key.set("["+this.split.getPath().getName()+"]"+this.getOfficeReader().getCurrentSheetName()+"!A"+this.getOfficeReader().getCurrentRow());
+	this.keyBuilder.setText(key,this.getOfficeReader().getCurrentSheetName(),this.getOfficeReader().getCurrentRow());
 	value.set(cellRows);
 	return true;	
 }
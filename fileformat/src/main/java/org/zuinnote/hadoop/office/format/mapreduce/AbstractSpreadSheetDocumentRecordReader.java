@@ -27,9 +27,12 @@ import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableEntryException;
 import java.security.cert.CertificateException;
 import java.security.spec.InvalidKeySpecException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.Seekable;
 import org.apache.hadoop.io.compress.CodecPool;
@@ -40,6 +43,7 @@ import org.apache.hadoop.io.compress.SplittableCompressionCodec;
 import org.apache.hadoop.io.compress.Decompressor;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.mapreduce.Counter;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.mapreduce.RecordReader;
@@ -48,10 +52,13 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.commons.logging.Log;
 
 import org.zuinnote.hadoop.office.format.common.HadoopFileReader;
-import org.zuinnote.hadoop.office.format.common.HadoopKeyStoreManager;
+import org.zuinnote.hadoop.office.format.common.HadoopKeyStoreCache;
 import org.zuinnote.hadoop.office.format.common.HadoopOfficeReadConfiguration;
 import org.zuinnote.hadoop.office.format.common.OfficeReader;
 import org.zuinnote.hadoop.office.format.common.parser.*;
+import org.zuinnote.hadoop.office.format.common.util.PipelineStageStatistics;
+import org.zuinnote.hadoop.office.format.common.util.ReadAheadInputStream;
+import org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelRowIndex;
 
 
 
@@ -64,6 +71,7 @@ import org.zuinnote.hadoop.office.format.common.parser.*;
 
 public abstract class AbstractSpreadSheetDocumentRecordReader<K,V> extends RecordReader<K,V> {
 private static final Log LOG = LogFactory.getLog(AbstractSpreadSheetDocumentRecordReader.class.getName());
+public static final String PIPELINE_COUNTER_GROUP = "HadoopOffice Pipeline";
 
 private OfficeReader officeReader=null;
 
@@ -76,6 +84,9 @@ private long end;
 private Seekable filePosition;
 private HadoopFileReader currentHFR;
 private HadoopOfficeReadConfiguration hocr;
+private HadoopKeyStoreCache keyStoreCache;
+private TaskAttemptContext context;
+private PipelineStageStatistics decompressStatistics=new PipelineStageStatistics("decompress");
 
 /**
 * Creates an Abstract Record Reader for tables from various document formats
@@ -87,8 +98,18 @@ public AbstractSpreadSheetDocumentRecordReader(Configuration conf) {
  	// parse configuration
 	this.hocr=new HadoopOfficeReadConfiguration(conf);
      this.conf=conf;	
+     this.keyStoreCache=new HadoopKeyStoreCache();
  }
 
+/**
+* Shares keystores and truststores with other readers, e.g. readers of other files of the same split. Needs to be called before initialize
+* @param keyStoreCache keystores and truststores already opened by other readers
+*
+*/
+public void setKeyStoreCache(HadoopKeyStoreCache keyStoreCache) {
+	this.keyStoreCache=keyStoreCache;
+}
+
 
 /**
 * Initializes reader
@@ -103,6 +124,7 @@ public AbstractSpreadSheetDocumentRecordReader(Configuration conf) {
 @Override
 public void initialize(InputSplit split, TaskAttemptContext context) throws IOException, InterruptedException {
 try {
+   this.context=context;
    FileSplit fSplit = (FileSplit)split;
  // Initialize start and end of split
     start = fSplit.getStart();
@@ -110,8 +132,29 @@ try {
     final Path file = fSplit.getPath();
     codec = new CompressionCodecFactory(context.getConfiguration()).getCodec(file);
     this.hocr.setFileName(file.getName());
+    if (split instanceof SpreadSheetFileSplit) {
+	// only parse the sheets assigned to this split
+	SpreadSheetFileSplit sSplit = (SpreadSheetFileSplit) split;
+	this.hocr.setSheets(String.join(":", sSplit.getSheets()));
+	if (sSplit.isRowRange()) {
+		// only parse the rows assigned to this split
+		MSExcelRowIndex rowIndex = MSExcelRowIndex.readIndex(conf, file);
+		MSExcelRowIndex.Sheet sheetIndex = rowIndex == null ? null : rowIndex.getSheet(sSplit.getSheets()[0]);
+		if ((sheetIndex == null) || (sheetIndex.getCheckpointCount() < sSplit.getEndCheckpoint())) {
+			throw new IOException("Row index of file \""+file+"\" has changed since the splits have been created");
+		}
+		this.hocr.setRowRange(new MSExcelRowIndex.RowRange(sheetIndex, sSplit.getFirstCheckpoint(), sSplit.getEndCheckpoint()));
+	}
+    }
     this.readKeyStore(context.getConfiguration());
     this.readTrustStore(context.getConfiguration());
+    if ((split instanceof SpreadSheetFileSplit) && (!((SpreadSheetFileSplit) split).isWorkbookFirstSheet())) {
+	// the split does not start with the first sheet of the workbook: return the same rows as if the workbook was not split
+	if (this.hocr.getReadHeader()) {
+		this.hocr.setWorkbookHeader(this.readWorkbookHeader(conf, file, ((SpreadSheetFileSplit) split).getWorkbookFirstSheet()));
+	}
+	this.hocr.skipLeadingRowsAsInFollowingSheets();
+    }
     FSDataInputStream fileIn = file.getFileSystem(conf).open(file);
     // open stream
       if (isCompressedInput()) { // decompress
@@ -119,19 +162,20 @@ try {
       	if (codec instanceof SplittableCompressionCodec) {
 		LOG.debug("Reading from a compressed file \""+file+"\" with splittable compression codec");
         	final SplitCompressionInputStream cIn =((SplittableCompressionCodec)codec).createInputStream(fileIn, decompressor, start, end,SplittableCompressionCodec.READ_MODE.CONTINUOUS);
-		officeReader = new OfficeReader(cIn, this.hocr);  
+		officeReader = new OfficeReader(this.getDecompressStage(cIn), this.hocr);  
 		start = cIn.getAdjustedStart();
        		end = cIn.getAdjustedEnd();
         	filePosition = cIn; // take pos from compressed stream
       } else {
 	LOG.debug("Reading from a compressed file \""+file+"\" with non-splittable compression codec");
-	officeReader = new OfficeReader(codec.createInputStream(fileIn,decompressor), this.hocr);
+	officeReader = new OfficeReader(this.getDecompressStage(codec.createInputStream(fileIn,decompressor)), this.hocr);
         filePosition = fileIn;
       }
     } else {
 	LOG.debug("Reading from an uncompressed file \""+file+"\"");
       fileIn.seek(start);
-	officeReader = new OfficeReader(fileIn, this.hocr);  
+	// the length allows random access to the file
+	officeReader = new OfficeReader(fileIn, file.getFileSystem(conf).getFileStatus(file).getLen()-start, this.hocr);
       filePosition = fileIn;
     }
     // initialize reader
@@ -166,6 +210,50 @@ try {
 }
 
 
+/**
+ * Decompresses in a background thread, if hadoopoffice.read.pipeline is true
+ * 
+ * @param in decompressing input stream
+ * @return input stream to parse
+ */
+private InputStream getDecompressStage(InputStream in) {
+	if (!this.hocr.getPipeline()) {
+		return in;
+	}
+	LOG.info("Decompressing in a background thread");
+	return new ReadAheadInputStream(in, this.hocr.getPipelineReadAhead(), this.decompressStatistics);
+}
+
+
+/**
+ * Reads the header of the first sheet of the workbook for splits that do not contain the first sheet
+ * 
+ * @param conf Configuration provided by the Hadoop environment
+ * @param file workbook
+ * @param sheet name of the first sheet of the workbook
+ * @return header of the first sheet, null if it has no header
+ * @throws IOException in case the file cannot be read
+ * @throws FormatNotUnderstoodException in case the workbook cannot be parsed
+ * 
+ */
+private String[] readWorkbookHeader(Configuration conf, Path file, String sheet) throws IOException, FormatNotUnderstoodException {
+	HadoopOfficeReadConfiguration headerHocr = new HadoopOfficeReadConfiguration(conf);
+	headerHocr.setFileName(this.hocr.getFileName());
+	headerHocr.setPassword(this.hocr.getPassword());
+	headerHocr.setX509CertificateChain(this.hocr.getX509CertificateChain());
+	headerHocr.setSheets(sheet);
+	headerHocr.setFilter("");
+	headerHocr.setColumns("");
+	FileSystem fs = file.getFileSystem(conf);
+	OfficeReader headerReader = new OfficeReader(fs.open(file), fs.getFileStatus(file).getLen(), headerHocr);
+	try {
+		headerReader.parse();
+		return headerReader.getCurrentParser().getHeader();
+	} finally {
+		headerReader.close();
+	}
+}
+
 /**
  * Reads the keystore to obtain credentials
  * 
@@ -177,14 +265,13 @@ try {
 private void readKeyStore(Configuration conf) throws IOException, FormatNotUnderstoodException {
 	if ((this.hocr.getCryptKeystoreFile()!=null) && (!"".equals(this.hocr.getCryptKeystoreFile()))) {
 		LOG.info("Using keystore to obtain credentials instead of passwords");
-		HadoopKeyStoreManager hksm = new HadoopKeyStoreManager(conf);
 		try {
-			hksm.openKeyStore(new Path(this.hocr.getCryptKeystoreFile()), this.hocr.getCryptKeystoreType(), this.hocr.getCryptKeystorePassword());
+			Path keyStorePath = new Path(this.hocr.getCryptKeystoreFile());
 			String pw="";
 			if ((this.hocr.getCryptKeystoreAlias()!=null) && (!"".equals(this.hocr.getCryptKeystoreAlias()))) {
-				pw=hksm.getPassword(this.hocr.getCryptKeystoreAlias(), this.hocr.getCryptKeystorePassword());
+				pw=this.keyStoreCache.getPassword(conf, keyStorePath, this.hocr.getCryptKeystoreType(), this.hocr.getCryptKeystorePassword(), this.hocr.getCryptKeystoreAlias());
 			} else {
-				pw=hksm.getPassword(this.hocr.getFileName(), this.hocr.getCryptKeystorePassword());
+				pw=this.keyStoreCache.getPassword(conf, keyStorePath, this.hocr.getCryptKeystoreType(), this.hocr.getCryptKeystorePassword(), this.hocr.getFileName());
 			}
 			this.hocr.setPassword(pw);
 		} catch (NoSuchAlgorithmException | CertificateException | KeyStoreException | IllegalArgumentException | UnrecoverableEntryException | InvalidKeySpecException e) {
@@ -207,10 +294,8 @@ private void readKeyStore(Configuration conf) throws IOException, FormatNotUnder
 private void readTrustStore(Configuration conf) throws IOException, FormatNotUnderstoodException {
 	if (((this.hocr.getSigTruststoreFile()!=null) && (!"".equals(this.hocr.getSigTruststoreFile())))) {
 		LOG.info("Reading truststore to validate certificate chain for signatures");
-		HadoopKeyStoreManager hksm = new HadoopKeyStoreManager(conf);
 		try {
-			hksm.openKeyStore(new Path(this.hocr.getSigTruststoreFile()), this.hocr.getSigTruststoreType(), this.hocr.getSigTruststorePassword());
-			this.hocr.setX509CertificateChain(hksm.getAllX509Certificates());
+			this.hocr.setX509CertificateChain(this.keyStoreCache.getAllX509Certificates(conf, new Path(this.hocr.getSigTruststoreFile()), this.hocr.getSigTruststoreType(), this.hocr.getSigTruststorePassword()));
 		} catch (NoSuchAlgorithmException | CertificateException | KeyStoreException | IllegalArgumentException  e) {
 			LOG.error("Cannopt read truststore. Exception: ",e);
 			throw new FormatNotUnderstoodException("Cannot read truststore to establish certificate chain for signature validation "+e);
@@ -231,6 +316,22 @@ private void readTrustStore(Configuration conf) throws IOException, FormatNotUnd
 public abstract boolean nextKeyValue() throws IOException;
 
 
+/*
+* Get the next row of the current file
+*
+* @return column values of the row, null if no further rows exist
+*
+* @throws java.io.IOException in case the file cannot be parsed further, e.g. a background thread of the parser failed
+*/
+
+protected Object[] getNextRow() throws IOException {
+	try {
+		return this.officeReader.getNext();
+	} catch (IllegalStateException e) {
+		throw new IOException("Cannot read the next row of file \""+this.hocr.getFileName()+"\"", e);
+	}
+}
+
 /*
 * Get the office reader for the current file
 *
@@ -266,6 +367,45 @@ public long getEnd() {
 	return end;
 }
 
+/**
+* Get the time spent by the stages of the pipeline reading the document (decompress, parse, convert), if hadoopoffice.read.pipeline is true
+*
+* @return statistics of the stages
+*
+*/
+
+public List<PipelineStageStatistics> getPipelineStatistics() {
+	List<PipelineStageStatistics> result=new ArrayList<>();
+	result.add(this.decompressStatistics);
+	if (this.officeReader!=null) {
+		result.addAll(this.officeReader.getPipelineStatistics());
+	}
+	return result;
+}
+
+/*
+* Logs the time spent by the stages of the pipeline and adds it to the counters of the task
+*
+*/
+private void reportPipelineStatistics() {
+	if (!this.hocr.getPipeline()) {
+		return;
+	}
+	for (PipelineStageStatistics stage: this.getPipelineStatistics()) {
+		LOG.info("Pipeline stage "+stage);
+		if (this.context!=null) {
+			Counter busyCounter=this.context.getCounter(AbstractSpreadSheetDocumentRecordReader.PIPELINE_COUNTER_GROUP, stage.getName()+" busy ms");
+			if (busyCounter!=null) {
+				busyCounter.increment(TimeUnit.NANOSECONDS.toMillis(stage.getBusyNanos()));
+			}
+			Counter waitCounter=this.context.getCounter(AbstractSpreadSheetDocumentRecordReader.PIPELINE_COUNTER_GROUP, stage.getName()+" wait ms");
+			if (waitCounter!=null) {
+				waitCounter.increment(TimeUnit.NANOSECONDS.toMillis(stage.getWaitNanos()));
+			}
+		}
+	}
+}
+
 /*
 * Returns how much of the file has been processed in terms of bytes
 *
@@ -320,6 +460,7 @@ public synchronized void  close() throws IOException {
 try {
     if (officeReader!=null) {
 	officeReader.close();
+	this.reportPipelineStatistics();
      }
     } finally {
       if (decompressor != null) { // return this decompressor
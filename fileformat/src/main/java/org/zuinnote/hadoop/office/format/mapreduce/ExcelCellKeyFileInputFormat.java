@@ -0,0 +1,68 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.mapreduce;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.io.ArrayWritable;
+
+import org.zuinnote.hadoop.office.format.common.HadoopOfficeReadConfiguration;
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellKey;
+
+/**
+ * Reads rows of Excel files like ExcelFileInputFormat, but keys them by a SpreadSheetCellKey (file id, sheet index, row, column of the first cell) instead
+ * of a text reference. The keys are ordered numerically and are compared on their serialized bytes, e.g. when rows are sorted or grouped in a shuffle.
+ *
+ */
+public class ExcelCellKeyFileInputFormat extends FileInputFormat<SpreadSheetCellKey,ArrayWritable> {
+
+@Override
+public RecordReader<SpreadSheetCellKey,ArrayWritable> createRecordReader(InputSplit split, TaskAttemptContext ctx)  {
+		// send configuration option to ms excel. The format of the Excel (old vs new) is detected automaitcally
+ 		ctx.getConfiguration().set(HadoopOfficeReadConfiguration.CONF_MIMETYPE,"ms-excel");
+		return new ExcelCellKeyRecordReader(ctx.getConfiguration());
+}
+
+	/**
+	 * Creates the same splits as ExcelFileInputFormat (cf. AbstractSpreadSheetDocumentFileInputFormat.getSplits)
+	 * 
+	 * @param job job context
+	 * @return splits
+	 * @throws IOException in case the files cannot be listed
+	 */
+	@Override
+	public List<InputSplit> getSplits(JobContext job) throws IOException {
+		return AbstractSpreadSheetDocumentFileInputFormat.splitBySheets(job, super.getSplits(job));
+	}
+
+	/**
+	 * Excel documents cannot be split by bytes (cf. ExcelFileInputFormat)
+	 *
+	*/
+	@Override
+  	protected boolean isSplitable(JobContext context, Path file) {
+		return false;
+  	}	
+
+
+}
@@ -0,0 +1,121 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.mapreduce;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.hadoop.io.ArrayWritable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.logging.Log;
+
+import org.zuinnote.hadoop.office.format.common.HadoopOfficeReadConfiguration;
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellKey;
+import org.zuinnote.hadoop.office.format.common.util.SpreadSheetKeyBuilder;
+
+/* ExcelCellKeyRecordReader reads rows from Excel. Rows are keyed by a SpreadSheetCellKey referencing the first cell of the row
+*
+* You can specify the following options:
+* See AbstractTableDocumentRecordReader
+*
+*
+*/
+
+
+public class ExcelCellKeyRecordReader extends AbstractSpreadSheetDocumentRecordReader<SpreadSheetCellKey,ArrayWritable> {
+private static final Log LOG = LogFactory.getLog(ExcelCellKeyRecordReader.class.getName());
+private SpreadSheetKeyBuilder keyBuilder;
+private SpreadSheetCellKey currentKey=new SpreadSheetCellKey();
+private ArrayWritable currentValue=new ArrayWritable(SpreadSheetCellDAO.class);
+
+public ExcelCellKeyRecordReader(Configuration conf)  {
+ super(conf);
+ LOG.debug("Initalizing ExcelCellKeyRecordReader");
+}
+
+/**
+* Initializes the reader. If the split contains only some sheets of the workbook then the sheets are numbered in the order of the workbook
+*
+* @param split Split to use (assumed to be a file split)
+* @param context context of the job
+*
+* @throws java.io.IOException in case of errors reading from the filestream provided by Hadoop
+* @throws java.lang.InterruptedException in case of thread interruption
+*/
+@Override
+public void initialize(InputSplit split, TaskAttemptContext context) throws IOException, InterruptedException {
+	super.initialize(split, context);
+	FileSplit fSplit = (FileSplit) split;
+	List<String> workbookSheets = null;
+	if (split instanceof SpreadSheetFileSplit) {
+		workbookSheets = SpreadSheetKeyBuilder.readWorkbookSheets(context.getConfiguration(), fSplit.getPath(), new HadoopOfficeReadConfiguration(context.getConfiguration()).getPassword());
+	}
+	this.keyBuilder=new SpreadSheetKeyBuilder(fSplit.getPath().toString(),fSplit.getPath().getName(),workbookSheets);
+}
+
+/**
+*
+*  get current key after calling next()
+*
+* @return key referencing the first cell of the row. The same instance is returned for all rows
+*/
+@Override
+public SpreadSheetCellKey getCurrentKey() {
+	return this.currentKey;
+}
+
+/**
+*
+*  get current value after calling next()
+*
+* @return is an array of type SpreadSheetDAO
+*/
+@Override
+public ArrayWritable getCurrentValue() {
+	return this.currentValue;
+}
+
+
+/**
+*
+* Read row from Office document. If document does not match a defined metadata filter then it returns no rows. If no metadata filter is defined or document matches metadata filter then it returns rows, if available in the document/selected sheet
+*
+* @return true if next more rows are available, false if not
+*/
+@Override
+public boolean nextKeyValue() throws IOException {
+	if (!(this.getOfficeReader().getFiltered())) {
+		return false;
+	}
+	Object[] objectArray = this.getNextRow();
+	if (objectArray==null) {
+		return false; // no more to read
+	}
+	SpreadSheetCellDAO[] cellRows = (SpreadSheetCellDAO[])objectArray;
+	this.keyBuilder.setCellKey(this.currentKey,this.getOfficeReader().getCurrentSheetName(),this.getOfficeReader().getCurrentRow());
+	this.currentValue.set(cellRows);
+	return true;	
+}
+
+
+
+}
@@ -25,10 +25,12 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.lib.input.FileSplit;
 import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+import org.zuinnote.hadoop.office.format.common.util.SpreadSheetKeyBuilder;
 
 public class ExcelCellRecordReader extends AbstractSpreadSheetDocumentRecordReader<Text,SpreadSheetCellDAO> {
 	private static final Log LOG = LogFactory.getLog(ExcelCellRecordReader.class.getName());
 	private FileSplit split;
+	private SpreadSheetKeyBuilder keyBuilder;
 	private Text currentKey=new Text("");
 	private SpreadSheetCellDAO currentValue=new SpreadSheetCellDAO();
 	private Object[] objectArray;
@@ -39,6 +41,7 @@ public class ExcelCellRecordReader extends AbstractSpreadSheetDocumentRecordRead
 		super(conf);
 		 LOG.debug("Initalizing ExcelRecordReader");
 		 this.split=split;
+		 this.keyBuilder=new SpreadSheetKeyBuilder(split.getPath().toString(),split.getPath().getName(),null);
 	}
 
 	/**
@@ -59,7 +62,7 @@ public class ExcelCellRecordReader extends AbstractSpreadSheetDocumentRecordRead
 				this.objectArrayPos++;
 			}
 			else { // we need to load a  new row
-				this.objectArray = this.getOfficeReader().getNext();
+				this.objectArray = this.getNextRow();
 				this.objectArrayPos=0;
 				if (objectArray==null) {
 					return false; // no more to read
@@ -67,7 +70,7 @@ public class ExcelCellRecordReader extends AbstractSpreadSheetDocumentRecordRead
 			}
 		}
 		SpreadSheetCellDAO currentCell = (SpreadSheetCellDAO) this.objectArray[this.objectArrayPos++];
-		this.currentKey.set("["+this.split.getPath().getName()+"]"+this.getOfficeReader().getCurrentSheetName()+"!A"+this.getOfficeReader().getCurrentRow());
+		this.keyBuilder.setText(this.currentKey,this.getOfficeReader().getCurrentSheetName(),this.getOfficeReader().getCurrentRow());
 		this.currentValue.set(currentCell);
 		return true;
 	}
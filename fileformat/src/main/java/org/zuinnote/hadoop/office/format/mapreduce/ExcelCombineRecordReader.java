@@ -0,0 +1,174 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.mapreduce;
+
+import java.io.IOException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.io.ArrayWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileSplit;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.zuinnote.hadoop.office.format.common.HadoopKeyStoreCache;
+import org.zuinnote.hadoop.office.format.common.HadoopOfficeReadConfiguration;
+import org.zuinnote.hadoop.office.format.common.util.WorkbookPrefetcher;
+
+/**
+ * Reads the rows of all Excel files of a CombineFileSplit one file after the other. Keystores and truststores are shared by the readers of the files. The
+ * following files can be opened in advance in a background thread (hadoopoffice.read.prefetch.bytes).
+ *
+ */
+public class ExcelCombineRecordReader extends RecordReader<Text, ArrayWritable> {
+	private static final Log LOG = LogFactory.getLog(ExcelCombineRecordReader.class.getName());
+	private CombineFileSplit split;
+	private TaskAttemptContext context;
+	private HadoopKeyStoreCache keyStoreCache;
+	private WorkbookPrefetcher<ExcelRecordReader> prefetcher;
+	private int currentFile;
+	private ExcelRecordReader currentReader;
+	// length of the files read completely
+	private long processedLength;
+
+	public ExcelCombineRecordReader(CombineFileSplit split) {
+		this.split = split;
+		this.keyStoreCache = new HadoopKeyStoreCache();
+		this.currentFile = -1;
+		this.processedLength = 0;
+	}
+
+	@Override
+	public void initialize(InputSplit split, TaskAttemptContext context) throws IOException, InterruptedException {
+		this.split = (CombineFileSplit) split;
+		this.context = context;
+		long prefetchBytes = new HadoopOfficeReadConfiguration(context.getConfiguration()).getPrefetchBytes();
+		this.prefetcher = new WorkbookPrefetcher<>(this.split.getLengths(), prefetchBytes, this::openFile, ExcelRecordReader::close);
+		this.nextFile();
+	}
+
+	/**
+	 * Closes the reader of the current file and opens the reader of the next file of the split
+	 * 
+	 * @return true, if there is a next file, false if all files have been read
+	 * @throws IOException          in case of errors reading the file
+	 * @throws InterruptedException in case the file has an invalid format
+	 */
+	private boolean nextFile() throws IOException, InterruptedException {
+		if (this.currentReader != null) {
+			this.currentReader.close();
+			this.currentReader = null;
+			this.processedLength += this.split.getLength(this.currentFile);
+		}
+		this.currentFile++;
+		this.currentReader = this.prefetcher.next();
+		return this.currentReader != null;
+	}
+
+	/**
+	 * Opens the reader of a file of the split, possibly in a background thread
+	 * 
+	 * @param index index of the file in the split
+	 * @return reader
+	 * @throws IOException          in case of errors reading the file
+	 * @throws InterruptedException in case the file has an invalid format
+	 */
+	private ExcelRecordReader openFile(int index) throws IOException, InterruptedException {
+		FileSplit fileSplit = new FileSplit(this.split.getPath(index), this.split.getOffset(index), this.split.getLength(index),
+				this.split.getLocations());
+		LOG.debug("Opening file \"" + fileSplit.getPath() + "\"");
+		ExcelRecordReader reader = new ExcelRecordReader(this.context.getConfiguration(), fileSplit);
+		reader.setKeyStoreCache(this.keyStoreCache);
+		reader.initialize(fileSplit, this.context);
+		return reader;
+	}
+
+	/**
+	 *
+	 * Read row from the current Excel file or, if it has no further rows, from the next files
+	 *
+	 * @return true if next more rows are available, false if not
+	 */
+	@Override
+	public boolean nextKeyValue() throws IOException, InterruptedException {
+		while (this.currentReader != null) {
+			if (this.currentReader.nextKeyValue()) {
+				return true;
+			}
+			this.nextFile();
+		}
+		return false;
+	}
+
+	/**
+	 *
+	 * get current key after calling next()
+	 *
+	 * @return key is a text containing a reference for the SpreadSheet including the file (e.g. [name.xlsx]Sheet1!A1)
+	 */
+	@Override
+	public Text getCurrentKey() {
+		return this.currentReader == null ? null : this.currentReader.getCurrentKey();
+	}
+
+	/**
+	 *
+	 * get current value after calling next()
+	 *
+	 * @return is an array of type SpreadSheetDAO
+	 */
+	@Override
+	public ArrayWritable getCurrentValue() {
+		return this.currentReader == null ? null : this.currentReader.getCurrentValue();
+	}
+
+	/*
+	 * Returns how much of the files have been processed in terms of bytes
+	 *
+	 * @return progress percentage
+	 *
+	 * @throws java.io.IOException in case of errors reading from the filestream provided by Hadoop
+	 *
+	 */
+	@Override
+	public float getProgress() throws IOException {
+		if (this.split.getLength() == 0) {
+			return this.currentReader == null ? 1.0f : 0.0f;
+		}
+		long processed = this.processedLength;
+		if (this.currentReader != null) {
+			processed += (long) (this.currentReader.getProgress() * this.split.getLength(this.currentFile));
+		}
+		return Math.min(1.0f, processed / (float) this.split.getLength());
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (this.currentReader != null) {
+				this.currentReader.close();
+				this.currentReader = null;
+			}
+		} finally {
+			if (this.prefetcher != null) {
+				this.prefetcher.close();
+			}
+		}
+	}
+
+}
@@ -29,6 +29,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.commons.logging.Log;
 
 import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+import org.zuinnote.hadoop.office.format.common.util.SpreadSheetKeyBuilder;
 import org.zuinnote.hadoop.office.format.common.parser.*;
 
 /* ExcelRecordReader reads rows from Excel
@@ -43,6 +44,7 @@ import org.zuinnote.hadoop.office.format.common.parser.*;
 public class ExcelRecordReader extends AbstractSpreadSheetDocumentRecordReader<Text,ArrayWritable> {
 private static final Log LOG = LogFactory.getLog(ExcelRecordReader.class.getName());
 private FileSplit split;
+private SpreadSheetKeyBuilder keyBuilder;
 private Text currentKey=new Text("");
 private ArrayWritable currentValue=new ArrayWritable(SpreadSheetCellDAO.class);
 
@@ -50,6 +52,7 @@ public ExcelRecordReader(Configuration conf, FileSplit split)  {
  super(conf);
  LOG.debug("Initalizing ExcelRecordReader");
  this.split=split;
+ this.keyBuilder=new SpreadSheetKeyBuilder(split.getPath().toString(),split.getPath().getName(),null);
 }
 
 /**
@@ -86,12 +89,12 @@ public boolean nextKeyValue() throws IOException {
 	if (!(this.getOfficeReader().getFiltered())) {
 		return false;
 	}
-	Object[] objectArray = this.getOfficeReader().getNext();
+	Object[] objectArray = this.getNextRow();
 	if (objectArray==null) {
 		return false; // no more to read
 	}
 	SpreadSheetCellDAO[] cellRows = (SpreadSheetCellDAO[])objectArray;
-	this.currentKey.set("["+this.split.getPath().getName()+"]"+this.getOfficeReader().getCurrentSheetName()+"!A"+this.getOfficeReader().getCurrentRow());
+	this.keyBuilder.setText(this.currentKey,this.getOfficeReader().getCurrentSheetName(),this.getOfficeReader().getCurrentRow());
 	this.currentValue.set(cellRows);
 	return true;	
 }
@@ -0,0 +1,169 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.mapreduce;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+
+/**
+ * Split of a spreadsheet document that only covers some of its sheets or a range of rows of one sheet. The split covers the complete file, because the
+ * reader needs the index of the workbook, but only the assigned sheets are parsed. Ranges of rows are defined by checkpoints of the row index of the file
+ * (cf. MSExcelRowIndex). The split knows the first sheet of the workbook, because the header and the lines to skip only apply to it.
+ *
+ */
+public class SpreadSheetFileSplit extends FileSplit {
+	private String[] sheets;
+	private int firstCheckpoint;
+	private int endCheckpoint;
+	private String workbookFirstSheet;
+
+	public SpreadSheetFileSplit() {
+		super();
+		this.sheets = new String[0];
+		this.firstCheckpoint = -1;
+		this.endCheckpoint = -1;
+		this.workbookFirstSheet = null;
+	}
+
+	/**
+	 *
+	 * @param file   file of the document
+	 * @param start  position of the first byte of the file to process
+	 * @param length number of bytes of the file to process
+	 * @param hosts  hosts containing the blocks of the file
+	 * @param sheets names of the sheets to parse
+	 */
+	public SpreadSheetFileSplit(Path file, long start, long length, String[] hosts, String[] sheets) {
+		this(file, start, length, hosts, sheets, -1, -1, null);
+	}
+
+	/**
+	 *
+	 * @param file            file of the document
+	 * @param start           position of the first byte of the file to process
+	 * @param length          number of bytes of the file to process
+	 * @param hosts           hosts containing the blocks of the file
+	 * @param sheets          names of the sheets to parse, only one sheet if a range of rows is defined
+	 * @param firstCheckpoint checkpoint of the row index where the range of rows starts, -1 if the complete sheets are parsed
+	 * @param endCheckpoint   checkpoint of the row index where the range of rows ends (exclusive), -1 if the complete sheets are parsed
+	 */
+	public SpreadSheetFileSplit(Path file, long start, long length, String[] hosts, String[] sheets, int firstCheckpoint,
+			int endCheckpoint) {
+		this(file, start, length, hosts, sheets, firstCheckpoint, endCheckpoint, null);
+	}
+
+	/**
+	 *
+	 * @param file               file of the document
+	 * @param start              position of the first byte of the file to process
+	 * @param length             number of bytes of the file to process
+	 * @param hosts              hosts containing the blocks of the file
+	 * @param sheets             names of the sheets to parse, only one sheet if a range of rows is defined
+	 * @param firstCheckpoint    checkpoint of the row index where the range of rows starts, -1 if the complete sheets are parsed
+	 * @param endCheckpoint      checkpoint of the row index where the range of rows ends (exclusive), -1 if the complete sheets are parsed
+	 * @param workbookFirstSheet name of the first sheet read if the workbook is not split, null if the split starts with it
+	 */
+	public SpreadSheetFileSplit(Path file, long start, long length, String[] hosts, String[] sheets, int firstCheckpoint,
+			int endCheckpoint, String workbookFirstSheet) {
+		super(file, start, length, hosts);
+		this.sheets = sheets;
+		this.firstCheckpoint = firstCheckpoint;
+		this.endCheckpoint = endCheckpoint;
+		this.workbookFirstSheet = workbookFirstSheet;
+	}
+
+	/**
+	 *
+	 * @return names of the sheets to parse
+	 */
+	public String[] getSheets() {
+		return this.sheets;
+	}
+
+	/**
+	 *
+	 * @return true, if only a range of rows of the sheet is parsed
+	 */
+	public boolean isRowRange() {
+		return this.firstCheckpoint >= 0;
+	}
+
+	public int getFirstCheckpoint() {
+		return this.firstCheckpoint;
+	}
+
+	public int getEndCheckpoint() {
+		return this.endCheckpoint;
+	}
+
+	/**
+	 *
+	 * @return name of the first sheet read if the workbook is not split, null if the split starts with it
+	 */
+	public String getWorkbookFirstSheet() {
+		return this.workbookFirstSheet;
+	}
+
+	/**
+	 *
+	 * @return true, if the first sheet of the split is the first sheet read if the workbook is not split, i.e. the header and the lines to skip apply to it
+	 */
+	public boolean isWorkbookFirstSheet() {
+		return (this.workbookFirstSheet == null) || ((this.sheets.length > 0) && (this.workbookFirstSheet.equals(this.sheets[0])));
+	}
+
+	@Override
+	public void write(DataOutput out) throws IOException {
+		super.write(out);
+		out.writeInt(this.sheets.length);
+		for (String sheet : this.sheets) {
+			Text.writeString(out, sheet);
+		}
+		out.writeInt(this.firstCheckpoint);
+		out.writeInt(this.endCheckpoint);
+		out.writeBoolean(this.workbookFirstSheet != null);
+		if (this.workbookFirstSheet != null) {
+			Text.writeString(out, this.workbookFirstSheet);
+		}
+	}
+
+	@Override
+	public void readFields(DataInput in) throws IOException {
+		super.readFields(in);
+		this.sheets = new String[in.readInt()];
+		for (int i = 0; i < this.sheets.length; i++) {
+			this.sheets[i] = Text.readString(in);
+		}
+		this.firstCheckpoint = in.readInt();
+		this.endCheckpoint = in.readInt();
+		this.workbookFirstSheet = in.readBoolean() ? Text.readString(in) : null;
+	}
+
+	@Override
+	public String toString() {
+		String result = super.toString() + " sheets: " + String.join(":", this.sheets);
+		if (this.isRowRange()) {
+			result += " checkpoints: " + this.firstCheckpoint + "-" + this.endCheckpoint;
+		}
+		return result;
+	}
+
+}
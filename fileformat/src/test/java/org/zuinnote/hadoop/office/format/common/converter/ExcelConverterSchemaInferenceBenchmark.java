@@ -0,0 +1,71 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.converter;
+
+import java.text.DateFormat;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+
+import org.zuinnote.hadoop.office.format.common.converter.datatypes.GenericDataType;
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+
+/**
+ * Measures the throughput (rows per second) of inferring a schema with ExcelConverterSimpleSpreadSheetCellDAO on generated rows with byte, integer,
+ * decimal, boolean, date and string columns. It is not a unit test, because timings depend on the machine, run it with:
+ *
+ * java -cp &lt;test classpath&gt; org.zuinnote.hadoop.office.format.common.converter.ExcelConverterSchemaInferenceBenchmark [rows] [iterations]
+ *
+ */
+public class ExcelConverterSchemaInferenceBenchmark {
+
+	private ExcelConverterSchemaInferenceBenchmark() {
+	}
+
+	public static void main(String[] args) {
+		int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		SpreadSheetCellDAO[][] data = createRows(rows);
+		for (int i = 0; i < iterations; i++) {
+			SimpleDateFormat dateFormat = (SimpleDateFormat) DateFormat.getDateInstance(DateFormat.SHORT, Locale.US);
+			DecimalFormat decimalFormat = (DecimalFormat) DecimalFormat.getInstance(Locale.GERMAN);
+			ExcelConverterSimpleSpreadSheetCellDAO converter = new ExcelConverterSimpleSpreadSheetCellDAO(dateFormat, decimalFormat);
+			long start = System.nanoTime();
+			for (SpreadSheetCellDAO[] row : data) {
+				converter.updateSpreadSheetCellRowToInferSchemaInformation(row);
+			}
+			GenericDataType[] schema = converter.getSchemaRow();
+			long elapsed = System.nanoTime() - start;
+			System.out.println("Iteration " + (i + 1) + ": " + rows + " rows in " + (elapsed / 1000000L) + " ms ("
+					+ (long) (rows / (elapsed / 1000000000.0)) + " rows/s), " + schema.length + " columns inferred");
+		}
+	}
+
+	private static SpreadSheetCellDAO[][] createRows(int rows) {
+		SpreadSheetCellDAO[][] data = new SpreadSheetCellDAO[rows][];
+		for (int i = 0; i < rows; i++) {
+			data[i] = new SpreadSheetCellDAO[] {
+					new SpreadSheetCellDAO(String.valueOf(i % 100), "", "", "A" + (i + 1), "Sheet1"),
+					new SpreadSheetCellDAO(String.valueOf(i), "", "", "B" + (i + 1), "Sheet1"),
+					new SpreadSheetCellDAO((i % 1000) + "," + (i % 10) + "5", "", "", "C" + (i + 1), "Sheet1"),
+					new SpreadSheetCellDAO(i % 2 == 0 ? "TRUE" : "FALSE", "", "", "D" + (i + 1), "Sheet1"),
+					new SpreadSheetCellDAO(((i % 12) + 1) + "/" + ((i % 28) + 1) + "/18", "", "", "E" + (i + 1), "Sheet1"),
+					new SpreadSheetCellDAO("Customer " + i, "", "", "F" + (i + 1), "Sheet1") };
+		}
+		return data;
+	}
+
+}
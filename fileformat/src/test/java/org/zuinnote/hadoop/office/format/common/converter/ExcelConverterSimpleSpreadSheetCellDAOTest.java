@@ -19,6 +19,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
@@ -204,6 +205,68 @@ public class ExcelConverterSimpleSpreadSheetCellDAOTest {
 	    }
 	    
 	    
+	    @Test
+	    public void convertCaseTestSimpleRawValues() throws FileNotFoundException, FormatNotUnderstoodException {
+	    	String[] lowFootprintParsers = new String[] {null, HadoopOfficeReadConfiguration.OPTION_LOWFOOTPRINT_PARSER_SAX, HadoopOfficeReadConfiguration.OPTION_LOWFOOTPRINT_PARSER_STAX};
+	    	for (String lowFootprintParser: lowFootprintParsers) {
+	    		ArrayList<SpreadSheetCellDAO[]> excelContent = this.readTestSimple(lowFootprintParser, false);
+	    		ArrayList<SpreadSheetCellDAO[]> excelContentRaw = this.readTestSimple(lowFootprintParser, true);
+	    		assertEquals(excelContent.size(),excelContentRaw.size(),"Same number of rows read with raw values ("+lowFootprintParser+")");
+	    		SpreadSheetCellDAO[] row = excelContentRaw.get(1);
+	    		if (!HadoopOfficeReadConfiguration.OPTION_LOWFOOTPRINT_PARSER_STAX.equals(lowFootprintParser)) { // the pull parser only reads cells with a type (attribute t)
+	    			assertEquals(SpreadSheetCellDAO.RAW_TYPE_NUMERIC,row[0].getRawType(),"A2 has numeric raw value ("+lowFootprintParser+")");
+	    			assertEquals(1.0,row[0].getRawValue(),0.0,"A2 raw value = 1 ("+lowFootprintParser+")");
+	    			assertEquals(SpreadSheetCellDAO.RAW_TYPE_DATE,row[2].getRawType(),"C2 has date raw value ("+lowFootprintParser+")");
+	    			assertEquals(42736.0,row[2].getRawValue(),0.0,"C2 raw value = 2017-01-01 ("+lowFootprintParser+")");
+	    		}
+	    		assertEquals(SpreadSheetCellDAO.RAW_TYPE_BOOLEAN,row[1].getRawType(),"B2 has boolean raw value ("+lowFootprintParser+")");
+	    		assertEquals(1.0,row[1].getRawValue(),0.0,"B2 raw value = TRUE ("+lowFootprintParser+")");
+	    		assertEquals(SpreadSheetCellDAO.RAW_TYPE_STRING,row[3].getRawType(),"D2 has string raw value ("+lowFootprintParser+")");
+	    		// raw values lead to the same data as parsing the formatted values. Decimals have the scale of the schema instead of the scale of the formatted value
+	    		ExcelConverterSimpleSpreadSheetCellDAO converter = new ExcelConverterSimpleSpreadSheetCellDAO((SimpleDateFormat)DateFormat.getDateInstance(DateFormat.SHORT, Locale.US),(DecimalFormat) DecimalFormat.getInstance(Locale.GERMAN));
+	    		for (int i=1;i<excelContent.size();i++) {
+	    			converter.updateSpreadSheetCellRowToInferSchemaInformation(excelContent.get(i));
+	    		}
+	    		for (int i=1;i<excelContent.size();i++) {
+	    			Object[] expectedRow = converter.getDataAccordingToSchema(excelContent.get(i));
+	    			Object[] rawRow = converter.getDataAccordingToSchema(excelContentRaw.get(i));
+	    			assertEquals(expectedRow.length,rawRow.length,"Row "+i+" converted from raw values ("+lowFootprintParser+")");
+	    			for (int j=0;j<expectedRow.length;j++) {
+	    				if (expectedRow[j] instanceof BigDecimal) {
+	    					assertEquals(0,((BigDecimal)expectedRow[j]).compareTo((BigDecimal)rawRow[j]),"Row "+i+" column "+j+" converted from raw values ("+lowFootprintParser+")");
+	    				} else {
+	    					assertEquals(expectedRow[j],rawRow[j],"Row "+i+" column "+j+" converted from raw values ("+lowFootprintParser+")");
+	    				}
+	    			}
+	    		}
+	    	}
+	    }
+	    
+	    private ArrayList<SpreadSheetCellDAO[]> readTestSimple(String lowFootprintParser, boolean rawValues) throws FileNotFoundException, FormatNotUnderstoodException {
+	    	ClassLoader classLoader = getClass().getClassLoader();
+			String fileName="testsimple.xlsx";
+			File file = new File(classLoader.getResource(fileName).getFile());
+	    	HadoopOfficeReadConfiguration hocr = new HadoopOfficeReadConfiguration();
+	    	hocr.setFileName(fileName);
+	    	hocr.setMimeType("ms-excel");
+	    	hocr.setLocale(Locale.GERMAN);
+	    	hocr.setRawValues(rawValues);
+	    	if (lowFootprintParser!=null) {
+	    		hocr.setLowFootprint(true);
+	    		hocr.setLowFootprintParser(lowFootprintParser);
+	    	}
+	    	OfficeReader officeReader = new OfficeReader(new FileInputStream(file), hocr);
+	    	officeReader.parse();
+	    	ArrayList<SpreadSheetCellDAO[]> excelContent = new ArrayList<>();
+	    	SpreadSheetCellDAO[] currentRow =(SpreadSheetCellDAO[]) officeReader.getNext();
+	    	while (currentRow!=null) {
+	    		excelContent.add(currentRow);
+	    		currentRow = (SpreadSheetCellDAO[]) officeReader.getNext();
+	    	}
+	    	return excelContent;
+	    }
+	    
+	    
 	    @Test
 	    public void convertCaseTestDateTimeStamp() throws FileNotFoundException, FormatNotUnderstoodException, ParseException {
 	    	ClassLoader classLoader = getClass().getClassLoader();
@@ -379,4 +442,63 @@ public class ExcelConverterSimpleSpreadSheetCellDAOTest {
     		assertEquals("123457000000000000000",((BigDecimal)primitiveData[1]).toPlainString(),"Scientific notation (DE) is correctly converted");
 	    }
 
+	    
+	    @Test
+	    public void inferSchemaMixedValues() {
+	    	SimpleDateFormat dateFormat = (SimpleDateFormat)DateFormat.getDateInstance(DateFormat.SHORT, Locale.US);
+	    	DecimalFormat decimalFormat = (DecimalFormat) DecimalFormat.getInstance(Locale.GERMAN);
+	    	ExcelConverterSimpleSpreadSheetCellDAO converter = new ExcelConverterSimpleSpreadSheetCellDAO(dateFormat,decimalFormat);
+	    	String[][] rows = new String[][] {
+	    		{"2018-08-07 12:00:00", "1/13/18", "-5", "3000000000", "1,5", "TRUE", "text", "2017-01-01"},
+	    		{"1999-12-31 23:59:59.003", "2/28/17", "1000", "1", "-10,25", "yes", "10 apples", "7 days"}
+	    	};
+	    	for (String[] row: rows) {
+	    		SpreadSheetCellDAO[] cells = new SpreadSheetCellDAO[row.length];
+	    		for (int i=0;i<row.length;i++) {
+	    			cells[i] = new SpreadSheetCellDAO(row[i],"","",String.valueOf((char)('A'+i))+"1","Sheet1");
+	    		}
+	    		converter.updateSpreadSheetCellRowToInferSchemaInformation(cells);
+	    	}
+	    	GenericDataType[] schema = converter.getSchemaRow();
+	    	assertTrue(schema[0] instanceof GenericTimestampDataType, "First column is a timestamp");
+	    	assertTrue(schema[1] instanceof GenericDateDataType, "Second column is a date");
+	    	assertTrue(schema[2] instanceof GenericShortDataType, "Third column is a short");
+	    	assertTrue(schema[3] instanceof GenericLongDataType, "Fourth column is a long");
+	    	assertTrue(schema[4] instanceof GenericBigDecimalDataType, "Fifth column is a decimal");
+	    	assertEquals(2,((GenericBigDecimalDataType)schema[4]).getScale(), "Fifth column decimal has scale 2");
+	    	assertTrue(schema[5] instanceof GenericStringDataType, "Sixth column is a String (boolean and text)");
+	    	assertTrue(schema[6] instanceof GenericStringDataType, "Seventh column is a String");
+	    	assertTrue(schema[7] instanceof GenericShortDataType, "Eighth column is a short (beginning of the text is a number)");
+	    	assertSame(schema[5],schema[6],"Data types without properties are shared");
+	    }
+	    
+	    @Test
+	    public void inferSchemaManyRows() {
+	    	SimpleDateFormat dateFormat = (SimpleDateFormat)DateFormat.getDateInstance(DateFormat.SHORT, Locale.US);
+	    	DecimalFormat decimalFormat = (DecimalFormat) DecimalFormat.getInstance(Locale.GERMAN);
+	    	ExcelConverterSimpleSpreadSheetCellDAO converter = new ExcelConverterSimpleSpreadSheetCellDAO(dateFormat,decimalFormat);
+	    	int rows = 100000;
+	    	SpreadSheetCellDAO[][] data = new SpreadSheetCellDAO[rows][];
+	    	for (int i=0;i<rows;i++) {
+	    		data[i] = new SpreadSheetCellDAO[] {
+	    			new SpreadSheetCellDAO(String.valueOf(i % 100),"","","A"+(i+1),"Sheet1"),
+	    			new SpreadSheetCellDAO(String.valueOf(i),"","","B"+(i+1),"Sheet1"),
+	    			new SpreadSheetCellDAO((i % 1000)+","+(i % 10)+"5","","","C"+(i+1),"Sheet1"),
+	    			new SpreadSheetCellDAO(i % 2 == 0 ? "TRUE" : "FALSE","","","D"+(i+1),"Sheet1"),
+	    			new SpreadSheetCellDAO(((i % 12)+1)+"/"+((i % 28)+1)+"/18","","","E"+(i+1),"Sheet1"),
+	    			new SpreadSheetCellDAO("Customer "+i,"","","F"+(i+1),"Sheet1")
+	    		};
+	    	}
+	    	for (SpreadSheetCellDAO[] row: data) {
+	    		converter.updateSpreadSheetCellRowToInferSchemaInformation(row);
+	    	}
+	    	GenericDataType[] schema = converter.getSchemaRow();
+	    	assertTrue(schema[0] instanceof GenericByteDataType, "First column is a byte");
+	    	assertTrue(schema[1] instanceof GenericIntegerDataType, "Second column is an integer");
+	    	assertTrue(schema[2] instanceof GenericBigDecimalDataType, "Third column is a decimal");
+	    	assertTrue(schema[3] instanceof GenericBooleanDataType, "Fourth column is a boolean");
+	    	assertTrue(schema[4] instanceof GenericDateDataType, "Fifth column is a date");
+	    	assertTrue(schema[5] instanceof GenericStringDataType, "Sixth column is a String");
+	    }
+
 }
@@ -0,0 +1,119 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hadoop.io.ArrayWritable;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.Writable;
+import org.junit.jupiter.api.Test;
+
+public class SpreadSheetCellDAOArrayWritableTest {
+
+	@Test
+	public void writeReadRow() throws IOException {
+		SpreadSheetCellDAO[] cells = new SpreadSheetCellDAO[] { new SpreadSheetCellDAO("1", "", "", "B7", "Sheet1"), null,
+				new SpreadSheetCellDAO("text", "comment", "CONCAT(B7;\"x\")", "D7", "Sheet1"), new SpreadSheetCellDAO("other", "", "", "A8", "Sheet1"),
+				new SpreadSheetCellDAO("", "", "", "$F$7", "Sheet2"), null, null, null, null, new SpreadSheetCellDAO("last", "", "", "Z7", "Sheet1") };
+		SpreadSheetCellDAOArrayWritable row = new SpreadSheetCellDAOArrayWritable();
+		row.set(cells);
+		assertEquals("Sheet1", row.getSheetName(), "Sheet name of the row");
+		assertEquals(6, row.getRowNumber(), "Row number of the row");
+		DataOutputBuffer out = new DataOutputBuffer();
+		row.write(out);
+		DataInputBuffer in = new DataInputBuffer();
+		in.reset(out.getData(), out.getLength());
+		SpreadSheetCellDAOArrayWritable result = new SpreadSheetCellDAOArrayWritable();
+		result.readFields(in);
+		assertEquals(0, in.available(), "Row read completely");
+		Writable[] resultCells = result.get();
+		assertEquals(cells.length, resultCells.length, "All cells read");
+		for (int i = 0; i < cells.length; i++) {
+			if (cells[i] == null) {
+				assertNull(resultCells[i], "Cell " + i + " is null");
+			} else {
+				SpreadSheetCellDAO resultCell = (SpreadSheetCellDAO) resultCells[i];
+				assertEquals(cells[i].getFormattedValue(), resultCell.getFormattedValue(), "Formatted value of cell " + i);
+				assertEquals(cells[i].getComment(), resultCell.getComment(), "Comment of cell " + i);
+				assertEquals(cells[i].getFormula(), resultCell.getFormula(), "Formula of cell " + i);
+				assertEquals(cells[i].getAddress(), resultCell.getAddress(), "Address of cell " + i);
+				assertEquals(cells[i].getSheetName(), resultCell.getSheetName(), "Sheet name of cell " + i);
+			}
+		}
+	}
+
+	@Test
+	public void readArrayWritable() throws IOException {
+		// encoding of earlier versions
+		ArrayWritable original = new ArrayWritable(SpreadSheetCellDAO.class,
+				new Writable[] { new SpreadSheetCellDAO("1", "", "", "A1", "Sheet1"), new SpreadSheetCellDAO("2", "", "", "B1", "Sheet1") });
+		DataOutputBuffer out = new DataOutputBuffer();
+		original.write(out);
+		DataInputBuffer in = new DataInputBuffer();
+		in.reset(out.getData(), out.getLength());
+		SpreadSheetCellDAOArrayWritable result = new SpreadSheetCellDAOArrayWritable();
+		result.readFields(in);
+		assertEquals(2, result.get().length, "All cells read");
+		assertEquals("2", ((SpreadSheetCellDAO) result.get()[1]).getFormattedValue(), "Formatted value read");
+		assertEquals("B1", ((SpreadSheetCellDAO) result.get()[1]).getAddress(), "Address read");
+	}
+
+	@Test
+	public void smallerThanArrayWritable() throws IOException {
+		Writable[] cells = new Writable[20];
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = new SpreadSheetCellDAO(String.valueOf(i), "", "", "A" + (char) ('A' + i) + "1234", "Quarterly results");
+		}
+		DataOutputBuffer original = new DataOutputBuffer();
+		new ArrayWritable(SpreadSheetCellDAO.class, cells).write(original);
+		SpreadSheetCellDAOArrayWritable row = new SpreadSheetCellDAOArrayWritable();
+		row.set(cells);
+		DataOutputBuffer out = new DataOutputBuffer();
+		row.write(out);
+		assertTrue(out.getLength() * 4 < original.getLength(), "Row-aware encoding is smaller: " + out.getLength() + " bytes instead of " + original.getLength());
+	}
+
+	@Test
+	public void compareRaw() throws IOException {
+		SpreadSheetCellDAOArrayWritable.Comparator comparator = new SpreadSheetCellDAOArrayWritable.Comparator();
+		byte[][] rows = new byte[][] { this.serialize("Sheet1", "A2"), this.serialize("Sheet1", "C10"), this.serialize("Sheet2", "A1"),
+				this.serialize("Sheet1", "B2") };
+		assertTrue(comparator.compare(rows[0], 0, rows[0].length, rows[1], 0, rows[1].length) < 0, "Row 2 before row 10");
+		assertTrue(comparator.compare(rows[1], 0, rows[1].length, rows[2], 0, rows[2].length) < 0, "Sheet1 before Sheet2");
+		assertEquals(0, comparator.compare(rows[0], 0, rows[0].length, rows[3], 0, rows[3].length), "Same sheet and row");
+		// row written by earlier versions
+		DataOutputBuffer out = new DataOutputBuffer();
+		new ArrayWritable(SpreadSheetCellDAO.class, new Writable[] { new SpreadSheetCellDAO("", "", "", "A5", "Sheet1") }).write(out);
+		byte[] original = Arrays.copyOf(out.getData(), out.getLength());
+		assertTrue(comparator.compare(rows[1], 0, rows[1].length, original, 0, original.length) > 0, "Row 10 after row 5 written by earlier versions");
+	}
+
+	private byte[] serialize(String sheetName, String address) throws IOException {
+		SpreadSheetCellDAOArrayWritable row = new SpreadSheetCellDAOArrayWritable();
+		row.set(new Writable[] { null, new SpreadSheetCellDAO("x", "", "", address, sheetName) });
+		DataOutputBuffer out = new DataOutputBuffer();
+		row.write(out);
+		return Arrays.copyOf(out.getData(), out.getLength());
+	}
+
+}
@@ -0,0 +1,145 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.Text;
+import org.junit.jupiter.api.Test;
+
+public class SpreadSheetCellDAOTest {
+
+	@Test
+	public void writeReadCompact() throws IOException {
+		SpreadSheetCellDAO[] cells = new SpreadSheetCellDAO[] { new SpreadSheetCellDAO("1.5", "", "A1+1", "XFD1048576", "Sheet1"),
+				new SpreadSheetCellDAO("text äö", "a comment", "", "$B$2", "Sheet1"), new SpreadSheetCellDAO(null, null, null, null, null),
+				new SpreadSheetCellDAO("", "", "", "B02", "other sheet") };
+		DataOutputBuffer out = new DataOutputBuffer();
+		for (SpreadSheetCellDAO cell : cells) {
+			cell.write(out);
+		}
+		DataInputBuffer in = new DataInputBuffer();
+		in.reset(out.getData(), out.getLength());
+		SpreadSheetCellDAO result = new SpreadSheetCellDAO();
+		for (SpreadSheetCellDAO cell : cells) {
+			result.readFields(in);
+			assertEquals(cell.getFormattedValue() == null ? "" : cell.getFormattedValue(), result.getFormattedValue(), "Formatted value read");
+			assertEquals(cell.getComment() == null ? "" : cell.getComment(), result.getComment(), "Comment read");
+			assertEquals(cell.getFormula() == null ? "" : cell.getFormula(), result.getFormula(), "Formula read");
+			assertEquals(cell.getAddress() == null ? "" : cell.getAddress(), result.getAddress(), "Address read");
+			assertEquals(cell.getSheetName() == null ? "" : cell.getSheetName(), result.getSheetName(), "Sheet name read");
+		}
+		assertEquals(0, in.available(), "All cells read");
+	}
+
+	@Test
+	public void writeReadRawValue() throws IOException {
+		SpreadSheetCellDAO[] cells = new SpreadSheetCellDAO[6];
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = new SpreadSheetCellDAO("value", "", "", "A" + (i + 1), "Sheet1");
+		}
+		cells[0].setRawNumericValue(1.5, false, false);
+		cells[1].setRawNumericValue(42736.25, true, true);
+		cells[2].setRawValue(SpreadSheetCellDAO.RAW_TYPE_BOOLEAN, 1.0);
+		cells[3].setRawValue(SpreadSheetCellDAO.RAW_TYPE_STRING, 12345);
+		cells[4].setRawValue(SpreadSheetCellDAO.RAW_TYPE_ERROR, 7);
+		assertEquals(SpreadSheetCellDAO.RAW_TYPE_DATE, cells[1].getRawType(), "Date raw value");
+		assertEquals(42736.25 + 1462, cells[1].getRawValue(), 0.0, "Date serial of the 1904 system converted to the 1900 system");
+		DataOutputBuffer out = new DataOutputBuffer();
+		for (SpreadSheetCellDAO cell : cells) {
+			cell.write(out);
+		}
+		SpreadSheetCellDAOArrayWritable row = new SpreadSheetCellDAOArrayWritable();
+		row.set(cells);
+		row.write(out);
+		DataInputBuffer in = new DataInputBuffer();
+		in.reset(out.getData(), out.getLength());
+		SpreadSheetCellDAO result = new SpreadSheetCellDAO();
+		for (SpreadSheetCellDAO cell : cells) {
+			result.readFields(in);
+			assertEquals(cell.getRawType(), result.getRawType(), "Raw type read");
+			assertEquals(cell.getRawValue(), result.getRawValue(), 0.0, "Raw value read");
+		}
+		assertFalse(result.hasRawValue(), "Cell without raw value");
+		SpreadSheetCellDAOArrayWritable resultRow = new SpreadSheetCellDAOArrayWritable();
+		resultRow.readFields(in);
+		for (int i = 0; i < cells.length; i++) {
+			SpreadSheetCellDAO resultCell = (SpreadSheetCellDAO) resultRow.get()[i];
+			assertEquals(cells[i].getRawType(), resultCell.getRawType(), "Raw type of row read");
+			assertEquals(cells[i].getRawValue(), resultCell.getRawValue(), 0.0, "Raw value of row read");
+		}
+		assertEquals(0, in.available(), "All cells read");
+	}
+
+	@Test
+	public void readOriginalEncoding() throws IOException {
+		// encoding of earlier versions: five Text fields
+		String longValue = new String(new char[300]).replace('\0', 'x');
+		DataOutputBuffer out = new DataOutputBuffer();
+		for (String field : new String[] { longValue, "comment", "SUM(A1:A2)", "C7", "Sheet1", "", "", "", "", "" }) {
+			new Text(field).write(out);
+		}
+		DataInputBuffer in = new DataInputBuffer();
+		in.reset(out.getData(), out.getLength());
+		SpreadSheetCellDAO result = new SpreadSheetCellDAO();
+		result.readFields(in);
+		assertEquals(longValue, result.getFormattedValue(), "Formatted value with multi byte length read");
+		assertEquals("comment", result.getComment(), "Comment read");
+		assertEquals("SUM(A1:A2)", result.getFormula(), "Formula read");
+		assertEquals("C7", result.getAddress(), "Address read");
+		assertEquals("Sheet1", result.getSheetName(), "Sheet name read");
+		result.readFields(in);
+		assertEquals("", result.getFormattedValue(), "Empty cell read");
+		assertEquals("", result.getSheetName(), "Empty sheet name read");
+	}
+
+	@Test
+	public void compactAndReusesSheetName() throws IOException {
+		SpreadSheetCellDAO cell = new SpreadSheetCellDAO("42", "", "", "AB12345", "Quarterly results");
+		DataOutputBuffer compact = new DataOutputBuffer();
+		cell.write(compact);
+		cell.write(compact);
+		DataOutputBuffer original = new DataOutputBuffer();
+		for (String field : new String[] { "42", "", "", "AB12345", "Quarterly results" }) {
+			new Text(field).write(original);
+		}
+		assertTrue(compact.getLength() / 2 < original.getLength(), "Compact encoding is smaller than the original encoding");
+		DataInputBuffer in = new DataInputBuffer();
+		in.reset(compact.getData(), compact.getLength());
+		SpreadSheetCellDAO result = new SpreadSheetCellDAO();
+		result.readFields(in);
+		String sheetName = result.getSheetName();
+		result.readFields(in);
+		assertEquals("AB12345", result.getAddress(), "Address restored from row and column");
+		assertSame(sheetName, result.getSheetName(), "Sheet name of previous cell reused");
+	}
+
+	@Test
+	public void readUnsupportedVersion() {
+		DataInputBuffer in = new DataInputBuffer();
+		in.reset(new byte[] { (byte) -128, 99, 0 }, 3);
+		assertThrows(IOException.class, () -> new SpreadSheetCellDAO().readFields(in), "Unknown version of the compact encoding");
+	}
+
+}
@@ -0,0 +1,109 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparator;
+import org.junit.jupiter.api.Test;
+import org.zuinnote.hadoop.office.format.common.util.SpreadSheetKeyBuilder;
+
+public class SpreadSheetCellKeyTest {
+
+	@Test
+	public void writeReadKey() throws IOException {
+		SpreadSheetCellKey key = new SpreadSheetCellKey(SpreadSheetCellKey.fileId("/data/test.xlsx"), 2, 1048575, 16383);
+		DataOutputBuffer out = new DataOutputBuffer();
+		key.write(out);
+		assertEquals(SpreadSheetCellKey.LENGTH, out.getLength(), "Key has a fixed length");
+		DataInputBuffer in = new DataInputBuffer();
+		in.reset(out.getData(), out.getLength());
+		SpreadSheetCellKey result = new SpreadSheetCellKey();
+		result.readFields(in);
+		assertEquals(key, result, "Key read is equal to key written");
+		assertEquals(key.hashCode(), result.hashCode(), "Hash code of key read");
+		assertTrue(result.toString().endsWith(":2!XFD1048576"), "Key as text contains sheet and cell address");
+	}
+
+	@Test
+	public void numericOrder() {
+		long fileId = SpreadSheetCellKey.fileId("/data/test.xlsx");
+		SpreadSheetCellKey[] keys = new SpreadSheetCellKey[] { new SpreadSheetCellKey(fileId, 1, 0, 0), new SpreadSheetCellKey(fileId, 0, 9, 0),
+				new SpreadSheetCellKey(fileId, 0, 8, 1), new SpreadSheetCellKey(fileId, 0, 8, 0), new SpreadSheetCellKey(fileId, 10, 0, 0),
+				new SpreadSheetCellKey(fileId, 2, 100, 0) };
+		Arrays.sort(keys);
+		assertEquals(new SpreadSheetCellKey(fileId, 0, 8, 0), keys[0], "A9 is sorted first");
+		assertEquals(new SpreadSheetCellKey(fileId, 0, 8, 1), keys[1], "B9 is sorted after A9");
+		assertEquals(new SpreadSheetCellKey(fileId, 0, 9, 0), keys[2], "A10 is sorted after A9");
+		assertEquals(new SpreadSheetCellKey(fileId, 1, 0, 0), keys[3], "Second sheet is sorted after first sheet");
+		assertEquals(new SpreadSheetCellKey(fileId, 2, 100, 0), keys[4], "Third sheet is sorted after second sheet");
+		assertEquals(new SpreadSheetCellKey(fileId, 10, 0, 0), keys[5], "Sheet 10 is sorted after sheet 2");
+	}
+
+	@Test
+	public void rawComparatorMatchesCompareTo() throws IOException {
+		WritableComparator comparator = WritableComparator.get(SpreadSheetCellKey.class);
+		assertTrue(comparator instanceof SpreadSheetCellKey.Comparator, "Raw comparator is registered");
+		long[] fileIds = new long[] { Long.MIN_VALUE, -1L, 0L, 1L, Long.MAX_VALUE };
+		int[] values = new int[] { 0, 1, 9, 10, 255, 256, 65536, Integer.MAX_VALUE };
+		SpreadSheetCellKey key1 = new SpreadSheetCellKey();
+		SpreadSheetCellKey key2 = new SpreadSheetCellKey();
+		DataOutputBuffer out1 = new DataOutputBuffer();
+		DataOutputBuffer out2 = new DataOutputBuffer();
+		for (long fileId1 : fileIds) {
+			for (long fileId2 : fileIds) {
+				for (int value1 : values) {
+					for (int value2 : values) {
+						key1.set(fileId1, value1, value2, value1);
+						key2.set(fileId2, value2, value1, value1);
+						out1.reset();
+						key1.write(out1);
+						out2.reset();
+						key2.write(out2);
+						int expected = Integer.signum(key1.compareTo(key2));
+						assertEquals(expected, Integer.signum(comparator.compare(out1.getData(), 0, out1.getLength(), out2.getData(), 0, out2.getLength())),
+								"Raw comparison of " + key1 + " and " + key2);
+						assertEquals(expected, Integer.signum(comparator.compare(key1, key2)), "Comparison of " + key1 + " and " + key2);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void keyBuilder() {
+		SpreadSheetKeyBuilder builder = new SpreadSheetKeyBuilder("/data/test.xlsx", "test.xlsx", Arrays.asList("Sheet1", "Sheet2", "Sheet3"));
+		Text text = new Text();
+		builder.setText(text, "Sheet2", 1);
+		assertEquals("[test.xlsx]Sheet2!A1", text.toString(), "Text key of first row");
+		builder.setText(text, "Sheet2", 1048576);
+		assertEquals("[test.xlsx]Sheet2!A1048576", text.toString(), "Text key of last row");
+		builder.setText(text, "Sheetä", 10);
+		assertEquals("[test.xlsx]Sheetä!A10", text.toString(), "Text key of sheet with non ASCII name");
+		SpreadSheetCellKey key = new SpreadSheetCellKey();
+		builder.setCellKey(key, "Sheet3", 10);
+		assertEquals(new SpreadSheetCellKey(SpreadSheetCellKey.fileId("/data/test.xlsx"), 2, 9, 0), key, "Sheet is numbered in the order of the workbook");
+		builder.setCellKey(key, "Sheetä", 10);
+		assertEquals(3, key.getSheetIndex(), "Sheet not in workbook is numbered after the sheets of the workbook");
+	}
+}
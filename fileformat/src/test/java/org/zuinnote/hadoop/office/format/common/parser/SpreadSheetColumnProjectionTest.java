@@ -0,0 +1,71 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class SpreadSheetColumnProjectionTest {
+
+	@Test
+	public void createEmpty() {
+		assertNull(SpreadSheetColumnProjection.create(null), "No projection without columns");
+		assertNull(SpreadSheetColumnProjection.create(" "), "No projection for blank columns");
+	}
+
+	@Test
+	public void indicesAndNames() {
+		SpreadSheetColumnProjection projection = SpreadSheetColumnProjection.create("1, Status ,unknown");
+		assertFalse(projection.isResolved(), "Projection not resolved before the header is known");
+		assertTrue(projection.isSelected(0), "All columns selected before resolving");
+		Object[] row = new Object[] { "a", "b", "c", "d" };
+		assertSame(row, projection.apply(row), "Row returned");
+		assertTrue(row[0] != null && row[3] != null, "Row unchanged before resolving");
+		projection.resolve(new String[] { "id", "name", "other", "status" });
+		assertTrue(projection.isResolved(), "Projection resolved");
+		assertFalse(projection.isSelected(0), "Column 0 not selected");
+		assertTrue(projection.isSelected(1), "Column 1 selected by index");
+		assertFalse(projection.isSelected(2), "Column 2 not selected");
+		assertTrue(projection.isSelected(3), "Column 3 selected by name ignoring case");
+		assertFalse(projection.isSelected(4), "Column after last selected column not selected");
+		projection.apply(row);
+		assertNull(row[0], "Cell of column 0 removed");
+		assertTrue("b".equals(row[1]), "Cell of column 1 kept");
+		assertNull(row[2], "Cell of column 2 removed");
+		assertTrue("d".equals(row[3]), "Cell of column 3 kept");
+	}
+
+	@Test
+	public void indicesOnly() {
+		SpreadSheetColumnProjection projection = SpreadSheetColumnProjection.create("0,2");
+		assertTrue(projection.isResolved(), "Projection of indices resolved without header");
+		assertTrue(projection.isSelected(2), "Column 2 selected");
+		assertFalse(projection.isSelected(1), "Column 1 not selected");
+	}
+
+	@Test
+	public void namesWithoutHeader() {
+		SpreadSheetColumnProjection projection = SpreadSheetColumnProjection.create("2,status");
+		projection.resolve(null);
+		assertTrue(projection.isSelected(2), "Column selected by index");
+		assertFalse(projection.isSelected(0), "Names cannot be resolved without header");
+	}
+
+}
@@ -0,0 +1,103 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+
+public class SpreadSheetRowFilterTest {
+
+	@Test
+	public void parseAndToString() throws FormatNotUnderstoodException {
+		assertNull(SpreadSheetRowFilter.parse(" "), "No filter for blank filter");
+		SpreadSheetRowFilter filter = SpreadSheetRowFilter.parse("status = 'it''s open' and (2>=10 OR `due date` <> '2019') or 0==-1.5e1");
+		assertEquals("(`status` = 'it''s open' AND (2 >= 10 OR `due date` != '2019')) OR 0 = -15", filter.toString(), "Filter parsed");
+		assertEquals(filter.toString(), SpreadSheetRowFilter.parse(filter.toString()).toString(), "Textual representation can be parsed");
+		assertFalse(filter.isResolved(), "Filter with column names not resolved before header is known");
+		SpreadSheetRowFilter built = SpreadSheetRowFilter.or(
+				SpreadSheetRowFilter.compare("0", SpreadSheetRowFilter.Operator.LESS, new BigDecimal("5")),
+				SpreadSheetRowFilter.compare("name", SpreadSheetRowFilter.Operator.EQUAL, "x"));
+		assertEquals("0 < 5 OR `name` = 'x'", built.toString(), "Filter built");
+	}
+
+	@Test
+	public void parseInvalid() {
+		assertThrows(FormatNotUnderstoodException.class, () -> SpreadSheetRowFilter.parse("0 = "), "Missing literal");
+		assertThrows(FormatNotUnderstoodException.class, () -> SpreadSheetRowFilter.parse("0 ~ 1"), "Unknown operator");
+		assertThrows(FormatNotUnderstoodException.class, () -> SpreadSheetRowFilter.parse("(0 = 1"), "Missing parenthesis");
+		assertThrows(FormatNotUnderstoodException.class, () -> SpreadSheetRowFilter.parse("0 = 'open"), "Missing quote");
+		assertThrows(FormatNotUnderstoodException.class, () -> SpreadSheetRowFilter.parse("0 = 1 1"), "Unexpected token");
+	}
+
+	@Test
+	public void acceptRow() throws FormatNotUnderstoodException {
+		SpreadSheetRowFilter filter = SpreadSheetRowFilter.parse("status = 'OPEN' AND amount > 1.5");
+		filter.resolve(new String[] { "id", "amount", "status" });
+		assertTrue(filter.isResolved(), "Filter resolved");
+		assertArrayEquals(new int[] { 1, 2 }, filter.getKeyColumns(), "Key columns");
+		SpreadSheetRowMatcher matcher = filter.newRowMatcher(Locale.GERMAN);
+		assertTrue(matcher.accept(row("1", "2,5", "OPEN")), "Number according to locale");
+		assertTrue(matcher.accept(row("1", "10", "OPEN")), "Plain number");
+		assertTrue(matcher.accept(row("1", "1.000", "OPEN")), "Grouping separator of locale");
+		assertFalse(matcher.accept(row("1", "1", "OPEN")), "Number too small");
+		assertFalse(matcher.accept(row("1", "abc", "OPEN")), "Not a number");
+		assertFalse(matcher.accept(row("1", "10", "CLOSED")), "Other string");
+		assertFalse(matcher.accept(row("1", "10")), "Empty cell never matches");
+		assertFalse(matcher.accept(new Object[0]), "Empty row never matches");
+	}
+
+	@Test
+	public void earlyRejection() throws FormatNotUnderstoodException {
+		SpreadSheetRowFilter filter = SpreadSheetRowFilter.parse("1 = 'OPEN' AND 4 > 10");
+		assertTrue(filter.isResolved(), "Filter of indices resolved without header");
+		SpreadSheetRowMatcher matcher = filter.newRowMatcher(Locale.ENGLISH);
+		matcher.startRow();
+		assertTrue(matcher.cell(0, "a"), "Undecided before first key column");
+		assertFalse(matcher.cell(1, "CLOSED"), "Rejected by first key cell");
+		assertTrue(matcher.isRejected(), "Row rejected");
+		assertFalse(matcher.endRow(), "Rejected row does not match");
+		matcher.startRow();
+		assertTrue(matcher.cell(1, "OPEN"), "Undecided after first key cell");
+		assertFalse(matcher.cell(5, "100"), "Rejected, because second key column is empty");
+		matcher.startRow();
+		assertTrue(matcher.cell(1, "OPEN"), "Undecided after first key cell");
+		assertTrue(matcher.cell(4, "11"), "Matches after last key cell");
+		assertTrue(matcher.endRow(), "Row matches");
+		SpreadSheetRowMatcher orMatcher = SpreadSheetRowFilter.parse("0 = 'x' OR 2 = 'y'").newRowMatcher(Locale.ENGLISH);
+		orMatcher.startRow();
+		assertTrue(orMatcher.cell(0, "z"), "OR undecided after first key cell");
+		assertFalse(orMatcher.cell(3, "y"), "OR rejected after second key column is passed");
+	}
+
+	private static Object[] row(String... values) {
+		SpreadSheetCellDAO[] result = new SpreadSheetCellDAO[values.length];
+		for (int i = 0; i < values.length; i++) {
+			result[i] = new SpreadSheetCellDAO(values[i], "", "", "A1", "Sheet1");
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,61 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class SpreadSheetRowRangeTest {
+
+	@Test
+	public void parseAndToString() throws FormatNotUnderstoodException {
+		assertNull(SpreadSheetRowRange.parse(" "), "No range for blank range");
+		SpreadSheetRowRange range = SpreadSheetRowRange.parse(" 2 , 100 ");
+		assertEquals(1, range.getFirstRow(), "First row starts with 0");
+		assertEquals(100, range.getEndRow(), "End row is the first row after the range");
+		assertEquals("2,100", range.toString(), "Range parsed");
+		assertEquals("5,", SpreadSheetRowRange.parse("5").toString(), "Range up to the end of the sheet");
+		assertEquals("1,10", SpreadSheetRowRange.parse(",10").toString(), "Range from the beginning of the sheet");
+		assertEquals(Integer.MAX_VALUE, SpreadSheetRowRange.parse("5,").getEndRow(), "Range up to the end of the sheet");
+	}
+
+	@Test
+	public void parseInvalid() {
+		assertThrows(FormatNotUnderstoodException.class, () -> SpreadSheetRowRange.parse("0,10"), "Rows start with 1");
+		assertThrows(FormatNotUnderstoodException.class, () -> SpreadSheetRowRange.parse("10,2"), "Last row before first row");
+		assertThrows(FormatNotUnderstoodException.class, () -> SpreadSheetRowRange.parse("a,2"), "Not a number");
+		assertThrows(FormatNotUnderstoodException.class, () -> SpreadSheetRowRange.parse("1,2,3"), "Too many rows");
+	}
+
+	@Test
+	public void beforeAndAfter() throws FormatNotUnderstoodException {
+		SpreadSheetRowRange range = SpreadSheetRowRange.parse("5,6");
+		assertFalse(range.isBefore(0, 1), "Leading row is read");
+		assertTrue(range.isBefore(1, 1), "Row before the range");
+		assertFalse(range.isBefore(4, 1), "First row of the range");
+		assertFalse(range.isAfter(5, 1), "Last row of the range");
+		assertTrue(range.isAfter(6, 1), "Row after the range");
+		SpreadSheetRowRange leading = SpreadSheetRowRange.parse(",1");
+		assertFalse(leading.isAfter(1, 2), "Leading rows are read even after the range");
+		assertTrue(leading.isAfter(2, 2), "Row after the range and the leading rows");
+	}
+
+}
@@ -0,0 +1,189 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.jupiter.api.Test;
+import org.zuinnote.hadoop.office.format.common.HadoopOfficeReadConfiguration;
+import org.zuinnote.hadoop.office.format.common.OfficeReader;
+import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
+
+public class MSExcelLowFootprintParserTest {
+
+	private File getTestFile(String fileName) {
+		ClassLoader classLoader = getClass().getClassLoader();
+		return new File(classLoader.getResource(fileName).getFile());
+	}
+
+	private HadoopOfficeReadConfiguration getLowFootprintConfiguration(String fileName) {
+		HadoopOfficeReadConfiguration hocr = new HadoopOfficeReadConfiguration();
+		hocr.setFileName(fileName);
+		hocr.setMimeType("ms-excel");
+		hocr.setLocale(Locale.US);
+		hocr.setLowFootprint(true);
+		return hocr;
+	}
+
+	private List<String> getLiveThreads(String namePrefix) {
+		List<String> result = new ArrayList<>();
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if ((thread.isAlive()) && (thread.getName().startsWith(namePrefix))) {
+				result.add(thread.getName());
+			}
+		}
+		return result;
+	}
+
+	private void closeAfterFirstRow(String fileName, HadoopOfficeReadConfiguration hocr, String threadNamePrefix) throws IOException, FormatNotUnderstoodException {
+		File file = this.getTestFile(fileName);
+		FileSystem fs = FileSystem.getLocal(new Configuration());
+		FSDataInputStream in = fs.open(new Path(file.getAbsolutePath()));
+		OfficeReader reader = new OfficeReader(in, file.length(), hocr);
+		reader.parse();
+		assertNotNull(reader.getNext(), "First row read");
+		assertFalse(this.getLiveThreads(threadNamePrefix).isEmpty(), "Background threads are parsing the workbook");
+		reader.close();
+		assertEquals(new ArrayList<String>(), this.getLiveThreads(threadNamePrefix), "Background threads have ended when the reader is closed");
+	}
+
+	/**
+	 * Copies a workbook and makes the XML of its first sheet invalid after the second row
+	 */
+	private File createInvalidSheetWorkbook(String fileName) throws IOException {
+		File result = Files.createTempFile("hadoopofficeinvalidsheet", ".xlsx").toFile();
+		try (ZipFile zipFile = new ZipFile(this.getTestFile(fileName)); ZipOutputStream out = new ZipOutputStream(new FileOutputStream(result))) {
+			for (ZipEntry entry : Collections.list(zipFile.entries())) {
+				out.putNextEntry(new ZipEntry(entry.getName()));
+				byte[] content;
+				try (InputStream in = zipFile.getInputStream(entry)) {
+					content = IOUtils.toByteArray(in);
+				}
+				if ("xl/worksheets/sheet1.xml".equals(entry.getName())) {
+					String sheet = new String(content, StandardCharsets.UTF_8);
+					int secondRowEnd = sheet.indexOf("</row>", sheet.indexOf("</row>") + 1) + "</row>".length();
+					content = (sheet.substring(0, secondRowEnd) + "<row r=\"3\"><c r=\"A3\" t=\"n\"><v>1</x></c></row>").getBytes(StandardCharsets.UTF_8);
+				}
+				out.write(content);
+				out.closeEntry();
+			}
+		}
+		return result;
+	}
+
+	private void readInvalidSheet(HadoopOfficeReadConfiguration hocr) throws IOException, FormatNotUnderstoodException {
+		File file = this.createInvalidSheetWorkbook(hocr.getFileName());
+		try {
+			FileSystem fs = FileSystem.getLocal(new Configuration());
+			FSDataInputStream in = fs.open(new Path(file.getAbsolutePath()));
+			OfficeReader reader = new OfficeReader(in, file.length(), hocr);
+			try {
+				reader.parse();
+				assertThrows(IllegalStateException.class, () -> {
+					while (reader.getNext() != null) {
+						// read until the invalid row
+					}
+				}, "Invalid row is not taken as the end of the rows");
+			} finally {
+				reader.close();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void readInvalidSheetXSSFStreamingFails() throws IOException, FormatNotUnderstoodException {
+		HadoopOfficeReadConfiguration hocr = this.getLowFootprintConfiguration("excel2013testmultisheet.xlsx");
+		hocr.setLowFootprintParser(HadoopOfficeReadConfiguration.OPTION_LOWFOOTPRINT_PARSER_SAX);
+		hocr.setLowFootprintStreaming(true);
+		this.readInvalidSheet(hocr);
+	}
+
+	@Test
+	public void readInvalidSheetParallelStaxFails() throws IOException, FormatNotUnderstoodException {
+		HadoopOfficeReadConfiguration hocr = this.getLowFootprintConfiguration("excel2013testmultisheet.xlsx");
+		hocr.setLowFootprintStaxParallelThreads(2);
+		this.readInvalidSheet(hocr);
+	}
+
+	@Test
+	public void closeReaderReleasesRandomAccess() throws IOException, FormatNotUnderstoodException {
+		String fileName = "excel2013testmultisheet.xlsx";
+		File file = this.getTestFile(fileName);
+		FileSystem fs = FileSystem.getLocal(new Configuration());
+		FSDataInputStream in = fs.open(new Path(file.getAbsolutePath()));
+		OfficeReader reader = new OfficeReader(in, file.length(), this.getLowFootprintConfiguration(fileName));
+		reader.parse();
+		assertNotNull(reader.getNext(), "First row read");
+		MSExcelLowFootprintParser parser = (MSExcelLowFootprintParser) reader.getCurrentParser();
+		assertTrue(parser.isRandomAccessOpen(), "Document is read by random access");
+		reader.close();
+		assertFalse(parser.isRandomAccessOpen(), "Random access to the document is released when the reader is closed");
+	}
+
+	@Test
+	public void closeReaderStopsXSSFStreamingProducer() throws IOException, FormatNotUnderstoodException {
+		String fileName = "excel2013testmultisheet.xlsx";
+		HadoopOfficeReadConfiguration hocr = this.getLowFootprintConfiguration(fileName);
+		hocr.setLowFootprintParser(HadoopOfficeReadConfiguration.OPTION_LOWFOOTPRINT_PARSER_SAX);
+		hocr.setLowFootprintStreaming(true);
+		hocr.setLowFootprintStreamingQueueSize(1);
+		this.closeAfterFirstRow(fileName, hocr, "hadoopoffice-xssf-sax-streaming");
+	}
+
+	@Test
+	public void closeReaderStopsHSSFStreamingProducer() throws IOException, FormatNotUnderstoodException {
+		String fileName = "excel2003testmultisheet.xls";
+		HadoopOfficeReadConfiguration hocr = this.getLowFootprintConfiguration(fileName);
+		hocr.setLowFootprintStreaming(true);
+		hocr.setLowFootprintStreamingQueueSize(1);
+		this.closeAfterFirstRow(fileName, hocr, "hadoopoffice-hssf-streaming");
+	}
+
+	@Test
+	public void closeReaderStopsParallelStaxThreads() throws IOException, FormatNotUnderstoodException {
+		String fileName = "excel2013testmultisheet.xlsx";
+		HadoopOfficeReadConfiguration hocr = this.getLowFootprintConfiguration(fileName);
+		hocr.setLowFootprintStaxParallelThreads(2);
+		hocr.setLowFootprintStreamingQueueSize(1);
+		this.closeAfterFirstRow(fileName, hocr, "hadoopoffice-xssf-stax-parallel");
+	}
+
+}
@@ -0,0 +1,173 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.poifs.crypt.ChainingMode;
+import org.apache.poi.poifs.crypt.CipherAlgorithm;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.codec.BlockCodec;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.codec.BlockCodecFactory;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.codec.DeflateBlockCodec;
+
+public class EncryptedCachedDiskStringsTableTest {
+	private static final int NUMBER_OF_STRINGS = 3000;
+	private static File workbookFile;
+
+	@BeforeAll
+	public static void oneTimeSetUp() throws IOException {
+		// create a workbook with many different strings of different length
+		workbookFile = Files.createTempFile("hadoopofficetest", ".xlsx").toFile();
+		try (XSSFWorkbook wb = new XSSFWorkbook()) {
+			Sheet sheet = wb.createSheet("strings");
+			for (int i = 0; i < NUMBER_OF_STRINGS; i++) {
+				Row row = sheet.createRow(i);
+				StringBuilder sb = new StringBuilder("string ").append(i);
+				for (int j = 0; j < i % 50; j++) {
+					sb.append(" äöü€");
+				}
+				row.createCell(0).setCellValue(sb.toString());
+			}
+			try (FileOutputStream out = new FileOutputStream(workbookFile)) {
+				wb.write(out);
+			}
+		}
+	}
+
+	@AfterAll
+	public static void oneTimeTearDown() {
+		workbookFile.delete();
+	}
+
+	@Test
+	public void randomAccessUncompressedNoCache() throws IOException, InvalidFormatException {
+		compareWithSharedStringsTable(0, false, null, null);
+	}
+
+	@Test
+	public void randomAccessUncompressedSmallCache() throws IOException, InvalidFormatException {
+		compareWithSharedStringsTable(10, false, null, null);
+	}
+
+	@Test
+	public void randomAccessUncompressedByteBoundedCache() throws IOException, InvalidFormatException {
+		compareWithSharedStringsTable(10, 4096L, false, new DeflateBlockCodec(), null, null);
+	}
+
+	@Test
+	public void randomAccessCompressed() throws IOException, InvalidFormatException {
+		compareWithSharedStringsTable(10, true, null, null);
+	}
+
+	@Test
+	public void randomAccessCompressedLZ4NoCache() throws IOException, InvalidFormatException {
+		compareWithSharedStringsTable(0, true, BlockCodecFactory.createBlockCodec(BlockCodecFactory.CODEC_LZ4), null, null);
+	}
+
+	@Test
+	public void randomAccessEncrypted() throws IOException, InvalidFormatException {
+		compareWithSharedStringsTable(10, false, CipherAlgorithm.aes128, ChainingMode.cbc);
+	}
+
+	@Test
+	public void randomAccessEncryptedNoCache() throws IOException, InvalidFormatException {
+		compareWithSharedStringsTable(0, false, CipherAlgorithm.aes256, ChainingMode.cbc);
+	}
+
+	@Test
+	public void randomAccessEncrypted64BitBlockCipher() throws IOException, InvalidFormatException {
+		compareWithSharedStringsTable(0, false, CipherAlgorithm.des3, ChainingMode.cbc);
+	}
+
+	@Test
+	public void randomAccessEncryptedStreamCipher() throws IOException, InvalidFormatException {
+		compareWithSharedStringsTable(0, false, CipherAlgorithm.rc4, null);
+	}
+
+	@Test
+	public void randomAccessCompressedEncrypted() throws IOException, InvalidFormatException {
+		compareWithSharedStringsTable(10, true, CipherAlgorithm.aes256, ChainingMode.cbc);
+	}
+
+	@Test
+	public void closeReleasesCodec() throws IOException, InvalidFormatException {
+		DeflateBlockCodec codec = new DeflateBlockCodec();
+		compareWithSharedStringsTable(10, true, codec, null, null);
+		// the native resources of Deflater and Inflater have been released
+		assertThrows(NullPointerException.class, () -> codec.compress(new byte[16], 0, 16), "Codec cannot be used after the table has been closed");
+	}
+
+	@Test
+	public void createBlockCodecByClassName() {
+		assertEquals(DeflateBlockCodec.class, BlockCodecFactory.createBlockCodec(DeflateBlockCodec.class.getName()).getClass(), "Codec created by class name");
+		assertThrows(IllegalArgumentException.class, () -> BlockCodecFactory.createBlockCodec("org.zuinnote.hadoop.office.UnknownCodec"), "Unknown class");
+		assertThrows(IllegalArgumentException.class, () -> BlockCodecFactory.createBlockCodec(BlockCodec.class.getName()), "Interface cannot be instantiated");
+	}
+
+	private void compareWithSharedStringsTable(int cacheSize, boolean compress, CipherAlgorithm ca, ChainingMode cm)
+			throws IOException, InvalidFormatException {
+		compareWithSharedStringsTable(cacheSize, compress, new DeflateBlockCodec(), ca, cm);
+	}
+
+	private void compareWithSharedStringsTable(int cacheSize, boolean compress, BlockCodec codec, CipherAlgorithm ca,
+			ChainingMode cm) throws IOException, InvalidFormatException {
+		compareWithSharedStringsTable(cacheSize, 0L, compress, codec, ca, cm);
+	}
+
+	private void compareWithSharedStringsTable(int cacheSize, long cacheBytes, boolean compress, BlockCodec codec,
+			CipherAlgorithm ca, ChainingMode cm) throws IOException, InvalidFormatException {
+		try (OPCPackage pkg = OPCPackage.open(workbookFile, PackageAccess.READ)) {
+			PackagePart part = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType()).get(0);
+			SharedStringsTable expected = new SharedStringsTable(part);
+			try (EncryptedCachedDiskStringsTable sst = new EncryptedCachedDiskStringsTable(part, cacheSize, cacheBytes, compress, codec, ca, cm)) {
+				assertEquals(expected.getCount(), sst.getCount(), "Number of strings");
+				// sequential access
+				for (int i = 0; i < sst.getCount(); i++) {
+					assertEquals(expected.getItemAt(i).getString(), sst.getItemAt(i).getString(), "String " + i);
+				}
+				// random access
+				Random random = new Random(42);
+				for (int i = 0; i < 2000; i++) {
+					int idx = random.nextInt(sst.getCount());
+					assertEquals(expected.getItemAt(idx).getString(), sst.getItemAt(idx).getString(), "String " + idx);
+				}
+				// indexes of strings not in the table
+				assertThrows(IndexOutOfBoundsException.class, () -> sst.getItemAt(sst.getCount()), "Index after the last string");
+				assertThrows(IndexOutOfBoundsException.class, () -> sst.getItemAt(-1), "Negative index");
+			}
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.junit.jupiter.api.Test;
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+
+public class HSSFEventParserTest {
+
+	@Test
+	public void rawFormulaResultOfCachedResultTypes() {
+		FormulaRecord formRec = new FormulaRecord();
+		formRec.setValue(42.5);
+		SpreadSheetCellDAO cellDAO = new SpreadSheetCellDAO("42,5", "", "A1+1", "B1", "Sheet1");
+		HSSFEventParser.setRawFormulaResult(cellDAO, formRec, 0, null, false);
+		assertEquals(SpreadSheetCellDAO.RAW_TYPE_NUMERIC, cellDAO.getRawType(), "Numeric result");
+		assertEquals(42.5, cellDAO.getRawValue(), 0.0, "Numeric result value");
+		formRec.setCachedResultBoolean(true);
+		cellDAO = new SpreadSheetCellDAO("TRUE", "", "A1>1", "B1", "Sheet1");
+		HSSFEventParser.setRawFormulaResult(cellDAO, formRec, 0, null, false);
+		assertEquals(SpreadSheetCellDAO.RAW_TYPE_BOOLEAN, cellDAO.getRawType(), "Boolean result");
+		assertEquals(1.0, cellDAO.getRawValue(), 0.0, "Boolean result value");
+		formRec.setCachedResultErrorCode(FormulaError.DIV0.getCode());
+		cellDAO = new SpreadSheetCellDAO("#DIV/0!", "", "A1/0", "B1", "Sheet1");
+		HSSFEventParser.setRawFormulaResult(cellDAO, formRec, 0, null, false);
+		assertEquals(SpreadSheetCellDAO.RAW_TYPE_ERROR, cellDAO.getRawType(), "Error result");
+		assertEquals(FormulaError.DIV0.getCode(), cellDAO.getRawValue(), 0.0, "Error result value");
+		// strings follow in a StringRecord
+		formRec.setCachedResultTypeString();
+		cellDAO = new SpreadSheetCellDAO("text", "", "A1&\"\"", "B1", "Sheet1");
+		HSSFEventParser.setRawFormulaResult(cellDAO, formRec, 0, null, false);
+		assertFalse(cellDAO.hasRawValue(), "No raw value for string results");
+	}
+
+}
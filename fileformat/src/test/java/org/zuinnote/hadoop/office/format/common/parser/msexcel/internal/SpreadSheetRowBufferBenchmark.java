@@ -0,0 +1,85 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+
+/**
+ * Measures the cost per row of draining a SpreadSheetRowBuffer with N, 2N and 4N rows and compares it with draining an ArrayList with remove(0),
+ * as done before by the low footprint parser. The cost per row of the buffer should stay constant, while the one of the list grows with the
+ * number of rows. It is not a unit test, because timings depend on the machine, run it with:
+ *
+ * java -cp &lt;test classpath&gt; org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.SpreadSheetRowBufferBenchmark [rows] [iterations]
+ *
+ */
+public class SpreadSheetRowBufferBenchmark {
+
+	private SpreadSheetRowBufferBenchmark() {
+	}
+
+	public static void main(String[] args) {
+		int rows = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		for (int i = 0; i < iterations; i++) {
+			for (int factor = 1; factor <= 4; factor *= 2) {
+				int currentRows = rows * factor;
+				long bufferElapsed = drainRowBuffer(currentRows);
+				long listElapsed = drainList(currentRows);
+				System.out.println("Iteration " + (i + 1) + ": " + currentRows + " rows, SpreadSheetRowBuffer " + (bufferElapsed / currentRows)
+						+ " ns/row, ArrayList.remove(0) " + (listElapsed / currentRows) + " ns/row");
+			}
+		}
+	}
+
+	private static long drainRowBuffer(int rows) {
+		SpreadSheetRowBuffer buffer = new SpreadSheetRowBuffer();
+		for (int i = 0; i < rows; i++) {
+			buffer.add(new SpreadSheetCellDAO[1]);
+		}
+		long start = System.nanoTime();
+		int drainedRows = 0;
+		while (buffer.poll() != null) {
+			drainedRows++;
+		}
+		long elapsed = System.nanoTime() - start;
+		if (drainedRows != rows) {
+			throw new IllegalStateException("Drained " + drainedRows + " of " + rows + " rows");
+		}
+		return elapsed;
+	}
+
+	private static long drainList(int rows) {
+		List<SpreadSheetCellDAO[]> list = new ArrayList<>();
+		for (int i = 0; i < rows; i++) {
+			list.add(new SpreadSheetCellDAO[1]);
+		}
+		long start = System.nanoTime();
+		int drainedRows = 0;
+		while (!list.isEmpty()) {
+			list.remove(0);
+			drainedRows++;
+		}
+		long elapsed = System.nanoTime() - start;
+		if (drainedRows != rows) {
+			throw new IllegalStateException("Drained " + drainedRows + " of " + rows + " rows");
+		}
+		return elapsed;
+	}
+
+}
@@ -0,0 +1,103 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+
+public class SpreadSheetRowBufferTest {
+
+	@Test
+	public void addGetPollOrder() {
+		SpreadSheetRowBuffer buffer = new SpreadSheetRowBuffer();
+		assertTrue(buffer.isEmpty(), "New buffer is empty");
+		assertNull(buffer.poll(), "Poll on empty buffer returns null");
+		int rows = 5000; // spans several chunks
+		SpreadSheetCellDAO[][] expected = new SpreadSheetCellDAO[rows][];
+		for (int i = 0; i < rows; i++) {
+			expected[i] = new SpreadSheetCellDAO[i % 3];
+			buffer.add(expected[i]);
+		}
+		assertEquals(rows, buffer.size(), "All rows are in the buffer");
+		assertSame(expected[1500], buffer.get(1500), "Random access to row in later chunk");
+		for (int i = 0; i < 2000; i++) {
+			assertSame(expected[i], buffer.poll(), "Rows are polled in order");
+		}
+		assertEquals(rows - 2000, buffer.size(), "Size reflects polled rows");
+		assertSame(expected[2000], buffer.get(0), "Index is relative to first row not consumed");
+		assertSame(expected[4999], buffer.get(2999), "Last row accessible after polling");
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.get(3000), "Access after last row fails");
+		for (int i = 2000; i < rows; i++) {
+			assertSame(expected[i], buffer.poll(), "Rows are polled in order");
+		}
+		assertTrue(buffer.isEmpty(), "Buffer is empty after all rows are polled");
+		assertNull(buffer.poll(), "Poll on drained buffer returns null");
+		// buffer can be reused after it has been drained
+		SpreadSheetCellDAO[] row = new SpreadSheetCellDAO[1];
+		buffer.add(row);
+		assertEquals(1, buffer.size(), "Buffer is reused after draining");
+		assertSame(row, buffer.poll(), "Row added after draining is returned");
+	}
+
+	@Test
+	public void drainReleasesChunks() {
+		SpreadSheetRowBuffer buffer = new SpreadSheetRowBuffer();
+		SpreadSheetCellDAO[] row = new SpreadSheetCellDAO[0];
+		for (int i = 0; i < 5000; i++) {
+			buffer.add(row);
+		}
+		assertEquals(5, buffer.getChunkCount(), "Rows are stored in chunks of 1024 rows");
+		for (int i = 0; i < 1023; i++) {
+			buffer.poll();
+		}
+		assertEquals(5, buffer.getChunkCount(), "Chunk is kept while it has rows not consumed");
+		buffer.poll();
+		assertEquals(4, buffer.getChunkCount(), "Chunk is released when all of its rows have been consumed");
+		for (int i = 0; i < 2048; i++) {
+			buffer.poll();
+		}
+		assertEquals(2, buffer.getChunkCount(), "Consumed chunks are released");
+		while (buffer.poll() != null) {
+			// drain
+		}
+		assertEquals(0, buffer.getChunkCount(), "All chunks are released after draining");
+	}
+
+	@Test
+	public void drainManyRows() {
+		fillAndDrain(1000000);
+	}
+
+	private static void fillAndDrain(int rows) {
+		SpreadSheetRowBuffer buffer = new SpreadSheetRowBuffer();
+		SpreadSheetCellDAO[] row = new SpreadSheetCellDAO[0];
+		for (int i = 0; i < rows; i++) {
+			buffer.add(row);
+		}
+		int polled = 0;
+		while (buffer.poll() != null) {
+			polled++;
+		}
+		assertEquals(rows, polled, "All rows are drained");
+	}
+
+}
@@ -0,0 +1,103 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.Locale;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * Measures the throughput (rows per second) of XSSFPullParser on a generated sheet with numeric, shared string and formula cells. It is not a unit test,
+ * because timings depend on the machine, run it with:
+ *
+ * java -cp &lt;test classpath&gt; org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.XSSFPullParserBenchmark [rows] [iterations]
+ *
+ */
+public class XSSFPullParserBenchmark {
+	private static final int COLUMNS = 10;
+
+	private XSSFPullParserBenchmark() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		File workbookFile = Files.createTempFile("hadoopofficebenchmark", ".xlsx").toFile();
+		try {
+			createWorkbook(workbookFile, rows);
+			try (OPCPackage pkg = OPCPackage.open(workbookFile, PackageAccess.READ)) {
+				XSSFReader reader = new XSSFReader(pkg);
+				DataFormatter dataFormatter = new DataFormatter(Locale.US);
+				for (int i = 0; i < iterations; i++) {
+					Iterator<InputStream> sheets = reader.getSheetsData();
+					long start = System.nanoTime();
+					int parsedRows = 0;
+					try (InputStream sheetInputStream = sheets.next()) {
+						XSSFPullParser parser = new XSSFPullParser("benchmark", sheetInputStream, reader.getSharedStringsTable(), reader.getStylesTable(), dataFormatter,
+								false);
+						while (parser.hasNext()) {
+							parser.getNext();
+							parsedRows++;
+						}
+						parser.close();
+					}
+					long elapsed = System.nanoTime() - start;
+					System.out.println("Iteration " + (i + 1) + ": " + parsedRows + " rows in " + (elapsed / 1000000L) + " ms ("
+							+ (long) (parsedRows / (elapsed / 1000000000.0)) + " rows/s)");
+				}
+			}
+		} finally {
+			workbookFile.delete();
+		}
+	}
+
+	private static void createWorkbook(File workbookFile, int rows) throws Exception {
+		SXSSFWorkbook wb = new SXSSFWorkbook();
+		try {
+			Sheet sheet = wb.createSheet("benchmark");
+			for (int i = 0; i < rows; i++) {
+				Row row = sheet.createRow(i);
+				for (int j = 0; j < COLUMNS; j++) {
+					if (j % 3 == 0) {
+						row.createCell(j).setCellValue(i * j);
+					} else if (j % 3 == 1) {
+						row.createCell(j).setCellValue("value" + (i % 100));
+					} else {
+						row.createCell(j).setCellFormula("A" + (i + 1) + "+1");
+					}
+				}
+			}
+			try (FileOutputStream out = new FileOutputStream(workbookFile)) {
+				wb.write(out);
+			}
+		} finally {
+			wb.dispose();
+			wb.close();
+		}
+	}
+
+}
@@ -0,0 +1,213 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.parser.msexcel.internal.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class FrequencyStringCacheTest {
+
+	@Test
+	public void getPut() {
+		FrequencyStringCache cache = new FrequencyStringCache(100);
+		assertNull(cache.get(1), "Empty cache");
+		for (int i = 0; i < 100; i++) {
+			cache.put(i, "value" + i);
+		}
+		assertEquals(100, cache.size(), "Cache is full");
+		for (int i = 0; i < 100; i++) {
+			assertEquals("value" + i, cache.get(i), "Value in cache");
+		}
+		cache.put(5, "updated");
+		assertEquals("updated", cache.get(5), "Updated value");
+		assertEquals(101, cache.getHits(), "Hits");
+		assertEquals(1, cache.getMisses(), "Misses");
+		assertEquals(0, cache.getEvictions(), "Evictions");
+	}
+
+	@Test
+	public void evictionKeepsSizeAndConsistency() {
+		FrequencyStringCache cache = new FrequencyStringCache(64);
+		Random random = new Random(7);
+		for (int i = 0; i < 100000; i++) {
+			int key = random.nextInt(1000);
+			String value = cache.get(key);
+			if (value == null) {
+				cache.put(key, "value" + key);
+			} else {
+				assertEquals("value" + key, value, "Cache returns value of key");
+			}
+		}
+		assertEquals(64, cache.size(), "Size is bounded");
+		assertTrue(cache.getEvictions() > 0, "Entries have been evicted");
+		assertEquals(100000, cache.getHits() + cache.getMisses(), "Every access is a hit or miss");
+	}
+
+	@Test
+	public void byteBoundedCache() {
+		long maxWeight = 400000L;
+		FrequencyStringCache cache = new FrequencyStringCache(Integer.MAX_VALUE, maxWeight);
+		Random random = new Random(11);
+		String[] values = new String[5000];
+		for (int i = 0; i < values.length; i++) {
+			// mix of short and long strings
+			char[] chars = new char[(i % 10 == 0) ? 500 + random.nextInt(500) : 1 + random.nextInt(10)];
+			Arrays.fill(chars, (char) ('a' + (i % 26)));
+			values[i] = new String(chars);
+		}
+		for (int i = 0; i < 200000; i++) {
+			int key = (int) Math.abs(random.nextGaussian() * 1000) % values.length;
+			String value = cache.get(key);
+			if (value == null) {
+				cache.put(key, values[key]);
+			} else {
+				assertEquals(values[key], value, "Cache returns value of key");
+			}
+			assertTrue(cache.getWeight() <= maxWeight, "Weight " + cache.getWeight() + " is bounded");
+		}
+		assertTrue(cache.size() > 1024, "Cache has grown beyond initial slots: " + cache.size());
+		assertTrue(cache.getEvictions() > 0, "Entries have been evicted");
+		// the weight is the sum of the weights of the cached strings
+		long expectedWeight = 0;
+		int cached = 0;
+		for (int i = 0; i < values.length; i++) {
+			long hits = cache.getHits();
+			if (cache.get(i) != null) {
+				expectedWeight += FrequencyStringCache.estimateWeight(values[i]);
+				cached++;
+			}
+			assertTrue(cache.getHits() >= hits, "Hits are counted");
+		}
+		assertEquals(cache.size(), cached, "Size is number of cached strings");
+		assertEquals(expectedWeight, cache.getWeight(), "Weight is sum of cached strings");
+	}
+
+	@Test
+	public void byteBoundedCacheRejectsTooLargeString() {
+		FrequencyStringCache cache = new FrequencyStringCache(Integer.MAX_VALUE, 100L);
+		char[] chars = new char[1000];
+		cache.put(1, new String(chars));
+		assertNull(cache.get(1), "String larger than the cache is not cached");
+		cache.put(2, "small");
+		assertEquals("small", cache.get(2), "Small string is cached");
+		assertEquals(FrequencyStringCache.estimateWeight("small"), cache.getWeight(), "Weight of small string");
+	}
+
+	@Test
+	public void byteBoundedCacheUpdatesInPlace() {
+		String small = "a";
+		String larger = "abcdefghij";
+		FrequencyStringCache cache = new FrequencyStringCache(Integer.MAX_VALUE, 2L * FrequencyStringCache.estimateWeight(small));
+		cache.put(1, small);
+		cache.put(2, small);
+		// key 2 is requested more often than key 1
+		for (int i = 0; i < 5; i++) {
+			assertEquals(small, cache.get(2), "Value of key 2");
+		}
+		cache.put(1, larger);
+		assertEquals(larger, cache.get(1), "Existing key is updated even if other keys are requested more often");
+		assertNull(cache.get(2), "Other key is evicted to make room for the larger value");
+		assertEquals(FrequencyStringCache.estimateWeight(larger), cache.getWeight(), "Weight of updated value");
+		assertEquals(1, cache.getEvictions(), "Evictions");
+	}
+
+	@Test
+	public void byteBoundedCacheEvictsOnlyIfCandidateWins() {
+		String small = "a";
+		char[] chars = new char[30];
+		Arrays.fill(chars, 'b');
+		String large = new String(chars);
+		int smallWeight = FrequencyStringCache.estimateWeight(small);
+		// the large string needs the room of two small strings
+		assertTrue((FrequencyStringCache.estimateWeight(large) > smallWeight) && (FrequencyStringCache.estimateWeight(large) <= 2 * smallWeight), "Weight of large string");
+		FrequencyStringCache cache = new FrequencyStringCache(Integer.MAX_VALUE, 3L * smallWeight);
+		this.request(cache, 1, 1);
+		cache.put(1, small);
+		this.request(cache, 2, 5);
+		cache.put(2, small);
+		this.request(cache, 3, 5);
+		cache.put(3, small);
+		// more often requested than key 1, but not than key 2
+		this.request(cache, 4, 3);
+		cache.put(4, large);
+		assertEquals(3, cache.size(), "Large string is not admitted");
+		assertEquals(0, cache.getEvictions(), "No entry is evicted if the candidate is rejected");
+		// more often requested than all keys
+		this.request(cache, 4, 3);
+		cache.put(4, large);
+		assertEquals(2, cache.size(), "Large string replaces two small strings");
+		assertEquals(2, cache.getEvictions(), "Evictions");
+		assertEquals(large, cache.get(4), "Large string is cached");
+	}
+
+	private void request(FrequencyStringCache cache, int key, int times) {
+		for (int i = 0; i < times; i++) {
+			assertNull(cache.get(key), "Key " + key + " is not cached yet");
+		}
+	}
+
+	@Test
+	public void unboundedCache() {
+		UnboundedStringCache cache = new UnboundedStringCache();
+		for (int i = 0; i < 5000; i++) {
+			cache.put(i, "value" + i);
+		}
+		assertEquals(5000, cache.size(), "All entries are kept");
+		assertEquals("value4999", cache.get(4999), "Value in cache");
+		assertNull(cache.get(5000), "Missing value");
+	}
+
+	/**
+	 * Compares the hit ratio with the previous LRU cache on a trace typical for shared string tables: a few frequently used strings (e.g. status values,
+	 * country codes) that are accessed in every row, mixed with a high-cardinality column whose strings are accessed only once.
+	 */
+	@Test
+	public void scanResistantComparedToLRU() {
+		int cacheSize = 100;
+		int rows = 200000;
+		FrequencyStringCache frequencyCache = new FrequencyStringCache(cacheSize);
+		Map<Integer, String> lruCache = new LRUCache<>(cacheSize);
+		long lruHits = 0;
+		Random random = new Random(42);
+		int uniqueKey = 1000;
+		for (int row = 0; row < rows; row++) {
+			// hot low-cardinality columns: 80 values with skewed access
+			int[] keys = new int[] { (int) Math.abs(random.nextGaussian() * 20) % 80, 80 + random.nextInt(40), uniqueKey++, uniqueKey++ };
+			for (int key : keys) {
+				if (frequencyCache.get(key) == null) {
+					frequencyCache.put(key, "v");
+				}
+				if (lruCache.get(key) == null) {
+					lruCache.put(key, "v");
+				} else {
+					lruHits++;
+				}
+			}
+		}
+		double frequencyHitRatio = frequencyCache.getHits() / (double) (rows * 4);
+		double lruHitRatio = lruHits / (double) (rows * 4);
+		assertTrue(frequencyHitRatio > lruHitRatio + 0.1,
+				"Hit ratio frequency cache " + frequencyHitRatio + " is significantly higher than LRU " + lruHitRatio);
+	}
+
+}
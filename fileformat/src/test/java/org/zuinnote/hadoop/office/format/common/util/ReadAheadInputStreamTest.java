@@ -0,0 +1,67 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ReadAheadInputStreamTest {
+
+	@Test
+	public void readsAllBytesInOrder() throws IOException {
+		byte[] data = new byte[5 * ReadAheadInputStream.BUFFER_SIZE + 123];
+		new Random(42).nextBytes(data);
+		PipelineStageStatistics statistics = new PipelineStageStatistics("decompress");
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		try (InputStream in = new ReadAheadInputStream(new ByteArrayInputStream(data), 2 * ReadAheadInputStream.BUFFER_SIZE, statistics)) {
+			assertEquals(data[0] & 0xff, in.read(), "Single byte is read");
+			result.write(data[0]);
+			byte[] buffer = new byte[1000];
+			int read;
+			while ((read = in.read(buffer, 0, buffer.length)) != -1) {
+				result.write(buffer, 0, read);
+			}
+			assertEquals(-1, in.read(), "End of stream remains");
+		}
+		assertArrayEquals(data, result.toByteArray(), "All bytes are read in order");
+		assertEquals(6, statistics.getItems(), "Stream is read in buffers");
+	}
+
+	@Test
+	public void failureOfUnderlyingStreamIsRethrown() throws IOException {
+		InputStream failing = new InputStream() {
+			@Override
+			public int read() throws IOException {
+				throw new IOException("corrupt");
+			}
+		};
+		try (InputStream in = new ReadAheadInputStream(failing, ReadAheadInputStream.BUFFER_SIZE, new PipelineStageStatistics("decompress"))) {
+			IOException e = assertThrows(IOException.class, () -> in.read(), "Failure is rethrown to the reader");
+			assertTrue(e.getCause().getMessage().contains("corrupt"), "Cause is the failure of the underlying stream");
+		}
+	}
+
+}
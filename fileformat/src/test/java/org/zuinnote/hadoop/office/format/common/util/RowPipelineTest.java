@@ -0,0 +1,118 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.zuinnote.hadoop.office.format.common.parser.OfficeReaderParserInterface;
+
+public class RowPipelineTest {
+
+	@Test
+	public void closeWaitsForRowBeingParsed() throws InterruptedException {
+		SlowParser parser = new SlowParser();
+		RowPipeline pipeline = new RowPipeline(parser, 1, new PipelineStageStatistics("parse"), new PipelineStageStatistics("consume"));
+		assertNotNull(pipeline.next(), "First row fetched");
+		assertTrue(parser.secondRowStarted.await(10, TimeUnit.SECONDS), "Background thread parses the next rows");
+		pipeline.close();
+		assertFalse(parser.parsing, "Background thread does not use the parser any longer when the pipeline is closed");
+	}
+
+	/**
+	 * Parser that needs more time for the following rows than a close would wait for with a timeout and ignores interrupts while parsing them
+	 */
+	private static class SlowParser implements OfficeReaderParserInterface {
+		private final CountDownLatch secondRowStarted = new CountDownLatch(2);
+		private volatile boolean parsing;
+
+		@Override
+		public Object[] getNext() {
+			this.parsing = true;
+			this.secondRowStarted.countDown();
+			long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.secondRowStarted.getCount() > 0 ? 0 : 1500);
+			while (System.nanoTime() < end) {
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+					// parsing of the row is not interrupted
+				}
+			}
+			this.parsing = false;
+			return new Object[] { "cell" };
+		}
+
+		@Override
+		public void parse(InputStream inputStream) {
+		}
+
+		@Override
+		public long getCurrentRow() {
+			return 0;
+		}
+
+		@Override
+		public void setCurrentRow(long row) {
+		}
+
+		@Override
+		public long getCurrentSheet() {
+			return 0;
+		}
+
+		@Override
+		public void setCurrentSheet(long sheet) {
+		}
+
+		@Override
+		public String getCurrentSheetName() {
+			return "Sheet1";
+		}
+
+		@Override
+		public boolean addLinkedWorkbook(String name, InputStream inputStream, String password) {
+			return false;
+		}
+
+		@Override
+		public List<String> getLinkedWorkbooks() {
+			return new ArrayList<>();
+		}
+
+		@Override
+		public boolean getFiltered() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public String[] getHeader() {
+			return new String[0];
+		}
+	}
+
+}
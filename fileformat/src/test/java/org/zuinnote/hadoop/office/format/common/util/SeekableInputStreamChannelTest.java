@@ -0,0 +1,125 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.jupiter.api.Test;
+import org.zuinnote.hadoop.office.format.common.HadoopOfficeReadConfiguration;
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.MSExcelLowFootprintParser;
+
+public class SeekableInputStreamChannelTest {
+	private static final String TEST_FILE = "excel2013testmultisheet.xlsx";
+
+	private File getTestFile() {
+		ClassLoader classLoader = getClass().getClassLoader();
+		return new File(classLoader.getResource(TEST_FILE).getFile());
+	}
+
+	@Test
+	public void randomAccessReadsSameBytesAsFile() throws IOException {
+		File file = this.getTestFile();
+		byte[] expected = Files.readAllBytes(file.toPath());
+		FileSystem fs = FileSystem.getLocal(new Configuration());
+		try (FSDataInputStream in = fs.open(new Path(file.getAbsolutePath()))) {
+			in.seek(10);
+			SeekableInputStreamChannel channel = new SeekableInputStreamChannel(in, expected.length - 10);
+			assertEquals(expected.length - 10, channel.size(), "Size of channel");
+			Random random = new Random(42);
+			for (int i = 0; i < 100; i++) {
+				int position = random.nextInt(expected.length - 10);
+				ByteBuffer buffer = ByteBuffer.allocate(Math.min(100, expected.length - 10 - position));
+				channel.position(position);
+				while (buffer.hasRemaining()) {
+					assertTrue(channel.read(buffer) > 0, "Bytes read");
+				}
+				assertArrayEquals(Arrays.copyOfRange(expected, 10 + position, 10 + position + buffer.capacity()), buffer.array(),
+						"Bytes at position " + position);
+			}
+			channel.position(expected.length - 10);
+			assertEquals(-1, channel.read(ByteBuffer.allocate(1)), "End of channel");
+			channel.restoreStreamPosition();
+			assertEquals(10, in.getPos(), "Stream position restored");
+			channel.close();
+			assertFalse(channel.isOpen(), "Channel closed");
+		}
+	}
+
+	@Test
+	public void nonSeekableStreamRejected() {
+		InputStream in = new ByteArrayInputStream(new byte[10]);
+		assertFalse(SeekableInputStreamChannel.isSeekable(in), "ByteArrayInputStream is not seekable");
+		assertThrows(IllegalArgumentException.class, () -> new SeekableInputStreamChannel(in, 10), "Non seekable stream rejected");
+	}
+
+	@Test
+	public void lowFootprintParserRandomAccessSameAsSequential() throws IOException, FormatNotUnderstoodException {
+		File file = this.getTestFile();
+		HadoopOfficeReadConfiguration hocr = new HadoopOfficeReadConfiguration();
+		hocr.setLowFootprint(true);
+		hocr.setLocale(Locale.US);
+		MSExcelLowFootprintParser sequentialParser = new MSExcelLowFootprintParser(hocr);
+		sequentialParser.parse(new FileInputStream(file));
+		FileSystem fs = FileSystem.getLocal(new Configuration());
+		try (FSDataInputStream in = fs.open(new Path(file.getAbsolutePath()))) {
+			MSExcelLowFootprintParser randomAccessParser = new MSExcelLowFootprintParser(hocr);
+			randomAccessParser.parse(in, file.length());
+			int rows = 0;
+			Object[] expectedRow;
+			while ((expectedRow = sequentialParser.getNext()) != null) {
+				Object[] row = randomAccessParser.getNext();
+				assertNotNull(row, "Row " + rows + " read by random access");
+				assertEquals(expectedRow.length, row.length, "Number of cells in row " + rows);
+				for (int i = 0; i < row.length; i++) {
+					if (expectedRow[i] == null) {
+						assertEquals(null, row[i], "Empty cell " + i + " in row " + rows);
+					} else {
+						assertEquals(((SpreadSheetCellDAO) expectedRow[i]).getFormattedValue(), ((SpreadSheetCellDAO) row[i]).getFormattedValue(),
+								"Cell " + i + " in row " + rows);
+					}
+				}
+				rows++;
+			}
+			assertEquals(null, randomAccessParser.getNext(), "Same number of rows");
+			assertTrue(rows > 0, "Rows have been read");
+			randomAccessParser.close();
+		}
+		sequentialParser.close();
+	}
+
+}
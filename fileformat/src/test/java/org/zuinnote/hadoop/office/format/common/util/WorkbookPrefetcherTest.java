@@ -0,0 +1,115 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class WorkbookPrefetcherTest {
+
+	@Test
+	public void workbooksReturnedInOrderWithinBudget() throws IOException, InterruptedException {
+		long[] lengths = new long[] { 10, 20, 30, 100, 10, 10 };
+		// index of the workbook requested last, it does not count against the budget any longer
+		AtomicInteger requested = new AtomicInteger(-1);
+		Set<Integer> opened = Collections.synchronizedSet(new HashSet<>());
+		AtomicLong maxOpenedNotReturned = new AtomicLong();
+		List<String> threads = Collections.synchronizedList(new ArrayList<>());
+		WorkbookPrefetcher<Integer> prefetcher = new WorkbookPrefetcher<>(lengths, 50, index -> {
+			threads.add(Thread.currentThread().getName());
+			opened.add(index);
+			long openedNotReturned = 0;
+			synchronized (opened) {
+				for (Integer openedIndex : opened) {
+					if (openedIndex > requested.get()) {
+						openedNotReturned += lengths[openedIndex];
+					}
+				}
+			}
+			maxOpenedNotReturned.accumulateAndGet(openedNotReturned, Math::max);
+			return index;
+		}, reader -> {
+		});
+		for (int i = 0; i < lengths.length; i++) {
+			requested.set(i);
+			Integer reader = prefetcher.next();
+			assertEquals(i, reader.intValue(), "Workbooks are returned in order");
+		}
+		assertNull(prefetcher.next(), "No further workbooks");
+		prefetcher.close();
+		assertTrue(maxOpenedNotReturned.get() <= 50, "Budget respected: " + maxOpenedNotReturned.get());
+		assertTrue(threads.contains("hadoopoffice-prefetch"), "Workbooks opened in background");
+		assertTrue(threads.contains(Thread.currentThread().getName()), "Workbook larger than budget opened when needed");
+	}
+
+	@Test
+	public void noPrefetchingWithoutBudget() throws IOException, InterruptedException {
+		List<String> threads = new ArrayList<>();
+		WorkbookPrefetcher<Integer> prefetcher = new WorkbookPrefetcher<>(new long[] { 1, 1, 1 }, 0, index -> {
+			threads.add(Thread.currentThread().getName());
+			return index;
+		}, reader -> {
+		});
+		while (prefetcher.next() != null) {
+			// read all
+		}
+		prefetcher.close();
+		assertEquals(3, threads.size(), "All workbooks opened");
+		for (String thread : threads) {
+			assertEquals(Thread.currentThread().getName(), thread, "Workbook opened by caller");
+		}
+	}
+
+	@Test
+	public void errorOfBackgroundThreadRethrown() throws IOException, InterruptedException {
+		WorkbookPrefetcher<Integer> prefetcher = new WorkbookPrefetcher<>(new long[] { 1, 1 }, 10, index -> {
+			if (index == 1) {
+				throw new IOException("Cannot read workbook");
+			}
+			return index;
+		}, reader -> {
+		});
+		assertEquals(0, prefetcher.next().intValue(), "First workbook");
+		IOException e = assertThrows(IOException.class, () -> prefetcher.next(), "Error of background thread");
+		assertEquals("Cannot read workbook", e.getMessage(), "Original error rethrown");
+		prefetcher.close();
+	}
+
+	@Test
+	public void unusedWorkbooksClosed() throws IOException, InterruptedException {
+		List<Integer> closed = Collections.synchronizedList(new ArrayList<>());
+		WorkbookPrefetcher<Integer> prefetcher = new WorkbookPrefetcher<>(new long[] { 1, 1, 1 }, 10, index -> index, closed::add);
+		assertEquals(0, prefetcher.next().intValue(), "First workbook");
+		prefetcher.close();
+		// the following workbooks are either closed or have not been opened
+		assertTrue(closed.size() <= 2, "Only workbooks opened in advance are closed");
+		assertTrue(!closed.contains(0), "Returned workbook is not closed");
+	}
+
+}
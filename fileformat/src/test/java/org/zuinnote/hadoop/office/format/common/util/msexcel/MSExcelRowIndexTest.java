@@ -0,0 +1,185 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.util.msexcel;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.zuinnote.hadoop.office.format.common.HadoopOfficeReadConfiguration;
+import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
+import org.zuinnote.hadoop.office.format.common.parser.msexcel.MSExcelLowFootprintParser;
+
+public class MSExcelRowIndexTest {
+	private static final int ROWS = 1000;
+	private static java.nio.file.Path tmpPath;
+	private static File testFile;
+
+	@BeforeAll
+	public static void createTestFile() throws IOException {
+		tmpPath = Files.createTempDirectory("hoffice-rowindex");
+		testFile = new File(tmpPath.toFile(), "rowindex.xlsx");
+		writeWorkbook(testFile, ROWS);
+	}
+
+	@AfterAll
+	public static void deleteTestFiles() throws IOException {
+		for (File file : tmpPath.toFile().listFiles()) {
+			Files.delete(file.toPath());
+		}
+		Files.delete(tmpPath);
+	}
+
+	/**
+	 * Writes a workbook with a small first sheet and a second sheet "data" with a header and the given number of rows, some of them missing (empty)
+	 */
+	private static void writeWorkbook(File file, int rows) throws IOException {
+		try (XSSFWorkbook wb = new XSSFWorkbook(); FileOutputStream out = new FileOutputStream(file)) {
+			XSSFSheet first = wb.createSheet("first");
+			first.createRow(0).createCell(0).setCellValue("only row");
+			XSSFSheet data = wb.createSheet("data");
+			Row header = data.createRow(0);
+			header.createCell(0).setCellValue("id");
+			header.createCell(1).setCellValue("text");
+			for (int i = 1; i <= rows; i++) {
+				if ((i % 97) == 0) {
+					continue;
+				}
+				Row row = data.createRow(i);
+				row.createCell(0).setCellValue(i);
+				row.createCell(1).setCellValue("row " + (i % 10));
+			}
+			wb.write(out);
+		}
+	}
+
+	private static HadoopOfficeReadConfiguration createConfiguration() {
+		HadoopOfficeReadConfiguration hocr = new HadoopOfficeReadConfiguration();
+		hocr.setLowFootprint(true);
+		hocr.setLowFootprintParser(HadoopOfficeReadConfiguration.OPTION_LOWFOOTPRINT_PARSER_STAX);
+		hocr.setLocale(Locale.US);
+		hocr.setReadHeader(true);
+		return hocr;
+	}
+
+	private static List<String> readRows(HadoopOfficeReadConfiguration hocr) throws IOException, FormatNotUnderstoodException {
+		List<String> result = new ArrayList<>();
+		MSExcelLowFootprintParser parser = new MSExcelLowFootprintParser(hocr, new String[] { "data" });
+		try (InputStream in = new FileInputStream(testFile)) {
+			parser.parse(in);
+			assertArrayEquals(new String[] { "id", "text" }, parser.getHeader(), "Header is read");
+			Object[] row;
+			while ((row = parser.getNext()) != null) {
+				StringBuilder rowString = new StringBuilder();
+				for (Object cell : row) {
+					rowString.append(cell == null ? "" : ((SpreadSheetCellDAO) cell).getFormattedValue()).append(';');
+				}
+				result.add(rowString.toString());
+			}
+		} finally {
+			parser.close();
+		}
+		return result;
+	}
+
+	@Test
+	public void createWriteRead() throws IOException, FormatNotUnderstoodException {
+		MSExcelRowIndex index;
+		try (InputStream in = new FileInputStream(testFile)) {
+			index = MSExcelRowIndex.create(in, testFile.length(), 100);
+		}
+		assertEquals(testFile.length(), index.getFileLength(), "Length of file");
+		assertEquals(2, index.getSheets().size(), "All sheets are indexed");
+		assertEquals(1, index.getSheet("first").getCheckpointCount(), "Small sheet has one checkpoint");
+		MSExcelRowIndex.Sheet data = index.getSheet("data");
+		// header and all rows except the missing ones
+		int rowElements = 1 + ROWS - ROWS / 97;
+		assertEquals((rowElements + 99) / 100, data.getCheckpointCount(), "One checkpoint per 100 rows");
+		assertEquals(1, data.getCheckpointFirstRow(0), "First checkpoint at the beginning of the sheet");
+		// rows 1 to 101 without the missing row 98
+		assertEquals(102, data.getCheckpointFirstRow(1), "Second checkpoint after 100 rows");
+		assertNull(index.getSheet("unknown"), "Unknown sheet");
+		DataOutputBuffer out = new DataOutputBuffer();
+		index.write(out);
+		DataInputBuffer in = new DataInputBuffer();
+		in.reset(out.getData(), out.getLength());
+		MSExcelRowIndex readIndex = MSExcelRowIndex.read(in);
+		assertEquals(index.getRowsPerCheckpoint(), readIndex.getRowsPerCheckpoint(), "Rows per checkpoint read");
+		assertEquals(data.getCheckpointCount(), readIndex.getSheet("data").getCheckpointCount(), "Checkpoints read");
+		assertEquals(data.getCheckpointFirstRow(5), readIndex.getSheet("data").getCheckpointFirstRow(5), "Checkpoint read");
+		assertThrows(IllegalArgumentException.class, () -> MSExcelRowIndex.create(new FileInputStream(testFile), testFile.length(), 10),
+				"Too few rows per checkpoint");
+	}
+
+	@Test
+	public void rangesContainAllRows() throws IOException, FormatNotUnderstoodException {
+		List<String> expected = readRows(createConfiguration());
+		assertEquals(ROWS, expected.size(), "All rows including missing ones read");
+		MSExcelRowIndex.Sheet data;
+		try (InputStream in = new FileInputStream(testFile)) {
+			data = MSExcelRowIndex.create(in, testFile.length(), 100).getSheet("data");
+		}
+		List<String> rows = new ArrayList<>();
+		for (int i = 0; i < data.getCheckpointCount(); i += 3) {
+			HadoopOfficeReadConfiguration hocr = createConfiguration();
+			hocr.setRowRange(new MSExcelRowIndex.RowRange(data, i, Math.min(data.getCheckpointCount(), i + 3)));
+			List<String> rangeRows = readRows(hocr);
+			assertTrue(rangeRows.size() > 0, "Range starting at checkpoint " + i + " contains rows");
+			rows.addAll(rangeRows);
+		}
+		assertEquals(expected, rows, "Ranges contain the same rows as the sheet");
+	}
+
+	@Test
+	public void outdatedIndexIgnored() throws IOException, FormatNotUnderstoodException {
+		Configuration conf = new Configuration();
+		File file = new File(tmpPath.toFile(), "outdated.xlsx");
+		writeWorkbook(file, 100);
+		Path path = new Path(file.getAbsolutePath());
+		assertNull(MSExcelRowIndex.readIndex(conf, path), "No index");
+		MSExcelRowIndex.writeIndex(conf, path, 16);
+		assertTrue(FileSystem.getLocal(conf).exists(MSExcelRowIndex.getIndexPath(path)), "Index written next to file");
+		assertNotNull(MSExcelRowIndex.readIndex(conf, path), "Index read");
+		writeWorkbook(file, 200);
+		assertNull(MSExcelRowIndex.readIndex(conf, path), "Index of changed file ignored");
+	}
+
+}
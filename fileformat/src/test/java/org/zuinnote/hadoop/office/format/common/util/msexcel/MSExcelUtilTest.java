@@ -0,0 +1,62 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.office.format.common.util.msexcel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.apache.poi.ss.util.CellAddress;
+import org.junit.jupiter.api.Test;
+
+public class MSExcelUtilTest {
+
+	@Test
+	public void decodeA1Address() {
+		assertEquals(0, MSExcelUtil.getColumnNumberA1Format("A1"), "Column of A1");
+		assertEquals(0, MSExcelUtil.getRowNumberA1Format("A1"), "Row of A1");
+		assertEquals(2, MSExcelUtil.getColumnNumberA1Format("C7"), "Column of C7");
+		assertEquals(6, MSExcelUtil.getRowNumberA1Format("C7"), "Row of C7");
+		assertEquals(26, MSExcelUtil.getColumnNumberA1Format("AA10"), "Column of AA10");
+		assertEquals(16383, MSExcelUtil.getColumnNumberA1Format("XFD1048576"), "Last column of Excel 2007+");
+		assertEquals(1048575, MSExcelUtil.getRowNumberA1Format("XFD1048576"), "Last row of Excel 2007+");
+		assertEquals(2, MSExcelUtil.getColumnNumberA1Format("$C$7"), "Column of absolute reference");
+		assertEquals(6, MSExcelUtil.getRowNumberA1Format("$C$7"), "Row of absolute reference");
+		assertEquals(2, MSExcelUtil.getColumnNumberA1Format("c7"), "Column of lower case reference");
+	}
+
+	@Test
+	public void decodeIsInverseOfFormat() {
+		for (int row = 0; row < 70000; row += 997) {
+			for (int column = 0; column < 16384; column += 37) {
+				String address = MSExcelUtil.getCellAddressA1Format(row, column);
+				assertEquals(column, MSExcelUtil.getColumnNumberA1Format(address), "Column of " + address);
+				assertEquals(row, MSExcelUtil.getRowNumberA1Format(address), "Row of " + address);
+				CellAddress poiAddress = new CellAddress(address);
+				assertEquals(poiAddress.getColumn(), MSExcelUtil.getColumnNumberA1Format(address), "Column same as Apache POI for " + address);
+			}
+		}
+	}
+
+	@Test
+	public void decodeInvalidAddress() {
+		assertThrows(IllegalArgumentException.class, () -> MSExcelUtil.getColumnNumberA1Format("7"), "Address without column");
+		assertThrows(IllegalArgumentException.class, () -> MSExcelUtil.getColumnNumberA1Format(""), "Empty address");
+		assertThrows(IllegalArgumentException.class, () -> MSExcelUtil.getRowNumberA1Format("C"), "Address without row");
+		assertThrows(IllegalArgumentException.class, () -> MSExcelUtil.getRowNumberA1Format("C0"), "Row 0 does not exist");
+		assertThrows(IllegalArgumentException.class, () -> MSExcelUtil.getRowNumberA1Format("C7X"), "Trailing characters");
+	}
+
+}
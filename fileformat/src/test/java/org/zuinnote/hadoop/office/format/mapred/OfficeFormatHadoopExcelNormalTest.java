@@ -23,10 +23,12 @@ import java.nio.file.FileVisitResult;
 import java.nio.file.SimpleFileVisitor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.File;
 
@@ -34,6 +36,8 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.io.ArrayWritable;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapred.FileInputFormat;
 import org.apache.hadoop.mapred.FileOutputFormat;
@@ -4142,4 +4146,118 @@ public class OfficeFormatHadoopExcelNormalTest {
 				"Input Split for Excel file contains row 1 with cell 3 == \"test5\"");
 	}
 
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetSplitBySheets() throws IOException {
+		JobConf job = new JobConf(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+		FileInputFormat.setInputPaths(job, file);
+		// set locale to the one of the test data
+		job.set("hadoopoffice.read.locale.bcp47", "de");
+		// one split per sheet
+		job.set("hadoopoffice.read.split.sheets", "true");
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		format.configure(job);
+		InputSplit[] inputSplits = format.getSplits(job, 1);
+		assertEquals(2, inputSplits.length, "One split per sheet generated for Excel file");
+		// splits are serialized when they are sent to the tasks
+		DataOutputBuffer out = new DataOutputBuffer();
+		inputSplits[1].write(out);
+		DataInputBuffer in = new DataInputBuffer();
+		in.reset(out.getData(), out.getLength());
+		SpreadSheetFileSplit deserializedSplit = new SpreadSheetFileSplit();
+		deserializedSplit.readFields(in);
+		assertArrayEquals(new String[] { "testsheet" }, deserializedSplit.getSheets(), "Sheets of split are serialized");
+		assertEquals("Sheet1", deserializedSplit.getWorkbookFirstSheet(), "First sheet of workbook is serialized");
+		assertFalse(deserializedSplit.isWorkbookFirstSheet(), "Split does not start with the first sheet of the workbook");
+		// the header is only read from the first sheet of the workbook, as if the workbook was not split
+		job.set("hadoopoffice.read.header.read", "true");
+		RecordReader<Text, ArrayWritable> firstReader = format.getRecordReader(inputSplits[0], job, reporter);
+		String[] header = ((ExcelRecordReader) firstReader).getOfficeReader().getCurrentParser().getHeader();
+		assertNotNull(header, "First split reads the header");
+		firstReader.close();
+		RecordReader<Text, ArrayWritable> reader = format.getRecordReader(deserializedSplit, job, reporter);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		assertArrayEquals(header, ((ExcelRecordReader) reader).getOfficeReader().getCurrentParser().getHeader(), "Second split has the header of the first sheet");
+		Text spreadSheetKey = new Text();
+		ArrayWritable spreadSheetValue = new ArrayWritable(SpreadSheetCellDAO.class);
+		assertTrue(reader.next(spreadSheetKey, spreadSheetValue), "Second split contains row 1 of second sheet");
+		assertEquals("[excel2013testmultisheet.xlsx]testsheet!A1", spreadSheetKey.toString(),
+				"Second split has keyname == \"[excel2013testmultisheet.xlsx]testsheet!A1\"");
+		assertEquals("8", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Second split contains row 1 with cell 1 == \"8\"");
+		assertTrue(reader.next(spreadSheetKey, spreadSheetValue), "Second split contains row 2 of second sheet");
+		assertTrue(reader.next(spreadSheetKey, spreadSheetValue), "Second split contains row 3 of second sheet");
+		assertFalse(reader.next(spreadSheetKey, spreadSheetValue), "Second split contains no further rows");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelCellKeyInputFormatExcel2003MultiSheet() throws IOException {
+		JobConf job = new JobConf(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2003testmultisheet.xls";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+		FileInputFormat.setInputPaths(job, file);
+		// set locale to the one of the test data
+		job.set("hadoopoffice.read.locale.bcp47", "de");
+		ExcelCellKeyFileInputFormat format = new ExcelCellKeyFileInputFormat();
+		InputSplit[] inputSplits = format.getSplits(job, 1);
+		assertEquals(1, inputSplits.length, "Only one split generated for Excel file");
+		RecordReader<SpreadSheetCellKey, ArrayWritable> reader = format.getRecordReader(inputSplits[0], job, reporter);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		SpreadSheetCellKey spreadSheetKey = reader.createKey();
+		ArrayWritable spreadSheetValue = reader.createValue();
+		assertTrue(reader.next(spreadSheetKey, spreadSheetValue), "Input Split for Excel file contains row 1");
+		long fileId = spreadSheetKey.getFileId();
+		assertEquals(new SpreadSheetCellKey(fileId, 0, 0, 0), spreadSheetKey, "Input Split for Excel file has key of cell A1 of first sheet");
+		SpreadSheetCellKey lastKey = new SpreadSheetCellKey(fileId, 0, 0, 0);
+		int rows = 1;
+		while (reader.next(spreadSheetKey, spreadSheetValue)) {
+			assertTrue(lastKey.compareTo(spreadSheetKey) < 0, "Keys are ordered by sheet and row number");
+			lastKey.set(fileId, spreadSheetKey.getSheetIndex(), spreadSheetKey.getRow(), spreadSheetKey.getColumn());
+			rows++;
+		}
+		assertEquals(9, rows, "Input Split for Excel file contains all rows of both sheets");
+		assertEquals(new SpreadSheetCellKey(fileId, 1, 2, 0), lastKey, "Last row is cell A3 of second sheet");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelCombineFileInputFormatSeveralFiles() throws IOException {
+		JobConf job = new JobConf(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		Path fileNew = new Path(classLoader.getResource("excel2013testmultisheet.xlsx").getFile());
+		Path fileOld = new Path(classLoader.getResource("excel2003testmultisheet.xls").getFile());
+		FileInputFormat.setInputPaths(job, fileNew, fileOld);
+		// set locale to the one of the test data
+		job.set("hadoopoffice.read.locale.bcp47", "de");
+		ExcelCombineFileInputFormat format = new ExcelCombineFileInputFormat();
+		InputSplit[] inputSplits = format.getSplits(job, 1);
+		assertEquals(1, inputSplits.length, "Both files are combined in one split");
+		RecordReader<Text, ArrayWritable> reader = format.getRecordReader(inputSplits[0], job, reporter);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		Text spreadSheetKey = new Text();
+		ArrayWritable spreadSheetValue = new ArrayWritable(SpreadSheetCellDAO.class);
+		int rowsNew = 0;
+		int rowsOld = 0;
+		while (reader.next(spreadSheetKey, spreadSheetValue)) {
+			String key = spreadSheetKey.toString();
+			if (key.startsWith("[excel2013testmultisheet.xlsx]")) {
+				rowsNew++;
+			} else if (key.startsWith("[excel2003testmultisheet.xls]")) {
+				rowsOld++;
+			} else {
+				fail("Key does not identify file: " + key);
+			}
+		}
+		assertEquals(9, rowsNew, "All rows of new Excel file read");
+		assertEquals(9, rowsOld, "All rows of old Excel file read");
+		assertEquals(inputSplits[0].getLength(), reader.getPos(), "Position at end of split");
+		reader.close();
+	}
+
 }
@@ -2219,4 +2219,949 @@ public class OfficeFormatHadoopExcelLowFootPrintSAXTest {
 		// third sheet is skipped because it does not contain enough rows
 		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
 	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetSkipWithHeaderLowFootprintStreaming()
+			throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "skipsheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.locale.bcp47", "us");
+		conf.set("hadoopoffice.read.header.read", "true");
+		conf.set("hadoopoffice.read.header.skipheaderinallsheets", "true");
+		conf.set("hadoopoffice.read.sheet.skiplines.num", "5");
+		conf.set("hadoopoffice.read.sheet.skiplines.allsheets", "true");
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.parser", "sax");
+		conf.set("hadoopoffice.read.lowFootprint.streaming", "true");
+		conf.set("hadoopoffice.read.lowFootprint.streaming.queue", "1");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		assertEquals("column1", ((ExcelRecordReader) reader).getOfficeReader().getCurrentParser().getHeader()[0],
+				" header column 1 correctly read");
+		assertEquals("column2", ((ExcelRecordReader) reader).getOfficeReader().getCurrentParser().getHeader()[1],
+				" header column 2 correctly read");
+		assertEquals("column3", ((ExcelRecordReader) reader).getOfficeReader().getCurrentParser().getHeader()[2],
+				" header column 3 correctly read");
+		Text spreadSheetKey = new Text();
+		ArrayWritable spreadSheetValue = new ArrayWritable(SpreadSheetCellDAO.class);
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 1");
+		spreadSheetKey = reader.getCurrentKey();
+		spreadSheetValue = reader.getCurrentValue();
+		// First Sheet
+		assertEquals("20", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(), "A7 = \"20\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormula(), "Empty formula");
+		assertEquals("A7", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getAddress(), "Correct address");
+		assertEquals("Sheet1", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getSheetName(), "Correct sheet");
+		assertEquals("test2", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(), "B7 = \"test2\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormula(), "Empty formula");
+		assertEquals("B7", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getAddress(), "Correct address");
+		assertEquals("Sheet1", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getSheetName(), "Correct sheet");
+		assertEquals("5", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormattedValue(), "C7 = \"5\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormula(), "Empty formula");
+		assertEquals("C7", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getAddress(), "Correct address");
+		assertEquals("Sheet1", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getSheetName(), "Correct sheet");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 2");
+		spreadSheetKey = reader.getCurrentKey();
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals("30", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(), "A8 = \"30\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormula(), "Empty formula");
+		assertEquals("A8", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getAddress(), "Correct address");
+		assertEquals("Sheet1", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getSheetName(), "Correct sheet");
+
+		assertEquals("test1", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(), "B8 = \"test1\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormula(), "Empty formula");
+		assertEquals("B8", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getAddress(), "Correct address");
+		assertEquals("Sheet1", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getSheetName(), "Correct sheet");
+
+		assertEquals("10", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormattedValue(), "C8 = \"10\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormula(), "Empty formula");
+		assertEquals("C8", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getAddress(), "Correct address");
+		assertEquals("Sheet1", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getSheetName(), "Correct sheet");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 3");
+		spreadSheetKey = reader.getCurrentKey();
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals("40", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(), "A9 = \"40\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormula(), "Empty formula");
+		assertEquals("A9", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getAddress(), "Correct address");
+		assertEquals("Sheet1", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getSheetName(), "Correct sheet");
+
+		assertEquals("test3", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(), "B9 = \"test3\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormula(), "Empty formula");
+		assertEquals("B9", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getAddress(), "Correct address");
+		assertEquals("Sheet1", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getSheetName(), "Correct sheet");
+
+		assertEquals("15", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormattedValue(), "C9 = \"15\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormula(), "Empty formula");
+		assertEquals("C9", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getAddress(), "Correct address");
+		assertEquals("Sheet1", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getSheetName(), "Correct sheet");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 1 (Second Sheet)");
+		spreadSheetKey = reader.getCurrentKey();
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals("90", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(), "A7 = \"90\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormula(), "Empty formula");
+		assertEquals("A7", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getAddress(), "Correct address");
+		assertEquals("Sheet2", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getSheetName(), "Correct sheet");
+
+		assertEquals("test2", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(), "B7 = \"test2\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormula(), "Empty formula");
+		assertEquals("B7", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getAddress(), "Correct address");
+		assertEquals("Sheet2", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getSheetName(), "Correct sheet");
+
+		assertEquals("230", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormattedValue(), "C7 = \"230\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormula(), "Empty formula");
+		assertEquals("C7", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getAddress(), "Correct address");
+		assertEquals("Sheet2", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getSheetName(), "Correct sheet");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 2 (Second Sheet)");
+		spreadSheetKey = reader.getCurrentKey();
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals("200", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(), "A8 = \"200\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormula(), "Empty formula");
+		assertEquals("A8", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getAddress(), "Correct address");
+		assertEquals("Sheet2", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getSheetName(), "Correct sheet");
+
+		assertEquals("test1", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(), "B8 = \"test1\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormula(), "Empty formula");
+		assertEquals("B8", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getAddress(), "Correct address");
+		assertEquals("Sheet2", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getSheetName(), "Correct sheet");
+
+		assertEquals("240", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormattedValue(), "C8 = \"240\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormula(), "Empty formula");
+		assertEquals("C8", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getAddress(), "Correct address");
+		assertEquals("Sheet2", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getSheetName(), "Correct sheet");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 3 (Second Sheet)");
+		spreadSheetKey = reader.getCurrentKey();
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals("101", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(), "A9 = \"101\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormula(), "Empty formula");
+		assertEquals("A9", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getAddress(), "Correct address");
+		assertEquals("Sheet2", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getSheetName(), "Correct sheet");
+
+		assertEquals("test3", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(), "B9 = \"test3\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormula(), "Empty formula");
+		assertEquals("B9", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getAddress(), "Correct address");
+		assertEquals("Sheet2", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getSheetName(), "Correct sheet");
+
+		assertEquals("250", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormattedValue(), "C9 = \"250\"");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getComment(), "Empty Comment");
+		assertEquals("", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormula(), "Empty formula");
+		assertEquals("C9", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getAddress(), "Correct address");
+		assertEquals("Sheet2", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getSheetName(), "Correct sheet");
+		// third sheet is skipped because it does not contain enough rows
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2003MultiSheetAllLowFootPrintStreaming() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2003testmultisheet.xls";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.streaming", "true");
+		conf.set("hadoopoffice.read.lowFootprint.streaming.queue", "2");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		Text spreadSheetKey = new Text();
+		ArrayWritable spreadSheetValue = new ArrayWritable(SpreadSheetCellDAO.class);
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 1 (first sheet)");
+		spreadSheetKey = reader.getCurrentKey();
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals("[excel2003testmultisheet.xls]Sheet1!A1", spreadSheetKey.toString(),
+				"Input Split for Excel file has keyname == \"[excel2003testmultisheet.xls]Sheet1!A1\"");
+		assertEquals(4, spreadSheetValue.get().length, "Input Split for Excel file contains row 1 with 4 columns");
+		assertEquals("test1", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 1 with cell 1 == \"test1\"");
+		assertEquals("Sheet1", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getSheetName(),
+				"Input Split for Excel file contains row 1 with cell 1 sheetname == \"Sheet1\"");
+		assertEquals("A1", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getAddress(),
+				"Input Split for Excel file contains row 1 with cell 1 address == \"A1\"");
+		assertEquals("test2", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(),
+				"Input Split for Excel file contains row 1 with cell 2 == \"test2\"");
+		assertEquals("test3", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormattedValue(),
+				"Input Split for Excel file contains row 1 with cell 3 == \"test3\"");
+		assertEquals("test4", ((SpreadSheetCellDAO) spreadSheetValue.get()[3]).getFormattedValue(),
+				"Input Split for Excel file contains row 1 with cell 4 == \"test4\"");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 2 (first sheet)");
+		spreadSheetKey = reader.getCurrentKey();
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals(1, spreadSheetValue.get().length, "Input Split for Excel file contains row 2 with 1 column");
+		assertEquals("4", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 2 with cell 1 == \"4\"");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 3 (first sheet)");
+		spreadSheetKey = reader.getCurrentKey();
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals(5, spreadSheetValue.get().length, "Input Split for Excel file contains row 3 with 5 columns");
+		assertEquals("31/12/99", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 3 with cell 1 == \"31/12/99\"");
+		assertEquals("5", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(),
+				"Input Split for Excel file contains row 3 with cell 2 == \"5\"");
+		assertNull(spreadSheetValue.get()[2], "Input Split for Excel file contains row 3 with cell 3 == null");
+		assertNull(spreadSheetValue.get()[3], "Input Split for Excel file contains row 3 with cell 4 == null");
+		assertEquals("null", ((SpreadSheetCellDAO) spreadSheetValue.get()[4]).getFormattedValue(),
+				"Input Split for Excel file contains row 3 with cell 5 == \"null\"");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 4 (first sheet)");
+		spreadSheetKey = reader.getCurrentKey();
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals(1, spreadSheetValue.get().length, "Input Split for Excel file contains row 4 with 1 column");
+		assertEquals("1", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 4 with cell 1 == \"1\"");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 5 (first sheet)");
+		spreadSheetKey = reader.getCurrentKey();
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals(3, spreadSheetValue.get().length, "Input Split for Excel file contains row 5 with 3 columns");
+		assertEquals("2", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 5 with cell 1 == \"2\"");
+		assertEquals("6", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(),
+				"Input Split for Excel file contains row 5 with cell 2== \"6\"");
+		assertEquals("10", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormattedValue(),
+				"Input Split for Excel file contains row 5 with cell 3== \"10\"");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 6 (first sheet)");
+		spreadSheetKey = reader.getCurrentKey();
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals(3, spreadSheetValue.get().length, "Input Split for Excel file contains row 6 with 3 columns");
+		assertEquals("3", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 6 with cell 1 == \"3\"");
+		assertEquals("4", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(),
+				"Input Split for Excel file contains row 6 with cell 2== \"4\"");
+		assertEquals("15", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormattedValue(),
+				"Input Split for Excel file contains row 6 with cell 3== \"15\"");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 7 (second sheet)");
+		spreadSheetKey = reader.getCurrentKey();
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals("8", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 7 with cell 1 == \"8\"");
+		assertEquals("99", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(),
+				"Input Split for Excel file contains row 7 with cell 2 == \"99\"");
+		assertEquals(2, spreadSheetValue.get().length, "Input Split for Excel file contains row 7 with 2 columns");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 8 (second sheet)");
+		spreadSheetKey = reader.getCurrentKey();
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals(1, spreadSheetValue.get().length, "Input Split for Excel file contains row 8 with 1 column");
+		assertEquals("test", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 8 with cell 1 == \"test\"");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 9 (second sheet)");
+		spreadSheetKey = reader.getCurrentKey();
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals(3, spreadSheetValue.get().length, "Input Split for Excel file contains row 9 with 3 columns");
+		assertNull(spreadSheetValue.get()[0], "Input Split for Excel file contains row 9 with cell 1 == null");
+		assertNull(spreadSheetValue.get()[1], "Input Split for Excel file contains row 9 with cell 2 == null");
+		assertEquals("seven", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormattedValue(),
+				"Input Split for Excel file contains row 9 with cell 3 == \"seven\"");
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2003SingleSheetEncryptedPositiveLowFootprintStreaming()
+			throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2003encrypt.xls";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.streaming", "true");
+		conf.set("hadoopoffice.read.lowFootprint.streaming.queue", "2");
+		
+		// for decryption simply set the password
+		conf.set("hadoopoffice.read.security.crypt.password", "test");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		Text spreadSheetKey = new Text();
+		ArrayWritable spreadSheetValue = new ArrayWritable(SpreadSheetCellDAO.class);
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 1");
+		spreadSheetKey = reader.getCurrentKey();
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals("[excel2003encrypt.xls]Sheet1!A1", spreadSheetKey.toString(),
+				"Input Split for Excel file has keyname == \"[excel2003encrypt.xls]Sheet1!A1\"");
+		assertEquals(3, spreadSheetValue.get().length, "Input Split for Excel file contains row 1 with 3 columns");
+		assertEquals("test1", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 1 with cell 1 == \"test1\"");
+		assertEquals("Sheet1", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getSheetName(),
+				"Input Split for Excel file contains row 1 with cell 1 sheetname == \"Sheet1\"");
+		assertEquals("A1", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getAddress(),
+				"Input Split for Excel file contains row 1 with cell 1 address == \"A1\"");
+		assertEquals("test2", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(),
+				"Input Split for Excel file contains row 1 with cell 2 == \"test2\"");
+		assertEquals("test3", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormattedValue(),
+				"Input Split for Excel file contains row 1 with cell 3 == \"test3\"");
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2003SingleSheetEncryptedNegativeLowFootprintStreaming()
+			throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2003encrypt.xls";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.streaming", "true");
+		conf.set("hadoopoffice.read.lowFootprint.streaming.queue", "2");
+		// for decryption simply set the password
+		conf.set("hadoopoffice.read.security.crypt.password", "test2");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+
+		InterruptedException ex = assertThrows(InterruptedException.class,
+				() -> reader.initialize(splits.get(0), context), "Exception is thrown in case of wrong password");
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetAllColumnsLowFootPrint() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		// read only the first and the third column
+		conf.set("hadoopoffice.read.columns", "0,2");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 1");
+		ArrayWritable spreadSheetValue = reader.getCurrentValue();
+		assertEquals("test1", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 1 with cell 1 == \"test1\"");
+		assertTrue((spreadSheetValue.get().length <= 1) || (spreadSheetValue.get()[1] == null), "Input Split for Excel file contains row 1 with cell 2 not selected");
+		assertEquals("test3", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormattedValue(),
+				"Input Split for Excel file contains row 1 with cell 3 == \"test3\"");
+		assertTrue((spreadSheetValue.get().length <= 3) || (spreadSheetValue.get()[3] == null), "Input Split for Excel file contains row 1 with cell 4 not selected");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 2");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 3");
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals("31/12/99", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 3 with cell 1 == \"31/12/99\"");
+		// cells of columns not selected are null or, at the end of the row, left out
+		for (int i = 1; i < spreadSheetValue.get().length; i++) {
+			assertNull(spreadSheetValue.get()[i], "Input Split for Excel file contains row 3 with cell " + (i + 1) + " == null");
+		}
+		int rows = 3;
+		while (reader.nextKeyValue()) {
+			rows++;
+			for (int i = 0; i < reader.getCurrentValue().get().length; i++) {
+				if ((i != 0) && (i != 2)) {
+					assertNull(reader.getCurrentValue().get()[i], "Input Split for Excel file contains row " + rows + " with cell " + (i + 1) + " not selected");
+				}
+			}
+		}
+		assertEquals(9, rows, "Input Split for Excel file contains all rows of both sheets");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2003MultiSheetAllColumnsLowFootPrint() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2003testmultisheet.xls";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		// read only the first and the third column
+		conf.set("hadoopoffice.read.columns", "0,2");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 1");
+		ArrayWritable spreadSheetValue = reader.getCurrentValue();
+		assertEquals("test1", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 1 with cell 1 == \"test1\"");
+		assertTrue((spreadSheetValue.get().length <= 1) || (spreadSheetValue.get()[1] == null), "Input Split for Excel file contains row 1 with cell 2 not selected");
+		assertEquals("test3", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormattedValue(),
+				"Input Split for Excel file contains row 1 with cell 3 == \"test3\"");
+		assertTrue((spreadSheetValue.get().length <= 3) || (spreadSheetValue.get()[3] == null), "Input Split for Excel file contains row 1 with cell 4 not selected");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 2");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 3");
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals("31/12/99", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 3 with cell 1 == \"31/12/99\"");
+		// cells of columns not selected are null or, at the end of the row, left out
+		for (int i = 1; i < spreadSheetValue.get().length; i++) {
+			assertNull(spreadSheetValue.get()[i], "Input Split for Excel file contains row 3 with cell " + (i + 1) + " == null");
+		}
+		int rows = 3;
+		while (reader.nextKeyValue()) {
+			rows++;
+			for (int i = 0; i < reader.getCurrentValue().get().length; i++) {
+				if ((i != 0) && (i != 2)) {
+					assertNull(reader.getCurrentValue().get()[i], "Input Split for Excel file contains row " + rows + " with cell " + (i + 1) + " not selected");
+				}
+			}
+		}
+		assertEquals(9, rows, "Input Split for Excel file contains all rows of both sheets");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetHeaderColumnsLowFootPrint() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.header.read", "true");
+		// select columns by header name (ignoring case)
+		conf.set("hadoopoffice.read.columns", "TEST1,test3");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 2");
+		String[] header = ((ExcelRecordReader) reader).getOfficeReader().getCurrentParser().getHeader();
+		assertEquals("test2", header[1], "Header contains all columns");
+		ArrayWritable spreadSheetValue = reader.getCurrentValue();
+		assertEquals("4", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 2 with cell 1 == \"4\"");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 3");
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals("31/12/99", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 3 with cell 1 == \"31/12/99\"");
+		assertTrue((spreadSheetValue.get().length <= 1) || (spreadSheetValue.get()[1] == null), "Input Split for Excel file contains row 3 with cell 2 not selected");
+		assertTrue((spreadSheetValue.get().length <= 4) || (spreadSheetValue.get()[4] == null), "Input Split for Excel file contains row 3 with cell 5 not selected");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetAllFilterLowFootPrint() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		// only rows with a number greater than 1.5 in the first column and at least 4 in the second column
+		conf.set("hadoopoffice.read.filter", "0 > 1.5 AND 1 >= 4");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "2", "3", "8" };
+		String[] expectedSecondCell = new String[] { "6", "4", "99" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains matching row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Matching row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+			assertEquals(expectedSecondCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(),
+					"Matching row " + (i + 1) + " has cell 2 == \"" + expectedSecondCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further matching row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2003MultiSheetAllFilterLowFootPrint() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2003testmultisheet.xls";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		// only rows with a number greater than 1.5 in the first column and at least 4 in the second column
+		conf.set("hadoopoffice.read.filter", "0 > 1.5 AND 1 >= 4");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "2", "3", "8" };
+		String[] expectedSecondCell = new String[] { "6", "4", "99" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains matching row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Matching row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+			assertEquals(expectedSecondCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(),
+					"Matching row " + (i + 1) + " has cell 2 == \"" + expectedSecondCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further matching row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetHeaderFilterColumnsLowFootPrint() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.header.read", "true");
+		// filter on a column that is not selected
+		conf.set("hadoopoffice.read.columns", "test2");
+		conf.set("hadoopoffice.read.filter", "test1 = 'test' OR `TEST1` >= 3");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedSecondCell = new String[] { null, "4", "99", null };
+		for (int i = 0; i < expectedSecondCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains matching row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertNull(spreadSheetValue.get()[0], "Matching row " + (i + 1) + " does not contain the cell of the key column not selected");
+			if (expectedSecondCell[i] == null) {
+				assertTrue((spreadSheetValue.get().length < 2) || (spreadSheetValue.get()[1] == null), "Matching row " + (i + 1) + " has cell 2 == null");
+			} else {
+				assertEquals(expectedSecondCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(),
+						"Matching row " + (i + 1) + " has cell 2 == \"" + expectedSecondCell[i] + "\"");
+			}
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further matching row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetHeaderFilterColumnsLowFootPrintStreaming() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.streaming", "true");
+		conf.set("hadoopoffice.read.header.read", "true");
+		// filter on a column that is not selected
+		conf.set("hadoopoffice.read.columns", "test2");
+		conf.set("hadoopoffice.read.filter", "test1 = 'test' OR `TEST1` >= 3");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedSecondCell = new String[] { null, "4", "99", null };
+		for (int i = 0; i < expectedSecondCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains matching row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertNull(spreadSheetValue.get()[0], "Matching row " + (i + 1) + " does not contain the cell of the key column not selected");
+			if (expectedSecondCell[i] == null) {
+				assertTrue((spreadSheetValue.get().length < 2) || (spreadSheetValue.get()[1] == null), "Matching row " + (i + 1) + " has cell 2 == null");
+			} else {
+				assertEquals(expectedSecondCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(),
+						"Matching row " + (i + 1) + " has cell 2 == \"" + expectedSecondCell[i] + "\"");
+			}
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further matching row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetRowRangeLowFootPrint() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		// only the first two rows of each sheet
+		conf.set("hadoopoffice.read.rowRange", "1,2");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "test1", "4", "8", "test" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2003MultiSheetRowRangeLowFootPrint() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2003testmultisheet.xls";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		// only the first two rows of each sheet
+		conf.set("hadoopoffice.read.rowRange", "1,2");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "test1", "4", "8", "test" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2003MultiSheetRowRangeLowFootPrintStreaming() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2003testmultisheet.xls";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.streaming", "true");
+		// only the first two rows of each sheet
+		conf.set("hadoopoffice.read.rowRange", "1,2");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "test1", "4", "8", "test" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetHeaderLimitLowFootPrint() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		// only the first three rows after the header
+		conf.set("hadoopoffice.read.header.read", "true");
+		conf.set("hadoopoffice.read.limit", "3");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "4", "31/12/99", "1" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetRowRangeLimitLowFootPrint() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		// only the first two rows of each sheet, but not more than three rows
+		conf.set("hadoopoffice.read.rowRange", "1,2");
+		conf.set("hadoopoffice.read.limit", "3");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "test1", "4", "8" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2003MultiSheetRowRangeLimitLowFootPrint() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2003testmultisheet.xls";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		// only the first two rows of each sheet, but not more than three rows
+		conf.set("hadoopoffice.read.rowRange", "1,2");
+		conf.set("hadoopoffice.read.limit", "3");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "test1", "4", "8" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetRowRangeLimitLowFootPrintStreaming() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.streaming", "true");
+		// only the first two rows of each sheet, but not more than three rows
+		conf.set("hadoopoffice.read.rowRange", "1,2");
+		conf.set("hadoopoffice.read.limit", "3");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "test1", "4", "8" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2003MultiSheetHeaderLimitLowFootPrintStreaming() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2003testmultisheet.xls";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.streaming", "true");
+		// only the first three rows after the header
+		conf.set("hadoopoffice.read.header.read", "true");
+		conf.set("hadoopoffice.read.limit", "3");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "4", "31/12/99", "1" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
+		reader.close();
+	}
+
 }
@@ -23,6 +23,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
@@ -49,12 +50,16 @@ import org.apache.hadoop.mapreduce.lib.output.FileOutputCommitter;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
 import org.apache.hadoop.mapreduce.task.JobContextImpl;
 import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.zuinnote.hadoop.office.format.common.dao.SpreadSheetCellDAO;
+import org.zuinnote.hadoop.office.format.common.parser.FormatNotUnderstoodException;
+import org.zuinnote.hadoop.office.format.common.util.msexcel.MSExcelRowIndex;
 
 public class OfficeFormatHadoopExcelLowFootPrintStaXTest {
 	private static Configuration defaultConf = new Configuration();
@@ -962,6 +967,101 @@ public class OfficeFormatHadoopExcelLowFootPrintStaXTest {
 				"Input Split for Excel file contains row 9 with cell 3 == \"seven\"");
 	}
 	
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetAllLowFootPrintParallel() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.parser", "stax");
+		// parse sheets concurrently, rows are returned in the order of the sheets
+		conf.set("hadoopoffice.read.lowFootprint.stax.parallel.threads", "2");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "test1", "4", "31/12/99", "1", "2", "3", "8", "test", null };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			String expectedSheet = i < 6 ? "Sheet1" : "testsheet";
+			assertTrue(reader.getCurrentKey().toString().startsWith("[excel2013testmultisheet.xlsx]" + expectedSheet + "!"),
+					"Input Split for Excel file has row " + (i + 1) + " in sheet " + expectedSheet);
+			if (expectedFirstCell[i] == null) {
+				assertNull(spreadSheetValue.get()[0], "Input Split for Excel file contains row " + (i + 1) + " with cell 1 == null");
+			} else {
+				assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+						"Input Split for Excel file contains row " + (i + 1) + " with cell 1 == \"" + expectedFirstCell[i] + "\"");
+			}
+		}
+		assertEquals("seven", ((SpreadSheetCellDAO) reader.getCurrentValue().get()[2]).getFormattedValue(),
+				"Input Split for Excel file contains row 9 with cell 3 == \"seven\"");
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetAllLowFootPrintParallelUnordered() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.parser", "stax");
+		// parse sheets concurrently, rows are returned as soon as they are parsed
+		conf.set("hadoopoffice.read.lowFootprint.stax.parallel.threads", "2");
+		conf.set("hadoopoffice.read.lowFootprint.stax.parallel.ordered", "false");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		int rowsSheet1 = 0;
+		int rowsSheet2 = 0;
+		while (reader.nextKeyValue()) {
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			String key = reader.getCurrentKey().toString();
+			// the sheet in the key must be the one of the cells
+			for (int i = 0; i < spreadSheetValue.get().length; i++) {
+				if (spreadSheetValue.get()[i] != null) {
+					String sheetName = ((SpreadSheetCellDAO) spreadSheetValue.get()[i]).getSheetName();
+					assertTrue(key.startsWith("[excel2013testmultisheet.xlsx]" + sheetName + "!"), "Key " + key + " matches sheet of cells");
+					if ("Sheet1".equals(sheetName)) {
+						rowsSheet1++;
+					} else {
+						rowsSheet2++;
+					}
+					break;
+				}
+			}
+		}
+		assertEquals(6, rowsSheet1, "Input Split for Excel file contains 6 rows of the first sheet");
+		assertEquals(3, rowsSheet2, "Input Split for Excel file contains 3 rows of the second sheet");
+		reader.close();
+	}
+
 	@Test
 	public void readExcelInputFormatExcel2013SingleSheetEncryptedNegativeLowFootprint()
 			throws IOException, InterruptedException {
@@ -1444,5 +1544,392 @@ public class OfficeFormatHadoopExcelLowFootPrintStaXTest {
 		// third sheet is skipped because it does not contain enough rows
 		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
 	}
-	
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetLowFootPrintSplitBySheets() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.parser", "stax");
+		// one split per sheet
+		conf.set("hadoopoffice.read.split.sheets", "true");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(2, splits.size(), "One split per sheet generated for Excel file");
+		// first sheet
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		int rows = 0;
+		while (reader.nextKeyValue()) {
+			assertTrue(reader.getCurrentKey().toString().startsWith("[excel2013testmultisheet.xlsx]Sheet1!"), "First split only contains rows of first sheet");
+			rows++;
+		}
+		assertEquals(6, rows, "First split contains all rows of first sheet");
+		reader.close();
+		// second sheet
+		reader = format.createRecordReader(splits.get(1), context);
+		reader.initialize(splits.get(1), context);
+		assertTrue(reader.nextKeyValue(), "Second split contains row 1 of second sheet");
+		assertEquals("[excel2013testmultisheet.xlsx]testsheet!A1", reader.getCurrentKey().toString(),
+				"Second split has keyname == \"[excel2013testmultisheet.xlsx]testsheet!A1\"");
+		ArrayWritable spreadSheetValue = reader.getCurrentValue();
+		assertEquals("8", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Second split contains row 1 with cell 1 == \"8\"");
+		assertEquals("99", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(),
+				"Second split contains row 1 with cell 2 == \"99\"");
+		assertTrue(reader.nextKeyValue(), "Second split contains row 2 of second sheet");
+		assertTrue(reader.nextKeyValue(), "Second split contains row 3 of second sheet");
+		assertFalse(reader.nextKeyValue(), "Second split contains no further rows");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013LowFootPrintSplitByRowIndex() throws IOException, InterruptedException, FormatNotUnderstoodException {
+		Configuration conf = new Configuration(defaultConf);
+		// a sheet with a header and 200 rows
+		File excelFile = new File(tmpPath.toFile(), "rowindex.xlsx");
+		try (XSSFWorkbook wb = new XSSFWorkbook(); FileOutputStream out = new FileOutputStream(excelFile)) {
+			XSSFSheet sheet = wb.createSheet("data");
+			sheet.createRow(0).createCell(0).setCellValue("number");
+			for (int i = 1; i <= 200; i++) {
+				sheet.createRow(i).createCell(0).setCellValue(i);
+			}
+			wb.write(out);
+		}
+		Path file = new Path(excelFile.getAbsolutePath());
+		MSExcelRowIndex.writeIndex(conf, file, 16);
+		conf.set("hadoopoffice.read.locale.bcp47", "us");
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.parser", "stax");
+		conf.set("hadoopoffice.read.header.read", "true");
+		// one split per checkpoint of the row index
+		conf.set("hadoopoffice.read.split.sheets", "true");
+		conf.set("hadoopoffice.read.split.rowindex.rows", "16");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		// 201 rows with 16 rows per checkpoint
+		assertEquals(13, splits.size(), "One split per range of rows generated for Excel file");
+		int expectedNumber = 1;
+		for (InputSplit split : splits) {
+			assertTrue(((SpreadSheetFileSplit) split).isRowRange(), "Split contains a range of rows");
+			RecordReader<Text, ArrayWritable> reader = format.createRecordReader(split, context);
+			reader.initialize(split, context);
+			while (reader.nextKeyValue()) {
+				ArrayWritable spreadSheetValue = reader.getCurrentValue();
+				assertEquals(String.valueOf(expectedNumber), ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+						"Rows are read in order without header");
+				expectedNumber++;
+			}
+			reader.close();
+		}
+		assertEquals(201, expectedNumber, "All rows have been read");
+		// without row index only one split
+		conf.set("hadoopoffice.read.split.rowindex", "false");
+		job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		assertEquals(1, format.getSplits(job).size(), "One split without row index");
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetAllColumnsLowFootPrint() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.parser", "stax");
+		// read only the first and the third column
+		conf.set("hadoopoffice.read.columns", "0,2");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 1");
+		ArrayWritable spreadSheetValue = reader.getCurrentValue();
+		assertEquals("test1", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 1 with cell 1 == \"test1\"");
+		assertTrue((spreadSheetValue.get().length <= 1) || (spreadSheetValue.get()[1] == null), "Input Split for Excel file contains row 1 with cell 2 not selected");
+		assertEquals("test3", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormattedValue(),
+				"Input Split for Excel file contains row 1 with cell 3 == \"test3\"");
+		assertTrue((spreadSheetValue.get().length <= 3) || (spreadSheetValue.get()[3] == null), "Input Split for Excel file contains row 1 with cell 4 not selected");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 2");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 3");
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals("31/12/99", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 3 with cell 1 == \"31/12/99\"");
+		// cells of columns not selected are null or, at the end of the row, left out
+		for (int i = 1; i < spreadSheetValue.get().length; i++) {
+			assertNull(spreadSheetValue.get()[i], "Input Split for Excel file contains row 3 with cell " + (i + 1) + " == null");
+		}
+		int rows = 3;
+		while (reader.nextKeyValue()) {
+			rows++;
+			for (int i = 0; i < reader.getCurrentValue().get().length; i++) {
+				if ((i != 0) && (i != 2)) {
+					assertNull(reader.getCurrentValue().get()[i], "Input Split for Excel file contains row " + rows + " with cell " + (i + 1) + " not selected");
+				}
+			}
+		}
+		assertEquals(9, rows, "Input Split for Excel file contains all rows of both sheets");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetHeaderColumnsLowFootPrint() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.parser", "stax");
+		conf.set("hadoopoffice.read.header.read", "true");
+		// select columns by header name (ignoring case)
+		conf.set("hadoopoffice.read.columns", "TEST1,test3");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 2");
+		String[] header = ((ExcelRecordReader) reader).getOfficeReader().getCurrentParser().getHeader();
+		assertEquals("test2", header[1], "Header contains all columns");
+		ArrayWritable spreadSheetValue = reader.getCurrentValue();
+		assertEquals("4", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 2 with cell 1 == \"4\"");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 3");
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals("31/12/99", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 3 with cell 1 == \"31/12/99\"");
+		assertTrue((spreadSheetValue.get().length <= 1) || (spreadSheetValue.get()[1] == null), "Input Split for Excel file contains row 3 with cell 2 not selected");
+		assertTrue((spreadSheetValue.get().length <= 4) || (spreadSheetValue.get()[4] == null), "Input Split for Excel file contains row 3 with cell 5 not selected");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetAllFilterLowFootPrint() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.parser", "stax");
+		// only rows with a number greater than 1.5 in the first column and at least 4 in the second column
+		conf.set("hadoopoffice.read.filter", "0 > 1.5 AND 1 >= 4");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "2", "3", "8" };
+		String[] expectedSecondCell = new String[] { "6", "4", "99" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains matching row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Matching row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+			assertEquals(expectedSecondCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(),
+					"Matching row " + (i + 1) + " has cell 2 == \"" + expectedSecondCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further matching row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetHeaderFilterColumnsLowFootPrint() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.parser", "stax");
+		conf.set("hadoopoffice.read.header.read", "true");
+		// filter on a column that is not selected
+		conf.set("hadoopoffice.read.columns", "test2");
+		conf.set("hadoopoffice.read.filter", "test1 = 'test' OR `TEST1` >= 3");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedSecondCell = new String[] { null, "4", "99", null };
+		for (int i = 0; i < expectedSecondCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains matching row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertNull(spreadSheetValue.get()[0], "Matching row " + (i + 1) + " does not contain the cell of the key column not selected");
+			if (expectedSecondCell[i] == null) {
+				assertTrue((spreadSheetValue.get().length < 2) || (spreadSheetValue.get()[1] == null), "Matching row " + (i + 1) + " has cell 2 == null");
+			} else {
+				assertEquals(expectedSecondCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(),
+						"Matching row " + (i + 1) + " has cell 2 == \"" + expectedSecondCell[i] + "\"");
+			}
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further matching row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetRowRangeLowFootPrint() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.parser", "stax");
+		// only the first two rows of each sheet
+		conf.set("hadoopoffice.read.rowRange", "1,2");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "test1", "4", "8", "test" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetRowRangeLimitLowFootPrint() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.parser", "stax");
+		// only the first two rows of each sheet, but not more than three rows
+		conf.set("hadoopoffice.read.rowRange", "1,2");
+		conf.set("hadoopoffice.read.limit", "3");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "test1", "4", "8" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetHeaderLimitLowFootPrintParallel() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+
+		// low footprint
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.parser", "stax");
+		conf.set("hadoopoffice.read.lowFootprint.stax.parallel.threads", "2");
+		// only the first three rows after the header
+		conf.set("hadoopoffice.read.header.read", "true");
+		conf.set("hadoopoffice.read.limit", "3");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "4", "31/12/99", "1" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
+		reader.close();
+	}
+
 }
@@ -22,14 +22,17 @@ import java.nio.file.Files;
 import java.nio.file.FileVisitResult;
 import java.nio.file.SimpleFileVisitor;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.File;
 
@@ -37,6 +40,7 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.io.ArrayWritable;
+import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.*;
 import org.apache.hadoop.mapreduce.lib.input.*;
@@ -58,6 +62,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.zuinnote.hadoop.office.format.common.dao.*;
+import org.zuinnote.hadoop.office.format.common.util.PipelineStageStatistics;
 
 public class OfficeFormatHadoopExcelNormalTest {
 
@@ -982,6 +987,63 @@ public class OfficeFormatHadoopExcelNormalTest {
 				"Input Split for Excel file contains row 9 with cell 3 == \"seven\"");
 	}
 
+	@Test
+	public void readExcelInputFormatGzipCompressedExcel2013MultiSheetAllPipeline() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		CompressionCodec gzip = new GzipCodec();
+		ReflectionUtils.setConf(gzip, conf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx.gz";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		// read without pipeline for comparison
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		reader.initialize(splits.get(0), context);
+		List<String> expectedRows = new ArrayList<>();
+		while (reader.nextKeyValue()) {
+			StringBuilder row = new StringBuilder(reader.getCurrentKey().toString());
+			for (Writable cell : reader.getCurrentValue().get()) {
+				row.append(";").append(cell == null ? null : ((SpreadSheetCellDAO) cell).getFormattedValue());
+			}
+			expectedRows.add(row.toString());
+		}
+		reader.close();
+		assertEquals(9, expectedRows.size(), "Input Split for Excel file contains 9 rows");
+		// decompress, parse and convert in different threads
+		Configuration pipelineConf = new Configuration(conf);
+		pipelineConf.set("hadoopoffice.read.pipeline", "true");
+		pipelineConf.set("hadoopoffice.read.pipeline.queue", "2");
+		TaskAttemptContext pipelineContext = new TaskAttemptContextImpl(pipelineConf, new TaskAttemptID());
+		RecordReader<Text, ArrayWritable> pipelineReader = format.createRecordReader(splits.get(0), pipelineContext);
+		assertNotNull(pipelineReader, "Format returned  null RecordReader");
+		pipelineReader.initialize(splits.get(0), pipelineContext);
+		for (int i = 0; i < expectedRows.size(); i++) {
+			assertTrue(pipelineReader.nextKeyValue(), "Input Split for Excel file contains row " + (i + 1) + " in pipeline mode");
+			StringBuilder row = new StringBuilder(pipelineReader.getCurrentKey().toString());
+			for (Writable cell : pipelineReader.getCurrentValue().get()) {
+				row.append(";").append(cell == null ? null : ((SpreadSheetCellDAO) cell).getFormattedValue());
+			}
+			assertEquals(expectedRows.get(i), row.toString(), "Row " + (i + 1) + " is the same in pipeline mode");
+		}
+		assertFalse(pipelineReader.nextKeyValue(), "Input Split for Excel file contains no further rows in pipeline mode");
+		List<PipelineStageStatistics> stages = ((AbstractSpreadSheetDocumentRecordReader<Text, ArrayWritable>) pipelineReader).getPipelineStatistics();
+		assertEquals(3, stages.size(), "Pipeline has three stages");
+		assertEquals("decompress", stages.get(0).getName(), "First stage decompresses");
+		assertTrue(stages.get(0).getItems() > 0, "Decompress stage has read buffers");
+		assertEquals(9, stages.get(1).getItems(), "Parse stage has parsed all rows");
+		assertEquals(9, stages.get(2).getItems(), "Convert stage has converted all rows");
+		pipelineReader.close();
+	}
+
 	@Test
 	public void readExcelInputFormatExcel2013LinkedWorkbook() throws IOException, InterruptedException {
 		Configuration conf = new Configuration(defaultConf);
@@ -4904,4 +4966,552 @@ public class OfficeFormatHadoopExcelNormalTest {
 				"Input Split for Excel file contains row 1 with cell 3 == \"test5\"");
 	}
 
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetSplitBySheets() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+		// one split per sheet
+		conf.set("hadoopoffice.read.split.sheets", "true");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(2, splits.size(), "One split per sheet generated for Excel file");
+		// first sheet
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		int rows = 0;
+		while (reader.nextKeyValue()) {
+			assertTrue(reader.getCurrentKey().toString().startsWith("[excel2013testmultisheet.xlsx]Sheet1!"), "First split only contains rows of first sheet");
+			rows++;
+		}
+		assertEquals(6, rows, "First split contains all rows of first sheet");
+		reader.close();
+		// second sheet
+		reader = format.createRecordReader(splits.get(1), context);
+		reader.initialize(splits.get(1), context);
+		assertTrue(reader.nextKeyValue(), "Second split contains row 1 of second sheet");
+		assertEquals("[excel2013testmultisheet.xlsx]testsheet!A1", reader.getCurrentKey().toString(),
+				"Second split has keyname == \"[excel2013testmultisheet.xlsx]testsheet!A1\"");
+		ArrayWritable spreadSheetValue = reader.getCurrentValue();
+		assertEquals("8", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Second split contains row 1 with cell 1 == \"8\"");
+		assertEquals("99", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(),
+				"Second split contains row 1 with cell 2 == \"99\"");
+		assertTrue(reader.nextKeyValue(), "Second split contains row 2 of second sheet");
+		assertTrue(reader.nextKeyValue(), "Second split contains row 3 of second sheet");
+		assertFalse(reader.nextKeyValue(), "Second split contains no further rows");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2003MultiSheetSplitBySheets() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2003testmultisheet.xls";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+		// one split per sheet
+		conf.set("hadoopoffice.read.split.sheets", "true");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(2, splits.size(), "One split per sheet generated for Excel file");
+		// first sheet
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		int rows = 0;
+		while (reader.nextKeyValue()) {
+			assertTrue(reader.getCurrentKey().toString().startsWith("[excel2003testmultisheet.xls]Sheet1!"), "First split only contains rows of first sheet");
+			rows++;
+		}
+		assertEquals(6, rows, "First split contains all rows of first sheet");
+		reader.close();
+		// second sheet
+		reader = format.createRecordReader(splits.get(1), context);
+		reader.initialize(splits.get(1), context);
+		assertTrue(reader.nextKeyValue(), "Second split contains row 1 of second sheet");
+		assertEquals("[excel2003testmultisheet.xls]testsheet!A1", reader.getCurrentKey().toString(),
+				"Second split has keyname == \"[excel2003testmultisheet.xls]testsheet!A1\"");
+		ArrayWritable spreadSheetValue = reader.getCurrentValue();
+		assertEquals("8", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Second split contains row 1 with cell 1 == \"8\"");
+		assertEquals("99", ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(),
+				"Second split contains row 1 with cell 2 == \"99\"");
+		assertTrue(reader.nextKeyValue(), "Second split contains row 2 of second sheet");
+		assertTrue(reader.nextKeyValue(), "Second split contains row 3 of second sheet");
+		assertFalse(reader.nextKeyValue(), "Second split contains no further rows");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelCellKeyInputFormatExcel2013MultiSheetSplitBySheets() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+		// one split per sheet
+		conf.set("hadoopoffice.read.split.sheets", "true");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelCellKeyFileInputFormat format = new ExcelCellKeyFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(2, splits.size(), "One split per sheet generated for Excel file");
+		// first sheet
+		RecordReader<SpreadSheetCellKey, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		assertTrue(reader.nextKeyValue(), "First split contains row 1 of first sheet");
+		SpreadSheetCellKey spreadSheetKey = reader.getCurrentKey();
+		long fileId = spreadSheetKey.getFileId();
+		assertEquals(new SpreadSheetCellKey(fileId, 0, 0, 0), spreadSheetKey, "First split has key of cell A1 of first sheet");
+		int rows = 1;
+		SpreadSheetCellKey lastKey = new SpreadSheetCellKey(fileId, 0, 0, 0);
+		while (reader.nextKeyValue()) {
+			assertSame(spreadSheetKey, reader.getCurrentKey(), "Key is reused for all rows");
+			assertEquals(0, spreadSheetKey.getSheetIndex(), "First split only contains rows of first sheet");
+			assertTrue(lastKey.compareTo(spreadSheetKey) < 0, "Keys are ordered by row number");
+			lastKey.set(fileId, spreadSheetKey.getSheetIndex(), spreadSheetKey.getRow(), spreadSheetKey.getColumn());
+			rows++;
+		}
+		assertEquals(6, rows, "First split contains all rows of first sheet");
+		reader.close();
+		// second sheet keeps the index of the sheet in the workbook
+		reader = format.createRecordReader(splits.get(1), context);
+		reader.initialize(splits.get(1), context);
+		assertTrue(reader.nextKeyValue(), "Second split contains row 1 of second sheet");
+		assertEquals(new SpreadSheetCellKey(fileId, 1, 0, 0), reader.getCurrentKey(), "Second split has key of cell A1 of second sheet");
+		assertTrue(lastKey.compareTo(reader.getCurrentKey()) < 0, "Rows of second sheet are ordered after rows of first sheet");
+		ArrayWritable spreadSheetValue = reader.getCurrentValue();
+		assertEquals("8", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Second split contains row 1 with cell 1 == \"8\"");
+		assertTrue(reader.nextKeyValue(), "Second split contains row 2 of second sheet");
+		assertEquals(new SpreadSheetCellKey(fileId, 1, 1, 0), reader.getCurrentKey(), "Second split has key of cell A2 of second sheet");
+		assertTrue(reader.nextKeyValue(), "Second split contains row 3 of second sheet");
+		assertFalse(reader.nextKeyValue(), "Second split contains no further rows");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetHeaderSplitBySheets() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+		conf.set("hadoopoffice.read.header.read", "true");
+		List<String> expected = readExcelSplits(conf, file, 1, true);
+		// one split per sheet returns the same rows and header as one split for the workbook
+		conf.set("hadoopoffice.read.split.sheets", "true");
+		assertEquals(expected, readExcelSplits(conf, file, 2, true), "Splits by sheets return the same rows as one split");
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetHeaderSkipLinesSplitBySheetsLowFootprintStax() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+		conf.set("hadoopoffice.read.lowFootprint", "true");
+		conf.set("hadoopoffice.read.lowFootprint.parser", "stax");
+		conf.set("hadoopoffice.read.header.read", "true");
+		conf.set("hadoopoffice.read.header.skipheaderinallsheets", "true");
+		conf.set("hadoopoffice.read.sheet.skiplines.num", "1");
+		// the StaX parser does not track the current sheet of a row, i.e. only values are compared
+		List<String> expected = readExcelSplits(conf, file, 1, false);
+		// one split per sheet returns the same rows and header as one split for the workbook
+		conf.set("hadoopoffice.read.split.sheets", "true");
+		assertEquals(expected, readExcelSplits(conf, file, 2, false), "Splits by sheets return the same rows as one split");
+	}
+
+	/**
+	 * Reads all splits of a workbook
+	 *
+	 * @param conf configuration
+	 * @param file workbook
+	 * @param expectedSplits number of splits that need to be generated
+	 * @param withKeys true if the keys of the rows are returned
+	 * @return header followed by the key (if requested) and formatted values of each row read from the splits
+	 */
+	private static List<String> readExcelSplits(Configuration conf, Path file, int expectedSplits, boolean withKeys) throws IOException, InterruptedException {
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(expectedSplits, splits.size(), "Number of splits generated for Excel file");
+		List<String> result = new ArrayList<>();
+		for (InputSplit split : splits) {
+			RecordReader<Text, ArrayWritable> reader = format.createRecordReader(split, context);
+			reader.initialize(split, context);
+			while (reader.nextKeyValue()) {
+				StringBuilder row = new StringBuilder(String.join(",", ((ExcelRecordReader) reader).getOfficeReader().getCurrentParser().getHeader()));
+				row.append(':');
+				if (withKeys) {
+					row.append(reader.getCurrentKey());
+				}
+				for (Writable cell : reader.getCurrentValue().get()) {
+					row.append('|').append(cell == null ? null : ((SpreadSheetCellDAO) cell).getFormattedValue());
+				}
+				result.add(row.toString());
+			}
+			reader.close();
+		}
+		return result;
+	}
+
+	@Test
+	public void readExcelCombineFileInputFormatSeveralFiles() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		Path fileNew = new Path(classLoader.getResource("excel2013testmultisheet.xlsx").getFile());
+		Path fileOld = new Path(classLoader.getResource("excel2003testmultisheet.xls").getFile());
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, fileNew, fileOld);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelCombineFileInputFormat format = new ExcelCombineFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Both files are combined in one split");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		int rowsNew = 0;
+		int rowsOld = 0;
+		while (reader.nextKeyValue()) {
+			String key = reader.getCurrentKey().toString();
+			if (key.startsWith("[excel2013testmultisheet.xlsx]")) {
+				rowsNew++;
+			} else if (key.startsWith("[excel2003testmultisheet.xls]")) {
+				rowsOld++;
+			} else {
+				fail("Key does not identify file: " + key);
+			}
+		}
+		assertEquals(9, rowsNew, "All rows of new Excel file read");
+		assertEquals(9, rowsOld, "All rows of old Excel file read");
+		assertEquals(1.0f, reader.getProgress(), 0.0001f, "All files processed");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelCombineFileInputFormatSeveralFilesPrefetch() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		Path fileNew = new Path(classLoader.getResource("excel2013testmultisheet.xlsx").getFile());
+		Path fileOld = new Path(classLoader.getResource("excel2003testmultisheet.xls").getFile());
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+		// open following files in advance
+		conf.set("hadoopoffice.read.prefetch.bytes", "10000000");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, fileNew, fileOld, fileNew);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelCombineFileInputFormat format = new ExcelCombineFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "All files are combined in one split");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		reader.initialize(splits.get(0), context);
+		int rowsNew = 0;
+		int rowsOld = 0;
+		while (reader.nextKeyValue()) {
+			String key = reader.getCurrentKey().toString();
+			if (key.startsWith("[excel2013testmultisheet.xlsx]")) {
+				rowsNew++;
+			} else if (key.startsWith("[excel2003testmultisheet.xls]")) {
+				rowsOld++;
+			}
+		}
+		assertEquals(18, rowsNew, "All rows of new Excel file read twice");
+		assertEquals(9, rowsOld, "All rows of old Excel file read");
+		reader.close();
+		// closing before all files are read closes files opened in advance
+		reader = format.createRecordReader(splits.get(0), context);
+		reader.initialize(splits.get(0), context);
+		assertTrue(reader.nextKeyValue(), "First row read");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetAllColumns() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+		// read only the first and the third column
+		conf.set("hadoopoffice.read.columns", "0,2");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 1");
+		ArrayWritable spreadSheetValue = reader.getCurrentValue();
+		assertEquals("test1", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 1 with cell 1 == \"test1\"");
+		assertTrue((spreadSheetValue.get().length <= 1) || (spreadSheetValue.get()[1] == null), "Input Split for Excel file contains row 1 with cell 2 not selected");
+		assertEquals("test3", ((SpreadSheetCellDAO) spreadSheetValue.get()[2]).getFormattedValue(),
+				"Input Split for Excel file contains row 1 with cell 3 == \"test3\"");
+		assertTrue((spreadSheetValue.get().length <= 3) || (spreadSheetValue.get()[3] == null), "Input Split for Excel file contains row 1 with cell 4 not selected");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 2");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 3");
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals("31/12/99", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 3 with cell 1 == \"31/12/99\"");
+		// cells of columns not selected are null or, at the end of the row, left out
+		for (int i = 1; i < spreadSheetValue.get().length; i++) {
+			assertNull(spreadSheetValue.get()[i], "Input Split for Excel file contains row 3 with cell " + (i + 1) + " == null");
+		}
+		int rows = 3;
+		while (reader.nextKeyValue()) {
+			rows++;
+			for (int i = 0; i < reader.getCurrentValue().get().length; i++) {
+				if ((i != 0) && (i != 2)) {
+					assertNull(reader.getCurrentValue().get()[i], "Input Split for Excel file contains row " + rows + " with cell " + (i + 1) + " not selected");
+				}
+			}
+		}
+		assertEquals(9, rows, "Input Split for Excel file contains all rows of both sheets");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetHeaderColumns() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+		conf.set("hadoopoffice.read.header.read", "true");
+		// select columns by header name (ignoring case)
+		conf.set("hadoopoffice.read.columns", "TEST1,test3");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 2");
+		String[] header = ((ExcelRecordReader) reader).getOfficeReader().getCurrentParser().getHeader();
+		assertEquals("test2", header[1], "Header contains all columns");
+		ArrayWritable spreadSheetValue = reader.getCurrentValue();
+		assertEquals("4", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 2 with cell 1 == \"4\"");
+		assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row 3");
+		spreadSheetValue = reader.getCurrentValue();
+		assertEquals("31/12/99", ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+				"Input Split for Excel file contains row 3 with cell 1 == \"31/12/99\"");
+		assertTrue((spreadSheetValue.get().length <= 1) || (spreadSheetValue.get()[1] == null), "Input Split for Excel file contains row 3 with cell 2 not selected");
+		assertTrue((spreadSheetValue.get().length <= 4) || (spreadSheetValue.get()[4] == null), "Input Split for Excel file contains row 3 with cell 5 not selected");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetAllFilter() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+		// only rows with a number greater than 1.5 in the first column and at least 4 in the second column
+		conf.set("hadoopoffice.read.filter", "0 > 1.5 AND 1 >= 4");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "2", "3", "8" };
+		String[] expectedSecondCell = new String[] { "6", "4", "99" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains matching row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Matching row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+			assertEquals(expectedSecondCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(),
+					"Matching row " + (i + 1) + " has cell 2 == \"" + expectedSecondCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further matching row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetHeaderFilterColumns() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+		conf.set("hadoopoffice.read.header.read", "true");
+		// filter on a column that is not selected
+		conf.set("hadoopoffice.read.columns", "test2");
+		conf.set("hadoopoffice.read.filter", "test1 = 'test' OR `TEST1` >= 3");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedSecondCell = new String[] { null, "4", "99", null };
+		for (int i = 0; i < expectedSecondCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains matching row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertNull(spreadSheetValue.get()[0], "Matching row " + (i + 1) + " does not contain the cell of the key column not selected");
+			if (expectedSecondCell[i] == null) {
+				assertTrue((spreadSheetValue.get().length < 2) || (spreadSheetValue.get()[1] == null), "Matching row " + (i + 1) + " has cell 2 == null");
+			} else {
+				assertEquals(expectedSecondCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[1]).getFormattedValue(),
+						"Matching row " + (i + 1) + " has cell 2 == \"" + expectedSecondCell[i] + "\"");
+			}
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further matching row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetRowRange() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+		// only the first two rows of each sheet
+		conf.set("hadoopoffice.read.rowRange", "1,2");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "test1", "4", "8", "test" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2013MultiSheetHeaderLimit() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2013testmultisheet.xlsx";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+		// only the first three rows after the header
+		conf.set("hadoopoffice.read.header.read", "true");
+		conf.set("hadoopoffice.read.limit", "3");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "4", "31/12/99", "1" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
+		reader.close();
+	}
+
+	@Test
+	public void readExcelInputFormatExcel2003MultiSheetRowRangeLimit() throws IOException, InterruptedException {
+		Configuration conf = new Configuration(defaultConf);
+		ClassLoader classLoader = getClass().getClassLoader();
+		String fileName = "excel2003testmultisheet.xls";
+		String fileNameSpreadSheet = classLoader.getResource(fileName).getFile();
+		Path file = new Path(fileNameSpreadSheet);
+
+		// set locale to the one of the test data
+		conf.set("hadoopoffice.read.locale.bcp47", "de");
+		// only the first two rows of each sheet, but not more than three rows
+		conf.set("hadoopoffice.read.rowRange", "1,2");
+		conf.set("hadoopoffice.read.limit", "3");
+		Job job = Job.getInstance(conf);
+		FileInputFormat.setInputPaths(job, file);
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		ExcelFileInputFormat format = new ExcelFileInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertEquals(1, splits.size(), "Only one split generated for Excel file");
+		RecordReader<Text, ArrayWritable> reader = format.createRecordReader(splits.get(0), context);
+		assertNotNull(reader, "Format returned  null RecordReader");
+		reader.initialize(splits.get(0), context);
+		String[] expectedFirstCell = new String[] { "test1", "4", "8" };
+		for (int i = 0; i < expectedFirstCell.length; i++) {
+			assertTrue(reader.nextKeyValue(), "Input Split for Excel file contains row " + (i + 1));
+			ArrayWritable spreadSheetValue = reader.getCurrentValue();
+			assertEquals(expectedFirstCell[i], ((SpreadSheetCellDAO) spreadSheetValue.get()[0]).getFormattedValue(),
+					"Row " + (i + 1) + " has cell 1 == \"" + expectedFirstCell[i] + "\"");
+		}
+		assertFalse(reader.nextKeyValue(), "Input Split for Excel file contains no further row");
+		reader.close();
+	}
+
 }
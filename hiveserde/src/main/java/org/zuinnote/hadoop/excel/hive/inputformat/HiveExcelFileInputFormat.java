@@ -0,0 +1,43 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.excel.hive.inputformat;
+
+import java.io.IOException;
+
+import org.apache.hadoop.io.ArrayWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.InputSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+import org.apache.hadoop.mapred.Reporter;
+import org.zuinnote.hadoop.excel.hive.serde.ExcelSerde;
+import org.zuinnote.hadoop.office.format.mapred.ExcelFileInputFormat;
+
+/**
+ * Reads only the columns and rows of an Excel file needed by a Hive query. Hive sets the columns needed and the filter pushed down in the job configuration
+ * before the record reader is created, which may happen before the SerDe is initialized, so they are passed to HadoopOffice here
+ *
+ */
+public class HiveExcelFileInputFormat extends ExcelFileInputFormat {
+
+	@Override
+	public RecordReader<Text, ArrayWritable> getRecordReader(InputSplit split, JobConf job, Reporter reporter) throws IOException {
+		ExcelSerde.setReadColumns(job);
+		HiveExcelFilterPushDown.setReadFilter(job);
+		return super.getRecordReader(split, job, reporter);
+	}
+
+}
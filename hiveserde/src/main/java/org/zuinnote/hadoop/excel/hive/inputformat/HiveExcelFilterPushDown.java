@@ -0,0 +1,256 @@
+/**
+* Copyright 2019 ZuInnoTe (Jörn Franke) <zuinnote@gmail.com>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+**/
+package org.zuinnote.hadoop.excel.hive.inputformat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.common.type.HiveVarchar;
+import org.apache.hadoop.hive.ql.exec.SerializationUtilities;
+import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeConstantDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
+import org.apache.hadoop.hive.ql.plan.TableScanDesc;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDF;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPAnd;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqual;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqualOrGreaterThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqualOrLessThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPGreaterThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPLessThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPNotEqual;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPOr;
+import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
+import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+
+/**
+ * Translates the filter pushed down by Hive (hive.optimize.index.filter=true) into a HadoopOffice row filter (hadoopoffice.read.filter), so that rows not
+ * needed by a query are rejected while the spreadsheet is parsed. The translation is conservative: only comparisons of a column with a string or number
+ * constant combined with AND/OR are translated, parts of an AND that cannot be translated are left out and an OR is only translated if all of its parts can
+ * be translated. Hive evaluates the complete filter on the rows returned anyway.
+ *
+ */
+public class HiveExcelFilterPushDown {
+	// cf. HadoopOfficeReadConfiguration.CONF_FILTER
+	public static final String CONF_READ_FILTER = "hadoopoffice.read.filter";
+	// filter translated from Hive, which may be replaced if the configuration is reused for another table scan
+	private static final String CONF_READ_FILTER_PUSHED = "office.hive.read.filter.pushed";
+	// cf. HadoopOfficeReadConfiguration.CONF_LOCALE and CONF_SIMPLEDECIMALFORMAT
+	private static final String CONF_LOCALE = "hadoopoffice.read.locale.bcp47";
+	private static final String CONF_SIMPLEDECIMALFORMAT = "hadoopoffice.read.simple.decimalFormat";
+	private static final Log LOG = LogFactory.getLog(HiveExcelFilterPushDown.class.getName());
+
+	private List<String> columnNames;
+	private boolean translateNumbers;
+
+	private HiveExcelFilterPushDown(List<String> columnNames, boolean translateNumbers) {
+		this.columnNames = columnNames;
+		this.translateNumbers = translateNumbers;
+	}
+
+	/**
+	 * Sets the row filter of HadoopOffice (hadoopoffice.read.filter) from the filter pushed down by Hive. The columns of a table are mapped by position to the
+	 * columns of the spreadsheet. Nothing is changed if a filter has been defined explicitly.
+	 * 
+	 * @param conf Hadoop Configuration
+	 */
+	public static void setReadFilter(Configuration conf) {
+		String currentFilter = conf.get(HiveExcelFilterPushDown.CONF_READ_FILTER);
+		String pushedFilter = conf.get(HiveExcelFilterPushDown.CONF_READ_FILTER_PUSHED);
+		if ((currentFilter != null) && (!currentFilter.equals(pushedFilter))) {
+			// defined explicitly
+			return;
+		}
+		String filter = null;
+		String serializedFilterExpr = conf.get(TableScanDesc.FILTER_EXPR_CONF_STR);
+		String columns = conf.get(serdeConstants.LIST_COLUMNS);
+		if ((serializedFilterExpr != null) && (columns != null)) {
+			// numbers are compared in the locale of the cells, which is only safe if Hive converts them with the same locale
+			boolean translateNumbers = conf.get(HiveExcelFilterPushDown.CONF_SIMPLEDECIMALFORMAT, "").equals(conf.get(HiveExcelFilterPushDown.CONF_LOCALE, ""));
+			List<String> columnNames = new ArrayList<>();
+			for (String columnName : columns.split(",")) {
+				columnNames.add(columnName.trim());
+			}
+			try {
+				ExprNodeGenericFuncDesc filterExpr = SerializationUtilities.deserializeExpression(serializedFilterExpr);
+				filter = new HiveExcelFilterPushDown(columnNames, translateNumbers).translate(filterExpr);
+			} catch (RuntimeException e) {
+				LOG.warn("Cannot translate filter of Hive. Reading all rows", e);
+			}
+		}
+		if (filter == null) {
+			if (currentFilter != null) {
+				conf.unset(HiveExcelFilterPushDown.CONF_READ_FILTER);
+				conf.unset(HiveExcelFilterPushDown.CONF_READ_FILTER_PUSHED);
+			}
+			return;
+		}
+		LOG.debug("Reading only rows matching " + filter);
+		conf.set(HiveExcelFilterPushDown.CONF_READ_FILTER, filter);
+		conf.set(HiveExcelFilterPushDown.CONF_READ_FILTER_PUSHED, filter);
+	}
+
+	/**
+	 * 
+	 * @param expr filter expression of Hive
+	 * @return filter in the format of hadoopoffice.read.filter or null if it cannot be translated
+	 */
+	private String translate(ExprNodeDesc expr) {
+		if (!(expr instanceof ExprNodeGenericFuncDesc)) {
+			return null;
+		}
+		GenericUDF function = ((ExprNodeGenericFuncDesc) expr).getGenericUDF();
+		List<ExprNodeDesc> children = expr.getChildren();
+		if (function instanceof GenericUDFOPAnd) {
+			List<String> translatedChildren = new ArrayList<>();
+			for (ExprNodeDesc child : children) {
+				String translatedChild = this.translate(child);
+				if (translatedChild != null) {
+					translatedChildren.add(translatedChild);
+				}
+			}
+			return HiveExcelFilterPushDown.join(translatedChildren, " AND ");
+		}
+		if (function instanceof GenericUDFOPOr) {
+			List<String> translatedChildren = new ArrayList<>();
+			for (ExprNodeDesc child : children) {
+				String translatedChild = this.translate(child);
+				if (translatedChild == null) {
+					return null;
+				}
+				translatedChildren.add(translatedChild);
+			}
+			return HiveExcelFilterPushDown.join(translatedChildren, " OR ");
+		}
+		if ((children == null) || (children.size() != 2)) {
+			return null;
+		}
+		ExprNodeDesc left = children.get(0);
+		ExprNodeDesc right = children.get(1);
+		boolean swapped = false;
+		if ((left instanceof ExprNodeConstantDesc) && (right instanceof ExprNodeColumnDesc)) {
+			left = children.get(1);
+			right = children.get(0);
+			swapped = true;
+		}
+		if ((!(left instanceof ExprNodeColumnDesc)) || (!(right instanceof ExprNodeConstantDesc))) {
+			return null;
+		}
+		String operator = HiveExcelFilterPushDown.getOperator(function, swapped);
+		int column = this.getColumn(((ExprNodeColumnDesc) left).getColumn());
+		String literal = this.getLiteral(left.getTypeInfo(), ((ExprNodeConstantDesc) right).getValue());
+		if ((operator == null) || (column == -1) || (literal == null)) {
+			return null;
+		}
+		return column + " " + operator + " " + literal;
+	}
+
+	private static String getOperator(GenericUDF function, boolean swapped) {
+		if (function instanceof GenericUDFOPEqual) {
+			return "=";
+		} else if (function instanceof GenericUDFOPNotEqual) {
+			return "!=";
+		} else if (function instanceof GenericUDFOPLessThan) {
+			return swapped ? ">" : "<";
+		} else if (function instanceof GenericUDFOPEqualOrLessThan) {
+			return swapped ? ">=" : "<=";
+		} else if (function instanceof GenericUDFOPGreaterThan) {
+			return swapped ? "<" : ">";
+		} else if (function instanceof GenericUDFOPEqualOrGreaterThan) {
+			return swapped ? "<=" : ">=";
+		}
+		return null;
+	}
+
+	private int getColumn(String columnName) {
+		for (int i = 0; i < this.columnNames.size(); i++) {
+			if (this.columnNames.get(i).equalsIgnoreCase(columnName)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private String getLiteral(TypeInfo columnType, Object value) {
+		if (!(columnType instanceof PrimitiveTypeInfo)) {
+			return null;
+		}
+		PrimitiveCategory columnCategory = ((PrimitiveTypeInfo) columnType).getPrimitiveCategory();
+		if ((columnCategory == PrimitiveCategory.STRING) || (columnCategory == PrimitiveCategory.VARCHAR)) {
+			// strings are compared as formatted in the cell
+			if ((value instanceof String) || (value instanceof HiveVarchar)) {
+				return "'" + value.toString().replace("'", "''") + "'";
+			}
+			return null;
+		}
+		if ((!this.translateNumbers) || (!HiveExcelFilterPushDown.isNumeric(columnCategory))) {
+			return null;
+		}
+		if (value instanceof HiveDecimal) {
+			return ((HiveDecimal) value).bigDecimalValue().toPlainString();
+		} else if ((value instanceof Byte) || (value instanceof Short) || (value instanceof Integer) || (value instanceof Long)) {
+			return value.toString();
+		} else if ((value instanceof Float) || (value instanceof Double)) {
+			double doubleValue = ((Number) value).doubleValue();
+			if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+				return null;
+			}
+			return new BigDecimal(value.toString()).toPlainString();
+		}
+		return null;
+	}
+
+	private static boolean isNumeric(PrimitiveCategory category) {
+		switch (category) {
+		case BYTE:
+		case SHORT:
+		case INT:
+		case LONG:
+		case FLOAT:
+		case DOUBLE:
+		case DECIMAL:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private static String join(List<String> translatedChildren, String operator) {
+		if (translatedChildren.isEmpty()) {
+			return null;
+		}
+		if (translatedChildren.size() == 1) {
+			return translatedChildren.get(0);
+		}
+		StringBuilder result = new StringBuilder();
+		for (String translatedChild : translatedChildren) {
+			if (result.length() > 0) {
+				result.append(operator);
+			}
+			result.append("(").append(translatedChild).append(")");
+		}
+		return result.toString();
+	}
+
+}
@@ -38,6 +38,7 @@ import org.apache.hadoop.hive.common.type.HiveDecimal;
 import org.apache.hadoop.hive.common.type.HiveVarchar;
 import org.apache.hadoop.hive.serde.serdeConstants;
 import org.apache.hadoop.hive.serde2.AbstractSerDe;
+import org.apache.hadoop.hive.serde2.ColumnProjectionUtils;
 import org.apache.hadoop.hive.serde2.SerDeException;
 import org.apache.hadoop.hive.serde2.SerDeStats;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
@@ -96,6 +97,10 @@ public class ExcelSerde extends AbstractSerDe {
 	
 	public static final String DEFAULT_DEFAULTSHEETNAME = "Sheet1";
 	public static final String HOSUFFIX = "hadoopoffice.";
+	// cf. HadoopOfficeReadConfiguration.CONF_COLUMNS
+	public static final String CONF_READ_COLUMNS = "hadoopoffice.read.columns";
+	// columns set from Hive's column pruning, which may be replaced if the configuration is reused for another table scan
+	private static final String CONF_READ_COLUMNS_PRUNED = "office.hive.read.columns.pruned";
 	private static final Log LOG = LogFactory.getLog(ExcelSerde.class.getName());
 	private ObjectInspector oi;
 	private String defaultSheetName = ExcelSerde.CONF_DEFAULTSHEETNAME;
@@ -157,6 +162,8 @@ public class ExcelSerde extends AbstractSerDe {
 			}
 		}
 
+		// read only the columns needed by the query
+		ExcelSerde.setReadColumns(conf);
 		// create object inspector (always a struct = row)
 		LOG.debug("Creating object inspector");
 		this.columnNames = Arrays.asList(prop.getProperty(serdeConstants.LIST_COLUMNS).split(","));
@@ -219,6 +226,40 @@ public class ExcelSerde extends AbstractSerDe {
 		LOG.debug("Finished Initialization");
 	}
 
+	/**
+	 * Passes the columns needed by a query (as determined by Hive's column pruning) to HadoopOffice (hadoopoffice.read.columns), so that the cells of all other
+	 * columns are not parsed and formatted. The columns of a table are mapped by position to the columns of the spreadsheet. Nothing is changed if columns
+	 * have been selected explicitly, all columns are needed or Hive has not determined any columns (e.g. count(*))
+	 * 
+	 * @param conf Hadoop Configuration
+	 */
+	public static void setReadColumns(Configuration conf) {
+		String currentReadColumns = conf.get(ExcelSerde.CONF_READ_COLUMNS);
+		String prunedReadColumns = conf.get(ExcelSerde.CONF_READ_COLUMNS_PRUNED);
+		if ((currentReadColumns != null) && (!currentReadColumns.equals(prunedReadColumns))) {
+			// selected explicitly
+			return;
+		}
+		List<Integer> readColumnIDs = ColumnProjectionUtils.getReadColumnIDs(conf);
+		if ((ColumnProjectionUtils.isReadAllColumns(conf)) || (readColumnIDs.isEmpty())) {
+			if (currentReadColumns != null) {
+				conf.unset(ExcelSerde.CONF_READ_COLUMNS);
+				conf.unset(ExcelSerde.CONF_READ_COLUMNS_PRUNED);
+			}
+			return;
+		}
+		StringBuilder readColumns = new StringBuilder();
+		for (Integer readColumnID : readColumnIDs) {
+			if (readColumns.length() > 0) {
+				readColumns.append(",");
+			}
+			readColumns.append(readColumnID);
+		}
+		LOG.debug("Reading only columns " + readColumns);
+		conf.set(ExcelSerde.CONF_READ_COLUMNS, readColumns.toString());
+		conf.set(ExcelSerde.CONF_READ_COLUMNS_PRUNED, readColumns.toString());
+	}
+
 	/**
 	 * The object inspector returned is always of type StructObjectInspector
 	 * 
@@ -19,7 +19,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.apache.hadoop.hive.ql.io.AbstractStorageFormatDescriptor;
-import org.zuinnote.hadoop.office.format.mapred.ExcelFileInputFormat;
+import org.zuinnote.hadoop.excel.hive.inputformat.HiveExcelFileInputFormat;
 import org.zuinnote.hadoop.excel.hive.outputformat.HiveExcelRowFileOutputFormat;
 
 /**
@@ -37,7 +37,7 @@ public class ExcelStorageFormatDescriptor extends AbstractStorageFormatDescripto
 
 	@Override
 	public String getInputFormat() {
-		return ExcelFileInputFormat.class.getName();
+		return HiveExcelFileInputFormat.class.getName();
 	}
 
 	@Override
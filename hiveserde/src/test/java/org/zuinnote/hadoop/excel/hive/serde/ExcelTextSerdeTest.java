@@ -27,12 +27,14 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Locale;
 import java.util.Properties;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.common.type.HiveDecimal;
 import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.ColumnProjectionUtils;
 import org.apache.hadoop.hive.serde2.SerDeException;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.junit.jupiter.api.Test;
@@ -99,6 +101,28 @@ public class ExcelTextSerdeTest {
 				"HaodoopOffice Hadoop configuration option set boolean");
 	}
 
+	@Test
+	public void initializeReadColumns() throws SerDeException {
+		ExcelSerde testSerde = new ExcelSerde();
+		Configuration conf = new Configuration();
+		ColumnProjectionUtils.appendReadColumns(conf, Arrays.asList(0, 2));
+		Properties tblProperties = new Properties();
+		tblProperties.setProperty(serdeConstants.LIST_COLUMNS, "column1,column2,column3");
+		tblProperties.setProperty(serdeConstants.LIST_COLUMN_TYPES, "string,string,string");
+		testSerde.initialize(conf, tblProperties);
+		assertEquals("0,2", conf.get("hadoopoffice.read.columns"), "Columns needed by the query are read");
+		// explicitly selected columns are kept
+		Configuration confSelected = new Configuration();
+		confSelected.set("hadoopoffice.read.columns", "1");
+		ColumnProjectionUtils.appendReadColumns(confSelected, Arrays.asList(0, 2));
+		ExcelSerde.setReadColumns(confSelected);
+		assertEquals("1", confSelected.get("hadoopoffice.read.columns"), "Explicitly selected columns are read");
+		// all columns
+		Configuration confAll = new Configuration();
+		ExcelSerde.setReadColumns(confAll);
+		assertNull(confAll.get("hadoopoffice.read.columns"), "All columns are read");
+	}
+
 	@Test
 	public void deserializeSimpleExcel2013()
 			throws IOException, FormatNotUnderstoodException, SerDeException, ParseException {